@@ -30,6 +30,9 @@ public class ServerCommandLineRunner implements CommandLineRunner {
     private final PermissionRepository permissionRepository;
     private final PasswordEncoder passwordEncoder;
 
+    @Value("${socket-server.listen:true}")
+    private boolean socketServerListen;
+
     @Value("${root.user.email}")
     private String rootUserEmail;
 
@@ -47,7 +50,10 @@ public class ServerCommandLineRunner implements CommandLineRunner {
 
     @Override
     public void run(String... args) throws Exception {
-        server.start();
+        // Node chỉ phục vụ REST thì không mở cổng socket, chỉ đẩy broadcast qua Redis
+        if (socketServerListen) {
+            server.start();
+        }
 
         List<Permission> appPermissions = List.of(
                 Permission.builder().name("create:orders").build(),
@@ -0,0 +1,158 @@
+package com.ht.eventbox.annotations;
+
+import com.ht.eventbox.entities.Permission;
+import com.ht.eventbox.modules.user.PermissionRepository;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled form of the {@link RequiredPermissions} check. Permission names are interned into
+ * small integer ids (seeded from the {@code permissions} table), every annotated endpoint is
+ * resolved to a bitmask of its required ids at startup, and a user's permissions are decoded
+ * into a bitmask where {@code action:*} adds every known permission of that action. A check is
+ * then a word-wise {@code required & ~granted == 0}.
+ * <p>
+ * The rules are the ones {@link PermissionsAspect} always applied: a required permission is
+ * granted by the same name or by the wildcard of its action.
+ */
+@Component
+public class PermissionMatcher {
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(PermissionMatcher.class);
+
+    private static final String WILDCARD_SUFFIX = ":*";
+
+    // Bảng tra cứu bất biến, chỉ được thay bằng bảng mới khi có tên quyền mới
+    private record Table(Map<String, Integer> ids, Map<String, long[]> actionMasks) {
+        int words() {
+            return (ids.size() + 63) >>> 6;
+        }
+    }
+
+    private final PermissionRepository permissionRepository;
+    private final ObjectProvider<RequestMappingHandlerMapping> handlerMappings;
+
+    private final Map<Method, long[]> requirements = new ConcurrentHashMap<>();
+
+    private volatile Table table = new Table(Map.of(), Map.of());
+
+    public PermissionMatcher(
+            PermissionRepository permissionRepository,
+            ObjectProvider<RequestMappingHandlerMapping> handlerMappings) {
+        this.permissionRepository = permissionRepository;
+        this.handlerMappings = handlerMappings;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void compileEndpoints() {
+        intern(permissionRepository.findAllByOrderByIdAsc().stream().map(Permission::getName).toList());
+
+        handlerMappings.orderedStream()
+                .flatMap(mapping -> mapping.getHandlerMethods().values().stream())
+                .forEach(handlerMethod -> {
+                    var annotation = AnnotatedElementUtils.findMergedAnnotation(
+                            handlerMethod.getMethod(), RequiredPermissions.class);
+                    if (annotation != null) {
+                        requirements.computeIfAbsent(handlerMethod.getMethod(), method -> compile(annotation.value()));
+                    }
+                });
+
+        logger.info("Compiled {} permissions for {} endpoints", table.ids().size(), requirements.size());
+    }
+
+    /**
+     * Whether {@code granted} covers every permission required by the annotated {@code method}.
+     */
+    public boolean isGranted(Method method, RequiredPermissions requiredPermissions, Collection<String> granted) {
+        var required = requirements.get(method);
+        if (required == null) {
+            required = requirements.computeIfAbsent(method, key -> compile(requiredPermissions.value()));
+        }
+
+        return covers(decode(granted), required);
+    }
+
+    long[] compile(String[] permissions) {
+        intern(Arrays.asList(permissions));
+
+        var ids = table.ids();
+        var mask = new long[table.words()];
+        for (var permission : permissions) {
+            set(mask, ids.get(permission));
+        }
+        return mask;
+    }
+
+    long[] decode(Collection<String> permissions) {
+        var current = table;
+        var granted = new long[current.words()];
+        for (var permission : permissions) {
+            if (permission == null) {
+                continue;
+            }
+
+            var id = current.ids().get(permission);
+            if (id != null) {
+                set(granted, id);
+            }
+
+            if (permission.endsWith(WILDCARD_SUFFIX)) {
+                var actionMask = current.actionMasks().get(actionOf(permission));
+                if (actionMask != null) {
+                    for (int i = 0; i < actionMask.length; i++) {
+                        granted[i] |= actionMask[i];
+                    }
+                }
+            }
+        }
+        return granted;
+    }
+
+    static boolean covers(long[] granted, long[] required) {
+        for (int i = 0; i < required.length; i++) {
+            long word = i < granted.length ? granted[i] : 0L;
+            if ((required[i] & ~word) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private synchronized void intern(Collection<String> names) {
+        var current = table;
+        if (current.ids().keySet().containsAll(names)) {
+            return;
+        }
+
+        var ids = new HashMap<>(current.ids());
+        names.forEach(name -> ids.putIfAbsent(name, ids.size()));
+
+        var words = (ids.size() + 63) >>> 6;
+        var actionMasks = new HashMap<String, long[]>();
+        ids.forEach((name, id) -> set(
+                actionMasks.computeIfAbsent(actionOf(name), action -> new long[words]),
+                id));
+
+        table = new Table(Map.copyOf(ids), Map.copyOf(actionMasks));
+    }
+
+    private static String actionOf(String permission) {
+        var separator = permission.indexOf(':');
+        return separator < 0 ? permission : permission.substring(0, separator);
+    }
+
+    private static void set(long[] mask, int id) {
+        mask[id >>> 6] |= 1L << id;
+    }
+}
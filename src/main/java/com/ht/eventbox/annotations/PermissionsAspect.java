@@ -2,9 +2,11 @@ package com.ht.eventbox.annotations;
 
 import com.ht.eventbox.config.HttpException;
 import com.ht.eventbox.constant.Constant;
+import lombok.RequiredArgsConstructor;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestAttributes;
@@ -14,7 +16,9 @@ import java.util.List;
 
 @Aspect
 @Component
+@RequiredArgsConstructor
 public class PermissionsAspect {
+    private final PermissionMatcher permissionMatcher;
 
     @Around("@annotation(requiredPermissions)")
     public Object checkRole(ProceedingJoinPoint pjp, RequiredPermissions requiredPermissions) throws Throwable {
@@ -25,31 +29,9 @@ public class PermissionsAspect {
             throw new HttpException(Constant.ErrorCode.NOT_ALLOWED_OPERATION, HttpStatus.FORBIDDEN);
         }
 
-        for (String requiredPermission : requiredPermissions.value()) {
-            boolean pass = false;
-
-            String[] requiredParts = requiredPermission.split(":");
-            String requiredAction = requiredParts[0];
-
-            for (String userPermission : userPermissions) {
-                String[] userParts = userPermission.split(":");
-                String userAction = userParts[0];
-                String userResource = userParts[1];
-
-                if (requiredPermission.equals(userPermission)) {
-                    pass = true;
-                    break;
-                }
-
-                if (userAction.equals(requiredAction) && userResource.equals("*")) {
-                    pass = true;
-                    break;
-                }
-            }
-
-            if (!pass) {
-                throw new HttpException(Constant.ErrorCode.NOT_ALLOWED_OPERATION, HttpStatus.FORBIDDEN);
-            }
+        var method = ((MethodSignature) pjp.getSignature()).getMethod();
+        if (!permissionMatcher.isGranted(method, requiredPermissions, userPermissions)) {
+            throw new HttpException(Constant.ErrorCode.NOT_ALLOWED_OPERATION, HttpStatus.FORBIDDEN);
         }
 
         return pjp.proceed();
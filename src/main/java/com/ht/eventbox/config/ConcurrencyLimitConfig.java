@@ -0,0 +1,63 @@
+package com.ht.eventbox.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ht.eventbox.filter.AdaptiveConcurrencyLimit;
+import com.ht.eventbox.filter.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty(name = "application.concurrency-limit.enabled", havingValue = "true")
+public class ConcurrencyLimitConfig {
+    @Value("${application.concurrency-limit.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${application.concurrency-limit.min-limit:4}")
+    private int minLimit;
+
+    @Value("${application.concurrency-limit.max-limit:100}")
+    private int maxLimit;
+
+    @Value("${application.concurrency-limit.tolerance:1.5}")
+    private double tolerance;
+
+    @Value("${application.concurrency-limit.smoothing:0.2}")
+    private double smoothing;
+
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimitFilter(
+            MeterRegistry meterRegistry,
+            ObjectMapper objectMapper,
+            @Value("${application.concurrency-limit.retry-after-seconds:1}") long retryAfterSeconds) {
+        // Thứ tự quan trọng: lớp đầu tiên khớp sẽ được áp dụng
+        var endpointClasses = List.of(
+                endpointClass("webhook", List.of(), List.of("/api/v1/orders/paypal/webhook/")),
+                endpointClass("payment", List.of("POST"), List.of("/api/v1/orders/reservation/payment")),
+                endpointClass("reservation", List.of("POST"), List.of("/api/v1/orders/reservation")),
+                endpointClass("read", List.of("GET"), List.of()));
+
+        return new ConcurrencyLimitFilter(endpointClasses, meterRegistry, objectMapper, retryAfterSeconds);
+    }
+
+    private ConcurrencyLimitFilter.EndpointClass endpointClass(String name, List<String> methods, List<String> pathPrefixes) {
+        return new ConcurrencyLimitFilter.EndpointClass(name, methods, pathPrefixes,
+                new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, tolerance, smoothing));
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilterRegistrationBean(
+            ConcurrencyLimitFilter concurrencyLimitFilter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registrationBean = new FilterRegistrationBean<>();
+        registrationBean.setFilter(concurrencyLimitFilter);
+        registrationBean.addUrlPatterns("/*");
+        // Chạy sau cùng để chỉ đo thời gian xử lý của handler
+        registrationBean.setOrder(3);
+        return registrationBean;
+    }
+}
@@ -0,0 +1,27 @@
+package com.ht.eventbox.config;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * One keyset page. {@code next} is the token for the following page, or {@code null} on the
+ * last one; {@code totalElements} is only filled when the caller asked for the count.
+ */
+public record CursorPage<T>(List<T> content, int size, String next, Long totalElements) {
+
+    public static <T> CursorPage<T> of(
+            Slice<T> slice,
+            Function<T, Long> idOf,
+            CursorRequest request,
+            LongSupplier countQuery) {
+        var content = slice.getContent();
+        var next = slice.hasNext() && !content.isEmpty()
+                ? CursorRequest.encode(idOf.apply(content.get(content.size() - 1)))
+                : null;
+        var totalElements = request.count() ? countQuery.getAsLong() : null;
+        return new CursorPage<>(content, request.size(), next, totalElements);
+    }
+}
@@ -0,0 +1,54 @@
+package com.ht.eventbox.config;
+
+import com.ht.eventbox.constant.Constant;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset (seek) page request for the V2 listings. The {@code after} token is an opaque
+ * base64url string holding the sort key and the last id of the previous page; an empty token
+ * starts from the beginning. Every listing is ordered by id ascending, so the next page is
+ * {@code id > lastId LIMIT size} and costs the same however deep it is.
+ */
+public record CursorRequest(long afterId, int size, boolean count) {
+    public static final String SORT_KEY = "id";
+
+    public static CursorRequest of(String after, int size, boolean count) {
+        return new CursorRequest(decode(after), size, count);
+    }
+
+    public Pageable pageable() {
+        return PageRequest.of(0, size);
+    }
+
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((SORT_KEY + ":" + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static long decode(String after) {
+        if (after == null || after.isBlank()) {
+            return 0L;
+        }
+
+        try {
+            var value = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8);
+            var separator = value.indexOf(':');
+            if (separator < 0 || !SORT_KEY.equals(value.substring(0, separator))) {
+                throw new HttpException(Constant.ErrorCode.INVALID_CURSOR, HttpStatus.BAD_REQUEST);
+            }
+
+            var lastId = Long.parseLong(value.substring(separator + 1));
+            if (lastId < 0) {
+                throw new HttpException(Constant.ErrorCode.INVALID_CURSOR, HttpStatus.BAD_REQUEST);
+            }
+            return lastId;
+        } catch (IllegalArgumentException e) {
+            throw new HttpException(Constant.ErrorCode.INVALID_CURSOR, HttpStatus.BAD_REQUEST);
+        }
+    }
+}
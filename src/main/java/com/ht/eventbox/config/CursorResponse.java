@@ -0,0 +1,39 @@
+package com.ht.eventbox.config;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class CursorResponse<T> extends Response<List<T>> {
+    private String next;
+    private boolean hasNext;
+    private int size;
+    private int numberOfElements;
+    private Long totalElements;
+
+    public CursorResponse(int code, String message, List<T> data, String next, int size, int numberOfElements, Long totalElements) {
+        super(code, message, data);
+        this.next = next;
+        this.hasNext = next != null;
+        this.size = size;
+        this.numberOfElements = numberOfElements;
+        this.totalElements = totalElements;
+    }
+
+    public static <T> CursorResponse<T> from(CursorPage<T> page, int code, String message) {
+        return new CursorResponse<>(
+                code,
+                message,
+                page.content(),
+                page.next(),
+                page.size(),
+                page.content().size(),
+                page.totalElements()
+        );
+    }
+}
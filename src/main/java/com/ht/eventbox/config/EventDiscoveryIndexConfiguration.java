@@ -0,0 +1,23 @@
+package com.ht.eventbox.config;
+
+import com.ht.eventbox.modules.event.EventDiscoveryIndex;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+@ConditionalOnProperty(name = "application.search.discovery-index.enabled", havingValue = "true")
+public class EventDiscoveryIndexConfiguration {
+
+    @Bean
+    public RedisMessageListenerContainer discoveryIndexListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                         EventDiscoveryIndex eventDiscoveryIndex) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(eventDiscoveryIndex, new ChannelTopic(EventDiscoveryIndex.REFRESH_CHANNEL));
+        return container;
+    }
+}
@@ -1,16 +1,36 @@
 package com.ht.eventbox.config;
 
+import com.ht.eventbox.filter.RateLimitPolicy;
 import com.ht.eventbox.filter.RateLimiterFilter;
+import com.ht.eventbox.filter.TokenBucketRateLimiter;
+import com.ht.eventbox.filter.TokenBucketRateLimiterFilter;
 import com.ht.eventbox.modules.redis.RedisService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.redis.lettuce.cas.LettuceBasedProxyManager;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.cluster.RedisClusterClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
 
 @Configuration
 public class RateLimiterConfig {
+    private static final String TOKEN_BUCKET_ENABLED = "application.rate-limit.token-bucket.enabled";
+    private static final List<String> STRICT_PATHS = List.of("/api/v1/auth/login", "/api/v1/orders/reservation");
+
+    @Value("${" + TOKEN_BUCKET_ENABLED + ":false}")
+    private boolean tokenBucketEnabled;
+
     @Bean
     public Clock systemClock() {
         return Clock.systemUTC();
@@ -27,6 +47,99 @@ public class RateLimiterConfig {
         registrationBean.setFilter(rateLimiterFilter);
         registrationBean.addUrlPatterns("/*");
         registrationBean.setOrder(0);
+        // Cửa sổ cố định chỉ dùng khi chưa bật token bucket
+        registrationBean.setEnabled(!tokenBucketEnabled);
+        return registrationBean;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = TOKEN_BUCKET_ENABLED, havingValue = "true")
+    public ProxyManager<String> rateLimitProxyManager(
+            LettuceConnectionFactory lettuceConnectionFactory,
+            @Value("${application.rate-limit.token-bucket.idle-expiration-seconds:600}") long idleExpirationSeconds) {
+        var expiration = ExpirationAfterWriteStrategy.basedOnTimeForRefillingBucketUpToMax(
+                Duration.ofSeconds(idleExpirationSeconds));
+
+        var nativeClient = lettuceConnectionFactory.getRequiredNativeClient();
+        var proxyManager = nativeClient instanceof RedisClusterClient clusterClient
+                ? LettuceBasedProxyManager.builderFor(clusterClient).withExpirationStrategy(expiration).build()
+                : LettuceBasedProxyManager.builderFor((RedisClient) nativeClient).withExpirationStrategy(expiration).build();
+
+        return proxyManager.withMapper(key -> key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = TOKEN_BUCKET_ENABLED, havingValue = "true")
+    public TokenBucketRateLimiter tokenBucketRateLimiter(
+            ProxyManager<String> rateLimitProxyManager,
+            @Value("${application.rate-limit.token-bucket.sync-tokens:20}") long syncTokens,
+            @Value("${application.rate-limit.token-bucket.sync-millis:1000}") long syncMillis,
+            @Value("${application.rate-limit.token-bucket.max-buckets:100000}") int maxBuckets) {
+        return new TokenBucketRateLimiter(rateLimitProxyManager, syncTokens, Duration.ofMillis(syncMillis), maxBuckets);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = TOKEN_BUCKET_ENABLED, havingValue = "true")
+    public TokenBucketRateLimiterFilter tokenBucketRateLimiterFilter(
+            TokenBucketRateLimiter tokenBucketRateLimiter,
+            ObjectMapper objectMapper,
+            @Value("${application.rate-limit.strict.requests-per-minute:20}") long strictRequestsPerMinute,
+            @Value("${application.rate-limit.public-read.requests-per-minute:3000}") long publicReadRequestsPerMinute,
+            @Value("${application.rate-limit.requests-per-minute:1000}") long requestsPerMinute,
+            @Value("${application.rate-limit.window-seconds:60}") long windowSeconds,
+            @Value("${application.security.public-apis-prefix}") String[] publicApisPrefixes) {
+        // Thứ tự quan trọng: chính sách đầu tiên khớp sẽ được áp dụng
+        var policies = List.of(
+                new RateLimitPolicy("strict", List.of("POST"), STRICT_PATHS,
+                        strictRequestsPerMinute, Duration.ofMinutes(1)),
+                new RateLimitPolicy("public-read", List.of("GET"),
+                        List.of(publicApisPrefixes),
+                        publicReadRequestsPerMinute, Duration.ofMinutes(1)),
+                new RateLimitPolicy("default", List.of(), List.of(),
+                        requestsPerMinute, Duration.ofSeconds(windowSeconds)));
+
+        return new TokenBucketRateLimiterFilter(tokenBucketRateLimiter, policies, objectMapper,
+                TokenBucketRateLimiterFilter.ClientKey.IP);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = TOKEN_BUCKET_ENABLED, havingValue = "true")
+    public FilterRegistrationBean<TokenBucketRateLimiterFilter> tokenBucketRateLimiterFilterRegistrationBean(
+            TokenBucketRateLimiterFilter tokenBucketRateLimiterFilter) {
+        FilterRegistrationBean<TokenBucketRateLimiterFilter> registrationBean = new FilterRegistrationBean<>();
+        registrationBean.setFilter(tokenBucketRateLimiterFilter);
+        registrationBean.addUrlPatterns("/*");
+        // Chạy trước AuthenticationFilter để đếm cả request không có hoặc có token giả
+        registrationBean.setOrder(0);
+        return registrationBean;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = TOKEN_BUCKET_ENABLED, havingValue = "true")
+    public TokenBucketRateLimiterFilter accountRateLimiterFilter(
+            TokenBucketRateLimiter tokenBucketRateLimiter,
+            ObjectMapper objectMapper,
+            @Value("${application.rate-limit.account.strict.requests-per-minute:10}") long strictRequestsPerMinute,
+            @Value("${application.rate-limit.account.requests-per-minute:600}") long requestsPerMinute) {
+        var policies = List.of(
+                new RateLimitPolicy("account-strict", List.of("POST"), STRICT_PATHS,
+                        strictRequestsPerMinute, Duration.ofMinutes(1)),
+                new RateLimitPolicy("account", List.of(), List.of(),
+                        requestsPerMinute, Duration.ofMinutes(1)));
+
+        return new TokenBucketRateLimiterFilter(tokenBucketRateLimiter, policies, objectMapper,
+                TokenBucketRateLimiterFilter.ClientKey.ACCOUNT);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = TOKEN_BUCKET_ENABLED, havingValue = "true")
+    public FilterRegistrationBean<TokenBucketRateLimiterFilter> accountRateLimiterFilterRegistrationBean(
+            TokenBucketRateLimiterFilter accountRateLimiterFilter) {
+        FilterRegistrationBean<TokenBucketRateLimiterFilter> registrationBean = new FilterRegistrationBean<>();
+        registrationBean.setFilter(accountRateLimiterFilter);
+        registrationBean.addUrlPatterns("/*");
+        // Chạy sau AuthenticationFilter, chỉ giới hạn theo tài khoản đã đăng nhập
+        registrationBean.setOrder(2);
         return registrationBean;
     }
 }
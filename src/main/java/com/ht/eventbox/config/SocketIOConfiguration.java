@@ -3,10 +3,16 @@ package com.ht.eventbox.config;
 import com.corundumstudio.socketio.AuthorizationListener;
 import com.corundumstudio.socketio.AuthorizationResult;
 import com.corundumstudio.socketio.SocketIOServer;
+import com.ht.eventbox.modules.socket.RedisStoreFactory;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 
 @Configuration
 @RequiredArgsConstructor
@@ -18,15 +24,32 @@ public class SocketIOConfiguration {
     private Integer port;
 
     @Bean
-    public SocketIOServer socketIOServer() {
+    public SocketIOServer socketIOServer(ObjectProvider<RedisStoreFactory> redisStoreFactory) {
         com.corundumstudio.socketio.Configuration config = new com.corundumstudio.socketio.Configuration();
         config.setHostname(host);
         config.setPort(port);
         config.setOrigin("*");
         config.setAuthorizationListener(authorizationListener());
+        // Mặc định lưu trong bộ nhớ, chỉ đúng khi chạy một node
+        redisStoreFactory.ifAvailable(config::setStoreFactory);
         return new SocketIOServer(config);
     }
 
+    @Bean
+    @ConditionalOnProperty(name = "socket-server.store", havingValue = "redis")
+    public RedisMessageListenerContainer socketIOListenerContainer(RedisConnectionFactory redisConnectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        return container;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "socket-server.store", havingValue = "redis")
+    public RedisStoreFactory socketIOStoreFactory(RedisTemplate<String, String> redisTemplate,
+                                                  RedisMessageListenerContainer socketIOListenerContainer) {
+        return new RedisStoreFactory(redisTemplate, socketIOListenerContainer);
+    }
+
     private AuthorizationListener authorizationListener() {
         return handshakeData -> {
             boolean isAuthorized = handshakeData.getSingleUrlParam("user_id") != null &&
@@ -34,4 +57,4 @@ public class SocketIOConfiguration {
             return isAuthorized ? AuthorizationResult.SUCCESSFUL_AUTHORIZATION : AuthorizationResult.FAILED_AUTHORIZATION;
         };
     }
-}
\ No newline at end of file
+}
@@ -96,7 +96,14 @@ public class Constant {
         public static final String VOUCHER_PER_USER_LIMIT_EXCEEDED = "voucher_per_user_limit_exceeded";
         public static final String INVALID_PAYPAL_WEBHOOK = "invalid_paypal_webhook";
         public static final String INVALID_PAYPAL_ORDER = "invalid_paypal_order";
+        public static final String INVALID_CURSOR = "invalid_cursor";
         public static final String RATE_LIMIT_EXCEEDED = "rate_limit_exceeded";
+        public static final String SERVICE_OVERLOADED = "service_overloaded";
+        public static final String SHOW_NOT_FOUND = "show_not_found";
+        public static final String SEATMAP_NOT_FOUND = "seatmap_not_found";
+        public static final String INVALID_SEAT_SELECTION = "invalid_seat_selection";
+        public static final String SEAT_UNAVAILABLE = "seat_unavailable";
+        public static final String WAITING_ROOM_ADMISSION_REQUIRED = "waiting_room_admission_required";
     }
 
     public static class SuccessCode {
@@ -132,11 +139,34 @@ public class Constant {
         public static final String PAYPAL_ACCESS_TOKEN = "paypal_access_token";
         public static final String REGISTER = "register";
         public static final String RATE_LIMIT = "rate_limit";
+        public static final String SOCKET_IO = "socket_io";
+        public static final String TICKET_INVENTORY = "ticket_inventory";
+        public static final String TICKET_HOLD = "ticket_hold";
+        public static final String SEAT_STATE = "seat_state";
+        public static final String SEAT_HOLD = "seat_hold";
+        public static final String RESERVATION_EXPIRY = "reservation_expiry";
+        public static final String WAITING_ROOM = "waiting_room";
+        public static final String WAITING_ROOM_SEQUENCE = "waiting_room_sequence";
+        public static final String WAITING_ROOM_CURSOR = "waiting_room_cursor";
+        public static final String WAITING_ROOM_ACTIVE = "waiting_room_active";
+        public static final String WAITING_ROOM_TICK = "waiting_room_tick";
+        public static final String WAITING_ROOM_LATENCY = "waiting_room_latency";
+        public static final String WAITING_ROOM_RATE = "waiting_room_rate";
+        public static final String PAYPAL_WEBHOOK_LOCK = "paypal_webhook_lock";
+        public static final String DISCOVERY_FEED = "discovery_feed";
+        public static final String DISCOVERY_FEED_VERSION = "discovery_feed_version";
+        public static final String DISCOVERY_FEED_LOCK = "discovery_feed_lock";
+        public static final String DISCOVERY_INDEX = "discovery_index";
     }
 
     public static class RedisKey {
         public static final int RESERVATION_EXPIRES = 15 * 60;
         public static final int EXTENDED_RESERVATION_EXPIRES = 15 * 60;
+        public static final int TICKET_INVENTORY_EXPIRES = 24 * 60 * 60;
+        public static final int TICKET_HOLD_EXPIRES = 60 * 60;
+        public static final int WAITING_ROOM_EXPIRES = 60 * 60;
+        public static final int PAYPAL_WEBHOOK_LOCK_EXPIRES = 5 * 60;
+        public static final int DISCOVERY_FEED_LOCK_EXPIRES = 30;
     }
 
     public static class StorageFolder {
@@ -1,17 +1,23 @@
 package com.ht.eventbox.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.ht.eventbox.enums.EventStatus;
+import com.ht.eventbox.utils.Helper;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Builder
 @Setter
@@ -35,6 +41,7 @@ public class Event {
     private EventStatus status;
 
     @JsonManagedReference
+    @BatchSize(size = 50)
     @OneToMany(mappedBy = "event", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("startTime ASC")
     private List<EventShow> shows = new ArrayList<>();
@@ -60,6 +67,7 @@ public class Event {
     @JsonProperty("payout_at")
     private java.time.LocalDateTime payoutAt;
 
+    @BatchSize(size = 50)
     @ManyToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
     @JoinTable(
             name = "event_assets",
@@ -68,6 +76,7 @@ public class Event {
     )
     private Set<Asset> assets = new HashSet<>();
 
+    @BatchSize(size = 50)
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
             name = "event_categories",
@@ -76,6 +85,7 @@ public class Event {
     )
     private Set<Category> categories = new HashSet<>();
 
+    @BatchSize(size = 50)
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
             name = "event_keywords",
@@ -99,4 +109,23 @@ public class Event {
     @Column(name = "updated_at")
     @JsonProperty("updated_at")
     private java.time.LocalDateTime updatedAt;
+
+    // Văn bản đã bỏ dấu, chữ thường của tiêu đề, địa chỉ, mô tả và tổ chức, dùng cho tìm kiếm
+    @JsonIgnore
+    @Column(name = "search_document", columnDefinition = "TEXT")
+    private String searchDocument;
+
+    @PrePersist
+    @PreUpdate
+    public void refreshSearchDocument() {
+        searchDocument = Stream.of(
+                        title,
+                        address,
+                        organization == null ? null : organization.getName(),
+                        organization == null ? null : organization.getDescription(),
+                        description)
+                .filter(Objects::nonNull)
+                .map(Helper::toSearchText)
+                .collect(Collectors.joining(" "));
+    }
 }
@@ -1,10 +1,12 @@
 package com.ht.eventbox.entities;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Check;
 import org.hibernate.annotations.Checks;
 import org.hibernate.annotations.CreationTimestamp;
@@ -47,13 +49,23 @@ public class EventShow {
     @Column(name = "enabled_seatmap", nullable = false, columnDefinition = "boolean default false")
     private boolean enabledSeatmap = false;
 
+    // Chỉ còn dữ liệu cũ chưa chuyển sang seatmap_blobs, xem SeatmapService
+    @JsonIgnore
     @Column(name = "seatmap", columnDefinition = "TEXT")
     private String seatmap;
 
-    @JsonProperty("seatmap_svg")
+    @JsonIgnore
     @Column(name = "seatmap_svg", columnDefinition = "TEXT")
     private String seatmapSvg;
 
+    @JsonProperty("seatmap_hash")
+    @Column(name = "seatmap_hash", length = 64)
+    private String seatmapHash;
+
+    @JsonProperty("seatmap_svg_hash")
+    @Column(name = "seatmap_svg_hash", length = 64)
+    private String seatmapSvgHash;
+
     @Column(name = "start_time", nullable = false)
     @JsonProperty("start_time")
     private java.time.LocalDateTime startTime;
@@ -71,6 +83,7 @@ public class EventShow {
     private java.time.LocalDateTime saleEndTime;
 
     @JsonManagedReference
+    @BatchSize(size = 50)
     @OneToMany(mappedBy = "eventShow", targetEntity = Ticket.class, cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("id ASC")
     private List<Ticket> tickets = new ArrayList<>();
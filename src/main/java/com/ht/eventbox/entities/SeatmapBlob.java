@@ -0,0 +1,31 @@
+package com.ht.eventbox.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+@Builder
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "seatmap_blobs")
+public class SeatmapBlob {
+    @Id
+    @Column(name = "hash", length = 64)
+    private String hash;
+
+    @Column(name = "content_type", nullable = false)
+    private String contentType;
+
+    @Column(name = "content", nullable = false, columnDefinition = "bytea")
+    private byte[] content;
+
+    @Column(name = "gzip_content", nullable = false, columnDefinition = "bytea")
+    private byte[] gzipContent;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private java.time.LocalDateTime createdAt;
+}
@@ -58,6 +58,10 @@ public class Ticket {
     @Column(name = "available", nullable = false)
     private boolean available;
 
+    @JsonProperty("stock_shards")
+    @Column(name = "stock_shards", nullable = false, columnDefinition = "integer default 0")
+    private int stockShards = 0;
+
     @CreationTimestamp
     @Column(name = "created_at")
     @JsonProperty("created_at")
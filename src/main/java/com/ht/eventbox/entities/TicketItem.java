@@ -53,6 +53,11 @@ public class TicketItem {
     @JsonProperty("place_total")
     private Double placeTotal;
 
+    // Vị trí ghế trong khối seatmapBlockId của loại vé, chỉ có với suất diễn dùng sơ đồ chỗ ngồi
+    @Column(name = "seat_index")
+    @JsonProperty("seat_index")
+    private Integer seatIndex;
+
     @JsonManagedReference
     @OneToMany(mappedBy = "ticketItem", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("id ASC")
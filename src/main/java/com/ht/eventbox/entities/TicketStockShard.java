@@ -0,0 +1,42 @@
+package com.ht.eventbox.entities;
+
+import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Check;
+import org.hibernate.annotations.UpdateTimestamp;
+
+@Builder
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "ticket_stock_shards", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_ticket_stock_shard", columnNames = {"ticket_id", "shard_index"})
+})
+@Check(constraints = "stock >= 0")
+public class TicketStockShard {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ticket_id", nullable = false)
+    @JsonBackReference
+    private Ticket ticket;
+
+    @JsonProperty("shard_index")
+    @Column(name = "shard_index", nullable = false)
+    private int shardIndex;
+
+    @Column(name = "stock", nullable = false)
+    private int stock;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    @JsonProperty("updated_at")
+    private java.time.LocalDateTime updatedAt;
+}
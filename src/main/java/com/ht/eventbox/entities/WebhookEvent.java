@@ -0,0 +1,81 @@
+package com.ht.eventbox.entities;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ht.eventbox.enums.WebhookEventStatus;
+import com.ht.eventbox.enums.WebhookEventType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+@Builder
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "webhook_events", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_webhook_event_transmission_id", columnNames = {"transmission_id"})
+})
+public class WebhookEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column
+    private Long id;
+
+    @JsonProperty("transmission_id")
+    @Column(name = "transmission_id", nullable = false)
+    private String transmissionId;
+
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private WebhookEventType type;
+
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private WebhookEventStatus status;
+
+    @JsonProperty("transmission_time")
+    @Column(name = "transmission_time")
+    private String transmissionTime;
+
+    @JsonProperty("transmission_sig")
+    @Column(name = "transmission_sig", columnDefinition = "TEXT")
+    private String transmissionSig;
+
+    @JsonProperty("cert_url")
+    @Column(name = "cert_url", columnDefinition = "TEXT")
+    private String certUrl;
+
+    @JsonProperty("auth_algo")
+    @Column(name = "auth_algo")
+    private String authAlgo;
+
+    @JsonProperty("paypal_order_id")
+    @Column(name = "paypal_order_id")
+    private String paypalOrderId;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @JsonProperty("last_error")
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @JsonProperty("processed_at")
+    @Column(name = "processed_at")
+    private java.time.LocalDateTime processedAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    @JsonProperty("created_at")
+    private java.time.LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    @JsonProperty("updated_at")
+    private java.time.LocalDateTime updatedAt;
+}
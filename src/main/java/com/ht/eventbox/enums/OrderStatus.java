@@ -4,5 +4,6 @@ public enum OrderStatus {
     WAITING_FOR_PAYMENT,
     PENDING,
     APPROVED,
-    FULFILLED
+    FULFILLED,
+    REFUNDED
 }
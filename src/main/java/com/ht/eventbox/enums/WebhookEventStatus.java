@@ -0,0 +1,7 @@
+package com.ht.eventbox.enums;
+
+public enum WebhookEventStatus {
+    RECEIVED,
+    PROCESSED,
+    FAILED
+}
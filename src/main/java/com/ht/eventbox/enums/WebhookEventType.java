@@ -0,0 +1,6 @@
+package com.ht.eventbox.enums;
+
+public enum WebhookEventType {
+    PAYPAL_CHECKOUT,
+    PAYPAL_PAYMENT
+}
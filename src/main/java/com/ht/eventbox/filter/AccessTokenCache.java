@@ -0,0 +1,103 @@
+package com.ht.eventbox.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Verified access tokens, keyed by the SHA-256 of the token, so that requests repeating a token
+ * skip the RS256 signature check. An entry lives until the token expires or for {@code ttlMillis},
+ * whichever comes first. Once {@code maxSize} entries are cached the expired ones are purged (at
+ * most once per second) and new tokens are simply not cached until there is room again.
+ */
+public class AccessTokenCache {
+    static final long PURGE_INTERVAL_MILLIS = 1000;
+
+    private record Entry(AuthenticatedPrincipal principal, long expiresAt) {
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    private volatile long lastPurgeAt;
+
+    public AccessTokenCache(int maxSize, long ttlMillis) {
+        this(maxSize, ttlMillis, System::currentTimeMillis);
+    }
+
+    AccessTokenCache(int maxSize, long ttlMillis, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the cached principal of the token, or verifies it with {@code verifier} and caches
+     * the result. Exceptions of the verifier are not cached.
+     */
+    public AuthenticatedPrincipal get(String token, Function<String, AuthenticatedPrincipal> verifier) {
+        var key = hashOf(token);
+        var now = clock.getAsLong();
+
+        var entry = entries.get(key);
+        if (entry != null) {
+            if (entry.expiresAt() > now) {
+                return entry.principal();
+            }
+            entries.remove(key, entry);
+        }
+
+        var principal = verifier.apply(token);
+        put(key, principal, now);
+        return principal;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void put(String key, AuthenticatedPrincipal principal, long now) {
+        if (principal.sub() == null || principal.expiresAt() == null) {
+            return;
+        }
+
+        var expiresAt = Math.min(principal.expiresAt().toEpochMilli(), now + ttlMillis);
+        if (expiresAt <= now) {
+            return;
+        }
+
+        if (entries.size() >= maxSize) {
+            purgeExpired(now);
+            if (entries.size() >= maxSize) {
+                return;
+            }
+        }
+
+        entries.put(key, new Entry(principal, expiresAt));
+    }
+
+    private void purgeExpired(long now) {
+        if (now - lastPurgeAt < PURGE_INTERVAL_MILLIS) {
+            return;
+        }
+
+        lastPurgeAt = now;
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+    }
+
+    static String hashOf(String token) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
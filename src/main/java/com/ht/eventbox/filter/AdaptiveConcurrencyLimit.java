@@ -0,0 +1,93 @@
+package com.ht.eventbox.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A concurrency limit that follows latency, in the style of the gradient algorithm: a long-term
+ * average of the response time stands in for the latency without queueing, and every sample
+ * scales the limit by {@code tolerance * longRtt / rtt} (between 0.5 and 1) plus a headroom of
+ * {@code sqrt(limit)}. While responses stay as fast as usual the limit grows; as soon as requests
+ * start to wait on each other (row locks, a saturated pool) it shrinks towards {@code minLimit}.
+ * Samples taken while less than half the limit is in use carry no information about queueing and
+ * do not change it.
+ */
+public class AdaptiveConcurrencyLimit {
+    static final double MIN_GRADIENT = 0.5;
+    static final double LONG_WINDOW = 600;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+
+    private volatile double limit;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+    }
+
+    /**
+     * Takes a slot and returns the number of requests in flight including this one, or 0 when
+     * the limit is reached.
+     */
+    public int tryAcquire() {
+        while (true) {
+            var current = inflight.get();
+            if (current >= getLimit()) {
+                return 0;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Gives the slot back and feeds the response time of the request into the limit.
+     * {@code inflightAtStart} is the value returned by {@link #tryAcquire()}.
+     */
+    public void release(long rttNanos, int inflightAtStart) {
+        inflight.decrementAndGet();
+        if (rttNanos > 0) {
+            update(rttNanos, inflightAtStart);
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    private synchronized void update(double rtt, int inflightAtStart) {
+        if (longRtt == 0) {
+            longRtt = rtt;
+        } else {
+            longRtt += (rtt - longRtt) / LONG_WINDOW;
+        }
+
+        // Trung bình dài hạn giảm rất chậm sau một đợt quá tải, kéo nó về nhanh hơn
+        if (longRtt / rtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        var current = limit;
+        if (inflightAtStart < current / 2) {
+            return;
+        }
+
+        var gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * longRtt / rtt));
+        var target = current * gradient + Math.sqrt(current);
+        var next = current * (1 - smoothing) + target * smoothing;
+
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
@@ -0,0 +1,12 @@
+package com.ht.eventbox.filter;
+
+import java.time.Instant;
+import java.util.List;
+
+public record AuthenticatedPrincipal(String sub, List<String> roles, List<String> permissions, Instant expiresAt) {
+    public static final String ATTRIBUTE = "principal";
+
+    public boolean isExpired(Instant now) {
+        return expiresAt == null || expiresAt.isBefore(now);
+    }
+}
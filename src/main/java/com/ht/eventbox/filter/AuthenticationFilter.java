@@ -3,6 +3,7 @@ package com.ht.eventbox.filter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ht.eventbox.constant.Constant;
 import com.ht.eventbox.utils.Request;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,7 +16,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.security.PublicKey;
-import java.util.List;
+import java.time.Instant;
 import java.util.Map;
 
 @Component
@@ -24,9 +25,27 @@ public class AuthenticationFilter extends OncePerRequestFilter {
     @Value("${application.security.public-apis-prefix}")
     private String[] publicApisPrefixConfig;
 
+    @Value("${application.security.jwt.claims-cache.enabled:false}")
+    private boolean claimsCacheEnabled;
+
+    @Value("${application.security.jwt.claims-cache.max-size:10000}")
+    private int claimsCacheMaxSize;
+
+    @Value("${application.security.jwt.claims-cache.ttl-millis:300000}")
+    private long claimsCacheTtlMillis;
+
     private final JwtService jwtService;
     private final PublicKey atPublicKey;
 
+    private AccessTokenCache accessTokenCache;
+
+    @PostConstruct
+    void initClaimsCache() {
+        if (claimsCacheEnabled) {
+            accessTokenCache = new AccessTokenCache(claimsCacheMaxSize, claimsCacheTtlMillis);
+        }
+    }
+
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
                                     @NonNull HttpServletResponse response,
@@ -51,18 +70,16 @@ public class AuthenticationFilter extends OncePerRequestFilter {
             return;
         }
         try {
-            String sub = jwtService.extractSub(jwt, atPublicKey);
+            AuthenticatedPrincipal principal = authenticate(jwt);
 
-            if (sub != null) {
-                List<String> roles = jwtService.extractRoles(jwt, atPublicKey);
-                List<String> permissions = jwtService.extractPermissions(jwt, atPublicKey);
-                boolean isValid = jwtService.isTokenValid(jwt, atPublicKey);
-                if (!isValid) {
+            if (principal.sub() != null) {
+                if (principal.isExpired(Instant.now())) {
                     sendUnauthorizedResponse(response);
                 } else {
-                    request.setAttribute("roles", roles);
-                    request.setAttribute("permissions", permissions);
-                    request.setAttribute("sub", sub);
+                    request.setAttribute(AuthenticatedPrincipal.ATTRIBUTE, principal);
+                    request.setAttribute("roles", principal.roles());
+                    request.setAttribute("permissions", principal.permissions());
+                    request.setAttribute("sub", principal.sub());
                     filterChain.doFilter(request, response);
                 }
                 return;
@@ -73,6 +90,17 @@ public class AuthenticationFilter extends OncePerRequestFilter {
         }
     }
 
+    /*
+     * Chỉ xác thực chữ ký một lần cho mỗi request, và bỏ qua hẳn nếu token đã được xác thực trước đó
+     */
+    private AuthenticatedPrincipal authenticate(String jwt) {
+        if (accessTokenCache == null) {
+            return jwtService.parseAccessToken(jwt, atPublicKey);
+        }
+
+        return accessTokenCache.get(jwt, token -> jwtService.parseAccessToken(token, atPublicKey));
+    }
+
     private void sendUnauthorizedResponse(HttpServletResponse response) throws IOException {
         response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
         response.setContentType("application/json; charset=UTF-8");
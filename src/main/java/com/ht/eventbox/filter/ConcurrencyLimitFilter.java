@@ -0,0 +1,124 @@
+package com.ht.eventbox.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ht.eventbox.config.ExceptionResponse;
+import com.ht.eventbox.constant.Constant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Load shedding in front of the handlers. Every request is put in the first matching
+ * {@link EndpointClass}, each with its own {@link AdaptiveConcurrencyLimit}, so a slow checkout
+ * only uses up its own slots and cannot take the threads of the read APIs with it. Requests over
+ * the limit of their class fail fast with 503 and {@code Retry-After}; requests matching no class
+ * are not limited.
+ * <p>
+ * The current limit, the requests in flight and the rejections of each class are exported under
+ * {@code eventbox.concurrency}.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    public record EndpointClass(String name, List<String> methods, List<String> pathPrefixes, AdaptiveConcurrencyLimit limit) {
+        boolean matches(HttpServletRequest request) {
+            if (!methods.isEmpty() && !methods.contains(request.getMethod())) {
+                return false;
+            }
+
+            if (pathPrefixes.isEmpty()) {
+                return true;
+            }
+
+            var requestURI = request.getRequestURI();
+            return pathPrefixes.stream().anyMatch(requestURI::startsWith);
+        }
+    }
+
+    private record Limited(EndpointClass endpointClass, Counter rejected) {
+    }
+
+    private final List<Limited> classes;
+    private final ObjectMapper objectMapper;
+    private final long retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(List<EndpointClass> endpointClasses,
+                                  MeterRegistry meterRegistry,
+                                  ObjectMapper objectMapper,
+                                  long retryAfterSeconds) {
+        this.classes = endpointClasses.stream()
+                .map(endpointClass -> register(meterRegistry, endpointClass))
+                .toList();
+        this.objectMapper = objectMapper;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    private static Limited register(MeterRegistry meterRegistry, EndpointClass endpointClass) {
+        var limit = endpointClass.limit();
+        Gauge.builder("eventbox.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current concurrency limit of the endpoint class")
+                .tag("class", endpointClass.name())
+                .register(meterRegistry);
+        Gauge.builder("eventbox.concurrency.inflight", limit, AdaptiveConcurrencyLimit::getInflight)
+                .description("Requests of the endpoint class being handled")
+                .tag("class", endpointClass.name())
+                .register(meterRegistry);
+        var rejected = Counter.builder("eventbox.concurrency.rejected")
+                .description("Requests shed because the endpoint class was over its limit")
+                .tag("class", endpointClass.name())
+                .register(meterRegistry);
+        return new Limited(endpointClass, rejected);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain)
+            throws IOException, ServletException {
+        var limited = classes.stream()
+                .filter(candidate -> candidate.endpointClass().matches(request))
+                .findFirst()
+                .orElse(null);
+        if (limited == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        var limit = limited.endpointClass().limit();
+        var inflight = limit.tryAcquire();
+        if (inflight == 0) {
+            limited.rejected().increment();
+            writeServiceUnavailable(response);
+            return;
+        }
+
+        var startedAt = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limit.release(System.nanoTime() - startedAt, inflight);
+        }
+    }
+
+    private void writeServiceUnavailable(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType("application/json; charset=UTF-8");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(objectMapper.writeValueAsString(
+                ExceptionResponse.builder()
+                        .code(HttpStatus.SERVICE_UNAVAILABLE.value())
+                        .message(Constant.ErrorCode.SERVICE_OVERLOADED)
+                        .build()
+        ));
+    }
+}
@@ -4,6 +4,7 @@ import com.ht.eventbox.entities.Permission;
 import com.ht.eventbox.entities.Role;
 import com.ht.eventbox.entities.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -19,6 +20,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 @Service
@@ -34,9 +36,16 @@ public class JwtService {
     private String qrcodeSecretKey;
     @Value("${application.security.jwt.qrcode.expiration}")
     private long qrcodeExpiration;
+    @Value("${application.security.jwt.admission-secret-key}")
+    private String admissionSecretKey;
+    @Value("${application.security.jwt.admission.expiration:600000}")
+    private long admissionExpiration;
 
     private final PrivateKey atPrivateKey;
 
+    // Parser đã dựng sẵn theo từng khoá, tránh dựng lại cho mỗi request
+    private final Map<Key, JwtParser> parsers = new ConcurrentHashMap<>();
+
     private Claims extractAllClaims(String token, String secretKey) {
         return Jwts.parserBuilder()
                 .setSigningKey(getSigningKey(secretKey))
@@ -46,13 +55,35 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token, Key signingKey) {
-        return Jwts.parserBuilder()
-                .setSigningKey(signingKey)
-                .build()
+        return parsers.computeIfAbsent(signingKey, key -> Jwts.parserBuilder()
+                        .setSigningKey(key)
+                        .build())
                 .parseClaimsJws(token)
                 .getBody();
     }
 
+    /*
+     * Xác thực chữ ký và hạn của access token một lần rồi đọc tất cả các claim cần dùng
+     */
+    public AuthenticatedPrincipal parseAccessToken(String jwt, Key signingKey) {
+        var claims = extractAllClaims(jwt, signingKey);
+        return new AuthenticatedPrincipal(
+                claims.getSubject(),
+                stringList(claims.get("roles")),
+                stringList(claims.get("permissions")),
+                claims.getExpiration() == null ? null : claims.getExpiration().toInstant());
+    }
+
+    private static List<String> stringList(Object value) {
+        if (value instanceof List<?>) {
+            return ((List<?>) value).stream()
+                    .filter(item -> item instanceof String)
+                    .map(Object::toString)
+                    .toList();
+        }
+        return List.of();
+    }
+
     public <T> T extractClaim(String token, String secretKey, Function<Claims, T> claimsResolver) {
         final Claims claims = extractAllClaims(token, secretKey);
         return claimsResolver.apply(claims);
@@ -76,56 +107,24 @@ public class JwtService {
         return extractClaim(jwt, signingKey, Claims::getSubject);
     }
 
+    public String extractType(String jwt, String secretKey) {
+        return extractClaim(jwt, secretKey, claims -> claims.get("type", String.class));
+    }
+
     public List<String> extractRoles(String jwt, String secretKey) {
-        return extractClaim(jwt, secretKey, claims -> {
-            Object roles = claims.get("roles");
-            if (roles instanceof List<?>) {
-                return ((List<?>) roles).stream()
-                        .filter(role -> role instanceof String)
-                        .map(Object::toString)
-                        .toList();
-            }
-            return List.of();
-        });
+        return extractClaim(jwt, secretKey, claims -> stringList(claims.get("roles")));
     }
 
     public List<String> extractRoles(String jwt, Key signingKey) {
-        return extractClaim(jwt, signingKey, claims -> {
-            Object roles = claims.get("roles");
-            if (roles instanceof List<?>) {
-                return ((List<?>) roles).stream()
-                        .filter(role -> role instanceof String)
-                        .map(Object::toString)
-                        .toList();
-            }
-            return List.of();
-        });
+        return extractClaim(jwt, signingKey, claims -> stringList(claims.get("roles")));
     }
 
     public List<String> extractPermissions(String jwt, String secretKey) {
-        return extractClaim(jwt, secretKey, claims -> {
-            Object roles = claims.get("permissions");
-            if (roles instanceof List<?>) {
-                return ((List<?>) roles).stream()
-                        .filter(role -> role instanceof String)
-                        .map(Object::toString)
-                        .toList();
-            }
-            return List.of();
-        });
+        return extractClaim(jwt, secretKey, claims -> stringList(claims.get("permissions")));
     }
 
     public List<String> extractPermissions(String jwt, Key signingKey) {
-        return extractClaim(jwt, signingKey, claims -> {
-            Object roles = claims.get("permissions");
-            if (roles instanceof List<?>) {
-                return ((List<?>) roles).stream()
-                        .filter(role -> role instanceof String)
-                        .map(Object::toString)
-                        .toList();
-            }
-            return List.of();
-        });
+        return extractClaim(jwt, signingKey, claims -> stringList(claims.get("permissions")));
     }
 
     public String generateAccessToken(User user) {
@@ -153,6 +152,23 @@ public class JwtService {
         return buildToken(claims, String.valueOf(ticketItemId), qrcodeExpiration, getSigningKey(qrcodeSecretKey), SignatureAlgorithm.HS256);
     }
 
+    public String generateAdmissionToken(long userId, long showId) {
+        HashMap<String, Object> claims = new HashMap<>();
+        claims.put("type", "admission");
+        claims.put("show_id", showId);
+        return buildToken(claims, String.valueOf(userId), admissionExpiration, getSigningKey(admissionSecretKey), SignatureAlgorithm.HS256);
+    }
+
+    /*
+     * Throws a JwtException when the token is malformed, expired or not signed with the admission key.
+     */
+    public boolean isAdmissionTokenValid(String token, long userId, long showId) {
+        var claims = extractAllClaims(token, admissionSecretKey);
+        return "admission".equals(claims.get("type"))
+                && String.valueOf(userId).equals(claims.getSubject())
+                && Long.valueOf(showId).equals(claims.get("show_id", Long.class));
+    }
+
     private Date extractExpiration(String token, String secretKey) {
         return extractClaim(token, secretKey, Claims::getExpiration);
     }
@@ -0,0 +1,44 @@
+package com.ht.eventbox.filter;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * A token bucket of {@code capacity} requests refilled over {@code period}, applied to the
+ * requests whose method is one of {@code methods} and whose path starts with one of
+ * {@code pathPrefixes}. An empty list matches everything.
+ */
+public record RateLimitPolicy(
+        String name,
+        List<String> methods,
+        List<String> pathPrefixes,
+        long capacity,
+        Duration period) {
+
+    public boolean matches(HttpServletRequest request) {
+        if (!methods.isEmpty() && !methods.contains(request.getMethod())) {
+            return false;
+        }
+
+        if (pathPrefixes.isEmpty()) {
+            return true;
+        }
+
+        var requestURI = request.getRequestURI();
+        return pathPrefixes.stream().anyMatch(requestURI::startsWith);
+    }
+
+    public BucketConfiguration toConfiguration() {
+        return BucketConfiguration.builder()
+                .addLimit(Bandwidth.builder().capacity(capacity).refillGreedy(capacity, period).build())
+                .build();
+    }
+
+    public String header() {
+        return String.format("%d;w=%d", capacity, period.toSeconds());
+    }
+}
@@ -3,6 +3,7 @@ package com.ht.eventbox.filter;
 import com.ht.eventbox.constant.Constant;
 import com.ht.eventbox.config.ExceptionResponse;
 import com.ht.eventbox.modules.redis.RedisService;
+import com.ht.eventbox.utils.Request;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -16,7 +17,6 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 import java.time.Clock;
 import java.time.Instant;
-import java.util.Optional;
 
 @RequiredArgsConstructor
 public class RateLimiterFilter extends OncePerRequestFilter {
@@ -35,7 +35,7 @@ public class RateLimiterFilter extends OncePerRequestFilter {
                                     HttpServletResponse response,
                                     FilterChain filterChain)
             throws IOException, ServletException {
-        String clientIp = resolveClientIp(request);
+        String clientIp = Request.getClientIp(request);
         String windowKey = buildWindowKey(clientIp);
         Long currentCount = redisService.incrementValue(windowKey);
         long resetSeconds = calculateResetSeconds();
@@ -81,15 +81,6 @@ public class RateLimiterFilter extends OncePerRequestFilter {
         response.setHeader("RateLimit-Policy", String.format("%d;w=%d", requestsPerMinute, windowSeconds));
     }
 
-    private String resolveClientIp(HttpServletRequest request) {
-        return Optional.ofNullable(request.getHeader("X-Forwarded-For"))
-                .map(value -> value.split(",")[0].trim())
-                .filter(value -> !value.isBlank())
-                .orElseGet(() -> Optional.ofNullable(request.getHeader("X-Real-IP"))
-                        .filter(value -> !value.isBlank())
-                        .orElseGet(request::getRemoteAddr));
-    }
-
     private void writeTooManyRequests(HttpServletResponse response, long resetSeconds) throws IOException {
         response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
         response.setHeader("Retry-After", String.valueOf(resetSeconds));
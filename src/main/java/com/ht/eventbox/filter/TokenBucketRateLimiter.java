@@ -0,0 +1,124 @@
+package com.ht.eventbox.filter;
+
+import com.ht.eventbox.constant.Constant;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets shared by every node through Redis, fronted by an in-process copy of each bucket.
+ * A local bucket answers on its own until it has consumed {@code syncTokens} tokens (capped at a
+ * tenth of the policy's capacity) or {@code syncPeriod} has passed, and only then reconciles with
+ * Redis, so a client that is well under its limit costs one round trip per batch instead of one
+ * per request. Policies too small to batch go to Redis on every request.
+ * <p>
+ * At most {@code maxBuckets} local buckets are kept. When full, the ones idle for longer than the
+ * sync period are flushed to Redis and dropped (at most once per second); clients beyond that are
+ * limited directly against Redis until there is room again.
+ */
+public class TokenBucketRateLimiter {
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(TokenBucketRateLimiter.class);
+
+    static final long PURGE_INTERVAL_MILLIS = 1000;
+
+    private static final class Entry {
+        private final BucketProxy bucket;
+        private volatile long lastUsedAt;
+
+        private Entry(BucketProxy bucket, long lastUsedAt) {
+            this.bucket = bucket;
+            this.lastUsedAt = lastUsedAt;
+        }
+    }
+
+    private final Map<String, Entry> buckets = new ConcurrentHashMap<>();
+    private final ProxyManager<String> proxyManager;
+    private final long syncTokens;
+    private final Duration syncPeriod;
+    private final int maxBuckets;
+    private final LongSupplier clock;
+
+    private volatile long lastPurgeAt;
+
+    public TokenBucketRateLimiter(ProxyManager<String> proxyManager, long syncTokens, Duration syncPeriod, int maxBuckets) {
+        this(proxyManager, syncTokens, syncPeriod, maxBuckets, System::currentTimeMillis);
+    }
+
+    TokenBucketRateLimiter(ProxyManager<String> proxyManager, long syncTokens, Duration syncPeriod, int maxBuckets, LongSupplier clock) {
+        this.proxyManager = proxyManager;
+        this.syncTokens = syncTokens;
+        this.syncPeriod = syncPeriod;
+        this.maxBuckets = maxBuckets;
+        this.clock = clock;
+    }
+
+    public ConsumptionProbe tryConsume(RateLimitPolicy policy, String client) {
+        var key = String.format("%s:bucket:%s:%s", Constant.RedisPrefix.RATE_LIMIT, policy.name(), client);
+        return bucketOf(key, policy).tryConsumeAndReturnRemaining(1);
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    private BucketProxy bucketOf(String key, RateLimitPolicy policy) {
+        var now = clock.getAsLong();
+
+        var entry = buckets.get(key);
+        if (entry != null) {
+            entry.lastUsedAt = now;
+            return entry.bucket;
+        }
+
+        if (buckets.size() >= maxBuckets) {
+            purgeIdle(now);
+            if (buckets.size() >= maxBuckets) {
+                return build(key, policy, false);
+            }
+        }
+
+        return buckets.computeIfAbsent(key, ignored -> new Entry(build(key, policy, true), now)).bucket;
+    }
+
+    private BucketProxy build(String key, RateLimitPolicy policy, boolean local) {
+        var builder = proxyManager.builder();
+
+        // Chỉ gom khi hạn mức đủ lớn, tránh để hạn mức chặt bị vượt quá nhiều giữa hai lần đồng bộ
+        var maxUnsynchronizedTokens = Math.min(syncTokens, policy.capacity() / 10);
+        if (local && maxUnsynchronizedTokens > 1) {
+            builder = builder.withOptimization(
+                    Optimizations.delaying(new DelayParameters(maxUnsynchronizedTokens, syncPeriod)));
+        }
+
+        return builder.build(key, policy::toConfiguration);
+    }
+
+    private void purgeIdle(long now) {
+        if (now - lastPurgeAt < PURGE_INTERVAL_MILLIS) {
+            return;
+        }
+
+        lastPurgeAt = now;
+        var idleBefore = now - syncPeriod.toMillis();
+        buckets.entrySet().removeIf(entry -> {
+            if (entry.getValue().lastUsedAt > idleBefore) {
+                return false;
+            }
+
+            try {
+                entry.getValue().bucket.getOptimizationController().syncImmediately();
+            } catch (RuntimeException e) {
+                logger.warn("Failed to sync rate limit bucket {}: {}", entry.getKey(), e.getMessage());
+            }
+            return true;
+        });
+    }
+}
@@ -0,0 +1,100 @@
+package com.ht.eventbox.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ht.eventbox.config.ExceptionResponse;
+import com.ht.eventbox.constant.Constant;
+import com.ht.eventbox.utils.Request;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits every request by the first matching {@link RateLimitPolicy}. Requests matching no
+ * policy are not limited.
+ * <p>
+ * Keyed by {@link ClientKey#IP}, it runs before {@link AuthenticationFilter} so that anonymous
+ * and forged-token traffic is counted before it can be rejected. Keyed by
+ * {@link ClientKey#ACCOUNT}, it runs after it and only limits signed-in users, per account.
+ */
+@RequiredArgsConstructor
+public class TokenBucketRateLimiterFilter extends OncePerRequestFilter {
+    public enum ClientKey {
+        IP,
+        ACCOUNT
+    }
+
+    private final TokenBucketRateLimiter rateLimiter;
+    private final List<RateLimitPolicy> policies;
+    private final ObjectMapper objectMapper;
+    private final ClientKey clientKey;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain)
+            throws IOException, ServletException {
+        var client = resolveClient(request);
+        var policy = client == null
+                ? null
+                : policies.stream().filter(candidate -> candidate.matches(request)).findFirst().orElse(null);
+        if (policy == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        var probe = rateLimiter.tryConsume(policy, client);
+        var resetSeconds = Math.max(1L, toSeconds(probe.getNanosToWaitForReset()));
+
+        response.setHeader("RateLimit-Limit", String.valueOf(policy.capacity()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(probe.getRemainingTokens()));
+        response.setHeader("RateLimit-Reset", String.valueOf(resetSeconds));
+        response.setHeader("RateLimit-Policy", policy.header());
+
+        if (!probe.isConsumed()) {
+            writeTooManyRequests(response, Math.max(1L, toSeconds(probe.getNanosToWaitForRefill())));
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private String resolveClient(HttpServletRequest request) {
+        if (clientKey == ClientKey.IP) {
+            return "ip:" + Request.getClientIp(request);
+        }
+
+        if (request.getAttribute(AuthenticatedPrincipal.ATTRIBUTE) instanceof AuthenticatedPrincipal principal
+                && principal.sub() != null) {
+            return "user:" + principal.sub();
+        }
+
+        return null;
+    }
+
+    // Làm tròn lên để client không thử lại quá sớm
+    private static long toSeconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private void writeTooManyRequests(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType("application/json; charset=UTF-8");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(objectMapper.writeValueAsString(
+                ExceptionResponse.builder()
+                        .code(HttpStatus.TOO_MANY_REQUESTS.value())
+                        .message(Constant.ErrorCode.RATE_LIMIT_EXCEEDED)
+                        .build()
+        ));
+    }
+}
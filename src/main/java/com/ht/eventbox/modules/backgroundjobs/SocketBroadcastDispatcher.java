@@ -0,0 +1,178 @@
+package com.ht.eventbox.modules.backgroundjobs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process delivery of Socket.IO broadcasts. Emitting is fire-and-forget, so instead of
+ * persisting a JobRunr job per message the broadcasts are put on a bounded queue and sent by a
+ * single thread. Messages with the same {@code (namespace, room, event)} that arrive within
+ * {@code window-millis} of each other are sent once, using the last one queued; since the
+ * senders read the current state when they run, nothing is lost by skipping the earlier ones.
+ * <p>
+ * When the queue is full the broadcast is sent on the caller's thread, which slows producers
+ * down instead of dropping messages. Queue size and the number of sent, coalesced, overflowed
+ * and failed broadcasts are exported under {@code eventbox.socket.broadcast}.
+ */
+@Component
+public class SocketBroadcastDispatcher {
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(SocketBroadcastDispatcher.class);
+
+    static final long IDLE_POLL_MILLIS = 1000;
+
+    record Key(String namespace, String room, String event) {
+    }
+
+    private record Broadcast(Key key, Runnable send) {
+    }
+
+    private final BlockingQueue<Broadcast> queue;
+    private final boolean enabled;
+    private final long windowNanos;
+
+    private final Counter sent;
+    private final Counter coalesced;
+    private final Counter overflowed;
+    private final Counter failed;
+
+    private volatile Thread worker;
+
+    public SocketBroadcastDispatcher(
+            MeterRegistry meterRegistry,
+            @Value("${application.socket-dispatcher.enabled:false}") boolean enabled,
+            @Value("${application.socket-dispatcher.capacity:8192}") int capacity,
+            @Value("${application.socket-dispatcher.window-millis:100}") long windowMillis) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.enabled = enabled;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+
+        Gauge.builder("eventbox.socket.broadcast.queue", queue, BlockingQueue::size)
+                .description("Socket broadcasts waiting to be sent")
+                .register(meterRegistry);
+        this.sent = counter(meterRegistry, "sent");
+        this.coalesced = counter(meterRegistry, "coalesced");
+        this.overflowed = counter(meterRegistry, "overflowed");
+        this.failed = counter(meterRegistry, "failed");
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("eventbox.socket.broadcast")
+                .description("Socket broadcasts handled by the dispatcher")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+
+        worker = new Thread(this::run, "socket-broadcast-dispatcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        var thread = worker;
+        worker = null;
+        if (thread == null) {
+            return;
+        }
+
+        thread.interrupt();
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+
+        // Gửi nốt những gì còn trong hàng đợi trước khi tắt
+        var pending = new LinkedHashMap<Key, Broadcast>();
+        Broadcast next;
+        while ((next = queue.poll()) != null) {
+            coalesce(pending, next);
+        }
+        send(pending);
+    }
+
+    public void dispatch(String namespace, String room, String event, Runnable send) {
+        var broadcast = new Broadcast(new Key(namespace, room, event), send);
+        if (!queue.offer(broadcast)) {
+            overflowed.increment();
+            send(broadcast);
+        }
+    }
+
+    private void run() {
+        while (worker == Thread.currentThread()) {
+            try {
+                dispatchNext(IDLE_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Waits up to {@code timeoutMillis} for a broadcast, then collects the ones arriving within
+     * the window and sends them. Returns the number of broadcasts sent.
+     */
+    int dispatchNext(long timeoutMillis) throws InterruptedException {
+        var first = queue.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return 0;
+        }
+
+        var pending = new LinkedHashMap<Key, Broadcast>();
+        pending.put(first.key(), first);
+
+        var deadline = System.nanoTime() + windowNanos;
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            var next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            coalesce(pending, next);
+        }
+
+        send(pending);
+        return pending.size();
+    }
+
+    // Giữ vị trí của lần đầu tiên nhưng gửi theo lần cuối cùng
+    private void coalesce(Map<Key, Broadcast> pending, Broadcast broadcast) {
+        if (pending.put(broadcast.key(), broadcast) != null) {
+            coalesced.increment();
+        }
+    }
+
+    private void send(Map<Key, Broadcast> pending) {
+        pending.values().forEach(this::send);
+    }
+
+    private void send(Broadcast broadcast) {
+        try {
+            broadcast.send().run();
+            sent.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            logger.warn("Failed to send {} to {} room {}: {}",
+                    broadcast.key().event(), broadcast.key().namespace(), broadcast.key().room(), e.getMessage());
+        }
+    }
+}
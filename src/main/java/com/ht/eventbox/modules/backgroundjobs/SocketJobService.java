@@ -3,6 +3,7 @@ package com.ht.eventbox.modules.backgroundjobs;
 import com.corundumstudio.socketio.SocketIOServer;
 import com.ht.eventbox.entities.Order;
 import com.ht.eventbox.modules.order.OrderRepository;
+import com.ht.eventbox.modules.order.ReservationCountService;
 import lombok.RequiredArgsConstructor;
 import org.jobrunr.jobs.lambdas.JobLambda;
 import org.jobrunr.scheduling.JobScheduler;
@@ -11,6 +12,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -21,29 +23,37 @@ public class SocketJobService {
     private final JobScheduler jobScheduler;
     private final SocketIOServer socketIOServer;
     private final OrderRepository orderRepository;
+    private final ReservationCountService reservationCountService;
+    private final StockDeltaBroadcaster stockDeltaBroadcaster;
+    private final SocketBroadcastDispatcher socketBroadcastDispatcher;
 
     public void enqueueStockUpdated(long eventId) {
-        enqueueAfterCommit(() -> broadcastStockUpdated(eventId));
-    }
+        runAfterCommit(() -> reservationCountService.invalidate(eventId));
+
+        // Gom các thay đổi của cùng sự kiện và gửi số vé còn lại thay vì tạo một job cho mỗi lần
+        if (stockDeltaBroadcaster.isEnabled()) {
+            runAfterCommit(() -> stockDeltaBroadcaster.markDirty(eventId));
+            return;
+        }
 
-    public void enqueueStockUpdated() {
-        enqueueAfterCommit(() -> broadcastStockUpdated());
+        enqueueAfterCommit("/event", eventId, "stock_updated", () -> broadcastStockUpdated(eventId));
     }
 
     public void enqueueOrderApproved(long orderId) {
-        enqueueAfterCommit(() -> broadcastOrderApproved(orderId));
+        enqueueAfterCommit("/order", orderId, "order_approved", () -> broadcastOrderApproved(orderId));
     }
 
     public void enqueueOrderFulfilled(long orderId) {
-        enqueueAfterCommit(() -> broadcastOrderFulfilled(orderId));
+        enqueueAfterCommit("/order", orderId, "order_fulfilled", () -> broadcastOrderFulfilled(orderId));
     }
 
     public void enqueueOrderRefunded(long orderId) {
-        enqueueAfterCommit(() -> broadcastOrderRefunded(orderId));
+        enqueueAfterCommit("/order", orderId, "order_refunded", () -> broadcastOrderRefunded(orderId));
     }
 
     public void enqueueTicketTracesUpdated(long ticketItemId, long eventId) {
-        enqueueAfterCommit(() -> broadcastTicketTracesUpdated(ticketItemId, eventId));
+        enqueueAfterCommit("/ticket", ticketItemId, "traces_updated",
+                () -> broadcastTicketTracesUpdated(ticketItemId, eventId));
     }
 
     public void broadcastStockUpdated(long eventId) {
@@ -52,10 +62,23 @@ public class SocketJobService {
                 .sendEvent("stock_updated", Map.of());
     }
 
-    public void broadcastStockUpdated() {
+    public void broadcastWaitingRoomUpdated(long eventId, long showId, long admittedThrough, long queueLength) {
         socketIOServer.getNamespace("/event")
-                .getBroadcastOperations()
-                .sendEvent("stock_updated", Map.of());
+                .getRoomOperations(String.valueOf(eventId))
+                .sendEvent("waiting_room_updated", Map.of(
+                        "show_id", showId,
+                        "admitted_through", admittedThrough,
+                        "queue_length", queueLength));
+    }
+
+    public void broadcastSeatsUpdated(long eventId, long showId, long ticketId, List<Integer> seats, String state) {
+        socketIOServer.getNamespace("/event")
+                .getRoomOperations(String.valueOf(eventId))
+                .sendEvent("seats_updated", Map.of(
+                        "show_id", showId,
+                        "ticket_id", ticketId,
+                        "state", state,
+                        "seats", seats));
     }
 
     public void broadcastOrderApproved(long orderId) {
@@ -64,7 +87,7 @@ public class SocketJobService {
                 .getRoomOperations(order.getId().toString())
                 .sendEvent("order_approved", Map.of(
                         "order_id", order.getId(),
-                        "status", order.getStatus(),
+                        "status", order.getStatus().name(),
                         "place_total", order.getPlaceTotal()));
     }
 
@@ -74,7 +97,7 @@ public class SocketJobService {
                 .getRoomOperations(order.getId().toString())
                 .sendEvent("order_fulfilled", Map.of(
                         "order_id", order.getId(),
-                        "status", order.getStatus(),
+                        "status", order.getStatus().name(),
                         "place_total", order.getPlaceTotal()));
     }
 
@@ -84,7 +107,7 @@ public class SocketJobService {
                 .getRoomOperations(order.getId().toString())
                 .sendEvent("order_refunded", Map.of(
                         "order_id", order.getId(),
-                        "status", order.getStatus(),
+                        "status", order.getStatus().name(),
                         "place_total", order.getPlaceTotal()));
     }
 
@@ -103,17 +126,37 @@ public class SocketJobService {
                 .orElseThrow(() -> new IllegalStateException("Order not found: " + orderId));
     }
 
-    private void enqueueAfterCommit(JobLambda job) {
+    /*
+     * Các broadcast chỉ gửi một lần nên không cần lưu thành job, trừ khi bộ điều phối trong tiến trình bị tắt
+     */
+    private void enqueueAfterCommit(String namespace, long room, String event, JobLambda job) {
+        if (socketBroadcastDispatcher.isEnabled()) {
+            runAfterCommit(() -> socketBroadcastDispatcher.dispatch(namespace, String.valueOf(room), event, () -> {
+                try {
+                    job.run();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+            return;
+        }
+
+        runAfterCommit(() -> jobScheduler.enqueue(job));
+    }
+
+    private void runAfterCommit(Runnable action) {
         if (TransactionSynchronizationManager.isSynchronizationActive()) {
             TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
                 @Override
                 public void afterCommit() {
-                    jobScheduler.enqueue(job);
+                    action.run();
                 }
             });
             return;
         }
 
-        jobScheduler.enqueue(job);
+        action.run();
     }
 }
@@ -0,0 +1,145 @@
+package com.ht.eventbox.modules.backgroundjobs;
+
+import com.corundumstudio.socketio.SocketIOServer;
+import com.ht.eventbox.modules.inventory.ShardedStockService;
+import com.ht.eventbox.modules.order.ReservationCountService;
+import com.ht.eventbox.modules.ticket.TicketRepository;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes the available stock of every ticket of an event to its room of the {@code /event}
+ * namespace, so clients update the counts in place instead of refetching the whole event.
+ * Stock changes only mark the event; {@link #flush()} runs every few hundred milliseconds
+ * (see {@code Scheduler}) and sends one {@code stock_updated} per marked event, however many
+ * orders touched it in between.
+ * <p>
+ * The payload carries absolute counts rather than increments, so a lost or reordered message
+ * is corrected by the next one and every node can publish on its own. Counts are packed as
+ * {@code [ticket_id, available, ticket_id, available, ...]} together with the time they were
+ * computed, which clients use to drop an older message arriving late.
+ */
+@Component
+public class StockDeltaBroadcaster {
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(StockDeltaBroadcaster.class);
+
+    public interface TicketStockView {
+        Long getId();
+
+        int getStock();
+
+        int getStockShards();
+    }
+
+    private final SocketIOServer socketIOServer;
+    private final TicketRepository ticketRepository;
+    private final ReservationCountService reservationCountService;
+    private final ShardedStockService shardedStockService;
+    private final boolean enabled;
+
+    private final Set<Long> dirtyEventIds = ConcurrentHashMap.newKeySet();
+
+    public StockDeltaBroadcaster(
+            SocketIOServer socketIOServer,
+            TicketRepository ticketRepository,
+            ReservationCountService reservationCountService,
+            ShardedStockService shardedStockService,
+            @Value("${application.stock-delta.enabled:false}") boolean enabled) {
+        this.socketIOServer = socketIOServer;
+        this.ticketRepository = ticketRepository;
+        this.reservationCountService = reservationCountService;
+        this.shardedStockService = shardedStockService;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void markDirty(long eventId) {
+        dirtyEventIds.add(eventId);
+    }
+
+    /**
+     * Broadcasts the current counts of the events marked since the last flush and returns how
+     * many events were sent.
+     */
+    public int flush() {
+        if (dirtyEventIds.isEmpty()) {
+            return 0;
+        }
+
+        // Sự kiện được đánh dấu lại trong lúc gửi sẽ được gửi ở lần kế tiếp
+        var eventIds = new ArrayList<Long>();
+        var iterator = dirtyEventIds.iterator();
+        while (iterator.hasNext()) {
+            eventIds.add(iterator.next());
+            iterator.remove();
+        }
+
+        int sent = 0;
+        for (var eventId : eventIds) {
+            try {
+                broadcast(eventId, getAvailableStocks(eventId));
+                sent++;
+            } catch (RuntimeException e) {
+                logger.warn("Failed to broadcast stock of event #{}: {}", eventId, e.getMessage());
+            }
+        }
+        return sent;
+    }
+
+    /*
+     * Cách tính giống EventService.getWithRealStockByIdAndStatusIsNot: stock (hoặc tổng các phần) trừ số vé đang được giữ
+     */
+    Map<Long, Integer> getAvailableStocks(long eventId) {
+        var tickets = ticketRepository.findAllByEventShowEventIdOrderByIdAsc(eventId, TicketStockView.class);
+        if (tickets.isEmpty()) {
+            return Map.of();
+        }
+
+        var heldCounts = reservationCountService.getHeldCountsByEventId(eventId);
+        var shardedStocks = shardedStockService.getShardedStocks(tickets.stream()
+                .filter(ticket -> ticket.getStockShards() > 0)
+                .map(TicketStockView::getId)
+                .toList());
+
+        var stocks = new LinkedHashMap<Long, Integer>();
+        tickets.forEach(ticket -> {
+            int stock = shardedStocks.getOrDefault(ticket.getId(), ticket.getStock());
+            int reservedStock = heldCounts.getOrDefault(ticket.getId(), 0L).intValue();
+            stocks.put(ticket.getId(), stock - reservedStock);
+        });
+        return stocks;
+    }
+
+    private void broadcast(long eventId, Map<Long, Integer> stocks) {
+        if (stocks.isEmpty()) {
+            return;
+        }
+
+        socketIOServer.getNamespace("/event")
+                .getRoomOperations(String.valueOf(eventId))
+                .sendEvent("stock_updated", Map.of(
+                        "event_id", eventId,
+                        "computed_at", System.currentTimeMillis(),
+                        "stocks", pack(stocks)));
+    }
+
+    static List<Long> pack(Map<Long, Integer> stocks) {
+        var packed = new ArrayList<Long>(stocks.size() * 2);
+        stocks.forEach((ticketId, available) -> {
+            packed.add(ticketId);
+            packed.add(available.longValue());
+        });
+        return packed;
+    }
+}
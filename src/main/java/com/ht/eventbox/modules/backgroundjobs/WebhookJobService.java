@@ -0,0 +1,190 @@
+package com.ht.eventbox.modules.backgroundjobs;
+
+import com.ht.eventbox.constant.Constant;
+import com.ht.eventbox.entities.WebhookEvent;
+import com.ht.eventbox.enums.WebhookEventStatus;
+import com.ht.eventbox.enums.WebhookEventType;
+import com.ht.eventbox.modules.order.PaypalWebhookService;
+import com.ht.eventbox.modules.order.WebhookEventRepository;
+import com.ht.eventbox.modules.redis.RedisService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.jobrunr.jobs.annotations.Job;
+import org.jobrunr.jobs.lambdas.JobLambda;
+import org.jobrunr.scheduling.JobScheduler;
+import org.slf4j.Logger;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Durable ingestion of PayPal webhooks. The endpoint only stores the raw envelope, keyed by
+ * {@code Paypal-Transmission-Id} so redeliveries are dropped, and acknowledges; verification and
+ * payment processing run on the JobRunr workers, retried with JobRunr's exponential backoff and
+ * serialized per PayPal order through a short Redis lock. A webhook that finds the lock taken is
+ * rescheduled shortly instead of failing, and one whose signature is rejected is marked failed
+ * without being retried.
+ */
+@Service
+@RequiredArgsConstructor
+public class WebhookJobService {
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(WebhookJobService.class);
+
+    // Chỉ xoá khoá khi nó vẫn thuộc về webhook này, khoá có thể đã hết hạn và bị webhook khác lấy
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private static final Duration LOCKED_RETRY_DELAY = Duration.ofSeconds(5);
+
+    private final JobScheduler jobScheduler;
+    private final WebhookEventRepository webhookEventRepository;
+    private final PaypalWebhookService paypalWebhookService;
+    private final RedisService redisService;
+    private final MeterRegistry meterRegistry;
+
+    @PostConstruct
+    void registerMetrics() {
+        for (var status : new WebhookEventStatus[]{WebhookEventStatus.RECEIVED, WebhookEventStatus.FAILED}) {
+            Gauge.builder("eventbox.paypal.webhook.queue", webhookEventRepository, repo -> repo.countByStatus(status))
+                    .description("PayPal webhooks waiting to be processed")
+                    .tag("status", status.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Stores the envelope and schedules its processing. Returns false when a delivery with the
+     * same transmission id was already received.
+     */
+    public boolean enqueuePaypalWebhook(
+            WebhookEventType type,
+            String rawJsonPayload,
+            String transmissionId,
+            String transmissionTime,
+            String transmissionSig,
+            String certUrl,
+            String authAlgo) {
+        if (webhookEventRepository.existsByTransmissionId(transmissionId)) {
+            logger.info("PayPal webhook {} was already received, skipping", transmissionId);
+            return false;
+        }
+
+        WebhookEvent webhookEvent;
+        try {
+            webhookEvent = webhookEventRepository.saveAndFlush(WebhookEvent.builder()
+                    .transmissionId(transmissionId)
+                    .type(type)
+                    .status(WebhookEventStatus.RECEIVED)
+                    .transmissionTime(transmissionTime)
+                    .transmissionSig(transmissionSig)
+                    .certUrl(certUrl)
+                    .authAlgo(authAlgo)
+                    .paypalOrderId(paypalWebhookService.getPaypalOrderId(type, rawJsonPayload))
+                    .payload(rawJsonPayload)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            logger.info("PayPal webhook {} was received concurrently, skipping", transmissionId);
+            return false;
+        }
+
+        long webhookEventId = webhookEvent.getId();
+        enqueueAfterCommit(() -> processPaypalWebhook(webhookEventId));
+        return true;
+    }
+
+    @Job(name = "Process PayPal webhook %0", retries = 10)
+    public void processPaypalWebhook(long webhookEventId) {
+        var webhookEvent = webhookEventRepository.findById(webhookEventId).orElse(null);
+        if (webhookEvent == null || webhookEvent.getStatus() == WebhookEventStatus.PROCESSED) {
+            logger.info("PayPal webhook #{} has already been processed, skipping", webhookEventId);
+            return;
+        }
+
+        var lockKey = webhookEvent.getPaypalOrderId() == null
+                ? null
+                : String.format("%s:paypal_order_id:%s",
+                Constant.RedisPrefix.PAYPAL_WEBHOOK_LOCK, webhookEvent.getPaypalOrderId());
+        if (lockKey != null && !Boolean.TRUE.equals(redisService.setValueIfAbsent(
+                lockKey, String.valueOf(webhookEventId), Constant.RedisKey.PAYPAL_WEBHOOK_LOCK_EXPIRES))) {
+            // Không dùng lần thử lại của JobRunr cho việc chờ khoá
+            logger.info("PayPal order {} is being processed by another webhook, rescheduling webhook #{}",
+                    webhookEvent.getPaypalOrderId(), webhookEventId);
+            jobScheduler.schedule(Instant.now().plus(LOCKED_RETRY_DELAY), () -> processPaypalWebhook(webhookEventId));
+            return;
+        }
+
+        webhookEvent.setAttempts(webhookEvent.getAttempts() + 1);
+        try {
+            if (!paypalWebhookService.verify(
+                    webhookEvent.getType(),
+                    webhookEvent.getPayload(),
+                    webhookEvent.getTransmissionId(),
+                    webhookEvent.getTransmissionTime(),
+                    webhookEvent.getTransmissionSig(),
+                    webhookEvent.getCertUrl(),
+                    webhookEvent.getAuthAlgo())) {
+                // Chữ ký sai không thể đúng ở lần thử sau
+                logger.warn("PayPal webhook #{} could not be verified, dropping it", webhookEventId);
+                webhookEvent.setStatus(WebhookEventStatus.FAILED);
+                webhookEvent.setLastError("PayPal webhook " + webhookEvent.getTransmissionId() + " could not be verified");
+                webhookEventRepository.save(webhookEvent);
+                return;
+            }
+
+            paypalWebhookService.handle(webhookEvent.getType(), webhookEvent.getPayload());
+
+            webhookEvent.setStatus(WebhookEventStatus.PROCESSED);
+            webhookEvent.setLastError(null);
+            webhookEvent.setProcessedAt(LocalDateTime.now());
+            webhookEventRepository.save(webhookEvent);
+
+            if (webhookEvent.getCreatedAt() != null) {
+                Timer.builder("eventbox.paypal.webhook.latency")
+                        .description("Time from receiving a PayPal webhook to finishing its processing")
+                        .tag("type", webhookEvent.getType().name().toLowerCase())
+                        .register(meterRegistry)
+                        .record(Duration.between(webhookEvent.getCreatedAt(), webhookEvent.getProcessedAt()));
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error processing PayPal webhook #{} (attempt {}): {}",
+                    webhookEventId, webhookEvent.getAttempts(), e.getMessage());
+            webhookEvent.setStatus(WebhookEventStatus.FAILED);
+            webhookEvent.setLastError(e.getMessage());
+            webhookEventRepository.save(webhookEvent);
+            throw e;
+        } finally {
+            if (lockKey != null) {
+                redisService.executeScript(UNLOCK_SCRIPT, List.of(lockKey), String.valueOf(webhookEventId));
+            }
+        }
+    }
+
+    private void enqueueAfterCommit(JobLambda job) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    jobScheduler.enqueue(job);
+                }
+            });
+            return;
+        }
+
+        jobScheduler.enqueue(job);
+    }
+}
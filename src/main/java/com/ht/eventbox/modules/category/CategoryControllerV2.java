@@ -1,7 +1,10 @@
 package com.ht.eventbox.modules.category;
 
 import com.ht.eventbox.annotations.RequiredPermissions;
+import com.ht.eventbox.config.CursorRequest;
+import com.ht.eventbox.config.CursorResponse;
 import com.ht.eventbox.config.QueryResponse;
+import com.ht.eventbox.config.Response;
 import com.ht.eventbox.entities.Category;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
@@ -13,6 +16,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @CrossOrigin
 @RequestMapping(path = "/api/v2/categories")
@@ -22,10 +27,19 @@ public class CategoryControllerV2 {
 
     @GetMapping
     @RequiredPermissions({"read:categories"})
-    public ResponseEntity<QueryResponse<Category>> getAll(
+    public ResponseEntity<Response<List<Category>>> getAll(
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean count,
             Pageable pageable
     ) {
+        if (after != null) {
+            var res = categoryService.getAll(search, CursorRequest.of(after, pageable.getPageSize(), count));
+            return ResponseEntity.ok(
+                    CursorResponse.from(res, HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase())
+            );
+        }
+
         var res = categoryService.getAll(search, pageable);
         return ResponseEntity.ok(
                 QueryResponse.from(res, HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase())
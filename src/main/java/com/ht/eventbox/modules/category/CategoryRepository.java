@@ -3,6 +3,7 @@ package com.ht.eventbox.modules.category;
 import com.ht.eventbox.entities.Category;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -27,4 +28,31 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
             ORDER BY c.id ASC
             """)
     Page<Category> searchAllByOrderByIdAsc(@Param("search") String search, Pageable pageable);
+
+    @Query("""
+            SELECT c
+            FROM Category c
+            WHERE c.id > :afterId
+              AND (
+                :search IS NULL
+                OR :search = ''
+                OR LOWER(c.nameVi) LIKE LOWER(CONCAT('%', :search, '%'))
+                OR LOWER(c.nameEn) LIKE LOWER(CONCAT('%', :search, '%'))
+              )
+            ORDER BY c.id ASC
+            """)
+    Slice<Category> searchAllAfter(
+            @Param("search") String search,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    @Query("""
+            SELECT COUNT(c)
+            FROM Category c
+            WHERE :search IS NULL
+               OR :search = ''
+               OR LOWER(c.nameVi) LIKE LOWER(CONCAT('%', :search, '%'))
+               OR LOWER(c.nameEn) LIKE LOWER(CONCAT('%', :search, '%'))
+            """)
+    long countSearchAll(@Param("search") String search);
 }
@@ -1,5 +1,7 @@
 package com.ht.eventbox.modules.category;
 
+import com.ht.eventbox.config.CursorPage;
+import com.ht.eventbox.config.CursorRequest;
 import com.ht.eventbox.config.HttpException;
 import com.ht.eventbox.constant.Constant;
 import com.ht.eventbox.entities.Category;
@@ -38,6 +40,16 @@ public class CategoryService {
         return categoryRepository.searchAllByOrderByIdAsc(normalizeSearch(search), pageable);
     }
 
+    public CursorPage<Category> getAll(String search, CursorRequest cursor) {
+        var normalizedSearch = normalizeSearch(search);
+        return CursorPage.of(
+                categoryRepository.searchAllAfter(normalizedSearch, cursor.afterId(), cursor.pageable()),
+                Category::getId,
+                cursor,
+                () -> categoryRepository.countSearchAll(normalizedSearch)
+        );
+    }
+
     public boolean createBulk(CreateBulkCategoriesDto createBulkCategoriesDto) {
         logger.info("Creating bulk categories: {}", createBulkCategoriesDto);
         List<Category> categories = createBulkCategoriesDto.getCategories().stream()
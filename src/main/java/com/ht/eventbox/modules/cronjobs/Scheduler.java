@@ -1,13 +1,20 @@
 package com.ht.eventbox.modules.cronjobs;
 
-import com.corundumstudio.socketio.SocketIOServer;
+import com.ht.eventbox.modules.backgroundjobs.StockDeltaBroadcaster;
+import com.ht.eventbox.modules.event.EventDiscoveryIndex;
+import com.ht.eventbox.modules.inventory.ShardedStockService;
+import com.ht.eventbox.modules.inventory.TicketInventoryService;
+import com.ht.eventbox.modules.order.ExchangeRateStore;
 import com.ht.eventbox.modules.order.OrderService;
+import com.ht.eventbox.modules.order.ReservationExpiryService;
 import com.ht.eventbox.modules.ticket.TicketService;
+import com.ht.eventbox.modules.waitingroom.WaitingRoomService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
@@ -15,7 +22,13 @@ public class Scheduler {
     private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(Scheduler.class);
     private final OrderService orderService;
     private final TicketService ticketService;
-    private final SocketIOServer socketIOServer;
+    private final StockDeltaBroadcaster stockDeltaBroadcaster;
+    private final TicketInventoryService ticketInventoryService;
+    private final ReservationExpiryService reservationExpiryService;
+    private final WaitingRoomService waitingRoomService;
+    private final ShardedStockService shardedStockService;
+    private final ExchangeRateStore exchangeRateStore;
+    private final EventDiscoveryIndex eventDiscoveryIndex;
 
     //Run at 00:01 every day
     @Scheduled(cron = "0 1 0 * * ?")
@@ -24,7 +37,32 @@ public class Scheduler {
         ticketService.remindUpcomingEvents();
     }
 
-    //Run every 5 minutes
+    //Run every second, one batch at a time until the queue has nothing due
+    @Scheduled(fixedDelay = 1000)
+    public void expireDueReservations() {
+        if (!reservationExpiryService.isEnabled()) {
+            return;
+        }
+
+        List<Long> orderIds;
+        do {
+            orderIds = reservationExpiryService.claimDue();
+            if (orderIds.isEmpty()) {
+                return;
+            }
+
+            try {
+                var count = orderService.expireReservations(orderIds);
+                logger.debug("Expired {} of {} due reservations", count, orderIds.size());
+            } catch (Exception e) {
+                logger.error("Failed to expire reservations {}: {}", orderIds, e.getMessage());
+                reservationExpiryService.retry(orderIds);
+                return;
+            }
+        } while (orderIds.size() >= reservationExpiryService.getBatchSize());
+    }
+
+    //Run every 5 minutes, sweeps reservations the expiry queue missed
     @Scheduled(cron = "0 0/5 * * * ?")
     public void cleanupExpiredReservations() {
         logger.info("Cleaning up expired reservations");
@@ -32,11 +70,63 @@ public class Scheduler {
         var count = orderService.cleanupExpiredReservations();
 
         logger.info("Deleted {} expired reservations", count);
+    }
+
+    //Run every 250ms by default, sends one stock_updated per event changed in the meantime
+    @Scheduled(fixedDelayString = "${application.stock-delta.window-millis:250}")
+    public void flushStockDeltas() {
+        if (!stockDeltaBroadcaster.isEnabled()) {
+            return;
+        }
+
+        stockDeltaBroadcaster.flush();
+    }
+
+    //Run every minute
+    @Scheduled(cron = "0 * * * * ?")
+    public void reconcileTicketInventory() {
+        ticketInventoryService.reconcile();
+    }
+
+    //Run every minute, keeps Ticket.stock of sharded tickets close to the sum of its shards
+    @Scheduled(cron = "30 * * * * ?")
+    public void syncShardedTicketStock() {
+        shardedStockService.syncTicketStock();
+    }
+
+    //Run every second
+    @Scheduled(fixedRate = 1000)
+    public void admitWaitingRooms() {
+        try {
+            waitingRoomService.advance();
+        } catch (Exception e) {
+            logger.error("Failed to advance waiting rooms: {}", e.getMessage());
+        }
+    }
 
+    //Run every 10 minutes by default, checkout reads the rates from memory
+    @Scheduled(fixedDelayString = "${application.exchange-rate.refresh-interval-millis:600000}")
+    public void refreshExchangeRates() {
+        exchangeRateStore.refreshAll();
+    }
+
+    //Run every minute, drops events whose last show has ended from the discovery index
+    @Scheduled(cron = "15 * * * * ?")
+    public void evictEndedDiscoveryEvents() {
+        var count = eventDiscoveryIndex.evictEnded(LocalDateTime.now());
         if (count > 0) {
-            socketIOServer.getNamespace("/event")
-                    .getBroadcastOperations()
-                    .sendEvent("stock_updated", Map.of());
+            logger.info("Evicted {} ended events from the discovery index", count);
+        }
+    }
+
+    //Run every 5 minutes by default, catches up with refreshes a node missed and with ticket stock
+    @Scheduled(initialDelayString = "${application.search.discovery-index.rebuild-interval-millis:300000}",
+            fixedDelayString = "${application.search.discovery-index.rebuild-interval-millis:300000}")
+    public void rebuildDiscoveryIndex() {
+        try {
+            eventDiscoveryIndex.rebuild();
+        } catch (Exception e) {
+            logger.error("Failed to rebuild the discovery index: {}", e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
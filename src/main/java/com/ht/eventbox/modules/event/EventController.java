@@ -11,7 +11,9 @@ import com.ht.eventbox.modules.event.dtos.UpdateEventDto;
 import com.ht.eventbox.modules.event.dtos.UpdateEventTagsDto;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -24,6 +26,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class EventController {
     private final EventService eventService;
+    private final EventDiscoveryFeed eventDiscoveryFeed;
 
     /*
     API dùng để lấy tất cả các sự kiện đang chờ duyệt hoặc đã được phát hành, dùng cho admin web
@@ -279,15 +282,14 @@ public class EventController {
     */
     @GetMapping("/discovery")
     @RequiredPermissions({"read:events"})
-    public ResponseEntity<Response<EventService.DiscoveryEvents>> getDiscovery() {
-        var res = eventService.getDiscovery();
-        return ResponseEntity.ok(
-                new Response<>(
-                        HttpStatus.OK.value(),
-                        HttpStatus.OK.getReasonPhrase(),
-                        res
-                )
-        );
+    public ResponseEntity<String> getDiscovery() {
+        // Trả về 304 nếu If-None-Match trùng ETag của bản hiện tại
+        var feed = eventDiscoveryFeed.get(eventService::getDiscovery);
+        return ResponseEntity.ok()
+                .eTag(feed.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(feed.body());
     }
 
     /*
@@ -1,9 +1,10 @@
 package com.ht.eventbox.modules.event;
 
 import com.ht.eventbox.annotations.RequiredPermissions;
+import com.ht.eventbox.config.CursorRequest;
+import com.ht.eventbox.config.CursorResponse;
 import com.ht.eventbox.config.QueryResponse;
 import com.ht.eventbox.config.Response;
-import com.ht.eventbox.entities.Event;
 import com.ht.eventbox.enums.EventStatus;
 import com.ht.eventbox.modules.event.dtos.EventOverviewDto;
 import lombok.RequiredArgsConstructor;
@@ -28,9 +29,20 @@ public class EventControllerV2 {
 
     @GetMapping
     @RequiredPermissions({ "read:events", "access:admin" })
-    public ResponseEntity<QueryResponse<Event>> getAll(
+    public ResponseEntity<Response<List<EventService.EventSummary>>> getAll(
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean count,
             Pageable pageable) {
+        if (after != null) {
+            var res = eventService.getAllByStatusIn(
+                    List.of(EventStatus.PENDING, EventStatus.PUBLISHED),
+                    search,
+                    CursorRequest.of(after, pageable.getPageSize(), count));
+            return ResponseEntity.ok(
+                    CursorResponse.from(res, HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase()));
+        }
+
         var res = eventService.getAllByStatusIn(
                 List.of(EventStatus.PENDING, EventStatus.PUBLISHED),
                 search,
@@ -41,9 +53,18 @@ public class EventControllerV2 {
 
     @GetMapping("/pending")
     @RequiredPermissions({ "read:events", "access:admin" })
-    public ResponseEntity<QueryResponse<Event>> getAllPending(
+    public ResponseEntity<Response<List<EventService.EventSummary>>> getAllPending(
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean count,
             Pageable pageable) {
+        if (after != null) {
+            var res = eventService.getAllPending(
+                    search, CursorRequest.of(after, pageable.getPageSize(), count));
+            return ResponseEntity.ok(
+                    CursorResponse.from(res, HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase()));
+        }
+
         var res = eventService.getAllPending(search, pageable);
         return ResponseEntity.ok(
                 QueryResponse.from(res, HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase()));
@@ -51,9 +72,18 @@ public class EventControllerV2 {
 
     @GetMapping("/published")
     @RequiredPermissions({ "read:events", "access:admin" })
-    public ResponseEntity<QueryResponse<Event>> getAllPublished(
+    public ResponseEntity<Response<List<EventService.EventSummary>>> getAllPublished(
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean count,
             Pageable pageable) {
+        if (after != null) {
+            var res = eventService.getAllPublished(
+                    search, CursorRequest.of(after, pageable.getPageSize(), count));
+            return ResponseEntity.ok(
+                    CursorResponse.from(res, HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase()));
+        }
+
         var res = eventService.getAllPublished(search, pageable);
         return ResponseEntity.ok(
                 QueryResponse.from(res, HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase()));
@@ -61,9 +91,18 @@ public class EventControllerV2 {
 
     @GetMapping("/ended")
     @RequiredPermissions({ "read:events", "access:admin" })
-    public ResponseEntity<QueryResponse<Event>> getAllEnded(
+    public ResponseEntity<Response<List<EventService.EventSummary>>> getAllEnded(
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean count,
             Pageable pageable) {
+        if (after != null) {
+            var res = eventService.getAllEnded(
+                    search, CursorRequest.of(after, pageable.getPageSize(), count));
+            return ResponseEntity.ok(
+                    CursorResponse.from(res, HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase()));
+        }
+
         var res = eventService.getAllEnded(search, pageable);
         return ResponseEntity.ok(
                 QueryResponse.from(res, HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase()));
@@ -83,10 +122,19 @@ public class EventControllerV2 {
 
     @GetMapping("/organization/{organizationId}/pending")
     @RequiredPermissions({ "read:events" })
-    public ResponseEntity<QueryResponse<Event>> getPendingByOrganizationId(
+    public ResponseEntity<Response<List<EventService.EventSummary>>> getPendingByOrganizationId(
             @PathVariable Long organizationId,
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean count,
             Pageable pageable) {
+        if (after != null) {
+            var res = eventService.getAllPendingByOrganizationId(
+                    organizationId, search, CursorRequest.of(after, pageable.getPageSize(), count));
+            return ResponseEntity.ok(
+                    CursorResponse.from(res, HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase()));
+        }
+
         var res = eventService.getAllPendingByOrganizationId(organizationId, search, pageable);
         return ResponseEntity.ok(
                 QueryResponse.from(res, HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase()));
@@ -94,10 +142,19 @@ public class EventControllerV2 {
 
     @GetMapping("/organization/{organizationId}/draft")
     @RequiredPermissions({ "read:events" })
-    public ResponseEntity<QueryResponse<Event>> getDraftByOrganizationId(
+    public ResponseEntity<Response<List<EventService.EventSummary>>> getDraftByOrganizationId(
             @PathVariable Long organizationId,
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean count,
             Pageable pageable) {
+        if (after != null) {
+            var res = eventService.getAllDraftByOrganizationId(
+                    organizationId, search, CursorRequest.of(after, pageable.getPageSize(), count));
+            return ResponseEntity.ok(
+                    CursorResponse.from(res, HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase()));
+        }
+
         var res = eventService.getAllDraftByOrganizationId(organizationId, search, pageable);
         return ResponseEntity.ok(
                 QueryResponse.from(res, HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase()));
@@ -105,10 +162,19 @@ public class EventControllerV2 {
 
     @GetMapping("/organization/{organizationId}/published")
     @RequiredPermissions({ "read:events" })
-    public ResponseEntity<QueryResponse<Event>> getPublishedByOrganizationId(
+    public ResponseEntity<Response<List<EventService.EventSummary>>> getPublishedByOrganizationId(
             @PathVariable Long organizationId,
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean count,
             Pageable pageable) {
+        if (after != null) {
+            var res = eventService.getAllPublishedByOrganizationId(
+                    organizationId, search, CursorRequest.of(after, pageable.getPageSize(), count));
+            return ResponseEntity.ok(
+                    CursorResponse.from(res, HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase()));
+        }
+
         var res = eventService.getAllPublishedByOrganizationId(organizationId, search, pageable);
         return ResponseEntity.ok(
                 QueryResponse.from(res, HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase()));
@@ -116,10 +182,19 @@ public class EventControllerV2 {
 
     @GetMapping("/organization/{organizationId}/ended")
     @RequiredPermissions({ "read:events" })
-    public ResponseEntity<QueryResponse<Event>> getEndedByOrganizationId(
+    public ResponseEntity<Response<List<EventService.EventSummary>>> getEndedByOrganizationId(
             @PathVariable Long organizationId,
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean count,
             Pageable pageable) {
+        if (after != null) {
+            var res = eventService.getAllEndedByOrganizationId(
+                    organizationId, search, CursorRequest.of(after, pageable.getPageSize(), count));
+            return ResponseEntity.ok(
+                    CursorResponse.from(res, HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase()));
+        }
+
         var res = eventService.getAllEndedByOrganizationId(organizationId, search, pageable);
         return ResponseEntity.ok(
                 QueryResponse.from(res, HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase()));
@@ -0,0 +1,283 @@
+package com.ht.eventbox.modules.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ht.eventbox.config.Response;
+import com.ht.eventbox.constant.Constant;
+import com.ht.eventbox.entities.Event;
+import com.ht.eventbox.entities.EventShow;
+import com.ht.eventbox.modules.redis.RedisService;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Materialized home-page discovery feed. The serialized response body is kept in Redis under a
+ * version number; publish, tag and status changes bump the version, and each snapshot expires
+ * when the first of its events has no show left (or after {@code max-ttl-seconds}). A miss is
+ * recomputed once per node (concurrent callers share the result) and, across nodes, by whoever
+ * holds the Redis lock while the others wait briefly for the new snapshot. Every snapshot
+ * carries an ETag so clients can revalidate with {@code If-None-Match}.
+ */
+@Component
+public class EventDiscoveryFeed {
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(EventDiscoveryFeed.class);
+
+    static final long LOCK_WAIT_MILLIS = 2000;
+    static final long LOCK_POLL_MILLIS = 50;
+
+    public record Snapshot(String etag, String body) {
+    }
+
+    private record Computed(Snapshot snapshot, long ttlSeconds) {
+    }
+
+    private final RedisService redisService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long maxTtlSeconds;
+
+    private final AtomicReference<CompletableFuture<Snapshot>> inflight = new AtomicReference<>();
+
+    public EventDiscoveryFeed(
+            RedisService redisService,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${application.discovery-feed.enabled:false}") boolean enabled,
+            @Value("${application.discovery-feed.max-ttl-seconds:300}") long maxTtlSeconds) {
+        this.redisService = redisService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.maxTtlSeconds = maxTtlSeconds;
+    }
+
+    public Snapshot get(Supplier<EventService.DiscoveryEvents> loader) {
+        if (!enabled) {
+            return transactionTemplate.execute(status -> toSnapshot(loader.get()));
+        }
+
+        var version = currentVersion();
+        var cached = read(version);
+        if (cached != null) {
+            return cached;
+        }
+
+        return singleFlight(() -> load(version, loader));
+    }
+
+    /**
+     * Makes the next read recompute the feed once the current transaction (if any) commits.
+     */
+    public void invalidateAfterCommit() {
+        if (!enabled) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate();
+                }
+            });
+            return;
+        }
+
+        invalidate();
+    }
+
+    void invalidate() {
+        try {
+            redisService.incrementValue(versionKey());
+        } catch (RuntimeException e) {
+            logger.error("Failed to invalidate discovery feed: {}", e.getMessage());
+        }
+    }
+
+    private Snapshot singleFlight(Supplier<Snapshot> compute) {
+        while (true) {
+            var running = inflight.get();
+            if (running != null) {
+                return running.join();
+            }
+
+            var future = new CompletableFuture<Snapshot>();
+            if (!inflight.compareAndSet(null, future)) {
+                continue;
+            }
+
+            try {
+                future.complete(compute.get());
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+                throw e;
+            } finally {
+                inflight.compareAndSet(future, null);
+            }
+            return future.join();
+        }
+    }
+
+    private Snapshot load(String version, Supplier<EventService.DiscoveryEvents> loader) {
+        var lockKey = String.format("%s:version:%s", Constant.RedisPrefix.DISCOVERY_FEED_LOCK, version);
+        var locked = tryLock(lockKey);
+
+        if (!locked) {
+            // Node khác đang tính lại, chờ bản mới thay vì cùng truy vấn cơ sở dữ liệu
+            var deadline = System.currentTimeMillis() + LOCK_WAIT_MILLIS;
+            while (System.currentTimeMillis() < deadline && sleep()) {
+                var cached = read(version);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+        }
+
+        try {
+            var computed = transactionTemplate.execute(status -> {
+                var discovery = loader.get();
+                return new Computed(toSnapshot(discovery), ttlSeconds(discovery, LocalDateTime.now()));
+            });
+            write(version, Objects.requireNonNull(computed));
+            return computed.snapshot();
+        } finally {
+            if (locked) {
+                unlock(lockKey);
+            }
+        }
+    }
+
+    private Snapshot toSnapshot(EventService.DiscoveryEvents discovery) {
+        try {
+            var body = objectMapper.writeValueAsString(new Response<>(
+                    HttpStatus.OK.value(),
+                    HttpStatus.OK.getReasonPhrase(),
+                    discovery
+            ));
+            return new Snapshot(etagOf(body), body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize discovery feed", e);
+        }
+    }
+
+    /*
+     * Bản lưu hết hạn khi sự kiện đầu tiên trong đó không còn suất diễn nào chưa kết thúc
+     */
+    long ttlSeconds(EventService.DiscoveryEvents discovery, LocalDateTime now) {
+        return Stream.of(discovery.getFeaturedEvents(), discovery.getTrendingEvents(), discovery.getLatestEvents())
+                .filter(Objects::nonNull)
+                .flatMap(List::stream)
+                .map(EventDiscoveryFeed::lastEndTime)
+                .filter(Objects::nonNull)
+                .min(Comparator.naturalOrder())
+                .map(endTime -> Duration.between(now, endTime).toSeconds() + 1)
+                .map(seconds -> Math.max(1, Math.min(seconds, maxTtlSeconds)))
+                .orElse(maxTtlSeconds);
+    }
+
+    private static LocalDateTime lastEndTime(Event event) {
+        if (event.getShows() == null) {
+            return null;
+        }
+
+        return event.getShows().stream()
+                .map(EventShow::getEndTime)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .orElse(null);
+    }
+
+    static String etagOf(String body) {
+        return "\"" + DigestUtils.md5DigestAsHex(body.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private String currentVersion() {
+        try {
+            var version = redisService.getValue(versionKey());
+            return version == null ? "0" : version;
+        } catch (RuntimeException e) {
+            logger.warn("Failed to read discovery feed version: {}", e.getMessage());
+            return "0";
+        }
+    }
+
+    // Giá trị lưu trong Redis có dạng "<etag>\n<body>" để không phải băm lại mỗi lần đọc
+    private Snapshot read(String version) {
+        try {
+            var value = redisService.getValue(feedKey(version));
+            if (value == null) {
+                return null;
+            }
+
+            var separator = value.indexOf('\n');
+            return separator < 0 ? null : new Snapshot(value.substring(0, separator), value.substring(separator + 1));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to read discovery feed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(String version, Computed computed) {
+        try {
+            var snapshot = computed.snapshot();
+            redisService.setValue(feedKey(version), snapshot.etag() + "\n" + snapshot.body(), computed.ttlSeconds());
+        } catch (RuntimeException e) {
+            logger.warn("Failed to store discovery feed: {}", e.getMessage());
+        }
+    }
+
+    private boolean tryLock(String lockKey) {
+        try {
+            return Boolean.TRUE.equals(redisService.setValueIfAbsent(lockKey, "1", Constant.RedisKey.DISCOVERY_FEED_LOCK_EXPIRES));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to lock discovery feed: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    private void unlock(String lockKey) {
+        try {
+            redisService.deleteValue(lockKey);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to unlock discovery feed: {}", e.getMessage());
+        }
+    }
+
+    private static boolean sleep() {
+        try {
+            Thread.sleep(LOCK_POLL_MILLIS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    static String feedKey(String version) {
+        return String.format("%s:version:%s", Constant.RedisPrefix.DISCOVERY_FEED, version);
+    }
+
+    static String versionKey() {
+        return Constant.RedisPrefix.DISCOVERY_FEED_VERSION;
+    }
+}
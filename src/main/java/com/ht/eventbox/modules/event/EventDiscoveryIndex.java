@@ -0,0 +1,387 @@
+package com.ht.eventbox.modules.event;
+
+import com.ht.eventbox.constant.Constant;
+import com.ht.eventbox.entities.Category;
+import com.ht.eventbox.entities.Event;
+import com.ht.eventbox.entities.EventShow;
+import com.ht.eventbox.entities.Keyword;
+import com.ht.eventbox.enums.EventStatus;
+import com.ht.eventbox.utils.Helper;
+import lombok.NonNull;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over the published events that still have a show to come, serving
+ * the public search without touching the database. Every indexed event gets a small int
+ * ordinal and each term, category and province keeps a {@link BitSet} of ordinals, so a query
+ * is a few bitmap unions/intersections. Query words match term prefixes, accent-insensitively.
+ * <p>
+ * The index is built at startup, then patched one event at a time after the writes that change
+ * what is discoverable (publish, active/inactive, tags). Those patches are broadcast over the
+ * {@value #REFRESH_CHANNEL} Redis channel so every node applies them, and the scheduler rebuilds
+ * the whole index periodically in case a node missed a message. Events whose last show has ended
+ * are filtered out at query time and evicted by the scheduler.
+ * <p>
+ * Search results are a discovery snapshot: the ticket stock in them is as of the last patch or
+ * rebuild of the event, so it can lag by up to the rebuild interval. Live stock comes from the
+ * event detail and the {@code stock_updated} socket events.
+ */
+@Component
+public class EventDiscoveryIndex implements MessageListener {
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(EventDiscoveryIndex.class);
+
+    public static final String REFRESH_CHANNEL = Constant.RedisPrefix.DISCOVERY_INDEX + ":refresh";
+
+    private record Document(
+            Event event,
+            Set<String> terms,
+            Set<Long> categoryIds,
+            String province,
+            LocalDateTime lastEndTime) {
+    }
+
+    private final EventRepository eventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, BitSet> terms = new TreeMap<>();
+    private final Map<Long, BitSet> categories = new HashMap<>();
+    private final Map<String, BitSet> provinces = new HashMap<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final List<Document> documents = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private volatile boolean ready;
+
+    // Các event được cập nhật trong lúc đang rebuild, áp dụng lại sau khi thay chỉ mục
+    private final Set<Long> refreshedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding;
+
+    public EventDiscoveryIndex(
+            EventRepository eventRepository,
+            PlatformTransactionManager transactionManager,
+            RedisTemplate<String, String> redisTemplate,
+            @Value("${application.search.discovery-index.enabled:false}") boolean enabled) {
+        this.eventRepository = eventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        rebuilding = true;
+        refreshedDuringRebuild.clear();
+        List<Event> events;
+        try {
+            events = transactionTemplate.execute(status -> {
+                var published = eventRepository.findDistinctByStatusIsAndShowsEndTimeAfter(EventStatus.PUBLISHED, LocalDateTime.now());
+                published.forEach(this::initialize);
+                return published;
+            });
+
+            lock.writeLock().lock();
+            try {
+                terms.clear();
+                categories.clear();
+                provinces.clear();
+                ordinals.clear();
+                documents.clear();
+                live.clear();
+                Objects.requireNonNull(events).forEach(this::put);
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            ready = true;
+        } finally {
+            rebuilding = false;
+        }
+        // Các thay đổi nhận được trong lúc đọc có thể đã bị bản đọc cũ ghi đè
+        refreshedDuringRebuild.forEach(this::refresh);
+        logger.info("Event discovery index built with {} events", events.size());
+    }
+
+    /**
+     * Asks every node to re-read one event and update its postings once the current transaction
+     * (if any) commits.
+     */
+    public void refreshAfterCommit(Long eventId) {
+        if (!enabled) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    broadcastRefresh(eventId);
+                }
+            });
+            return;
+        }
+
+        broadcastRefresh(eventId);
+    }
+
+    private void broadcastRefresh(Long eventId) {
+        try {
+            redisTemplate.convertAndSend(REFRESH_CHANNEL, String.valueOf(eventId));
+        } catch (RuntimeException e) {
+            // Ít nhất node này vẫn được cập nhật, các node khác chờ lần rebuild tiếp theo
+            logger.warn("Failed to broadcast discovery index refresh of event #{}: {}", eventId, e.getMessage());
+            refresh(eventId);
+        }
+    }
+
+    @Override
+    public void onMessage(@NonNull Message message, byte[] pattern) {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            refresh(Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8)));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to refresh discovery index from message: {}", e.getMessage());
+        }
+    }
+
+    void refresh(Long eventId) {
+        if (rebuilding) {
+            refreshedDuringRebuild.add(eventId);
+        }
+
+        var now = LocalDateTime.now();
+        var event = transactionTemplate.execute(status -> eventRepository.findById(eventId)
+                .filter(found -> found.getStatus() == EventStatus.PUBLISHED)
+                .filter(found -> isUpcoming(lastEndTime(found), now))
+                .map(this::initialize)
+                .orElse(null));
+
+        lock.writeLock().lock();
+        try {
+            if (event == null) {
+                remove(eventId);
+            } else {
+                put(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the events whose last show has ended. Returns how many were evicted.
+     */
+    public int evictEnded(LocalDateTime now) {
+        lock.writeLock().lock();
+        try {
+            var ended = live.stream()
+                    .mapToObj(documents::get)
+                    .filter(document -> !isUpcoming(document.lastEndTime(), now))
+                    .map(document -> document.event().getId())
+                    .toList();
+            ended.forEach(this::remove);
+            return ended.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Event> search(String query, String province, List<Long> categoryIds, LocalDateTime now) {
+        lock.readLock().lock();
+        try {
+            var matches = (BitSet) live.clone();
+
+            for (var token : tokenize(query)) {
+                var tokenMatches = new BitSet();
+                terms.subMap(token, true, token + Character.MAX_VALUE, false)
+                        .values()
+                        .forEach(tokenMatches::or);
+                matches.and(tokenMatches);
+            }
+
+            var provinceText = Helper.toSearchText(province);
+            if (!provinceText.isEmpty()) {
+                var provinceMatches = new BitSet();
+                provinces.forEach((name, postings) -> {
+                    if (name.contains(provinceText)) {
+                        provinceMatches.or(postings);
+                    }
+                });
+                matches.and(provinceMatches);
+            }
+
+            if (categoryIds != null && !categoryIds.isEmpty()) {
+                var categoryMatches = new BitSet();
+                categoryIds.stream()
+                        .map(categories::get)
+                        .filter(Objects::nonNull)
+                        .forEach(categoryMatches::or);
+                matches.and(categoryMatches);
+            }
+
+            return matches.stream()
+                    .mapToObj(documents::get)
+                    .filter(document -> isUpcoming(document.lastEndTime(), now))
+                    .map(Document::event)
+                    .sorted(Comparator.comparing(Event::getId))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return live.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Phải gọi khi đang giữ write lock
+    private void put(Event event) {
+        remove(event.getId());
+
+        var province = provinceOf(event.getAddress());
+        var document = new Document(
+                event,
+                termsOf(event, province),
+                event.getCategories().stream().map(Category::getId).collect(Collectors.toSet()),
+                province,
+                lastEndTime(event));
+
+        var ordinal = live.nextClearBit(0);
+        if (ordinal == documents.size()) {
+            documents.add(document);
+        } else {
+            documents.set(ordinal, document);
+        }
+        live.set(ordinal);
+        ordinals.put(event.getId(), ordinal);
+
+        document.terms().forEach(term -> terms.computeIfAbsent(term, key -> new BitSet()).set(ordinal));
+        document.categoryIds().forEach(categoryId -> categories.computeIfAbsent(categoryId, key -> new BitSet()).set(ordinal));
+        provinces.computeIfAbsent(province, key -> new BitSet()).set(ordinal);
+    }
+
+    // Phải gọi khi đang giữ write lock
+    private void remove(Long eventId) {
+        var ordinal = ordinals.remove(eventId);
+        if (ordinal == null) {
+            return;
+        }
+
+        var document = documents.get(ordinal);
+        document.terms().forEach(term -> clear(terms, term, ordinal));
+        document.categoryIds().forEach(categoryId -> clear(categories, categoryId, ordinal));
+        clear(provinces, document.province(), ordinal);
+
+        documents.set(ordinal, null);
+        live.clear(ordinal);
+    }
+
+    private static <K> void clear(Map<K, BitSet> postings, K key, int ordinal) {
+        var bits = postings.get(key);
+        if (bits == null) {
+            return;
+        }
+
+        bits.clear(ordinal);
+        if (bits.isEmpty()) {
+            postings.remove(key);
+        }
+    }
+
+    private Event initialize(Event event) {
+        Hibernate.initialize(event.getShows());
+        event.getShows().forEach(show -> Hibernate.initialize(show.getTickets()));
+        Hibernate.initialize(event.getOrganization().getUserOrganizations());
+        return event;
+    }
+
+    private static Set<String> termsOf(Event event, String province) {
+        var text = Stream.concat(
+                        Stream.of(event.getTitle(), event.getDescription(), province),
+                        Stream.concat(
+                                event.getKeywords().stream().map(Keyword::getName),
+                                event.getCategories().stream().flatMap(category -> Stream.of(category.getNameVi(), category.getNameEn()))))
+                .filter(Objects::nonNull)
+                .reduce("", (left, right) -> left + " " + right);
+        return new LinkedHashSet<>(tokenize(text));
+    }
+
+    static List<String> tokenize(String text) {
+        return Arrays.stream(Helper.toSearchText(text).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    /*
+     * Địa chỉ có dạng "số nhà, phường, quận, tỉnh/thành phố", lấy phần cuối làm tỉnh/thành phố
+     */
+    static String provinceOf(String address) {
+        if (address == null) {
+            return "";
+        }
+
+        var parts = address.split(",");
+        return Helper.toSearchText(parts[parts.length - 1]);
+    }
+
+    private static LocalDateTime lastEndTime(Event event) {
+        return event.getShows().stream()
+                .map(EventShow::getEndTime)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .orElse(null);
+    }
+
+    private static boolean isUpcoming(LocalDateTime lastEndTime, LocalDateTime now) {
+        return Optional.ofNullable(lastEndTime).map(endTime -> endTime.isAfter(now)).orElse(false);
+    }
+}
@@ -6,6 +6,8 @@ import com.ht.eventbox.enums.EventStatus;
 import com.ht.eventbox.enums.OrganizationRole;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -34,498 +36,83 @@ public interface EventRepository extends JpaRepository<Event, Long> {
 
     Page<Event> findAllByStatusInOrderByIdAsc(Collection<EventStatus> status, Pageable pageable);
 
-    @Query("""
-            SELECT COUNT(DISTINCT e)
-            FROM Event e
-            JOIN e.organization o
-            WHERE e.status IN :statuses
-              AND (
-                :search IS NULL
-                OR :search = ''
-                OR LOWER(e.title) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.address) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(o.name) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(COALESCE(o.description, '')) LIKE LOWER(CONCAT('%', :search, '%'))
-              )
-            """)
-    long countSearchAllByStatusIn(
-            @Param("statuses") Collection<EventStatus> statuses,
-            @Param("search") String search
-    );
-
-    @Query(value = """
-            SELECT DISTINCT e
-            FROM Event e
-            JOIN e.organization o
-            WHERE e.status IN :statuses
-              AND (
-                :search IS NULL
-                OR :search = ''
-                OR LOWER(e.title) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.address) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(o.name) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(COALESCE(o.description, '')) LIKE LOWER(CONCAT('%', :search, '%'))
-              )
-            ORDER BY e.id ASC
-            """, countQuery = """
-            SELECT COUNT(DISTINCT e)
-            FROM Event e
-            JOIN e.organization o
-            WHERE e.status IN :statuses
-              AND (
-                :search IS NULL
-                OR :search = ''
-                OR LOWER(e.title) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.address) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(o.name) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(COALESCE(o.description, '')) LIKE LOWER(CONCAT('%', :search, '%'))
-              )
-            """)
-    Page<Event> searchAllByStatusInOrderByIdAsc(
-            @Param("statuses") Collection<EventStatus> statuses,
-            @Param("search") String search,
-            Pageable pageable
-    );
-
-    @Query(value = """
-            SELECT DISTINCT e
-            FROM Event e
-            JOIN e.organization o
-            WHERE e.status = :status
-              AND EXISTS (
-                SELECT s
-                FROM EventShow s
-                WHERE s.event = e
-                  AND s.endTime >= :now
-              )
-              AND (
-                :search IS NULL
-                OR :search = ''
-                OR LOWER(e.title) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.address) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(o.name) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(COALESCE(o.description, '')) LIKE LOWER(CONCAT('%', :search, '%'))
-              )
-            ORDER BY e.id ASC
-            """, countQuery = """
-            SELECT COUNT(DISTINCT e)
-            FROM Event e
-            JOIN e.organization o
-            WHERE e.status = :status
-              AND EXISTS (
-                SELECT s
-                FROM EventShow s
-                WHERE s.event = e
-                  AND s.endTime >= :now
-              )
-              AND (
-                :search IS NULL
-                OR :search = ''
-                OR LOWER(e.title) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.address) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(o.name) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(COALESCE(o.description, '')) LIKE LOWER(CONCAT('%', :search, '%'))
-              )
-            """)
-    Page<Event> searchPublishedByStatusOrderByIdAsc(
-            @Param("status") EventStatus status,
-            @Param("search") String search,
-            @Param("now") LocalDateTime now,
-            Pageable pageable
-    );
-
-    @Query(value = """
-            SELECT DISTINCT e
-            FROM Event e
-            JOIN e.organization o
-            WHERE e.status = :status
-              AND NOT EXISTS (
-                SELECT s
-                FROM EventShow s
-                WHERE s.event = e
-                  AND s.endTime >= :now
-              )
-              AND (
-                :search IS NULL
-                OR :search = ''
-                OR LOWER(e.title) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.address) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(o.name) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(COALESCE(o.description, '')) LIKE LOWER(CONCAT('%', :search, '%'))
-              )
-            ORDER BY e.id ASC
-            """, countQuery = """
-            SELECT COUNT(DISTINCT e)
-            FROM Event e
-            JOIN e.organization o
-            WHERE e.status = :status
-              AND NOT EXISTS (
-                SELECT s
-                FROM EventShow s
-                WHERE s.event = e
-                  AND s.endTime >= :now
-              )
-              AND (
-                :search IS NULL
-                OR :search = ''
-                OR LOWER(e.title) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.address) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(o.name) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(COALESCE(o.description, '')) LIKE LOWER(CONCAT('%', :search, '%'))
-              )
-            """)
-    Page<Event> searchEndedByStatusOrderByIdAsc(
-            @Param("status") EventStatus status,
-            @Param("search") String search,
-            @Param("now") LocalDateTime now,
-            Pageable pageable
-    );
-
-    @Query("""
-            SELECT COUNT(DISTINCT e)
-            FROM Event e
-            JOIN e.organization o
-            WHERE e.status = :status
-              AND EXISTS (
-                SELECT s
-                FROM EventShow s
-                WHERE s.event = e
-                  AND s.endTime >= :now
-              )
-              AND (
-                :search IS NULL
-                OR :search = ''
-                OR LOWER(e.title) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.address) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(o.name) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(COALESCE(o.description, '')) LIKE LOWER(CONCAT('%', :search, '%'))
-              )
-            """)
-    long countSearchPublishedByStatus(
-            @Param("status") EventStatus status,
-            @Param("search") String search,
-            @Param("now") LocalDateTime now
-    );
-
-    @Query("""
-            SELECT COUNT(DISTINCT e)
-            FROM Event e
-            JOIN e.organization o
-            WHERE e.status = :status
-              AND NOT EXISTS (
-                SELECT s
-                FROM EventShow s
-                WHERE s.event = e
-                  AND s.endTime >= :now
-              )
-              AND (
-                :search IS NULL
-                OR :search = ''
-                OR LOWER(e.title) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.address) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(o.name) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(COALESCE(o.description, '')) LIKE LOWER(CONCAT('%', :search, '%'))
-              )
-            """)
-    long countSearchEndedByStatus(
-            @Param("status") EventStatus status,
-            @Param("search") String search,
-            @Param("now") LocalDateTime now
-    );
-
-    @Query("""
-            SELECT COUNT(DISTINCT e)
-            FROM Event e
-            JOIN e.organization o
-            WHERE o.id = :organizationId
+    /**
+     * Which shows an event must have to be listed by the search queries below.
+     */
+    enum ShowFilter {
+        ANY,
+        // Còn ít nhất một suất diễn chưa kết thúc
+        UPCOMING,
+        // Tất cả suất diễn đã kết thúc
+        ENDED
+    }
+
+    /*
+     * Bộ lọc dùng chung của các màn hình danh sách: organizationId = null là mọi tổ chức,
+     * showFilter là tên một ShowFilter
+     */
+    String SEARCH_FILTER = """
+            FROM Event e
+            JOIN e.organization o
+            WHERE (:organizationId IS NULL OR o.id = :organizationId)
               AND e.status IN :statuses
               AND (
-                :search IS NULL
-                OR :search = ''
-                OR LOWER(e.title) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.address) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(o.name) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(COALESCE(o.description, '')) LIKE LOWER(CONCAT('%', :search, '%'))
+                :showFilter = 'ANY'
+                OR (:showFilter = 'UPCOMING' AND EXISTS (
+                  SELECT s
+                  FROM EventShow s
+                  WHERE s.event = e
+                    AND s.endTime >= :now
+                ))
+                OR (:showFilter = 'ENDED' AND NOT EXISTS (
+                  SELECT s
+                  FROM EventShow s
+                  WHERE s.event = e
+                    AND s.endTime >= :now
+                ))
               )
-            """)
-    long countSearchAllByOrganizationIdAndStatusIn(
-            @Param("organizationId") Long organizationId,
-            @Param("statuses") Collection<EventStatus> statuses,
-            @Param("search") String search
-    );
-
-    @Query(value = """
-            SELECT DISTINCT e
-            FROM Event e
-            JOIN e.organization o
-            WHERE o.id = :organizationId
-              AND e.status IN :statuses
               AND (
                 :search IS NULL
                 OR :search = ''
-                OR LOWER(e.title) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.address) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(o.name) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(COALESCE(o.description, '')) LIKE LOWER(CONCAT('%', :search, '%'))
+                OR e.searchDocument LIKE CONCAT('%', :search, '%')
               )
-            ORDER BY e.id ASC
-            """, countQuery = """
-            SELECT COUNT(DISTINCT e)
-            FROM Event e
-            JOIN e.organization o
-            WHERE o.id = :organizationId
-              AND e.status IN :statuses
-              AND (
-                :search IS NULL
-                OR :search = ''
-                OR LOWER(e.title) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.address) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(o.name) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(COALESCE(o.description, '')) LIKE LOWER(CONCAT('%', :search, '%'))
-              )
-            """)
-    Page<Event> searchAllByOrganizationIdAndStatusInOrderByIdAsc(
-            @Param("organizationId") Long organizationId,
-            @Param("statuses") Collection<EventStatus> statuses,
-            @Param("search") String search,
-            Pageable pageable
-    );
+            """;
 
-    @Query(value = """
-            SELECT DISTINCT e
-            FROM Event e
-            JOIN e.organization o
-            WHERE o.id = :organizationId
-              AND e.status = :status
-              AND EXISTS (
-                SELECT s
-                FROM EventShow s
-                WHERE s.event = e
-                  AND s.endTime >= :now
-              )
-              AND (
-                :search IS NULL
-                OR :search = ''
-                OR LOWER(e.title) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.address) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(o.name) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(COALESCE(o.description, '')) LIKE LOWER(CONCAT('%', :search, '%'))
-              )
-            ORDER BY e.id ASC
-            """, countQuery = """
-            SELECT COUNT(DISTINCT e)
-            FROM Event e
-            JOIN e.organization o
-            WHERE o.id = :organizationId
-              AND e.status = :status
-              AND EXISTS (
-                SELECT s
-                FROM EventShow s
-                WHERE s.event = e
-                  AND s.endTime >= :now
-              )
-              AND (
-                :search IS NULL
-                OR :search = ''
-                OR LOWER(e.title) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.address) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(o.name) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(COALESCE(o.description, '')) LIKE LOWER(CONCAT('%', :search, '%'))
-              )
-            """)
-    Page<Event> searchPublishedByOrganizationIdOrderByIdAsc(
+    @EntityGraph(attributePaths = "organization", type = EntityGraph.EntityGraphType.LOAD)
+    @Query(value = "SELECT DISTINCT e " + SEARCH_FILTER + "ORDER BY e.id ASC",
+            countQuery = "SELECT COUNT(DISTINCT e) " + SEARCH_FILTER)
+    <T> Page<T> search(
             @Param("organizationId") Long organizationId,
-            @Param("status") EventStatus status,
+            @Param("statuses") Collection<EventStatus> statuses,
+            @Param("showFilter") String showFilter,
             @Param("search") String search,
             @Param("now") LocalDateTime now,
-            Pageable pageable
+            Pageable pageable,
+            Class<T> clazz
     );
 
-    @Query(value = """
-            SELECT DISTINCT e
-            FROM Event e
-            JOIN e.organization o
-            WHERE o.id = :organizationId
-              AND e.status = :status
-              AND NOT EXISTS (
-                SELECT s
-                FROM EventShow s
-                WHERE s.event = e
-                  AND s.endTime >= :now
-              )
-              AND (
-                :search IS NULL
-                OR :search = ''
-                OR LOWER(e.title) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.address) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(o.name) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(COALESCE(o.description, '')) LIKE LOWER(CONCAT('%', :search, '%'))
-              )
-            ORDER BY e.id ASC
-            """, countQuery = """
-            SELECT COUNT(DISTINCT e)
-            FROM Event e
-            JOIN e.organization o
-            WHERE o.id = :organizationId
-              AND e.status = :status
-              AND NOT EXISTS (
-                SELECT s
-                FROM EventShow s
-                WHERE s.event = e
-                  AND s.endTime >= :now
-              )
-              AND (
-                :search IS NULL
-                OR :search = ''
-                OR LOWER(e.title) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.address) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(o.name) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(COALESCE(o.description, '')) LIKE LOWER(CONCAT('%', :search, '%'))
-              )
-            """)
-    Page<Event> searchEndedByOrganizationIdOrderByIdAsc(
+    @EntityGraph(attributePaths = "organization", type = EntityGraph.EntityGraphType.LOAD)
+    @Query("SELECT DISTINCT e " + SEARCH_FILTER + "AND e.id > :afterId ORDER BY e.id ASC")
+    <T> Slice<T> searchAfter(
             @Param("organizationId") Long organizationId,
-            @Param("status") EventStatus status,
+            @Param("statuses") Collection<EventStatus> statuses,
+            @Param("showFilter") String showFilter,
             @Param("search") String search,
             @Param("now") LocalDateTime now,
-            Pageable pageable
+            @Param("afterId") Long afterId,
+            Pageable pageable,
+            Class<T> clazz
     );
 
-    @Query("""
-            SELECT COUNT(DISTINCT e)
-            FROM Event e
-            JOIN e.organization o
-            WHERE o.id = :organizationId
-              AND e.status = :status
-              AND EXISTS (
-                SELECT s
-                FROM EventShow s
-                WHERE s.event = e
-                  AND s.endTime >= :now
-              )
-              AND (
-                :search IS NULL
-                OR :search = ''
-                OR LOWER(e.title) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.address) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(o.name) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(COALESCE(o.description, '')) LIKE LOWER(CONCAT('%', :search, '%'))
-              )
-            """)
-    long countSearchPublishedByOrganizationId(
+    @Query("SELECT COUNT(DISTINCT e) " + SEARCH_FILTER)
+    long countSearch(
             @Param("organizationId") Long organizationId,
-            @Param("status") EventStatus status,
-            @Param("search") String search,
-            @Param("now") LocalDateTime now
-    );
-
-    @Query("""
-            SELECT COUNT(DISTINCT e)
-            FROM Event e
-            JOIN e.organization o
-            WHERE o.id = :organizationId
-              AND e.status = :status
-              AND NOT EXISTS (
-                SELECT s
-                FROM EventShow s
-                WHERE s.event = e
-                  AND s.endTime >= :now
-              )
-              AND (
-                :search IS NULL
-                OR :search = ''
-                OR LOWER(e.title) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.address) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(o.name) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(COALESCE(o.description, '')) LIKE LOWER(CONCAT('%', :search, '%'))
-              )
-            """)
-    long countSearchEndedByOrganizationId(
-            @Param("organizationId") Long organizationId,
-            @Param("status") EventStatus status,
+            @Param("statuses") Collection<EventStatus> statuses,
+            @Param("showFilter") String showFilter,
             @Param("search") String search,
             @Param("now") LocalDateTime now
     );
 
-    @Query(value = """
-            SELECT DISTINCT e
-            FROM Event e
-            JOIN e.organization o
-            WHERE o.id = :organizationId
-              AND e.status = :status
-              AND (
-                :search IS NULL
-                OR :search = ''
-                OR LOWER(e.title) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.address) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(o.name) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(COALESCE(o.description, '')) LIKE LOWER(CONCAT('%', :search, '%'))
-              )
-            ORDER BY e.id ASC
-            """, countQuery = """
-            SELECT COUNT(DISTINCT e)
-            FROM Event e
-            JOIN e.organization o
-            WHERE o.id = :organizationId
-              AND e.status = :status
-              AND (
-                :search IS NULL
-                OR :search = ''
-                OR LOWER(e.title) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.address) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(o.name) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(COALESCE(o.description, '')) LIKE LOWER(CONCAT('%', :search, '%'))
-              )
-            """)
-    Page<Event> searchDraftByOrganizationIdOrderByIdAsc(
-            @Param("organizationId") Long organizationId,
-            @Param("status") EventStatus status,
-            @Param("search") String search,
-            Pageable pageable
-    );
-
-    @Query("""
-            SELECT COUNT(DISTINCT e)
-            FROM Event e
-            JOIN e.organization o
-            WHERE o.id = :organizationId
-              AND e.status = :status
-              AND (
-                :search IS NULL
-                OR :search = ''
-                OR LOWER(e.title) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(e.address) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(o.name) LIKE LOWER(CONCAT('%', :search, '%'))
-                OR LOWER(COALESCE(o.description, '')) LIKE LOWER(CONCAT('%', :search, '%'))
-              )
-            """)
-    long countSearchDraftByOrganizationId(
-            @Param("organizationId") Long organizationId,
-            @Param("status") EventStatus status,
-            @Param("search") String search
-    );
-
     Page<Event> findByStatusIn(Collection<EventStatus> status, Pageable pageable);
 
     Page<Event> findByStatusInAndShowsEndTimeAfter(Collection<EventStatus> status, LocalDateTime now, Pageable pageable);
@@ -546,6 +133,8 @@ public interface EventRepository extends JpaRepository<Event, Long> {
 
     Page<Event> findDistinctByCategoriesIdAndStatusIsAndShowsEndTimeAfter(Long categoryId, EventStatus status, LocalDateTime now, Pageable pageable);
 
+    List<Event> findDistinctByStatusIsAndShowsEndTimeAfter(EventStatus status, LocalDateTime now);
+
     boolean existsByOrganizationId(Long orgId);
 
     List<Event> findAllByOrganizationIdAndStatusIsOrderByIdAsc(Long organizationId, EventStatus status);
@@ -558,10 +147,7 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     JOIN e.categories c
     WHERE e.status = :status
       AND s.endTime > :now
-      AND (
-        LOWER(e.title) LIKE LOWER(CONCAT('%', :query, '%'))
-        OR LOWER(e.description) LIKE LOWER(CONCAT('%', :query, '%'))
-      )
+      AND e.searchDocument LIKE CONCAT('%', :query, '%')
       AND (:categoryIds IS NULL OR c.id IN :categoryIds)
     """)
     List<Event> searchEvents(
@@ -577,10 +163,7 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     JOIN e.categories c
     WHERE e.status = :status
       AND s.endTime > :now
-      AND (
-        LOWER(e.title) LIKE LOWER(CONCAT('%', :query, '%'))
-        OR LOWER(e.description) LIKE LOWER(CONCAT('%', :query, '%'))
-      )
+      AND e.searchDocument LIKE CONCAT('%', :query, '%')
       AND (LOWER(e.address) LIKE LOWER(CONCAT('%', :province, '%')))
       AND (:categoryIds IS NULL OR c.id IN :categoryIds)
     """)
@@ -593,4 +176,6 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     );
 
     boolean existsByCategoriesId(Long id);
+
+    List<Event> findAllBySearchDocumentIsNullOrderByIdAsc(Pageable pageable);
 }
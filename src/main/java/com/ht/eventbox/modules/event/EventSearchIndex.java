@@ -0,0 +1,150 @@
+package com.ht.eventbox.modules.event;
+
+import com.ht.eventbox.entities.Event;
+import com.ht.eventbox.enums.EventStatus;
+import com.ht.eventbox.utils.Helper;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Event search. Every event keeps an accent-folded, lower-cased {@code search_document}
+ * (see {@link Event#refreshSearchDocument()}) which the listings match with {@code LIKE}. With
+ * {@code application.search.full-text.enabled} (PostgreSQL only) the document also gets a
+ * trigram GIN index for those {@code LIKE} filters and a generated {@code tsvector} column with a
+ * GIN index, and the public search is ranked: every word is a prefix match, and pg_trgm word
+ * similarity lets queries with a typo still find the event.
+ */
+@Component
+public class EventSearchIndex {
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(EventSearchIndex.class);
+
+    static final int BACKFILL_BATCH_SIZE = 500;
+
+    static final List<String> SCHEMA = List.of(
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            """
+            ALTER TABLE events ADD COLUMN IF NOT EXISTS search_vector tsvector
+                GENERATED ALWAYS AS (to_tsvector('simple', coalesce(search_document, ''))) STORED
+            """,
+            "CREATE INDEX IF NOT EXISTS idx_events_search_vector ON events USING gin (search_vector)",
+            "CREATE INDEX IF NOT EXISTS idx_events_search_document_trgm ON events USING gin (search_document gin_trgm_ops)"
+    );
+
+    private final EventRepository eventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean fullTextEnabled;
+    private final int resultLimit;
+
+    public EventSearchIndex(
+            EventRepository eventRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${application.search.full-text.enabled:false}") boolean fullTextEnabled,
+            @Value("${application.search.full-text.result-limit:200}") int resultLimit) {
+        this.eventRepository = eventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.fullTextEnabled = fullTextEnabled;
+        this.resultLimit = resultLimit;
+    }
+
+    public boolean isFullTextEnabled() {
+        return fullTextEnabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        backfillSearchDocuments();
+
+        if (fullTextEnabled) {
+            SCHEMA.forEach(jdbcTemplate::execute);
+            logger.info("Event full-text search schema is ready");
+        }
+    }
+
+    /*
+     * Các sự kiện tạo trước khi có cột search_document sẽ được cập nhật theo từng lô
+     */
+    void backfillSearchDocuments() {
+        int updated;
+        do {
+            updated = transactionTemplate.execute(status -> {
+                var events = eventRepository.findAllBySearchDocumentIsNullOrderByIdAsc(PageRequest.of(0, BACKFILL_BATCH_SIZE));
+                events.forEach(Event::refreshSearchDocument);
+                eventRepository.saveAll(events);
+                return events.size();
+            });
+        } while (updated == BACKFILL_BATCH_SIZE);
+    }
+
+    /**
+     * Returns the ids of the published, not yet ended events matching {@code query}, best match first.
+     * A query without any word to match only filters by province and categories.
+     */
+    public List<Long> search(String query, String province, List<Long> categoryIds, LocalDateTime now) {
+        var text = Helper.toSearchText(query);
+        var tsQuery = toPrefixTsQuery(text);
+
+        var params = new MapSqlParameterSource()
+                .addValue("status", EventStatus.PUBLISHED.name())
+                .addValue("now", Timestamp.valueOf(now))
+                .addValue("limit", resultLimit);
+
+        var sql = new StringBuilder("""
+                SELECT e.id
+                FROM events e
+                WHERE e.status = :status
+                  AND EXISTS (SELECT 1 FROM event_shows s WHERE s.event_id = e.id AND s.end_time > :now)
+                """);
+        if (!tsQuery.isEmpty()) {
+            sql.append("  AND (e.search_vector @@ to_tsquery('simple', :tsQuery) OR :query <% e.search_document)\n");
+            params.addValue("query", text).addValue("tsQuery", tsQuery);
+        }
+        if (province != null && !province.isBlank()) {
+            sql.append("  AND LOWER(e.address) LIKE LOWER(CONCAT('%', :province, '%'))\n");
+            params.addValue("province", province);
+        }
+        if (categoryIds != null && !categoryIds.isEmpty()) {
+            sql.append("  AND EXISTS (SELECT 1 FROM event_categories ec WHERE ec.event_id = e.id AND ec.category_id IN (:categoryIds))\n");
+            params.addValue("categoryIds", categoryIds);
+        }
+        if (tsQuery.isEmpty()) {
+            // Không có từ khóa để xếp hạng, giữ thứ tự như các danh sách khác
+            sql.append("ORDER BY e.id\n");
+        } else {
+            sql.append("""
+                    ORDER BY ts_rank_cd(e.search_vector, to_tsquery('simple', :tsQuery))
+                             + word_similarity(:query, e.search_document) DESC, e.id
+                    """);
+        }
+        sql.append("LIMIT :limit\n");
+
+        return new NamedParameterJdbcTemplate(jdbcTemplate).queryForList(sql.toString(), params, Long.class);
+    }
+
+    /*
+     * "am nhac sai" -> "am:* & nhac:* & sai:*", chỉ giữ chữ và số để không lỗi cú pháp tsquery
+     */
+    static String toPrefixTsQuery(String text) {
+        return Arrays.stream(text.split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
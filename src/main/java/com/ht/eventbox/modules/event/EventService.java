@@ -1,6 +1,8 @@
 package com.ht.eventbox.modules.event;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ht.eventbox.config.CursorPage;
+import com.ht.eventbox.config.CursorRequest;
 import com.ht.eventbox.config.HttpException;
 import com.ht.eventbox.constant.Constant;
 import com.ht.eventbox.entities.*;
@@ -11,6 +13,7 @@ import com.ht.eventbox.enums.OrganizationRole;
 import com.ht.eventbox.modules.backgroundjobs.NotificationJobService;
 import com.ht.eventbox.modules.asset.AssetRepository;
 import com.ht.eventbox.modules.category.CategoryRepository;
+import com.ht.eventbox.modules.event.EventRepository.ShowFilter;
 import com.ht.eventbox.modules.event.dtos.CreateEventDto;
 import com.ht.eventbox.modules.event.dtos.EventOverviewDto;
 import com.ht.eventbox.modules.event.dtos.UpdateEventDto;
@@ -19,8 +22,10 @@ import com.ht.eventbox.modules.keyword.KeywordRepository;
 import com.ht.eventbox.modules.order.CurrencyConverterServiceV2;
 import com.ht.eventbox.modules.order.OrderRepository;
 import com.ht.eventbox.modules.order.PayPalService;
-import com.ht.eventbox.modules.order.TicketItemRepository;
+import com.ht.eventbox.modules.order.ReservationCountService;
+import com.ht.eventbox.modules.inventory.ShardedStockService;
 import com.ht.eventbox.modules.organization.OrganizationRepository;
+import com.ht.eventbox.modules.seatmap.SeatmapService;
 import com.ht.eventbox.modules.storage.CloudinaryService;
 import com.ht.eventbox.utils.Helper;
 import lombok.Builder;
@@ -60,10 +65,109 @@ public class EventService {
         private List<Event> latestEvents;
     }
 
+    /*
+     * Dữ liệu gọn cho các trang danh sách: không có mô tả, sơ đồ chỗ ngồi và danh sách thành viên tổ chức
+     */
+    public interface OrganizationSummary {
+        Long getId();
+
+        String getName();
+
+        Set<Asset> getAssets();
+    }
+
+    public interface TicketSummary {
+        Long getId();
+
+        String getName();
+
+        Double getPrice();
+
+        @JsonProperty("initial_stock")
+        int getInitialStock();
+
+        int getStock();
+
+        boolean isAvailable();
+    }
+
+    public interface EventShowSummary {
+        Long getId();
+
+        String getTitle();
+
+        @JsonProperty("enabled_seatmap")
+        boolean isEnabledSeatmap();
+
+        @JsonProperty("seatmap_hash")
+        String getSeatmapHash();
+
+        @JsonProperty("seatmap_svg_hash")
+        String getSeatmapSvgHash();
+
+        @JsonProperty("start_time")
+        java.time.LocalDateTime getStartTime();
+
+        @JsonProperty("end_time")
+        java.time.LocalDateTime getEndTime();
+
+        @JsonProperty("sale_start_time")
+        java.time.LocalDateTime getSaleStartTime();
+
+        @JsonProperty("sale_end_time")
+        java.time.LocalDateTime getSaleEndTime();
+
+        List<TicketSummary> getTickets();
+    }
+
+    /**
+     * Listing read model of the V2 event endpoints: no description and no members of the
+     * organization. The V1 listings, the discovery feed and the user and organization endpoints
+     * still serialize the entities, since their response shape is what existing clients read;
+     * they only get the batch fetching of the associations.
+     */
+    public interface EventSummary {
+        Long getId();
+
+        String getTitle();
+
+        String getAddress();
+
+        @JsonProperty("place_name")
+        String getPlaceName();
+
+        EventStatus getStatus();
+
+        boolean isFeatured();
+
+        boolean isTrending();
+
+        @JsonProperty("published_at")
+        java.time.LocalDateTime getPublishedAt();
+
+        @JsonProperty("payout_at")
+        java.time.LocalDateTime getPayoutAt();
+
+        OrganizationSummary getOrganization();
+
+        List<EventShowSummary> getShows();
+
+        Set<Asset> getAssets();
+
+        Set<Category> getCategories();
+
+        Set<Keyword> getKeywords();
+
+        @JsonProperty("created_at")
+        java.time.LocalDateTime getCreatedAt();
+
+        @JsonProperty("updated_at")
+        java.time.LocalDateTime getUpdatedAt();
+    }
+
     private static final Logger logger = org.slf4j.LoggerFactory.getLogger(EventService.class);
 
     private final EventRepository eventRepository;
-    private final TicketItemRepository ticketItemRepository;
     private final OrganizationRepository organizationRepository;
     private final CloudinaryService cloudinaryService;
     private final CategoryRepository categoryRepository;
@@ -73,6 +177,12 @@ public class EventService {
     private final PayPalService payPalService;
     private final CurrencyConverterServiceV2 currencyConverterService;
     private final OrderRepository orderRepository;
+    private final ReservationCountService reservationCountService;
+    private final ShardedStockService shardedStockService;
+    private final EventSearchIndex eventSearchIndex;
+    private final EventDiscoveryIndex eventDiscoveryIndex;
+    private final EventDiscoveryFeed eventDiscoveryFeed;
+    private final SeatmapService seatmapService;
 
     public List<EventShow> getShowsById(Long eventId) {
         return eventShowRepository.findAllByEventIdOrderByIdAsc(eventId);
@@ -112,16 +222,30 @@ public class EventService {
             categories = null;
         }
 
+        if (eventDiscoveryIndex.isReady()) {
+            // Tìm trên chỉ mục trong bộ nhớ, không truy vấn cơ sở dữ liệu
+            return eventDiscoveryIndex.search(query, province, categories, LocalDateTime.now());
+        }
+
+        if (eventSearchIndex.isFullTextEnabled()) {
+            // Tìm kiếm toàn văn trên PostgreSQL, kết quả đã được xếp hạng theo độ phù hợp
+            var ids = eventSearchIndex.search(query, province, categories, LocalDateTime.now());
+            var eventsById = eventRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Event::getId, event -> event));
+            return ids.stream().map(eventsById::get).filter(Objects::nonNull).toList();
+        }
+
+        var searchText = Helper.toSearchText(query);
         if (province != null && !province.isBlank()) {
             return eventRepository
                     .searchEvents(
-                            query, province, categories, EventStatus.PUBLISHED, LocalDateTime.now()
+                            searchText, province, categories, EventStatus.PUBLISHED, LocalDateTime.now()
                     );
         }
 
         return eventRepository
                 .searchEvents(
-                        query, categories, EventStatus.PUBLISHED, LocalDateTime.now()
+                        searchText, categories, EventStatus.PUBLISHED, LocalDateTime.now()
                 );
     }
 
@@ -157,8 +281,7 @@ public class EventService {
                             .build();
 
                     if (createShowDto.isEnabledSeatmap()) {
-                        eventShow.setSeatmap(createShowDto.getSeatmap());
-                        eventShow.setSeatmapSvg(createShowDto.getSeatmapSvg());
+                        seatmapService.attach(eventShow, createShowDto.getSeatmap(), createShowDto.getSeatmapSvg());
                     }
 
                     // Tạo các Ticket từ danh sách ticketTypeInputs trong CreateShowDto
@@ -264,8 +387,7 @@ public class EventService {
                             .build();
 
                     if (createShowDto.isEnabledSeatmap()) {
-                        eventShow.setSeatmap(createShowDto.getSeatmap());
-                        eventShow.setSeatmapSvg(createShowDto.getSeatmapSvg());
+                        seatmapService.attach(eventShow, createShowDto.getSeatmap(), createShowDto.getSeatmapSvg());
                     }
 
                     List<Ticket> tickets = createShowDto.getTicketTypeInputs().stream()
@@ -400,6 +522,8 @@ public class EventService {
         event.setFeatured(updateEventTagsDto.isFeatured());
         event.setTrending(updateEventTagsDto.isTrending());
         eventRepository.save(event);
+        eventDiscoveryIndex.refreshAfterCommit(eventId);
+        eventDiscoveryFeed.invalidateAfterCommit();
 
         return true;
     }
@@ -416,6 +540,8 @@ public class EventService {
         event.setStatus(EventStatus.PUBLISHED);
         event.setPublishedAt(LocalDateTime.now());
         eventRepository.save(event);
+        eventDiscoveryIndex.refreshAfterCommit(eventId);
+        eventDiscoveryFeed.invalidateAfterCommit();
 
         notificationJobService.enqueueEventPublished(eventId);
 
@@ -460,6 +586,8 @@ public class EventService {
 
         event.setStatus(EventStatus.DRAFT);
         eventRepository.save(event);
+        eventDiscoveryIndex.refreshAfterCommit(eventId);
+        eventDiscoveryFeed.invalidateAfterCommit();
 
         return true;
     }
@@ -474,6 +602,8 @@ public class EventService {
 
         event.setStatus(EventStatus.PUBLISHED);
         eventRepository.save(event);
+        eventDiscoveryIndex.refreshAfterCommit(eventId);
+        eventDiscoveryFeed.invalidateAfterCommit();
 
         return true;
     }
@@ -495,18 +625,23 @@ public class EventService {
         var event = eventRepository.findByIdAndStatusIsNot(eventId, eventStatus)
                 .orElseThrow(() -> new HttpException(Constant.ErrorCode.EVENT_NOT_FOUND, HttpStatus.NOT_FOUND));
 
+        // Số lượng vé đã đặt nhưng chưa thanh toán, theo từng loại vé
+        var heldCounts = reservationCountService.getHeldCountsByEventId(event.getId());
+
+        // Loại vé chia stock thành nhiều phần thì lấy tổng các phần
+        var shardedStocks = shardedStockService.getShardedStocks(event.getShows().stream()
+                .flatMap(eventShow -> eventShow.getTickets().stream())
+                .filter(ticket -> ticket.getStockShards() > 0)
+                .map(Ticket::getId)
+                .toList());
+
         event.getShows().forEach(eventShow -> {
             eventShow.getTickets().forEach(ticket -> {
-                // Tính toán số lượng vé đã đặt nhưng chưa thanh toán
-                int reservedStock = (int) ticketItemRepository.
-                        countAllByTicketIdAndOrderStatusInAndOrderExpiredAtIsAfter(
-                                ticket.getId(),
-                                List.of(OrderStatus.PENDING, OrderStatus.WAITING_FOR_PAYMENT),
-                                LocalDateTime.now()
-                                );
+                int reservedStock = heldCounts.getOrDefault(ticket.getId(), 0L).intValue();
+                int stock = shardedStocks.getOrDefault(ticket.getId(), ticket.getStock());
 
                 // Trả về số lượng vé thực tế còn lại
-                ticket.setStock(ticket.getStock() - reservedStock);
+                ticket.setStock(stock - reservedStock);
             });
         });
 
@@ -527,157 +662,185 @@ public class EventService {
         return eventRepository.findAllByStatusInOrderByIdAsc(statuses, pageable);
     }
 
-    public Page<Event> getAllByStatusIn(
+    public Page<EventSummary> getAllByStatusIn(
             List<EventStatus> statuses,
             String search,
             Pageable pageable
     ) {
-        return eventRepository.searchAllByStatusInOrderByIdAsc(statuses, normalizeSearch(search), pageable);
+        return search(null, statuses, ShowFilter.ANY, search, pageable);
     }
 
-    public Page<Event> getAllPending(
+    public Page<EventSummary> getAllPending(
             String search,
             Pageable pageable
     ) {
-        return eventRepository.searchAllByStatusInOrderByIdAsc(
-                List.of(EventStatus.PENDING),
-                normalizeSearch(search),
-                pageable
-        );
+        return search(null, List.of(EventStatus.PENDING), ShowFilter.ANY, search, pageable);
     }
 
-    public Page<Event> getAllPendingByOrganizationId(
+    public Page<EventSummary> getAllPendingByOrganizationId(
             Long organizationId,
             String search,
             Pageable pageable
     ) {
-        return eventRepository.searchAllByOrganizationIdAndStatusInOrderByIdAsc(
-                organizationId,
-                List.of(EventStatus.PENDING),
-                normalizeSearch(search),
-                pageable
-        );
+        return search(organizationId, List.of(EventStatus.PENDING), ShowFilter.ANY, search, pageable);
     }
 
-    public Page<Event> getAllPublished(
+    public Page<EventSummary> getAllPublished(
             String search,
             Pageable pageable
     ) {
-        return eventRepository.searchPublishedByStatusOrderByIdAsc(
-                EventStatus.PUBLISHED,
-                normalizeSearch(search),
-                LocalDateTime.now(),
-                pageable
-        );
+        return search(null, List.of(EventStatus.PUBLISHED), ShowFilter.UPCOMING, search, pageable);
     }
 
-    public Page<Event> getAllPublishedByOrganizationId(
+    public Page<EventSummary> getAllPublishedByOrganizationId(
             Long organizationId,
             String search,
             Pageable pageable
     ) {
-        return eventRepository.searchPublishedByOrganizationIdOrderByIdAsc(
-                organizationId,
-                EventStatus.PUBLISHED,
-                normalizeSearch(search),
-                LocalDateTime.now(),
-                pageable
-        );
+        return search(organizationId, List.of(EventStatus.PUBLISHED), ShowFilter.UPCOMING, search, pageable);
     }
 
-    public Page<Event> getAllEnded(
+    public Page<EventSummary> getAllEnded(
             String search,
             Pageable pageable
     ) {
-        return eventRepository.searchEndedByStatusOrderByIdAsc(
-                EventStatus.PUBLISHED,
-                normalizeSearch(search),
-                LocalDateTime.now(),
-                pageable
-        );
+        return search(null, List.of(EventStatus.PUBLISHED), ShowFilter.ENDED, search, pageable);
     }
 
-    public Page<Event> getAllEndedByOrganizationId(
+    public Page<EventSummary> getAllEndedByOrganizationId(
             Long organizationId,
             String search,
             Pageable pageable
     ) {
-        return eventRepository.searchEndedByOrganizationIdOrderByIdAsc(
-                organizationId,
-                EventStatus.PUBLISHED,
-                normalizeSearch(search),
-                LocalDateTime.now(),
-                pageable
-        );
+        return search(organizationId, List.of(EventStatus.PUBLISHED), ShowFilter.ENDED, search, pageable);
     }
 
-    public Page<Event> getAllDraftByOrganizationId(
+    public Page<EventSummary> getAllDraftByOrganizationId(
             Long organizationId,
             String search,
             Pageable pageable
     ) {
-        return eventRepository.searchDraftByOrganizationIdOrderByIdAsc(
-                organizationId,
-                EventStatus.DRAFT,
-                normalizeSearch(search),
-                pageable
-        );
+        return search(organizationId, List.of(EventStatus.DRAFT), ShowFilter.ANY, search, pageable);
+    }
+
+    public CursorPage<EventSummary> getAllByStatusIn(
+            List<EventStatus> statuses,
+            String search,
+            CursorRequest cursor
+    ) {
+        return search(null, statuses, ShowFilter.ANY, search, cursor);
+    }
+
+    public CursorPage<EventSummary> getAllPending(
+            String search,
+            CursorRequest cursor
+    ) {
+        return search(null, List.of(EventStatus.PENDING), ShowFilter.ANY, search, cursor);
+    }
+
+    public CursorPage<EventSummary> getAllPendingByOrganizationId(
+            Long organizationId,
+            String search,
+            CursorRequest cursor
+    ) {
+        return search(organizationId, List.of(EventStatus.PENDING), ShowFilter.ANY, search, cursor);
+    }
+
+    public CursorPage<EventSummary> getAllPublished(
+            String search,
+            CursorRequest cursor
+    ) {
+        return search(null, List.of(EventStatus.PUBLISHED), ShowFilter.UPCOMING, search, cursor);
+    }
+
+    public CursorPage<EventSummary> getAllPublishedByOrganizationId(
+            Long organizationId,
+            String search,
+            CursorRequest cursor
+    ) {
+        return search(organizationId, List.of(EventStatus.PUBLISHED), ShowFilter.UPCOMING, search, cursor);
+    }
+
+    public CursorPage<EventSummary> getAllEnded(
+            String search,
+            CursorRequest cursor
+    ) {
+        return search(null, List.of(EventStatus.PUBLISHED), ShowFilter.ENDED, search, cursor);
+    }
+
+    public CursorPage<EventSummary> getAllEndedByOrganizationId(
+            Long organizationId,
+            String search,
+            CursorRequest cursor
+    ) {
+        return search(organizationId, List.of(EventStatus.PUBLISHED), ShowFilter.ENDED, search, cursor);
+    }
+
+    public CursorPage<EventSummary> getAllDraftByOrganizationId(
+            Long organizationId,
+            String search,
+            CursorRequest cursor
+    ) {
+        return search(organizationId, List.of(EventStatus.DRAFT), ShowFilter.ANY, search, cursor);
     }
 
     public EventOverviewDto getOverview(String search) {
+        return getOverviewByOrganizationId(null, search);
+    }
+
+    /*
+     * organizationId = null để đếm trên mọi tổ chức
+     */
+    public EventOverviewDto getOverviewByOrganizationId(Long organizationId, String search) {
         var normalizedSearch = normalizeSearch(search);
         var now = LocalDateTime.now();
 
         return EventOverviewDto.builder()
-                .pendingCount(eventRepository.countSearchAllByStatusIn(
-                        List.of(EventStatus.PENDING),
-                        normalizedSearch
-                ))
-                .publishedCount(eventRepository.countSearchPublishedByStatus(
-                        EventStatus.PUBLISHED,
-                        normalizedSearch,
-                        now
-                ))
-                .endedCount(eventRepository.countSearchEndedByStatus(
-                        EventStatus.PUBLISHED,
-                        normalizedSearch,
-                        now
-                ))
-                .draftCount(eventRepository.countSearchAllByStatusIn(
-                        List.of(EventStatus.DRAFT),
-                        normalizedSearch
-                ))
+                .pendingCount(eventRepository.countSearch(
+                        organizationId, List.of(EventStatus.PENDING), ShowFilter.ANY.name(), normalizedSearch, now))
+                .publishedCount(eventRepository.countSearch(
+                        organizationId, List.of(EventStatus.PUBLISHED), ShowFilter.UPCOMING.name(), normalizedSearch, now))
+                .endedCount(eventRepository.countSearch(
+                        organizationId, List.of(EventStatus.PUBLISHED), ShowFilter.ENDED.name(), normalizedSearch, now))
+                .draftCount(eventRepository.countSearch(
+                        organizationId, List.of(EventStatus.DRAFT), ShowFilter.ANY.name(), normalizedSearch, now))
                 .build();
     }
 
-    public EventOverviewDto getOverviewByOrganizationId(Long organizationId, String search) {
+    private Page<EventSummary> search(
+            Long organizationId,
+            List<EventStatus> statuses,
+            ShowFilter showFilter,
+            String search,
+            Pageable pageable
+    ) {
+        return eventRepository.search(
+                organizationId,
+                statuses,
+                showFilter.name(),
+                normalizeSearch(search),
+                LocalDateTime.now(),
+                pageable,
+                EventSummary.class
+        );
+    }
+
+    private CursorPage<EventSummary> search(
+            Long organizationId,
+            List<EventStatus> statuses,
+            ShowFilter showFilter,
+            String search,
+            CursorRequest cursor
+    ) {
         var normalizedSearch = normalizeSearch(search);
         var now = LocalDateTime.now();
-
-        return EventOverviewDto.builder()
-                .pendingCount(eventRepository.countSearchAllByOrganizationIdAndStatusIn(
-                        organizationId,
-                        List.of(EventStatus.PENDING),
-                        normalizedSearch
-                ))
-                .publishedCount(eventRepository.countSearchPublishedByOrganizationId(
-                        organizationId,
-                        EventStatus.PUBLISHED,
-                        normalizedSearch,
-                        now
-                ))
-                .endedCount(eventRepository.countSearchEndedByOrganizationId(
-                        organizationId,
-                        EventStatus.PUBLISHED,
-                        normalizedSearch,
-                        now
-                ))
-                .draftCount(eventRepository.countSearchDraftByOrganizationId(
-                        organizationId,
-                        EventStatus.DRAFT,
-                        normalizedSearch
-                ))
-                .build();
+        return CursorPage.of(
+                eventRepository.searchAfter(
+                        organizationId, statuses, showFilter.name(), normalizedSearch, now, cursor.afterId(), cursor.pageable(), EventSummary.class),
+                EventSummary::getId,
+                cursor,
+                () -> eventRepository.countSearch(organizationId, statuses, showFilter.name(), normalizedSearch, now)
+        );
     }
 
     public boolean eventPayout(Long userId, Long eventId) {
@@ -758,7 +921,7 @@ public class EventService {
             return null;
         }
 
-        var trimmed = search.trim();
-        return trimmed.isEmpty() ? null : trimmed;
+        var normalized = Helper.toSearchText(search);
+        return normalized.isEmpty() ? null : normalized;
     }
 }
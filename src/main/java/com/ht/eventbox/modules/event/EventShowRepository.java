@@ -1,6 +1,7 @@
 package com.ht.eventbox.modules.event;
 
 import com.ht.eventbox.entities.EventShow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
@@ -9,4 +10,6 @@ public interface EventShowRepository extends JpaRepository<EventShow, Long> {
     List<EventShow> findAllByEventId(Long eventId);
 
     List<EventShow> findAllByEventIdOrderByIdAsc(Long eventId);
+
+    List<EventShow> findAllBySeatmapIsNotNullOrSeatmapSvgIsNotNullOrderByIdAsc(Pageable pageable);
 }
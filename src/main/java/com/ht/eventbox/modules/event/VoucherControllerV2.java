@@ -1,7 +1,10 @@
 package com.ht.eventbox.modules.event;
 
 import com.ht.eventbox.annotations.RequiredPermissions;
+import com.ht.eventbox.config.CursorRequest;
+import com.ht.eventbox.config.CursorResponse;
 import com.ht.eventbox.config.QueryResponse;
+import com.ht.eventbox.config.Response;
 import com.ht.eventbox.entities.Voucher;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
@@ -15,6 +18,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @CrossOrigin
 @RequestMapping(path = "/api/v2/vouchers")
@@ -24,12 +29,22 @@ public class VoucherControllerV2 {
 
     @GetMapping("/event/{eventId}")
     @RequiredPermissions({"read:vouchers"})
-    public ResponseEntity<QueryResponse<Voucher>> getAllByEventId(
+    public ResponseEntity<Response<List<Voucher>>> getAllByEventId(
             @RequestAttribute("sub") String sub,
             @PathVariable Long eventId,
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean count,
             Pageable pageable
     ) {
+        if (after != null) {
+            var res = voucherService.getAllByEventId(
+                    Long.valueOf(sub), eventId, search, CursorRequest.of(after, pageable.getPageSize(), count));
+            return ResponseEntity.ok(
+                    CursorResponse.from(res, HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase())
+            );
+        }
+
         var res = voucherService.getAllByEventId(Long.valueOf(sub), eventId, search, pageable);
         return ResponseEntity.ok(
                 QueryResponse.from(res, HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase())
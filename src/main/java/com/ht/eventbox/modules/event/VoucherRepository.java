@@ -4,6 +4,7 @@ import com.ht.eventbox.entities.Voucher;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
@@ -55,6 +56,42 @@ public interface VoucherRepository extends JpaRepository<Voucher, Long> {
             @Param("search") String search,
             Pageable pageable);
 
+    @Query("""
+            SELECT v
+            FROM Voucher v
+            WHERE v.event.id = :eventId
+              AND (
+                    :search IS NULL
+                    OR :search = ''
+                    OR LOWER(STR(v.id)) LIKE LOWER(CONCAT('%', :search, '%'))
+                    OR LOWER(v.code) LIKE LOWER(CONCAT('%', :search, '%'))
+                    OR LOWER(v.name) LIKE LOWER(CONCAT('%', :search, '%'))
+              )
+              AND v.id > :afterId
+            ORDER BY v.id ASC
+            """)
+    Slice<Voucher> searchAllByEventIdAfter(
+            @Param("eventId") Long eventId,
+            @Param("search") String search,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    @Query("""
+            SELECT COUNT(v)
+            FROM Voucher v
+            WHERE v.event.id = :eventId
+              AND (
+                    :search IS NULL
+                    OR :search = ''
+                    OR LOWER(STR(v.id)) LIKE LOWER(CONCAT('%', :search, '%'))
+                    OR LOWER(v.code) LIKE LOWER(CONCAT('%', :search, '%'))
+                    OR LOWER(v.name) LIKE LOWER(CONCAT('%', :search, '%'))
+              )
+            """)
+    long countSearchAllByEventId(
+            @Param("eventId") Long eventId,
+            @Param("search") String search);
+
     List<Voucher> findAllByEventIdAndIsPublicTrueAndIsActiveTrueOrderByIdAsc(Long eventId);
 
     List<Voucher> findAllByEventIdAndIsPublicTrueAndIsActiveTrueAndValidFromIsLessThanEqualAndValidToIsGreaterThanEqualOrderByIdAsc(Long eventId, LocalDateTime now1, LocalDateTime now2);
@@ -1,5 +1,7 @@
 package com.ht.eventbox.modules.event;
 
+import com.ht.eventbox.config.CursorPage;
+import com.ht.eventbox.config.CursorRequest;
 import com.ht.eventbox.config.HttpException;
 import com.ht.eventbox.constant.Constant;
 import com.ht.eventbox.entities.Voucher;
@@ -30,23 +32,35 @@ public class VoucherService {
 
     public List<Voucher> getAllByEventId(Long userId, Long eventId) {
         // Mọi thành viên của tổ chức đều có thể xem voucher
-        boolean isMember = eventService.isMember(userId, eventId, List.of(OrganizationRole.MANAGER, OrganizationRole.STAFF, OrganizationRole.OWNER));
-
-        if (!isMember) {
-            throw new HttpException(Constant.ErrorCode.NOT_ALLOWED_OPERATION, HttpStatus.FORBIDDEN);
-        }
+        ensureEventMember(userId, eventId);
 
         return voucherRepository.findAllByEventIdOrderByIdAsc(eventId);
     }
 
     public Page<Voucher> getAllByEventId(Long userId, Long eventId, String search, Pageable pageable) {
+        ensureEventMember(userId, eventId);
+
+        return voucherRepository.searchAllByEventIdOrderByIdAsc(eventId, normalizeSearch(search), pageable);
+    }
+
+    public CursorPage<Voucher> getAllByEventId(Long userId, Long eventId, String search, CursorRequest cursor) {
+        ensureEventMember(userId, eventId);
+
+        var normalizedSearch = normalizeSearch(search);
+        return CursorPage.of(
+                voucherRepository.searchAllByEventIdAfter(eventId, normalizedSearch, cursor.afterId(), cursor.pageable()),
+                Voucher::getId,
+                cursor,
+                () -> voucherRepository.countSearchAllByEventId(eventId, normalizedSearch)
+        );
+    }
+
+    private void ensureEventMember(Long userId, Long eventId) {
         boolean isMember = eventService.isMember(userId, eventId, List.of(OrganizationRole.MANAGER, OrganizationRole.STAFF, OrganizationRole.OWNER));
 
         if (!isMember) {
             throw new HttpException(Constant.ErrorCode.NOT_ALLOWED_OPERATION, HttpStatus.FORBIDDEN);
         }
-
-        return voucherRepository.searchAllByEventIdOrderByIdAsc(eventId, normalizeSearch(search), pageable);
     }
 
     public List<Voucher> getAllPublicByEventId(Long eventId) {
@@ -148,11 +162,7 @@ public class VoucherService {
     }
 
     public long getUsage(Long userId, Long id, Long eventId) {
-        boolean isMember = eventService.isMember(userId, eventId, List.of(OrganizationRole.MANAGER, OrganizationRole.STAFF, OrganizationRole.OWNER));
-
-        if (!isMember) {
-            throw new HttpException(Constant.ErrorCode.NOT_ALLOWED_OPERATION, HttpStatus.FORBIDDEN);
-        }
+        ensureEventMember(userId, eventId);
 
         return orderRepository.countByVoucherIdAndStatusIs(id, OrderStatus.FULFILLED);
     }
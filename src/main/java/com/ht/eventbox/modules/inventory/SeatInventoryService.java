@@ -0,0 +1,487 @@
+package com.ht.eventbox.modules.inventory;
+
+import com.ht.eventbox.constant.Constant;
+import com.ht.eventbox.entities.Ticket;
+import com.ht.eventbox.entities.TicketItem;
+import com.ht.eventbox.enums.OrderStatus;
+import com.ht.eventbox.modules.backgroundjobs.SocketJobService;
+import com.ht.eventbox.modules.order.TicketItemRepository;
+import com.ht.eventbox.modules.redis.RedisService;
+import com.ht.eventbox.modules.ticket.TicketRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Seat-level inventory for the shows that use a seatmap. Each ticket type is one block of the
+ * seatmap ({@link Ticket#getSeatmapBlockId()}) with {@link Ticket#getInitialStock()} seats, and
+ * its state lives in Redis as a bitfield of 2 bits per seat (0 = free, 1 = held, 2 = sold), so a
+ * stadium-sized block is a few kilobytes and holding several seats is one script call with no
+ * row lock. An order's held seats are kept in a hold hash so they can be released or marked
+ * sold together, and every held seat carries its own expiry so a hold that is never released
+ * frees the seat once it expires.
+ * <p>
+ * A block's bitfield and its holders hash share the {@code {ticket_id:<id>}} hash tag and are
+ * both passed in {@code KEYS}, so the scripts also run on Redis Cluster. The seats of an order
+ * are therefore held block by block, and the blocks already held are released again when a
+ * seat of a later block is taken.
+ * <p>
+ * As with {@link TicketInventoryService}, Postgres stays the ledger: ticket items carry their
+ * seat, and a block whose bitfield is missing is seeded from the live and fulfilled orders.
+ * Every change is pushed to the event room of the {@code /event} namespace as a
+ * {@code seats_updated} delta.
+ */
+@Service
+@RequiredArgsConstructor
+public class SeatInventoryService {
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(SeatInventoryService.class);
+
+    private static final List<OrderStatus> HELD_STATUSES = List.of(
+            OrderStatus.WAITING_FOR_PAYMENT, OrderStatus.PENDING, OrderStatus.APPROVED);
+
+    public interface TakenSeatView {
+        Integer getSeatIndex();
+
+        OrderStatus getStatus();
+
+        Long getOrderId();
+
+        LocalDateTime getExpiredAt();
+    }
+
+    // Ghế được chọn của một loại vé trong đơn hàng, đủ thông tin để gửi delta mà không cần nạp lại entity
+    record Selection(long eventId, long showId, long ticketId, List<Integer> seats) {
+        static Selection of(String holdField, List<Integer> seats) {
+            var ids = holdField.split(":");
+            return new Selection(Long.parseLong(ids[0]), Long.parseLong(ids[1]), Long.parseLong(ids[2]), seats);
+        }
+
+        String holdField() {
+            return eventId + ":" + showId + ":" + ticketId;
+        }
+
+        String seatList() {
+            return seats.stream().map(String::valueOf).collect(Collectors.joining(","));
+        }
+    }
+
+    // KEYS = [state, holders], ARGV = [hold ttl, state ttl, now, order id, seats]
+    // All or nothing: returns -1 if the block is not seeded, 0 if a seat is not free, 1 once every seat is held.
+    // Each held seat is recorded in the holders hash of its block as "order id:held until", and a
+    // held seat whose time has passed counts as free: its hold was never released.
+    private static final RedisScript<Long> HOLD_SCRIPT = new DefaultRedisScript<>("""
+            local now = tonumber(ARGV[3])
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                return -1
+            end
+            local seats = {}
+            local get = {}
+            for seat in string.gmatch(ARGV[5], '%d+') do
+                table.insert(seats, seat)
+                table.insert(get, 'GET')
+                table.insert(get, 'u2')
+                table.insert(get, '#' .. seat)
+            end
+            local states = redis.call('BITFIELD', KEYS[1], unpack(get))
+            for j = 1, #states do
+                if states[j] == 2 then
+                    return 0
+                end
+                if states[j] == 1 then
+                    local holder = redis.call('HGET', KEYS[2], seats[j])
+                    if not holder or tonumber(string.match(holder, ':(%d+)$')) > now then
+                        return 0
+                    end
+                end
+            end
+            local holder = ARGV[4] .. ':' .. (now + tonumber(ARGV[1]))
+            local set = {}
+            local holders = {}
+            for j = 1, #seats do
+                table.insert(set, 'SET')
+                table.insert(set, 'u2')
+                table.insert(set, '#' .. seats[j])
+                table.insert(set, 1)
+                table.insert(holders, seats[j])
+                table.insert(holders, holder)
+            end
+            redis.call('BITFIELD', KEYS[1], unpack(set))
+            redis.call('HSET', KEYS[2], unpack(holders))
+            redis.call('EXPIRE', KEYS[1], ARGV[2])
+            redis.call('EXPIRE', KEYS[2], ARGV[2])
+            return 1
+            """, Long.class);
+
+    // KEYS = [state, holders], ARGV = [order id, seats]
+    // Frees the seats that are still held by this order and returns them comma separated.
+    // A seat whose hold expired may already be held by another order.
+    private static final RedisScript<String> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                return ''
+            end
+            local freed = {}
+            for seat in string.gmatch(ARGV[2], '%d+') do
+                local holder = redis.call('HGET', KEYS[2], seat)
+                if redis.call('BITFIELD', KEYS[1], 'GET', 'u2', '#' .. seat)[1] == 1
+                        and (not holder or string.match(holder, '^(%d+):') == ARGV[1]) then
+                    redis.call('BITFIELD', KEYS[1], 'SET', 'u2', '#' .. seat, 0)
+                    redis.call('HDEL', KEYS[2], seat)
+                    table.insert(freed, seat)
+                end
+            end
+            return table.concat(freed, ',')
+            """, String.class);
+
+    // KEYS = [state, holders], ARGV = [seats]
+    // A block that is not seeded is skipped: seeding reads the fulfilled orders anyway.
+    private static final RedisScript<Long> SELL_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                return 0
+            end
+            for seat in string.gmatch(ARGV[1], '%d+') do
+                redis.call('BITFIELD', KEYS[1], 'SET', 'u2', '#' .. seat, 2)
+                redis.call('HDEL', KEYS[2], seat)
+            end
+            return 1
+            """, Long.class);
+
+    // KEYS = [state, holders], ARGV = [now]
+    // Frees the held seats of the block whose time has passed and returns them comma separated.
+    private static final RedisScript<String> EXPIRE_HOLDS_SCRIPT = new DefaultRedisScript<>("""
+            local holders = redis.call('HGETALL', KEYS[2])
+            local freed = {}
+            for i = 1, #holders, 2 do
+                if tonumber(string.match(holders[i + 1], ':(%d+)$')) <= tonumber(ARGV[1]) then
+                    if redis.call('BITFIELD', KEYS[1], 'GET', 'u2', '#' .. holders[i])[1] == 1 then
+                        redis.call('BITFIELD', KEYS[1], 'SET', 'u2', '#' .. holders[i], 0)
+                        table.insert(freed, holders[i])
+                    end
+                    redis.call('HDEL', KEYS[2], holders[i])
+                end
+            end
+            return table.concat(freed, ',')
+            """, String.class);
+
+    // KEYS = [state, holders], ARGV = [ttl, seat count, held seats as seat:order id:held until, sold seats]
+    // Writing the slot just past the last seat sizes the bitfield, so an empty block still exists.
+    private static final RedisScript<Long> SEED_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 1 then
+                return 0
+            end
+            redis.call('BITFIELD', KEYS[1], 'SET', 'u2', '#' .. ARGV[2], 0)
+            redis.call('DEL', KEYS[2])
+            for seat, holder in string.gmatch(ARGV[3], '(%d+):(%d+:%d+)') do
+                redis.call('BITFIELD', KEYS[1], 'SET', 'u2', '#' .. seat, 1)
+                redis.call('HSET', KEYS[2], seat, holder)
+            end
+            for seat in string.gmatch(ARGV[4], '%d+') do
+                redis.call('BITFIELD', KEYS[1], 'SET', 'u2', '#' .. seat, 2)
+            end
+            redis.call('EXPIRE', KEYS[1], ARGV[1])
+            redis.call('EXPIRE', KEYS[2], ARGV[1])
+            return 1
+            """, Long.class);
+
+    private final RedisService redisService;
+    private final TicketRepository ticketRepository;
+    private final TicketItemRepository ticketItemRepository;
+    private final SocketJobService socketJobService;
+
+    @Value("${application.inventory.seats.enabled:false}")
+    private boolean enabled;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Holds the seats of the order's ticket items, all or nothing. Items without a seat are
+     * ignored. Each block is checked and held atomically; when a seat of a later block is taken
+     * the blocks already held are released. Blocks that are not in Redis yet are seeded from
+     * Postgres and the script is retried once. Returns false if one of the seats is already taken.
+     */
+    public boolean hold(long orderId, Collection<TicketItem> items) {
+        var selections = selectionsOf(items);
+        if (selections.isEmpty()) {
+            return true;
+        }
+
+        var capacities = capacitiesOf(items);
+        var held = new ArrayList<Selection>();
+        for (var selection : selections) {
+            var result = runHoldScript(orderId, selection);
+            if (result == -1L) {
+                seed(Map.of(selection.ticketId(), capacities.get(selection.ticketId())));
+                result = runHoldScript(orderId, selection);
+            }
+
+            if (result != 1L) {
+                held.forEach(heldSelection -> runReleaseScript(orderId, heldSelection));
+                return false;
+            }
+            held.add(selection);
+        }
+
+        redisService.setHash(
+                holdKey(orderId),
+                selections.stream().collect(Collectors.toMap(Selection::holdField, Selection::seatList, (a, b) -> a, LinkedHashMap::new)),
+                Constant.RedisKey.TICKET_HOLD_EXPIRES);
+        releaseOnRollback(orderId);
+        runAfterCommit(() -> publish(selections, "held"));
+        return true;
+    }
+
+    public void release(long orderId) {
+        var released = new ArrayList<Selection>();
+        redisService.getHash(holdKey(orderId)).forEach((field, seats) -> {
+            var selection = Selection.of(field, parseSeats(seats));
+            var freed = parseSeats(runReleaseScript(orderId, selection));
+            if (!freed.isEmpty()) {
+                released.add(new Selection(selection.eventId(), selection.showId(), selection.ticketId(), freed));
+            }
+        });
+        redisService.deleteValue(holdKey(orderId));
+
+        publish(released, "free");
+    }
+
+    public void releaseAfterCommit(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+
+        var ids = List.copyOf(orderIds);
+        runAfterCommit(() -> ids.forEach(this::release));
+    }
+
+    /**
+     * Marks the seats of the fulfilled order as sold once the current transaction commits.
+     */
+    public void sellAfterCommit(long orderId, Collection<TicketItem> items) {
+        var selections = selectionsOf(items);
+        if (selections.isEmpty()) {
+            return;
+        }
+
+        runAfterCommit(() -> {
+            selections.forEach(selection -> redisService.executeScript(
+                    SELL_SCRIPT,
+                    blockKeys(selection.ticketId()),
+                    selection.seatList()));
+            redisService.deleteValue(holdKey(orderId));
+            publish(selections, "sold");
+        });
+    }
+
+    /**
+     * Returns the seat states of the show's seatmap blocks, ticket id to the base64 of the
+     * bitfield: seat {@code i} is the 2 bits at offset {@code 2 * i}, most significant bit
+     * first, as written by Redis {@code BITFIELD u2 #i}.
+     */
+    public Map<Long, String> getSeatStates(long showId) {
+        if (!enabled) {
+            return Map.of();
+        }
+
+        var tickets = ticketRepository.findAllByEventShowIdOrderByIdAsc(showId).stream()
+                .filter(ticket -> ticket.getEventShow().isEnabledSeatmap())
+                .toList();
+        if (tickets.isEmpty()) {
+            return Map.of();
+        }
+
+        seed(tickets.stream().collect(Collectors.toMap(Ticket::getId, Ticket::getInitialStock, (a, b) -> a, LinkedHashMap::new)));
+
+        expireHolds(tickets);
+
+        var states = new LinkedHashMap<Long, String>();
+        tickets.forEach(ticket -> {
+            var raw = redisService.getRawValue(stateKey(ticket.getId()));
+            states.put(ticket.getId(), Base64.getEncoder().encodeToString(raw == null ? new byte[0] : raw));
+        });
+        return states;
+    }
+
+    /*
+     * Trả lại các ghế giữ chỗ đã hết hạn mà chưa được giải phóng, để trạng thái gửi cho client không giữ chúng mãi
+     */
+    private void expireHolds(List<Ticket> tickets) {
+        var now = String.valueOf(Instant.now().getEpochSecond());
+        var freed = new ArrayList<Selection>();
+        tickets.forEach(ticket -> {
+            var seats = redisService.executeScript(EXPIRE_HOLDS_SCRIPT, blockKeys(ticket.getId()), now);
+            if (seats != null && !seats.isEmpty()) {
+                freed.add(new Selection(
+                        ticket.getEventShow().getEvent().getId(),
+                        ticket.getEventShow().getId(),
+                        ticket.getId(),
+                        parseSeats(seats)));
+            }
+        });
+        publish(freed, "free");
+    }
+
+    /*
+     * Nạp trạng thái ghế của các khối chưa có trong Redis từ các đơn hàng còn giữ chỗ và đã thanh toán
+     */
+    void seed(Map<Long, Integer> capacities) {
+        var now = LocalDateTime.now();
+        capacities.forEach((ticketId, capacity) -> {
+            // TTL -2 nghĩa là key không tồn tại
+            var key = stateKey(ticketId);
+            var ttl = redisService.getTTLInSeconds(key);
+            if (ttl != null && ttl != -2L) {
+                return;
+            }
+
+            var held = new ArrayList<String>();
+            var sold = new ArrayList<Integer>();
+            ticketItemRepository.findTakenSeatsByTicketId(ticketId, OrderStatus.FULFILLED, HELD_STATUSES, now)
+                    .forEach(seat -> {
+                        if (seat.getStatus() == OrderStatus.FULFILLED) {
+                            sold.add(seat.getSeatIndex());
+                        } else {
+                            held.add(seat.getSeatIndex() + ":" + seat.getOrderId() + ":"
+                                    + seat.getExpiredAt().atZone(ZoneId.systemDefault()).toEpochSecond());
+                        }
+                    });
+
+            redisService.executeScript(
+                    SEED_SCRIPT,
+                    blockKeys(ticketId),
+                    String.valueOf(Constant.RedisKey.TICKET_INVENTORY_EXPIRES),
+                    String.valueOf(capacity),
+                    String.join(",", held),
+                    joinSeats(sold));
+        });
+    }
+
+    private Long runHoldScript(long orderId, Selection selection) {
+        var result = redisService.executeScript(
+                HOLD_SCRIPT,
+                blockKeys(selection.ticketId()),
+                String.valueOf(Constant.RedisKey.TICKET_HOLD_EXPIRES),
+                String.valueOf(Constant.RedisKey.TICKET_INVENTORY_EXPIRES),
+                String.valueOf(Instant.now().getEpochSecond()),
+                String.valueOf(orderId),
+                selection.seatList());
+        return result == null ? -1L : result;
+    }
+
+    private String runReleaseScript(long orderId, Selection selection) {
+        var freed = redisService.executeScript(
+                RELEASE_SCRIPT,
+                blockKeys(selection.ticketId()),
+                String.valueOf(orderId),
+                selection.seatList());
+        return freed == null ? "" : freed;
+    }
+
+    private void publish(List<Selection> selections, String state) {
+        selections.forEach(selection -> {
+            try {
+                socketJobService.broadcastSeatsUpdated(
+                        selection.eventId(),
+                        selection.showId(),
+                        selection.ticketId(),
+                        selection.seats(),
+                        state);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to publish seats of ticket #{}: {}", selection.ticketId(), e.getMessage());
+            }
+        });
+    }
+
+    private void releaseOnRollback(long orderId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release(orderId);
+                }
+            }
+        });
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+            return;
+        }
+
+        action.run();
+    }
+
+    static List<Selection> selectionsOf(Collection<TicketItem> items) {
+        var seats = new LinkedHashMap<Ticket, List<Integer>>();
+        items.stream()
+                .filter(item -> item.getSeatIndex() != null)
+                .forEach(item -> seats.computeIfAbsent(item.getTicket(), ticket -> new ArrayList<>()).add(item.getSeatIndex()));
+
+        return seats.entrySet().stream()
+                .map(entry -> new Selection(
+                        entry.getKey().getEventShow().getEvent().getId(),
+                        entry.getKey().getEventShow().getId(),
+                        entry.getKey().getId(),
+                        entry.getValue().stream().sorted().toList()))
+                .toList();
+    }
+
+    private static Map<Long, Integer> capacitiesOf(Collection<TicketItem> items) {
+        return items.stream()
+                .filter(item -> item.getSeatIndex() != null)
+                .map(TicketItem::getTicket)
+                .collect(Collectors.toMap(Ticket::getId, Ticket::getInitialStock, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private static String joinSeats(List<Integer> seats) {
+        return seats.stream().filter(Objects::nonNull).map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    private static List<Integer> parseSeats(String seats) {
+        return Arrays.stream(seats.split(","))
+                .filter(seat -> !seat.isEmpty())
+                .map(Integer::valueOf)
+                .toList();
+    }
+
+    private String stateKey(long ticketId) {
+        return String.format("%s:{ticket_id:%d}", Constant.RedisPrefix.SEAT_STATE, ticketId);
+    }
+
+    // Bitfield và holders của một khối, cùng hash tag nên luôn nằm trên cùng một slot
+    private List<String> blockKeys(long ticketId) {
+        return List.of(stateKey(ticketId), stateKey(ticketId) + ":holders");
+    }
+
+    private String holdKey(long orderId) {
+        return String.format("%s:order_id:%d", Constant.RedisPrefix.SEAT_HOLD, orderId);
+    }
+}
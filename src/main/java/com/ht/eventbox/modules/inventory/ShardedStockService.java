@@ -0,0 +1,141 @@
+package com.ht.eventbox.modules.inventory;
+
+import com.ht.eventbox.config.HttpException;
+import com.ht.eventbox.constant.Constant;
+import com.ht.eventbox.entities.Ticket;
+import com.ht.eventbox.entities.TicketStockShard;
+import com.ht.eventbox.modules.ticket.TicketRepository;
+import com.ht.eventbox.modules.ticket.TicketStockShardRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Optional striped stock for hot ticket types. When {@code Ticket.stockShards} is K > 0 the
+ * sellable stock lives in K {@link TicketStockShard} rows and sales decrement a random shard
+ * with a conditional update, so concurrent fulfilments rarely wait on the same row.
+ * {@code Ticket.stock} is only a periodically synced aggregate for such tickets.
+ */
+@Service
+@RequiredArgsConstructor
+public class ShardedStockService {
+    public static final int MAX_SHARDS = 64;
+
+    private final TicketRepository ticketRepository;
+    private final TicketStockShardRepository ticketStockShardRepository;
+
+    /**
+     * Splits the current stock of the ticket into {@code shards} rows, or folds it back into
+     * {@code Ticket.stock} when {@code shards} is 0.
+     */
+    @Transactional
+    public Ticket setShards(long ticketId, int shards) {
+        if (shards < 0 || shards > MAX_SHARDS) {
+            throw new HttpException(Constant.ErrorCode.NOT_ALLOWED_OPERATION, HttpStatus.BAD_REQUEST);
+        }
+
+        var ticket = ticketRepository.findAllByIdWithLocked(List.of(ticketId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new HttpException(Constant.ErrorCode.TICKET_NOT_FOUND, HttpStatus.NOT_FOUND));
+
+        if (ticket.getStockShards() > 0) {
+            var locked = ticketStockShardRepository.findAllByTicketIdWithLocked(ticketId);
+            ticket.setStock(locked.stream().mapToInt(TicketStockShard::getStock).sum());
+            ticketStockShardRepository.deleteAll(locked);
+            ticketStockShardRepository.flush();
+        }
+
+        if (shards > 0) {
+            var newShards = new ArrayList<TicketStockShard>(shards);
+            for (int i = 0; i < shards; i++) {
+                newShards.add(TicketStockShard.builder()
+                        .ticket(ticket)
+                        .shardIndex(i)
+                        .stock(ticket.getStock() / shards + (i < ticket.getStock() % shards ? 1 : 0))
+                        .build());
+            }
+            ticketStockShardRepository.saveAll(newShards);
+        }
+
+        ticket.setStockShards(shards);
+        return ticketRepository.save(ticket);
+    }
+
+    /**
+     * Takes {@code quantity} units from a random shard, trying the others in turn when it is
+     * short. If no single shard can cover the quantity, all shards are locked and drained in order.
+     * Returns false, taking nothing, when all shards together are short.
+     */
+    @Transactional
+    public boolean take(Ticket ticket, int quantity) {
+        var shards = ticket.getStockShards();
+        var start = ThreadLocalRandom.current().nextInt(shards);
+        for (int i = 0; i < shards; i++) {
+            if (ticketStockShardRepository.decrementIfAvailable(ticket.getId(), (start + i) % shards, quantity) == 1) {
+                return true;
+            }
+        }
+
+        var locked = ticketStockShardRepository.findAllByTicketIdWithLocked(ticket.getId());
+        var available = locked.stream().mapToInt(TicketStockShard::getStock).sum();
+        if (available < quantity) {
+            return false;
+        }
+
+        var remaining = quantity;
+        for (var shard : locked) {
+            var taken = Math.min(shard.getStock(), remaining);
+            shard.setStock(shard.getStock() - taken);
+            remaining -= taken;
+            if (remaining == 0) {
+                break;
+            }
+        }
+        ticketStockShardRepository.saveAll(locked);
+        return true;
+    }
+
+    /**
+     * Puts back units taken by {@link #take} on a random shard.
+     */
+    @Transactional
+    public void giveBack(Ticket ticket, int quantity) {
+        var shardIndex = ThreadLocalRandom.current().nextInt(ticket.getStockShards());
+        ticketStockShardRepository.increment(ticket.getId(), shardIndex, quantity);
+    }
+
+    public int getStock(Ticket ticket) {
+        if (ticket.getStockShards() == 0) {
+            return ticket.getStock();
+        }
+
+        return (int) ticketStockShardRepository.sumStockByTicketId(ticket.getId());
+    }
+
+    /**
+     * Current stock of sharded tickets, aggregated in one grouped query.
+     */
+    public Map<Long, Integer> getShardedStocks(Collection<Long> ticketIds) {
+        if (ticketIds.isEmpty()) {
+            return Map.of();
+        }
+
+        return ticketStockShardRepository.sumStockGroupByTicketId(ticketIds).stream()
+                .collect(Collectors.toMap(
+                        TicketStockShardRepository.TicketStockView::getTicketId,
+                        view -> view.getStock().intValue()));
+    }
+
+    @Transactional
+    public int syncTicketStock() {
+        return ticketStockShardRepository.syncShardedTicketStock();
+    }
+}
@@ -0,0 +1,424 @@
+package com.ht.eventbox.modules.inventory;
+
+import com.ht.eventbox.constant.Constant;
+import com.ht.eventbox.entities.Ticket;
+import com.ht.eventbox.enums.OrderStatus;
+import com.ht.eventbox.modules.order.TicketItemRepository;
+import com.ht.eventbox.modules.redis.RedisService;
+import com.ht.eventbox.modules.ticket.TicketRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps "available = stock - live holds" per ticket in Redis so reservations are
+ * checked and decremented atomically there, without taking a row lock in Postgres.
+ * Postgres stays the ledger: orders and ticket items are still written, and
+ * {@link #reconcile()} periodically realigns the counters with it.
+ * <p>
+ * Every key a script touches is passed in {@code KEYS} and carries the {@code {ticket_id:<id>}}
+ * hash tag of its ticket, so the scripts also run on Redis Cluster. An order with several
+ * tickets is therefore reserved ticket by ticket, and the tickets already held are released
+ * again when one of them runs out.
+ */
+@Service
+@RequiredArgsConstructor
+public class TicketInventoryService {
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(TicketInventoryService.class);
+
+    public enum ReserveResult {
+        RESERVED,
+        OUT_OF_STOCK,
+        NOT_SEEDED
+    }
+
+    // KEYS = [holds of the ticket, shards of the ticket], ARGV = [order id, quantity, hold deadline, hold ttl]
+    // A ticket without shards has a single key. Shards are taken in the order given, so the
+    // caller starts from a random one and the next shards are the fallback. The hold is a field
+    // of the holds hash of the ticket, "quantity:deadline", which reconcile() reads.
+    private static final RedisScript<Long> RESERVE_SCRIPT = new DefaultRedisScript<>("""
+            local available = 0
+            for i = 2, #KEYS do
+                local value = redis.call('GET', KEYS[i])
+                if not value then
+                    return -1
+                end
+                available = available + tonumber(value)
+            end
+            if available < tonumber(ARGV[2]) then
+                return 0
+            end
+            local remaining = tonumber(ARGV[2])
+            for i = 2, #KEYS do
+                local taken = math.min(tonumber(redis.call('GET', KEYS[i])), remaining)
+                if taken > 0 then
+                    redis.call('DECRBY', KEYS[i], taken)
+                    remaining = remaining - taken
+                end
+            end
+            redis.call('HSET', KEYS[1], ARGV[1], ARGV[2] .. ':' .. ARGV[3])
+            redis.call('EXPIRE', KEYS[1], ARGV[4])
+            return 1
+            """, Long.class);
+
+    // KEYS = [holds of the ticket, shards of the ticket], ARGV = [order id]
+    // The units go back to the first shard that still exists; shards that expired are seeded again.
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            local hold = redis.call('HGET', KEYS[1], ARGV[1])
+            if not hold then
+                return 0
+            end
+            redis.call('HDEL', KEYS[1], ARGV[1])
+            local units = tonumber(string.match(hold, '^(%d+)'))
+            for i = 2, #KEYS do
+                if redis.call('EXISTS', KEYS[i]) == 1 then
+                    redis.call('INCRBY', KEYS[i], units)
+                    break
+                end
+            end
+            return 1
+            """, Long.class);
+
+    // Chung cho hai script bên dưới. KEYS = [holds of the ticket, shards of the ticket], ARGV[1] = now.
+    // Sums the counters and the units of the live holds of the ticket; holds past their deadline
+    // are dropped on the way.
+    private static final String HELD_TOTAL_LUA = """
+            local counter = 0
+            for i = 2, #KEYS do
+                local value = redis.call('GET', KEYS[i])
+                if not value then
+                    return -1
+                end
+                counter = counter + tonumber(value)
+            end
+            local held = 0
+            local holds = redis.call('HGETALL', KEYS[1])
+            for i = 1, #holds, 2 do
+                local units, deadline = string.match(holds[i + 1], '^(%d+):(%d+)$')
+                if tonumber(deadline) <= tonumber(ARGV[1]) then
+                    redis.call('HDEL', KEYS[1], holds[i])
+                else
+                    held = held + tonumber(units)
+                end
+            end
+            """;
+
+    // Returns counter + held, or -1 when the ticket is not seeded.
+    private static final RedisScript<Long> HELD_TOTAL_SCRIPT = new DefaultRedisScript<>(HELD_TOTAL_LUA + """
+            return counter + held
+            """, Long.class);
+
+    // ARGV = [now, counter + held read before the stock, stock, ttl]
+    // Sets the counters to stock - held, spread evenly over the shards, only if counter + held has
+    // not moved since it was read: a hold consumed in between may already be in the stock read.
+    private static final RedisScript<Long> RECONCILE_SCRIPT = new DefaultRedisScript<>(HELD_TOTAL_LUA + """
+            if counter + held ~= tonumber(ARGV[2]) then
+                return 0
+            end
+            local value = math.max(0, tonumber(ARGV[3]) - held)
+            if value == counter then
+                return 0
+            end
+            for i = 2, #KEYS do
+                local share = math.floor(value / (#KEYS - 1))
+                if i - 1 <= value % (#KEYS - 1) then
+                    share = share + 1
+                end
+                redis.call('SET', KEYS[i], share, 'EX', ARGV[4])
+            end
+            return 1
+            """, Long.class);
+
+    private static final List<OrderStatus> LIVE_STATUSES = List.of(
+            OrderStatus.WAITING_FOR_PAYMENT, OrderStatus.PENDING);
+
+    private final RedisService redisService;
+    private final TicketRepository ticketRepository;
+    private final TicketItemRepository ticketItemRepository;
+    private final ShardedStockService shardedStockService;
+
+    @Value("${application.inventory.redis.enabled:false}")
+    private boolean enabled;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Holds {@code quantities} (ticket id to quantity) for the order, all or nothing. Each ticket
+     * is checked and decremented atomically; when one runs out the tickets already held are released.
+     * Counters that are not in Redis yet are seeded from Postgres and the script is retried once.
+     * Tickets with sharded stock are split over one counter per shard.
+     */
+    public ReserveResult reserve(long orderId, Map<Long, Integer> quantities, Collection<Ticket> tickets) {
+        var ticketsById = tickets.stream()
+                .collect(Collectors.toMap(Ticket::getId, Function.identity(), (a, b) -> a));
+
+        var held = new LinkedHashMap<Long, Integer>();
+        for (var entry : quantities.entrySet()) {
+            var ticket = ticketsById.get(entry.getKey());
+            var stockShards = ticket == null ? 0 : ticket.getStockShards();
+
+            var result = runReserveScript(orderId, entry.getKey(), stockShards, entry.getValue());
+            if (result == ReserveResult.NOT_SEEDED && ticket != null) {
+                seed(List.of(ticket));
+                result = runReserveScript(orderId, entry.getKey(), stockShards, entry.getValue());
+            }
+
+            if (result != ReserveResult.RESERVED) {
+                held.forEach((ticketId, shards) -> runReleaseScript(orderId, ticketId, shards));
+                return result;
+            }
+            held.put(entry.getKey(), stockShards);
+        }
+
+        // Ghi lại các loại vé đang giữ để release/consume biết cần gọi script trên những key nào
+        redisService.setValue(
+                holdKey(orderId),
+                held.entrySet().stream()
+                        .map(entry -> entry.getKey() + ":" + entry.getValue())
+                        .collect(Collectors.joining(",")),
+                Constant.RedisKey.TICKET_HOLD_EXPIRES);
+        releaseOnRollback(orderId);
+
+        return ReserveResult.RESERVED;
+    }
+
+    public boolean release(long orderId) {
+        var held = heldTickets(orderId);
+        var released = false;
+        for (var entry : held.entrySet()) {
+            released |= runReleaseScript(orderId, entry.getKey(), entry.getValue());
+        }
+        redisService.deleteValue(holdKey(orderId));
+        return released;
+    }
+
+    public void releaseAfterCommit(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+
+        var ids = List.copyOf(orderIds);
+        runAfterCommit(() -> ids.forEach(this::release));
+    }
+
+    /**
+     * Drops the hold without restoring it: the tickets are now sold and the stock has been
+     * decremented in Postgres, so the Redis counters are already correct.
+     */
+    public void consume(long orderId) {
+        heldTickets(orderId).keySet()
+                .forEach(ticketId -> redisService.deleteHashFields(ticketHoldsKey(ticketId), String.valueOf(orderId)));
+        redisService.deleteValue(holdKey(orderId));
+    }
+
+    public void consumeAfterCommit(long orderId) {
+        runAfterCommit(() -> consume(orderId));
+    }
+
+    /**
+     * Changes how the stock of the ticket is striped (see {@link ShardedStockService}) and drops
+     * its Redis counters so they are seeded again with the new layout on the next reservation.
+     */
+    public Ticket setStockShards(long ticketId, int shards) {
+        var ticket = shardedStockService.setShards(ticketId, shards);
+        redisService.deleteValue(inventoryKey(ticketId));
+        redisService.deleteByPattern(inventoryKey(ticketId) + ":shard:*");
+        return ticket;
+    }
+
+    public void seed(Collection<Ticket> tickets) {
+        tickets.forEach(ticket -> {
+            var keys = inventoryKeys(ticket.getId(), ticket.getStockShards());
+            var available = calculateAvailable(ticket);
+            for (int i = 0; i < keys.size(); i++) {
+                redisService.setValueIfAbsent(
+                        keys.get(i),
+                        String.valueOf(available / keys.size() + (i < available % keys.size() ? 1 : 0)),
+                        Constant.RedisKey.TICKET_INVENTORY_EXPIRES);
+            }
+        });
+    }
+
+    /**
+     * Realigns the counters of tickets currently on sale with Postgres, so that counter plus the
+     * units in live Redis holds equals the stock. Units in a hold are never given back here, even
+     * if its order is not committed yet; units of holds that expired without being released are.
+     * <p>
+     * Counter plus holds is read before the stock and checked again when the counter is set, so a
+     * ticket whose holds were consumed or released in between is left to the next run.
+     */
+    public int reconcile() {
+        if (!enabled) {
+            return 0;
+        }
+
+        var now = LocalDateTime.now();
+        var nowSeconds = String.valueOf(Instant.now().getEpochSecond());
+        var drifted = new ArrayList<Long>();
+        ticketRepository.findAllByEventShowSaleStartTimeBeforeAndEventShowSaleEndTimeAfter(now, now)
+                .forEach(ticket -> {
+                    var keys = new ArrayList<String>();
+                    keys.add(ticketHoldsKey(ticket.getId()));
+                    keys.addAll(inventoryKeys(ticket.getId(), ticket.getStockShards()));
+
+                    Long total = redisService.executeScript(HELD_TOTAL_SCRIPT, keys, nowSeconds);
+                    if (total == null || total < 0) {
+                        return;
+                    }
+
+                    // Đọc stock sau script đầu tiên để phát hiện đơn hàng vừa được fulfill
+                    var stock = ticket.getStockShards() == 0
+                            ? ticketRepository.findStockById(ticket.getId())
+                            : shardedStockService.getStock(ticket);
+
+                    Long updated = redisService.executeScript(
+                            RECONCILE_SCRIPT,
+                            keys,
+                            nowSeconds,
+                            String.valueOf(total),
+                            String.valueOf(stock),
+                            String.valueOf(Constant.RedisKey.TICKET_INVENTORY_EXPIRES));
+                    if (updated != null && updated == 1L) {
+                        drifted.add(ticket.getId());
+                    }
+                });
+
+        if (!drifted.isEmpty()) {
+            logger.warn("Reconciled drifted ticket inventory: {}", drifted);
+        }
+
+        return drifted.size();
+    }
+
+    private ReserveResult runReserveScript(long orderId, long ticketId, int stockShards, int quantity) {
+        var keys = new ArrayList<String>();
+        keys.add(ticketHoldsKey(ticketId));
+        keys.addAll(shuffledInventoryKeys(ticketId, stockShards));
+
+        Long result = redisService.executeScript(
+                RESERVE_SCRIPT,
+                keys,
+                String.valueOf(orderId),
+                String.valueOf(quantity),
+                String.valueOf(Instant.now().getEpochSecond() + Constant.RedisKey.TICKET_HOLD_EXPIRES),
+                String.valueOf(Constant.RedisKey.TICKET_HOLD_EXPIRES));
+        if (result == null || result == -1L) {
+            return ReserveResult.NOT_SEEDED;
+        }
+
+        return result == 1L ? ReserveResult.RESERVED : ReserveResult.OUT_OF_STOCK;
+    }
+
+    private boolean runReleaseScript(long orderId, long ticketId, int stockShards) {
+        var keys = new ArrayList<String>();
+        keys.add(ticketHoldsKey(ticketId));
+        keys.addAll(shuffledInventoryKeys(ticketId, stockShards));
+
+        Long released = redisService.executeScript(RELEASE_SCRIPT, keys, String.valueOf(orderId));
+        return released != null && released == 1L;
+    }
+
+    /*
+     * "100:0,101:3" -> {100: 0, 101: 3}, loại vé và số shard của nó tại thời điểm giữ chỗ
+     */
+    private Map<Long, Integer> heldTickets(long orderId) {
+        var value = redisService.getValue(holdKey(orderId));
+        if (value == null || value.isEmpty()) {
+            return Map.of();
+        }
+
+        var held = new LinkedHashMap<Long, Integer>();
+        for (var ticket : value.split(",")) {
+            var parts = ticket.split(":");
+            held.put(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+        }
+        return held;
+    }
+
+    private void releaseOnRollback(long orderId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release(orderId);
+                }
+            }
+        });
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+            return;
+        }
+
+        action.run();
+    }
+
+    private long calculateAvailable(Ticket ticket) {
+        long reservedCount = ticketItemRepository.countAllByTicketIdAndOrderStatusInAndOrderExpiredAtIsAfter(
+                ticket.getId(),
+                LIVE_STATUSES,
+                LocalDateTime.now());
+
+        return Math.max(0L, shardedStockService.getStock(ticket) - reservedCount);
+    }
+
+    private List<String> inventoryKeys(long ticketId, int stockShards) {
+        if (stockShards == 0) {
+            return new ArrayList<>(List.of(inventoryKey(ticketId)));
+        }
+
+        var keys = new ArrayList<String>(stockShards);
+        for (int i = 0; i < stockShards; i++) {
+            keys.add(inventoryKey(ticketId) + ":shard:" + i);
+        }
+        return keys;
+    }
+
+    private List<String> shuffledInventoryKeys(long ticketId, int stockShards) {
+        var keys = inventoryKeys(ticketId, stockShards);
+        Collections.rotate(keys, ThreadLocalRandom.current().nextInt(keys.size()));
+        return keys;
+    }
+
+    private String inventoryKey(long ticketId) {
+        return String.format("%s:{ticket_id:%d}", Constant.RedisPrefix.TICKET_INVENTORY, ticketId);
+    }
+
+    private String ticketHoldsKey(long ticketId) {
+        return String.format("%s:{ticket_id:%d}", Constant.RedisPrefix.TICKET_HOLD, ticketId);
+    }
+
+    private String holdKey(long orderId) {
+        return String.format("%s:order_id:%d", Constant.RedisPrefix.TICKET_HOLD, orderId);
+    }
+}
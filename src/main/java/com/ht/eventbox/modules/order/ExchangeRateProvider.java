@@ -0,0 +1,14 @@
+package com.ht.eventbox.modules.order;
+
+/**
+ * Source of VND exchange rates for {@link ExchangeRateStore}. Selected with
+ * {@code application.exchange-rate.provider}.
+ */
+public interface ExchangeRateProvider {
+
+    /**
+     * How many VND one unit of {@code currency} (lower-case ISO code) is worth.
+     */
+    double fetchVndRate(String currency);
+
+}
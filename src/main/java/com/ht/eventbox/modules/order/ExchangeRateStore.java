@@ -0,0 +1,108 @@
+package com.ht.eventbox.modules.order;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory VND exchange rates, refreshed by the scheduler so checkout never waits on the rate
+ * API. Once a rate is older than {@code max-staleness-minutes}, one read per currency goes back
+ * to the provider while the others keep being served the last known rate; a failed refresh
+ * keeps that rate too. A read only fails when a currency has never been fetched successfully.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExchangeRateStore {
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(ExchangeRateStore.class);
+
+    public static final String USD = "usd";
+    public static final String SGD = "sgd";
+    private static final List<String> CURRENCIES = List.of(USD, SGD);
+
+    private record Rate(double value, long fetchedAt) {
+    }
+
+    private final ExchangeRateProvider exchangeRateProvider;
+    private final Map<String, Rate> rates = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Rate>> inflight = new ConcurrentHashMap<>();
+
+    @Value("${application.exchange-rate.max-staleness-minutes:360}")
+    private long maxStalenessMinutes;
+
+    public double getVndRate(String currency) {
+        var rate = rates.get(currency);
+        if (rate != null && (!isStale(rate) || inflight.containsKey(currency))) {
+            return rate.value();
+        }
+
+        try {
+            return refreshOnce(currency).value();
+        } catch (RuntimeException e) {
+            if (rate == null) {
+                throw e;
+            }
+            logger.warn("Failed to refresh stale {} exchange rate, using the last known value: {}",
+                    currency, e.getMessage());
+            return rate.value();
+        }
+    }
+
+    public void refreshAll() {
+        for (var currency : CURRENCIES) {
+            try {
+                refreshOnce(currency);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to refresh {} exchange rate, keeping the last known value: {}",
+                        currency, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Gộp các lần làm mới đồng thời của cùng một loại tiền thành một lần gọi provider
+     */
+    private Rate refreshOnce(String currency) {
+        var flight = new CompletableFuture<Rate>();
+        var existing = inflight.putIfAbsent(currency, flight);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            var rate = refresh(currency);
+            flight.complete(rate);
+            return rate;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inflight.remove(currency, flight);
+        }
+    }
+
+    private Rate refresh(String currency) {
+        var value = exchangeRateProvider.fetchVndRate(currency);
+        if (!(value > 0)) {
+            throw new IllegalStateException("Invalid " + currency + " exchange rate " + value);
+        }
+
+        var rate = new Rate(value, System.currentTimeMillis());
+        rates.put(currency, rate);
+        return rate;
+    }
+
+    private boolean isStale(Rate rate) {
+        return System.currentTimeMillis() - rate.fetchedAt() > maxStalenessMinutes * 60 * 1000;
+    }
+}
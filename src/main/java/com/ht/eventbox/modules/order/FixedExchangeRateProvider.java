@@ -0,0 +1,28 @@
+package com.ht.eventbox.modules.order;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local provider with configured rates, for tests and offline development.
+ */
+@Component
+@ConditionalOnProperty(name = "application.exchange-rate.provider", havingValue = "fixed")
+public class FixedExchangeRateProvider implements ExchangeRateProvider {
+
+    @Value("${application.exchange-rate.fixed.usd:25000}")
+    private double usdRate;
+
+    @Value("${application.exchange-rate.fixed.sgd:19000}")
+    private double sgdRate;
+
+    @Override
+    public double fetchVndRate(String currency) {
+        return switch (currency) {
+            case ExchangeRateStore.USD -> usdRate;
+            case ExchangeRateStore.SGD -> sgdRate;
+            default -> throw new IllegalArgumentException("Unsupported currency " + currency);
+        };
+    }
+}
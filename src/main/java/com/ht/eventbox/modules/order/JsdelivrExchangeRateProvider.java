@@ -0,0 +1,43 @@
+package com.ht.eventbox.modules.order;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+@Component
+@ConditionalOnProperty(name = "application.exchange-rate.provider", havingValue = "jsdelivr", matchIfMissing = true)
+public class JsdelivrExchangeRateProvider implements ExchangeRateProvider {
+    private static final String EXCHANGE_RATE_API = "https://cdn.jsdelivr.net/npm/@fawazahmed0/currency-api@latest/v1/currencies/%s.json";
+
+    private final RestTemplate restTemplate;
+
+    public JsdelivrExchangeRateProvider(
+            @Value("${application.exchange-rate.timeout-millis:3000}") long timeoutMillis) {
+        // Không có timeout thì một CDN treo sẽ giữ luôn thread đang gọi
+        var requestFactory = new JdkClientHttpRequestFactory(HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(timeoutMillis))
+                .build());
+        requestFactory.setReadTimeout(Duration.ofMillis(timeoutMillis));
+        this.restTemplate = new RestTemplate(requestFactory);
+    }
+
+    /**
+     * Gọi currency-api trên jsdelivr để lấy tỷ giá mới
+     */
+    @Override
+    public double fetchVndRate(String currency) {
+        JsonNode response = restTemplate.getForObject(String.format(EXCHANGE_RATE_API, currency), JsonNode.class);
+
+        var rate = response == null ? null : response.path(currency).get("vnd");
+        if (rate == null || !rate.isNumber()) {
+            throw new RuntimeException("Không thể lấy tỷ giá từ API");
+        }
+        return rate.asDouble();
+    }
+}
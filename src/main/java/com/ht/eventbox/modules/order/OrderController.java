@@ -1,23 +1,19 @@
 package com.ht.eventbox.modules.order;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ht.eventbox.annotations.RequiredPermissions;
 import com.ht.eventbox.config.HttpException;
 import com.ht.eventbox.config.Response;
 import com.ht.eventbox.constant.Constant;
 import com.ht.eventbox.entities.Order;
-import com.ht.eventbox.enums.OrderStatus;
-import com.ht.eventbox.modules.order.dtos.CheckoutWebhookDto;
+import com.ht.eventbox.enums.WebhookEventType;
+import com.ht.eventbox.modules.backgroundjobs.WebhookJobService;
 import com.ht.eventbox.modules.order.dtos.CreatePaymentDto;
 import com.ht.eventbox.modules.order.dtos.CreateReservationDto;
-import com.ht.eventbox.modules.order.dtos.PaymentWebhookDto;
+import com.ht.eventbox.modules.waitingroom.WaitingRoomService;
 import com.paypal.sdk.exceptions.ApiException;
-import com.paypal.sdk.http.response.ApiResponse;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -32,17 +28,14 @@ import java.util.List;
 @RequestMapping(path = "/api/v1/orders")
 @RequiredArgsConstructor
 public class OrderController {
-        private static final Logger logger = org.slf4j.LoggerFactory.getLogger(OrderController.class);
-
-        @Value("${paypal.checkout.webhook.id}")
-        private String checkoutWebhookId;
-
-        @Value("${paypal.payment.webhook.id}")
-        private String paymentWebhookId;
+        @Value("${application.paypal.webhook.async-ingestion.enabled:false}")
+        private boolean asyncWebhookIngestion;
 
         private final OrderService orderService;
         private final PayPalService payPalService;
-        private final PaymentService paymentService;
+        private final PaypalWebhookService paypalWebhookService;
+        private final WebhookJobService webhookJobService;
+        private final WaitingRoomService waitingRoomService;
 
         @PostMapping("/paypal/webhook/checkout")
         public ResponseEntity<Response<String>> handlePaypalWebhookCheckout(
@@ -52,37 +45,14 @@ public class OrderController {
                         @RequestHeader("Paypal-Transmission-Sig") String transmissionSig,
                         @RequestHeader("Paypal-Cert-Url") String certUrl,
                         @RequestHeader("Paypal-Auth-Algo") String authAlgo) {
-                boolean isValid = payPalService.verifyWebhook(
+                handlePaypalWebhook(
+                                WebhookEventType.PAYPAL_CHECKOUT,
                                 rawJsonPayload,
                                 transmissionId,
                                 transmissionTime,
                                 transmissionSig,
                                 certUrl,
-                                authAlgo,
-                                checkoutWebhookId);
-
-                if (!isValid)
-                        throw new HttpException(Constant.ErrorCode.INVALID_PAYPAL_WEBHOOK, HttpStatus.BAD_REQUEST);
-
-                ObjectMapper mapper = new ObjectMapper();
-                CheckoutWebhookDto checkoutWebhookDto = null;
-                try {
-                        checkoutWebhookDto = mapper.readValue(rawJsonPayload, CheckoutWebhookDto.class);
-                } catch (JsonProcessingException e) {
-                        logger.error("Error parsing JSON payload: {}", e.getMessage());
-                }
-
-                if (checkoutWebhookDto != null
-                                && checkoutWebhookDto.getEventType()
-                                                .equals(Constant.WebhookEvent.CHECKOUT_ORDER_APPROVED)
-                                && checkoutWebhookDto.getResource().getStatus()
-                                                .equals(Constant.WebhookEvent.CHECKOUT_ORDER_APPROVED_STATUS)) {
-
-                        String customId = checkoutWebhookDto.getResource().getPurchaseUnits().get(0).getCustomId();
-
-                        orderService.processPayment(Long.parseLong(customId), checkoutWebhookDto.getResource().getId());
-
-                }
+                                authAlgo);
 
                 return ResponseEntity.ok().body(new Response<>(
                                 HttpStatus.OK.value(),
@@ -98,88 +68,80 @@ public class OrderController {
                         @RequestHeader("Paypal-Transmission-Sig") String transmissionSig,
                         @RequestHeader("Paypal-Cert-Url") String certUrl,
                         @RequestHeader("Paypal-Auth-Algo") String authAlgo) {
-                boolean isValid = payPalService.verifyWebhook(
+                handlePaypalWebhook(
+                                WebhookEventType.PAYPAL_PAYMENT,
                                 rawJsonPayload,
                                 transmissionId,
                                 transmissionTime,
                                 transmissionSig,
                                 certUrl,
-                                authAlgo,
-                                paymentWebhookId);
+                                authAlgo);
 
-                if (!isValid)
-                        throw new HttpException(Constant.ErrorCode.INVALID_PAYPAL_WEBHOOK, HttpStatus.BAD_REQUEST);
+                return ResponseEntity.ok().body(new Response<>(
+                                HttpStatus.OK.value(),
+                                Constant.SuccessCode.PAYPAL_WEBHOOK_HANDLE_SUCCESSFULLY,
+                                null));
+        }
 
-                ObjectMapper mapper = new ObjectMapper();
-                PaymentWebhookDto paymentWebhookDto = null;
-                try {
-                        paymentWebhookDto = mapper.readValue(rawJsonPayload, PaymentWebhookDto.class);
-                } catch (JsonProcessingException e) {
-                        logger.error("Error parsing JSON payload: {}", e.getMessage());
+        /*
+         * Khi bật async ingestion, chỉ lưu webhook rồi trả về ngay, việc xác thực và xử lý
+         * thanh toán do JobRunr worker đảm nhận
+         */
+        private void handlePaypalWebhook(
+                        WebhookEventType type,
+                        String rawJsonPayload,
+                        String transmissionId,
+                        String transmissionTime,
+                        String transmissionSig,
+                        String certUrl,
+                        String authAlgo) {
+                if (asyncWebhookIngestion) {
+                        webhookJobService.enqueuePaypalWebhook(
+                                        type,
+                                        rawJsonPayload,
+                                        transmissionId,
+                                        transmissionTime,
+                                        transmissionSig,
+                                        certUrl,
+                                        authAlgo);
+                        return;
                 }
 
-                if (paymentWebhookDto != null
-                                && paymentWebhookDto.getEventType()
-                                                .equals(Constant.WebhookEvent.PAYMENT_CAPTURE_COMPLETED)
-                                && paymentWebhookDto.getResource().getStatus()
-                                                .equals(Constant.WebhookEvent.PAYMENT_CAPTURE_COMPLETED_STATUS)
-                                && paymentWebhookDto.getResource().isFinalCapture()) {
-                        var orderId = paymentWebhookDto.getResource().getSupplementaryData().getRelatedIds()
-                                        .getOrderId();
-
-                        ApiResponse<com.paypal.sdk.models.Order> paypalOrderRes = null;
-                        try {
-                                paypalOrderRes = payPalService.getOrderById(orderId);
-                        } catch (ApiException | IOException e) {
-                                throw new HttpException(
-                                                Constant.ErrorCode.INVALID_PAYPAL_ORDER,
-                                                HttpStatus.INTERNAL_SERVER_ERROR);
-                        }
-
-                        if (paypalOrderRes.getStatusCode() != 200 && paypalOrderRes.getStatusCode() != 201) {
-                                throw new HttpException(
-                                                Constant.ErrorCode.INVALID_PAYPAL_ORDER,
-                                                HttpStatus.INTERNAL_SERVER_ERROR);
-                        }
-
-                        var paypalOrder = paypalOrderRes.getResult();
-                        var captureId = paymentWebhookDto.getResource().getId();
-                        var customId = paypalOrder.getPurchaseUnits().get(0).getCustomId();
-                        var order = orderService.findById(Long.parseLong(customId));
-
-                        if (order.getStatus() == OrderStatus.FULFILLED || order.getStatus() == OrderStatus.PENDING) {
-                                logger.info("Order #{} has already been processed, skipping payment processing",
-                                                order.getId());
-
-                                return ResponseEntity.ok().body(new Response<>(
-                                                HttpStatus.OK.value(),
-                                                Constant.SuccessCode.PAYPAL_WEBHOOK_HANDLE_SUCCESSFULLY,
-                                                null));
-                        }
-
-                        paymentService.fulfillPaymentFromPaypalOrder(paymentWebhookDto, paypalOrder);
-
-                        if (order.getExpiredAt().isBefore(LocalDateTime.now())) {
-                                orderService.refund(order, captureId);
-                        } else {
-                                var fulfilledOrder = orderService.fulfill(order);
-                                orderService.onOrderFulfilled(fulfilledOrder);
-                        }
+                boolean isValid = paypalWebhookService.verify(
+                                type,
+                                rawJsonPayload,
+                                transmissionId,
+                                transmissionTime,
+                                transmissionSig,
+                                certUrl,
+                                authAlgo);
 
-                }
+                if (!isValid)
+                        throw new HttpException(Constant.ErrorCode.INVALID_PAYPAL_WEBHOOK, HttpStatus.BAD_REQUEST);
 
-                return ResponseEntity.ok().body(new Response<>(
-                                HttpStatus.OK.value(),
-                                Constant.SuccessCode.PAYPAL_WEBHOOK_HANDLE_SUCCESSFULLY,
-                                null));
+                paypalWebhookService.handle(type, rawJsonPayload);
         }
 
         @PostMapping("/reservation")
         @RequiredPermissions({ "create:orders" })
         public ResponseEntity<Response<Order>> createReservation(
                         @RequestAttribute("sub") String sub,
+                        @RequestHeader(value = WaitingRoomService.ADMISSION_TOKEN_HEADER, required = false) String admissionToken,
                         @Valid @RequestBody CreateReservationDto createReservationDto) {
-                var res = orderService.createReservation(Long.valueOf(sub), createReservationDto);
+                waitingRoomService.checkAdmission(
+                                Long.valueOf(sub),
+                                createReservationDto.getTickets().stream()
+                                                .map(CreateReservationDto.ReserveTicketDto::getTicketId)
+                                                .toList(),
+                                admissionToken);
+
+                var startedAt = System.currentTimeMillis();
+                Order res;
+                try {
+                        res = orderService.createReservation(Long.valueOf(sub), createReservationDto);
+                } finally {
+                        waitingRoomService.recordReservationLatency(System.currentTimeMillis() - startedAt);
+                }
                 return ResponseEntity.ok(
                                 new Response<>(
                                                 HttpStatus.OK.value(),
@@ -1,7 +1,10 @@
 package com.ht.eventbox.modules.order;
 
 import com.ht.eventbox.annotations.RequiredPermissions;
+import com.ht.eventbox.config.CursorRequest;
+import com.ht.eventbox.config.CursorResponse;
 import com.ht.eventbox.config.QueryResponse;
+import com.ht.eventbox.config.Response;
 import com.ht.eventbox.entities.Order;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
@@ -14,10 +17,14 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @CrossOrigin
@@ -28,12 +35,22 @@ public class OrderControllerV2 {
 
     @GetMapping("/shows/{showId}/all")
     @RequiredPermissions({"read:orders"})
-    public ResponseEntity<QueryResponse<Order>> getByShowId(
+    public ResponseEntity<Response<List<Order>>> getByShowId(
             @RequestAttribute("sub") String sub,
             @PathVariable Long showId,
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean count,
             Pageable pageable
     ) {
+        if (after != null) {
+            var res = orderService.getByShowId(
+                    Long.valueOf(sub), showId, search, CursorRequest.of(after, pageable.getPageSize(), count));
+            return ResponseEntity.ok(
+                    CursorResponse.from(res, HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase())
+            );
+        }
+
         var res = orderService.getByShowId(Long.valueOf(sub), showId, search, pageable);
         return ResponseEntity.ok(
                 QueryResponse.from(res, HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase())
@@ -42,16 +59,33 @@ public class OrderControllerV2 {
 
     @GetMapping(value = "/shows/{showId}/all/export", produces = "text/csv")
     @RequiredPermissions({"read:orders"})
-    public ResponseEntity<byte[]> exportByShowId(
+    public ResponseEntity<StreamingResponseBody> exportByShowId(
             @RequestAttribute("sub") String sub,
             @PathVariable Long showId,
-            @RequestParam(required = false) String search
+            @RequestParam(required = false) String search,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
     ) {
-        var csv = orderService.exportByShowId(Long.valueOf(sub), showId, search);
+        orderService.ensureShowReportAccess(Long.valueOf(sub), showId);
+
+        var gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                var gzipOutputStream = new GZIPOutputStream(outputStream, 8192);
+                orderService.exportByShowId(showId, search, gzipOutputStream);
+                gzipOutputStream.finish();
+            } else {
+                orderService.exportByShowId(showId, search, outputStream);
+            }
+        };
+
         var fileName = "orders-show-" + showId + ".csv";
-        return ResponseEntity.ok()
+        var response = ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
-                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
-                .body(csv.getBytes(StandardCharsets.UTF_8));
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8));
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
 }
@@ -4,6 +4,7 @@ import com.ht.eventbox.entities.Order;
 import com.ht.eventbox.enums.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -68,6 +69,119 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
             @Param("search") String search,
             Pageable pageable);
 
+    @Query("""
+            SELECT DISTINCT o
+            FROM Order o
+            JOIN o.user u
+            JOIN o.items i
+            JOIN i.ticket t
+            JOIN t.eventShow s
+            WHERE s.id = :showId
+              AND o.status = :status
+              AND (
+                    :search IS NULL
+                    OR :search = ''
+                    OR LOWER(STR(o.id)) LIKE LOWER(CONCAT('%', :search, '%'))
+                    OR LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%'))
+                    OR LOWER(CONCAT(COALESCE(u.firstName, ''), ' ', COALESCE(u.lastName, '')))
+                        LIKE LOWER(CONCAT('%', :search, '%'))
+                    OR LOWER(COALESCE(u.firstName, '')) LIKE LOWER(CONCAT('%', :search, '%'))
+                    OR LOWER(COALESCE(u.lastName, '')) LIKE LOWER(CONCAT('%', :search, '%'))
+              )
+              AND o.id > :afterId
+            ORDER BY o.id ASC
+            """)
+    Slice<Order> searchAllByItemsTicketEventShowIdAndStatusIsAfter(
+            @Param("showId") Long showId,
+            @Param("status") OrderStatus orderStatus,
+            @Param("search") String search,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    @Query("""
+            SELECT COUNT(DISTINCT o.id)
+            FROM Order o
+            JOIN o.user u
+            JOIN o.items i
+            JOIN i.ticket t
+            JOIN t.eventShow s
+            WHERE s.id = :showId
+              AND o.status = :status
+              AND (
+                    :search IS NULL
+                    OR :search = ''
+                    OR LOWER(STR(o.id)) LIKE LOWER(CONCAT('%', :search, '%'))
+                    OR LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%'))
+                    OR LOWER(CONCAT(COALESCE(u.firstName, ''), ' ', COALESCE(u.lastName, '')))
+                        LIKE LOWER(CONCAT('%', :search, '%'))
+                    OR LOWER(COALESCE(u.firstName, '')) LIKE LOWER(CONCAT('%', :search, '%'))
+                    OR LOWER(COALESCE(u.lastName, '')) LIKE LOWER(CONCAT('%', :search, '%'))
+              )
+            """)
+    long countSearchAllByItemsTicketEventShowIdAndStatusIs(
+            @Param("showId") Long showId,
+            @Param("status") OrderStatus orderStatus,
+            @Param("search") String search);
+
+    interface OrderExportView {
+        Long getId();
+
+        String getFirstName();
+
+        String getLastName();
+
+        String getEmail();
+
+        OrderStatus getStatus();
+
+        Double getPlaceTotal();
+    }
+
+    /*
+     * Keyset page cho export: chỉ lấy các cột cần ghi ra CSV, bắt đầu sau afterId
+     */
+    @Query("""
+            SELECT o.id AS id, u.firstName AS firstName, u.lastName AS lastName, u.email AS email,
+                   o.status AS status, o.placeTotal AS placeTotal
+            FROM Order o
+            JOIN o.user u
+            WHERE o.id > :afterId
+              AND o.status = :status
+              AND EXISTS (
+                    SELECT 1 FROM TicketItem i
+                    WHERE i.order = o AND i.ticket.eventShow.id = :showId
+              )
+              AND (
+                    :search IS NULL
+                    OR :search = ''
+                    OR LOWER(STR(o.id)) LIKE LOWER(CONCAT('%', :search, '%'))
+                    OR LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%'))
+                    OR LOWER(CONCAT(COALESCE(u.firstName, ''), ' ', COALESCE(u.lastName, '')))
+                        LIKE LOWER(CONCAT('%', :search, '%'))
+                    OR LOWER(COALESCE(u.firstName, '')) LIKE LOWER(CONCAT('%', :search, '%'))
+                    OR LOWER(COALESCE(u.lastName, '')) LIKE LOWER(CONCAT('%', :search, '%'))
+              )
+            ORDER BY o.id ASC
+            """)
+    List<OrderExportView> findExportRowsByShowIdAfter(
+            @Param("showId") Long showId,
+            @Param("status") OrderStatus orderStatus,
+            @Param("search") String search,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o WHERE o.status IN :statuses AND o.expiredAt < :now")
+    List<Long> findAllIdsByStatusInAndExpiredAtBefore(
+            @Param("statuses") List<OrderStatus> statuses,
+            @Param("now") LocalDateTime now);
+
+    @Query("SELECT o.id FROM Order o WHERE o.user.id = :userId AND o.status = :status")
+    List<Long> findAllIdsByUserIdAndStatusIs(
+            @Param("userId") Long userId,
+            @Param("status") OrderStatus orderStatus);
+
+    long deleteAllByIdIn(Collection<Long> ids);
+
     long deleteAllByStatusInAndExpiredAtBefore(List<OrderStatus> statuses, LocalDateTime now);
 
     long deleteAllByUserIdAndStatusIs(Long userId, OrderStatus orderStatus);
@@ -1,5 +1,7 @@
 package com.ht.eventbox.modules.order;
 
+import com.ht.eventbox.config.CursorPage;
+import com.ht.eventbox.config.CursorRequest;
 import com.ht.eventbox.config.HttpException;
 import com.ht.eventbox.constant.Constant;
 import com.ht.eventbox.entities.*;
@@ -10,6 +12,9 @@ import com.ht.eventbox.modules.backgroundjobs.MailJobService;
 import com.ht.eventbox.modules.backgroundjobs.NotificationJobService;
 import com.ht.eventbox.modules.backgroundjobs.SocketJobService;
 import com.ht.eventbox.modules.event.EventRepository;
+import com.ht.eventbox.modules.inventory.SeatInventoryService;
+import com.ht.eventbox.modules.inventory.ShardedStockService;
+import com.ht.eventbox.modules.inventory.TicketInventoryService;
 import com.ht.eventbox.modules.order.dtos.CreatePaymentDto;
 import com.ht.eventbox.modules.order.dtos.CreateReservationDto;
 import com.ht.eventbox.modules.ticket.TicketRepository;
@@ -17,6 +22,7 @@ import com.paypal.sdk.exceptions.ApiException;
 import com.paypal.sdk.http.response.ApiResponse;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,17 +30,29 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
     private static final Logger logger = org.slf4j.LoggerFactory.getLogger(OrderService.class);
+    private static final int EXPORT_PAGE_SIZE = 500;
 
     private final PaymentRepository paymentRepository;
     private final PaymentService paymentService;
@@ -49,6 +67,13 @@ public class OrderService {
     private final MailJobService mailJobService;
     private final NotificationJobService notificationJobService;
     private final SocketJobService socketJobService;
+    private final TicketInventoryService ticketInventoryService;
+    private final SeatInventoryService seatInventoryService;
+    private final ReservationExpiryService reservationExpiryService;
+    private final ShardedStockService shardedStockService;
+
+    @Value("${application.order.conditional-stock-update.enabled:false}")
+    private boolean conditionalStockUpdate;
 
     public Order save(Order order) {
         return orderRepository.save(order);
@@ -56,9 +81,67 @@ public class OrderService {
 
     @Transactional
     public long cleanupExpiredReservations() {
-        return orderRepository.deleteAllByStatusInAndExpiredAtBefore(
-                List.of(OrderStatus.WAITING_FOR_PAYMENT),
-                java.time.LocalDateTime.now());
+        var now = LocalDateTime.now();
+        var statuses = List.of(OrderStatus.WAITING_FOR_PAYMENT);
+
+        // Chỉ thông báo cho các sự kiện có đơn hàng bị xoá
+        var eventIds = ticketItemRepository.findEventIdsByOrderStatusInAndOrderExpiredAtBefore(statuses, now);
+
+        long count;
+        if (holdsInRedis()) {
+            var expiredOrderIds = orderRepository.findAllIdsByStatusInAndExpiredAtBefore(statuses, now);
+
+            if (expiredOrderIds.isEmpty()) {
+                return 0;
+            }
+
+            count = orderRepository.deleteAllByIdIn(expiredOrderIds);
+            releaseHoldsAfterCommit(expiredOrderIds);
+        } else {
+            count = orderRepository.deleteAllByStatusInAndExpiredAtBefore(statuses, now);
+        }
+
+        if (count > 0) {
+            eventIds.forEach(this::onStockUpdated);
+        }
+
+        return count;
+    }
+
+    /*
+     * Releases reservations claimed from the expiry queue. Waiting orders are deleted;
+     * pending ones are kept so a late PayPal capture can still be refunded, but their
+     * hold is returned. Orders whose deadline was extended are put back in the queue.
+     */
+    @Transactional
+    public long expireReservations(Collection<Long> orderIds) {
+        var now = LocalDateTime.now();
+        var expiredOrderIds = new ArrayList<Long>();
+        var eventIds = new LinkedHashSet<Long>();
+
+        orderRepository.findAllById(orderIds).forEach(order -> {
+            if (order.getStatus() != OrderStatus.WAITING_FOR_PAYMENT && order.getStatus() != OrderStatus.PENDING) {
+                return;
+            }
+
+            if (order.getExpiredAt().isAfter(now)) {
+                reservationExpiryService.schedule(order.getId(), order.getExpiredAt());
+                return;
+            }
+
+            expiredOrderIds.add(order.getId());
+            order.getItems().forEach(item -> eventIds.add(item.getTicket().getEventShow().getEvent().getId()));
+
+            if (order.getStatus() == OrderStatus.WAITING_FOR_PAYMENT) {
+                orderRepository.delete(order);
+            }
+        });
+
+        releaseHoldsAfterCommit(expiredOrderIds);
+
+        eventIds.forEach(this::onStockUpdated);
+
+        return expiredOrderIds.size();
     }
 
     public void onStockUpdated(long eventId) {
@@ -67,7 +150,11 @@ public class OrderService {
 
     @Transactional
     public Order createReservation(Long userId, CreateReservationDto createReservationDto) {
-        orderRepository.deleteAllByUserIdAndStatusIs(userId, OrderStatus.WAITING_FOR_PAYMENT);
+        if (ticketInventoryService.isEnabled()) {
+            return createReservationWithInventory(userId, createReservationDto);
+        }
+
+        deleteWaitingReservations(userId);
 
         List<Long> ticketIds = createReservationDto.getTickets().stream()
                 .map(CreateReservationDto.ReserveTicketDto::getTicketId)
@@ -77,19 +164,7 @@ public class OrderService {
 
         List<Ticket> tickets = ticketRepository.findAllByIdWithLocked(ticketIds);
 
-        tickets.forEach(ticket -> {
-            if (ticket.getEventShow().getSaleStartTime().isAfter(LocalDateTime.now())) {
-                throw new HttpException(
-                        Constant.ErrorCode.TICKET_SALE_NOT_STARTED,
-                        HttpStatus.BAD_REQUEST);
-            }
-
-            if (ticket.getEventShow().getSaleEndTime().isBefore(LocalDateTime.now())) {
-                throw new HttpException(
-                        Constant.ErrorCode.TICKET_SALE_ENDED,
-                        HttpStatus.BAD_REQUEST);
-            }
-        });
+        tickets.forEach(this::ensureTicketOnSale);
 
         Order order = Order.builder()
                 .user(User.builder().id(userId).build())
@@ -111,7 +186,11 @@ public class OrderService {
                                     List.of(OrderStatus.WAITING_FOR_PAYMENT, OrderStatus.PENDING),
                                     LocalDateTime.now());
 
-                    if (reservationCount + ticketDto.getQuantity() > ticket.getStock()) {
+                    int stock = ticket.getStockShards() > 0
+                            ? shardedStockService.getStock(ticket)
+                            : ticket.getStock();
+
+                    if (reservationCount + ticketDto.getQuantity() > stock) {
                         throw new HttpException(
                                 Constant.ErrorCode.TICKET_OUT_OF_STOCK,
                                 HttpStatus.BAD_REQUEST);
@@ -128,6 +207,8 @@ public class OrderService {
                     order.getItems().addAll(ticketItems);
                 });
 
+        assignSeats(order, createReservationDto);
+
         order.setStatus(OrderStatus.WAITING_FOR_PAYMENT);
         order.setPlaceTotal(
                 order.getItems().stream()
@@ -137,6 +218,8 @@ public class OrderService {
                 LocalDateTime.now().plusSeconds(Constant.RedisKey.RESERVATION_EXPIRES));
 
         var savedOrder = orderRepository.save(order);
+        holdSeats(savedOrder);
+        reservationExpiryService.scheduleAfterCommit(savedOrder.getId(), savedOrder.getExpiredAt());
 
         if (!tickets.isEmpty()) {
             onStockUpdated(
@@ -146,8 +229,172 @@ public class OrderService {
         return savedOrder;
     }
 
+    /*
+     * Redis-backed variant of createReservation: ticket rows are read without a lock and the
+     * stock check-and-decrement happens atomically in TicketInventoryService. The order is
+     * saved first so its id can key the hold; a failed hold rolls the order back.
+     */
+    private Order createReservationWithInventory(Long userId, CreateReservationDto createReservationDto) {
+        deleteWaitingReservations(userId);
+
+        var quantities = createReservationDto.getTickets().stream()
+                .collect(Collectors.groupingBy(
+                        CreateReservationDto.ReserveTicketDto::getTicketId,
+                        LinkedHashMap::new,
+                        Collectors.summingInt(CreateReservationDto.ReserveTicketDto::getQuantity)));
+
+        var tickets = ticketRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Ticket::getId, Function.identity()));
+
+        tickets.values().forEach(this::ensureTicketOnSale);
+
+        Order order = Order.builder()
+                .user(User.builder().id(userId).build())
+                .items(new ArrayList<>())
+                .build();
+
+        quantities.forEach((ticketId, quantity) -> {
+            Ticket ticket = tickets.get(ticketId);
+            if (ticket == null) {
+                throw new HttpException(
+                        Constant.ErrorCode.TICKET_NOT_FOUND,
+                        HttpStatus.NOT_FOUND);
+            }
+
+            IntStream.range(0, quantity)
+                    .mapToObj(i -> TicketItem.builder()
+                            .ticket(ticket)
+                            .order(order)
+                            .placeTotal(ticket.getPrice())
+                            .build())
+                    .forEach(order.getItems()::add);
+        });
+
+        assignSeats(order, createReservationDto);
+
+        order.setStatus(OrderStatus.WAITING_FOR_PAYMENT);
+        order.setPlaceTotal(
+                order.getItems().stream()
+                        .mapToDouble(TicketItem::getPlaceTotal)
+                        .sum());
+        order.setExpiredAt(
+                LocalDateTime.now().plusSeconds(Constant.RedisKey.RESERVATION_EXPIRES));
+
+        var savedOrder = orderRepository.save(order);
+
+        var result = ticketInventoryService.reserve(savedOrder.getId(), quantities, tickets.values());
+        if (result != TicketInventoryService.ReserveResult.RESERVED) {
+            throw new HttpException(
+                    Constant.ErrorCode.TICKET_OUT_OF_STOCK,
+                    HttpStatus.BAD_REQUEST);
+        }
+
+        holdSeats(savedOrder);
+        reservationExpiryService.scheduleAfterCommit(savedOrder.getId(), savedOrder.getExpiredAt());
+
+        tickets.values().stream()
+                .findFirst()
+                .ifPresent(ticket -> onStockUpdated(ticket.getEventShow().getEvent().getId()));
+
+        return savedOrder;
+    }
+
+    /*
+     * Gán ghế khách chọn cho từng vé của các loại vé thuộc suất diễn có sơ đồ chỗ ngồi: số ghế
+     * phải bằng số vé, không trùng nhau và nằm trong khối (0 .. initialStock - 1).
+     */
+    private void assignSeats(Order order, CreateReservationDto createReservationDto) {
+        if (!seatInventoryService.isEnabled()) {
+            return;
+        }
+
+        var seats = createReservationDto.getTickets().stream()
+                .filter(ticketDto -> ticketDto.getSeats() != null)
+                .collect(Collectors.groupingBy(
+                        CreateReservationDto.ReserveTicketDto::getTicketId,
+                        Collectors.flatMapping(ticketDto -> ticketDto.getSeats().stream(), Collectors.toList())));
+
+        order.getItems().stream()
+                .collect(Collectors.groupingBy(item -> item.getTicket().getId(), LinkedHashMap::new, Collectors.toList()))
+                .forEach((ticketId, items) -> {
+                    var ticket = items.get(0).getTicket();
+                    if (!ticket.getEventShow().isEnabledSeatmap()) {
+                        return;
+                    }
+
+                    var chosen = seats.getOrDefault(ticketId, List.of());
+                    if (chosen.size() != items.size()
+                            || chosen.stream().distinct().count() != chosen.size()
+                            || chosen.stream().anyMatch(seat -> seat == null || seat < 0 || seat >= ticket.getInitialStock())) {
+                        throw new HttpException(
+                                Constant.ErrorCode.INVALID_SEAT_SELECTION,
+                                HttpStatus.BAD_REQUEST);
+                    }
+
+                    for (int i = 0; i < items.size(); i++) {
+                        items.get(i).setSeatIndex(chosen.get(i));
+                    }
+                });
+    }
+
+    private void holdSeats(Order order) {
+        if (seatInventoryService.isEnabled() && !seatInventoryService.hold(order.getId(), order.getItems())) {
+            throw new HttpException(
+                    Constant.ErrorCode.SEAT_UNAVAILABLE,
+                    HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private boolean holdsInRedis() {
+        return ticketInventoryService.isEnabled() || seatInventoryService.isEnabled();
+    }
+
+    /*
+     * Xoá các đơn hàng đang chờ thanh toán của người dùng. Khi vé/ghế được giữ trong Redis thì
+     * cần biết id đơn hàng để trả lại phần đang giữ sau khi commit.
+     */
+    private long deleteWaitingReservations(Long userId) {
+        if (!holdsInRedis()) {
+            return orderRepository.deleteAllByUserIdAndStatusIs(userId, OrderStatus.WAITING_FOR_PAYMENT);
+        }
+
+        var orderIds = orderRepository.findAllIdsByUserIdAndStatusIs(userId, OrderStatus.WAITING_FOR_PAYMENT);
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+
+        var count = orderRepository.deleteAllByIdIn(orderIds);
+        releaseHoldsAfterCommit(orderIds);
+        return count;
+    }
+
+    private void releaseHoldsAfterCommit(Collection<Long> orderIds) {
+        if (ticketInventoryService.isEnabled()) {
+            ticketInventoryService.releaseAfterCommit(orderIds);
+        }
+
+        if (seatInventoryService.isEnabled()) {
+            seatInventoryService.releaseAfterCommit(orderIds);
+        }
+    }
+
+    private void ensureTicketOnSale(Ticket ticket) {
+        if (ticket.getEventShow().getSaleStartTime().isAfter(LocalDateTime.now())) {
+            throw new HttpException(
+                    Constant.ErrorCode.TICKET_SALE_NOT_STARTED,
+                    HttpStatus.BAD_REQUEST);
+        }
+
+        if (ticket.getEventShow().getSaleEndTime().isBefore(LocalDateTime.now())) {
+            throw new HttpException(
+                    Constant.ErrorCode.TICKET_SALE_ENDED,
+                    HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @Transactional
     public boolean cancelReservation(Long userId, Long orderId) {
+        var eventIds = ticketItemRepository.findEventIdsByOrderIdIn(List.of(orderId));
         var count = orderRepository.deleteByIdAndUserIdAndStatusInAndExpiredAtAfter(
                 orderId,
                 userId,
@@ -155,7 +402,10 @@ public class OrderService {
                 LocalDateTime.now());
 
         if (count > 0) {
-            socketJobService.enqueueStockUpdated();
+            releaseHoldsAfterCommit(List.of(orderId));
+
+            reservationExpiryService.cancel(orderId);
+            eventIds.forEach(this::onStockUpdated);
         }
 
         return count > 0;
@@ -163,10 +413,13 @@ public class OrderService {
 
     @Transactional
     public boolean cancelReservation(Long userId) {
-        var count = orderRepository.deleteAllByUserIdAndStatusIs(userId, OrderStatus.WAITING_FOR_PAYMENT);
+        var eventIds = ticketItemRepository.findEventIdsByOrderUserIdAndOrderStatus(
+                userId,
+                OrderStatus.WAITING_FOR_PAYMENT);
+        long count = deleteWaitingReservations(userId);
 
         if (count > 0) {
-            socketJobService.enqueueStockUpdated();
+            eventIds.forEach(this::onStockUpdated);
         }
 
         return count > 0;
@@ -238,6 +491,7 @@ public class OrderService {
         order.setStatus(OrderStatus.PENDING);
 
         orderRepository.save(order);
+        reservationExpiryService.schedule(order.getId(), order.getExpiredAt());
 
         paymentSession = PaymentSession.builder()
                 .order(order)
@@ -258,6 +512,13 @@ public class OrderService {
     public void processPayment(Long orderId, String paypalOrderId) {
         Order order = findById(orderId);
 
+        if (order.getStatus() == OrderStatus.APPROVED
+                || order.getStatus() == OrderStatus.FULFILLED
+                || order.getStatus() == OrderStatus.REFUNDED) {
+            logger.info("Order #{} has already been captured, skipping checkout processing", order.getId());
+            return;
+        }
+
         ApiResponse<com.paypal.sdk.models.Order> captureResponse = null;
 
         try {
@@ -294,26 +555,52 @@ public class OrderService {
 
             if (approvedOrder.getExpiredAt().isBefore(LocalDateTime.now())) {
                 refund(approvedOrder, captureId);
+                markRefunded(approvedOrder);
             } else {
                 var fulfilledOrder = fulfill(approvedOrder);
-                onOrderFulfilled(fulfilledOrder);
+                if (fulfilledOrder == null) {
+                    refund(approvedOrder, captureId, outOfStockNote(approvedOrder));
+                    markRefunded(approvedOrder);
+                } else {
+                    onOrderFulfilled(fulfilledOrder);
+                }
             }
         }
     }
 
+    /*
+     * Đơn đã hoàn tiền là trạng thái cuối: webhook capture đến sau sẽ bỏ qua đơn này thay vì
+     * cấp vé hoặc hoàn tiền thêm lần nữa.
+     */
+    public void markRefunded(Order order) {
+        order.setStatus(OrderStatus.REFUNDED);
+        orderRepository.save(order);
+    }
+
+    public static String outOfStockNote(Order order) {
+        return "Refund for order #" + order.getId() + " because the tickets sold out";
+    }
+
     public void refund(Order order, String captureId) {
+        refund(order, captureId, "Refund for order #" + order.getId() + " due to late payment");
+    }
+
+    /*
+     * Hoàn tiền một capture đã thành công. Hàm này chạy sau khi đã lấy tiền của người mua nên
+     * không ném lỗi khi PayPal thất bại: lần hoàn tiền được ghi lại với trạng thái MISSED để xử lý tay.
+     */
+    public void refund(Order order, String captureId, String noteToPayer) {
         var payment = paymentRepository.findByPaypalCaptureId(captureId)
                 .orElseThrow(() -> new HttpException(Constant.ErrorCode.PAYMENT_NOT_FOUND, HttpStatus.BAD_REQUEST));
 
-        var noteToPayer = "Refund for order #" + order.getId() + " due to late payment";
         ApiResponse<com.paypal.sdk.models.Refund> refundRes = null;
         try {
             refundRes = payPalService.refundCapture(captureId, noteToPayer);
         } catch (Exception e) {
-            throw new HttpException("Lỗi khi tạo refund PayPal: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+            logger.error("Error refunding capture {} of order #{}: {}", captureId, order.getId(), e.getMessage());
         }
         var audit = Refund.builder();
-        if (refundRes.getStatusCode() != 200 && refundRes.getStatusCode() != 201) {
+        if (refundRes == null || (refundRes.getStatusCode() != 200 && refundRes.getStatusCode() != 201)) {
             audit
                     .status("MISSED")
                     .noteToPayer(noteToPayer)
@@ -333,29 +620,40 @@ public class OrderService {
         onOrderRefunded(order);
     }
 
+    /**
+     * Consumes the stock of the order and marks it fulfilled. Returns null, leaving the order
+     * unchanged, when a ticket type has run out: the payment is already captured at this point,
+     * so the caller refunds it instead of failing the transaction.
+     */
     @Transactional
     public Order fulfill(Order order) {
+        var consumed = consumeStock(order);
+        if (consumed.isEmpty()) {
+            logger.warn("Order #{} could not be fulfilled, its tickets are out of stock", order.getId());
+            // Bỏ giữ chỗ trong Redis mà không trả lại số lượng, vì DB đã hết vé
+            if (ticketInventoryService.isEnabled()) {
+                ticketInventoryService.consumeAfterCommit(order.getId());
+            }
+            if (seatInventoryService.isEnabled()) {
+                seatInventoryService.releaseAfterCommit(List.of(order.getId()));
+            }
+            return null;
+        }
+
         order.setStatus(OrderStatus.FULFILLED);
         order.setFulfilledAt(LocalDateTime.now());
 
-        List<Ticket> tickets = ticketRepository.findAllByIdWithLocked(
-                order.getItems().stream()
-                        .map(TicketItem::getTicket)
-                        .map(Ticket::getId)
-                        .distinct()
-                        .toList());
+        List<Ticket> tickets = consumed.get();
 
-        tickets.forEach(ticket -> {
-            long reservedCount = order.getItems().stream()
-                    .filter(item -> item.getTicket().getId().equals(ticket.getId()))
-                    .count();
-
-            ticket.setStock((int) ((long) ticket.getStock() - reservedCount));
-        });
+        var savedOrder = orderRepository.save(order);
 
-        ticketRepository.saveAll(tickets);
+        if (ticketInventoryService.isEnabled()) {
+            ticketInventoryService.consumeAfterCommit(savedOrder.getId());
+        }
 
-        var savedOrder = orderRepository.save(order);
+        if (seatInventoryService.isEnabled()) {
+            seatInventoryService.sellAfterCommit(savedOrder.getId(), savedOrder.getItems());
+        }
 
         if (!tickets.isEmpty()) {
             onStockUpdated(
@@ -371,27 +669,21 @@ public class OrderService {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new HttpException(Constant.ErrorCode.ORDER_NOT_FOUND, HttpStatus.NOT_FOUND));
 
+        List<Ticket> tickets = consumeStock(order)
+                .orElseThrow(() -> new HttpException(Constant.ErrorCode.TICKET_OUT_OF_STOCK, HttpStatus.BAD_REQUEST));
+
         order.setStatus(OrderStatus.FULFILLED);
         order.setFulfilledAt(LocalDateTime.now());
 
-        List<Ticket> tickets = ticketRepository.findAllByIdWithLocked(
-                order.getItems().stream()
-                        .map(TicketItem::getTicket)
-                        .map(Ticket::getId)
-                        .distinct()
-                        .toList());
-
-        tickets.forEach(ticket -> {
-            long reservedCount = order.getItems().stream()
-                    .filter(item -> item.getTicket().getId().equals(ticket.getId()))
-                    .count();
-
-            ticket.setStock((int) ((long) ticket.getStock() - reservedCount));
-        });
+        var savedOrder = orderRepository.save(order);
 
-        ticketRepository.saveAll(tickets);
+        if (ticketInventoryService.isEnabled()) {
+            ticketInventoryService.consumeAfterCommit(savedOrder.getId());
+        }
 
-        var savedOrder = orderRepository.save(order);
+        if (seatInventoryService.isEnabled()) {
+            seatInventoryService.sellAfterCommit(savedOrder.getId(), savedOrder.getItems());
+        }
 
         if (!tickets.isEmpty()) {
             onStockUpdated(
@@ -401,6 +693,76 @@ public class OrderService {
         return savedOrder;
     }
 
+    /*
+     * Trừ stock của các loại vé trong đơn hàng. Loại vé chia stock thành nhiều phần
+     * (stockShards > 0) được trừ trên một phần ngẫu nhiên thay vì khoá dòng Ticket.
+     * Trả về Optional rỗng khi một loại vé không đủ stock; phần đã trừ trước đó được trả lại.
+     */
+    private Optional<List<Ticket>> consumeStock(Order order) {
+        var tickets = new LinkedHashMap<Long, Ticket>();
+        var quantities = new LinkedHashMap<Long, Integer>();
+        order.getItems().forEach(item -> {
+            tickets.putIfAbsent(item.getTicket().getId(), item.getTicket());
+            quantities.merge(item.getTicket().getId(), 1, Integer::sum);
+        });
+
+        var unshardedIds = tickets.values().stream()
+                .filter(ticket -> ticket.getStockShards() == 0)
+                .map(Ticket::getId)
+                .sorted()
+                .toList();
+
+        List<Ticket> locked = List.of();
+        if (!unshardedIds.isEmpty()) {
+            if (conditionalStockUpdate) {
+                if (!decrementStockWithoutLock(unshardedIds, quantities)) {
+                    return Optional.empty();
+                }
+            } else {
+                locked = ticketRepository.findAllByIdWithLocked(unshardedIds);
+                locked.forEach(ticket -> ticket.setStock(ticket.getStock() - quantities.get(ticket.getId())));
+                ticketRepository.saveAll(locked);
+                locked.forEach(ticket -> tickets.put(ticket.getId(), ticket));
+            }
+        }
+
+        var sharded = tickets.values().stream()
+                .filter(ticket -> ticket.getStockShards() > 0)
+                .toList();
+        for (int i = 0; i < sharded.size(); i++) {
+            var ticket = sharded.get(i);
+            if (!shardedStockService.take(ticket, quantities.get(ticket.getId()))) {
+                // Trả lại những gì đã trừ trong lần gọi này
+                sharded.subList(0, i).forEach(taken -> shardedStockService.giveBack(taken, quantities.get(taken.getId())));
+                if (conditionalStockUpdate) {
+                    unshardedIds.forEach(taken -> ticketRepository.incrementStock(taken, quantities.get(taken)));
+                } else if (!locked.isEmpty()) {
+                    locked.forEach(taken -> taken.setStock(taken.getStock() + quantities.get(taken.getId())));
+                    ticketRepository.saveAll(locked);
+                }
+                return Optional.empty();
+            }
+        }
+
+        return Optional.of(new ArrayList<>(tickets.values()));
+    }
+
+    /*
+     * Trừ stock bằng một câu UPDATE có điều kiện cho mỗi loại vé (theo thứ tự id để tránh
+     * deadlock), không khoá và không nạp lại dòng Ticket. 0 dòng được cập nhật nghĩa là không
+     * đủ stock: các loại vé đã trừ trước đó được cộng lại và hàm trả về false.
+     */
+    private boolean decrementStockWithoutLock(List<Long> ticketIds, Map<Long, Integer> quantities) {
+        for (int i = 0; i < ticketIds.size(); i++) {
+            var ticketId = ticketIds.get(i);
+            if (ticketRepository.decrementStockIfAvailable(ticketId, quantities.get(ticketId)) == 0) {
+                ticketIds.subList(0, i).forEach(taken -> ticketRepository.incrementStock(taken, quantities.get(taken)));
+                return false;
+            }
+        }
+        return true;
+    }
+
     public void onOrderRefunded(Order order) {
         mailJobService.enqueueOrderRefundedEmail(order.getId());
         socketJobService.enqueueOrderRefunded(order.getId());
@@ -453,38 +815,58 @@ public class OrderService {
                 pageable);
     }
 
-    public String exportByShowId(Long userId, Long showId, String search) {
-        var csv = new StringBuilder();
-        csv.append("order_id,user_name,user_email,status,place_total\n");
-
-        int pageNumber = 0;
-        int pageSize = 200;
-        while (true) {
-            var page = getByShowId(userId, showId, search, PageRequest.of(pageNumber, pageSize));
-            for (var order : page.getContent()) {
-                csv.append(csvValue(order.getId()))
-                        .append(',')
-                        .append(csvValue(order.getUser() != null ? order.getUser().getFullName() : ""))
-                        .append(',')
-                        .append(csvValue(order.getUser() != null ? order.getUser().getEmail() : ""))
-                        .append(',')
-                        .append(csvValue(order.getStatus() != null ? order.getStatus().name() : ""))
-                        .append(',')
-                        .append(csvValue(order.getPlaceTotal()))
-                        .append('\n');
-            }
+    public CursorPage<Order> getByShowId(Long userId, Long showId, String search, CursorRequest cursor) {
+        ensureShowReportAccess(userId, showId);
 
-            if (!page.hasNext()) {
-                break;
-            }
+        var normalizedSearch = normalizeSearch(search);
+        return CursorPage.of(
+                orderRepository.searchAllByItemsTicketEventShowIdAndStatusIsAfter(
+                        showId, OrderStatus.FULFILLED, normalizedSearch, cursor.afterId(), cursor.pageable()),
+                Order::getId,
+                cursor,
+                () -> orderRepository.countSearchAllByItemsTicketEventShowIdAndStatusIs(
+                        showId, OrderStatus.FULFILLED, normalizedSearch)
+        );
+    }
 
-            pageNumber++;
-        }
+    /**
+     * Writes the fulfilled orders of the show as CSV, keyset-paging over order id so memory
+     * stays flat and each page is an index range scan. Access must be checked with
+     * {@link #ensureShowReportAccess(Long, Long)} before the response starts.
+     */
+    public void exportByShowId(Long showId, String search, OutputStream outputStream) throws IOException {
+        var writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write("order_id,user_name,user_email,status,place_total\n");
+
+        var normalizedSearch = normalizeSearch(search);
+        var afterId = 0L;
+        List<OrderRepository.OrderExportView> rows;
+        do {
+            rows = orderRepository.findExportRowsByShowIdAfter(
+                    showId,
+                    OrderStatus.FULFILLED,
+                    normalizedSearch,
+                    afterId,
+                    PageRequest.of(0, EXPORT_PAGE_SIZE));
+            for (var row : rows) {
+                writer.write(csvValue(row.getId()));
+                writer.write(',');
+                writer.write(csvValue(row.getFirstName() + " " + row.getLastName()));
+                writer.write(',');
+                writer.write(csvValue(row.getEmail()));
+                writer.write(',');
+                writer.write(csvValue(row.getStatus() != null ? row.getStatus().name() : ""));
+                writer.write(',');
+                writer.write(csvValue(row.getPlaceTotal()));
+                writer.write('\n');
+                afterId = row.getId();
+            }
+        } while (rows.size() == EXPORT_PAGE_SIZE);
 
-        return csv.toString();
+        writer.flush();
     }
 
-    private void ensureShowReportAccess(Long userId, Long showId) {
+    public void ensureShowReportAccess(Long userId, Long showId) {
         Event event = eventRepository.findByShowsId(showId)
                 .orElseThrow(() -> new HttpException(Constant.ErrorCode.EVENT_NOT_FOUND, HttpStatus.NOT_FOUND));
 
@@ -12,8 +12,10 @@ import com.paypal.sdk.http.response.ApiResponse;
 import com.paypal.sdk.models.*;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 import java.io.IOException;
@@ -24,6 +26,11 @@ import java.util.*;
 public class PayPalService {
     private static final Logger logger = org.slf4j.LoggerFactory.getLogger(PayPalService.class);
     private final PaypalServerSdkClient paypalServerSdkClient;
+    private final PayPalWebhookVerifier payPalWebhookVerifier;
+    private final PayPalTokenProvider payPalTokenProvider;
+
+    @Value("${application.paypal.webhook.local-verification.enabled:true}")
+    private boolean localWebhookVerification;
 
     private final String PAYPAL_API = "https://api-m.sandbox.paypal.com";
 
@@ -35,20 +42,22 @@ public class PayPalService {
             String certUrl,
             String authAlgo,
             String webhookId) {
+        if (localWebhookVerification) {
+            var result = payPalWebhookVerifier.verify(
+                    rawJsonPayload, transmissionId, transmissionTime, transmissionSig, certUrl, authAlgo, webhookId);
+            if (result != PayPalWebhookVerifier.Result.UNAVAILABLE) {
+                return result == PayPalWebhookVerifier.Result.VALID;
+            }
+            logger.info("Falling back to remote verification for PayPal webhook {}", transmissionId);
+        }
+
         // 1. Lấy PayPal Access Token (OAuth2)
         logger.info(
                 "Verifying PayPal webhook with transmissionId: {}, transmissionTime: {}, certUrl: {}, authAlgo: {}, webhookId: {}",
                 transmissionId, transmissionTime, certUrl, authAlgo, webhookId);
-        logger.info("Raw JSON payload: {}", rawJsonPayload);
-        String accessToken = null;
-        try {
-            accessToken = paypalServerSdkClient.getClientCredentialsAuth().fetchToken().getAccessToken();
-        } catch (ApiException | IOException e) {
-            logger.error("Error retrieving PayPal access token: {}", e.getMessage());
-        }
+        String accessToken = payPalTokenProvider.getAccessToken();
         if (accessToken == null)
             return false;
-        logger.info("Access token retrieved: {}", accessToken);
 
         // 2. Tạo request body
         PayPalWebhookVerifyDto request = new PayPalWebhookVerifyDto();
@@ -67,10 +76,9 @@ public class PayPalService {
             return false;
         }
         request.setWebhookEvent(webhookEvent); // Payload nguyên bản (dạng String hoặc Map)
-        logger.info("request.webhookEvent: {}", request.getWebhookEvent());
 
         // 3. Gọi PayPal API để verify
-        RestTemplate restTemplate = new RestTemplate();
+        RestTemplate restTemplate = payPalTokenProvider.getRestTemplate();
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         headers.setBearerAuth(accessToken);
@@ -89,6 +97,10 @@ public class PayPalService {
                     response.getBody());
             return response.getStatusCode() == HttpStatus.OK
                     && response.getBody().contains("\"verification_status\":\"SUCCESS\"");
+        } catch (HttpClientErrorException.Unauthorized e) {
+            payPalTokenProvider.invalidate(accessToken);
+            logger.error("PayPal rejected the access token while verifying webhook {}", transmissionId);
+            return false;
         } catch (Exception e) {
             logger.error("Error verifying PayPal webhook: {}", e.getMessage());
             return false;
@@ -171,16 +183,10 @@ public class PayPalService {
 
     public boolean sendPayout(String email, double amount, String currency, String note) {
         String url = PAYPAL_API + "/v1/payments/payouts";
-        String accessToken = null;
-        try {
-            accessToken = paypalServerSdkClient.getClientCredentialsAuth().fetchToken().getAccessToken();
-        } catch (ApiException | IOException e) {
-            logger.error("Error retrieving PayPal access token: {}", e.getMessage());
-        }
+        String accessToken = payPalTokenProvider.getAccessToken();
         if (accessToken == null)
             return false;
-        logger.info("Access token retrieved: {}", accessToken);
-        RestTemplate restTemplate = new RestTemplate();
+        RestTemplate restTemplate = payPalTokenProvider.getRestTemplate();
         HttpHeaders headers = new HttpHeaders();
         headers.set("PayPal-Request-Id", UUID.randomUUID().toString());
         headers.setBearerAuth(accessToken);
@@ -212,6 +218,9 @@ public class PayPalService {
         try {
             ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
             return response.getStatusCode() == HttpStatus.CREATED;
+        } catch (HttpClientErrorException.Unauthorized e) {
+            payPalTokenProvider.invalidate(accessToken);
+            return false;
         } catch (Exception e) {
             return false;
         }
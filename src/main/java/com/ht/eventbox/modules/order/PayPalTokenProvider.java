@@ -0,0 +1,132 @@
+package com.ht.eventbox.modules.order;
+
+import com.paypal.sdk.PaypalServerSdkClient;
+import com.paypal.sdk.exceptions.ApiException;
+import com.paypal.sdk.models.OAuthToken;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Shared PayPal OAuth access token and HTTP client for the calls made outside the SDK
+ * (webhook verification, payouts). The token is reused until {@code refresh-before-seconds}
+ * before {@code expires_in}, then refreshed in the background while the current one is still
+ * handed out; concurrent refreshes are collapsed into a single token request. The
+ * {@link RestTemplate} is backed by one pooled, keep-alive {@link HttpClient}.
+ */
+@Component
+public class PayPalTokenProvider {
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(PayPalTokenProvider.class);
+
+    private record CachedToken(String accessToken, long refreshAt, long expiresAt) {
+    }
+
+    private final PaypalServerSdkClient paypalServerSdkClient;
+    private final long refreshBeforeMillis;
+    private final RestTemplate restTemplate;
+
+    private final AtomicReference<CachedToken> token = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<CachedToken>> inflight = new AtomicReference<>();
+
+    public PayPalTokenProvider(
+            PaypalServerSdkClient paypalServerSdkClient,
+            @Value("${application.paypal.token.refresh-before-seconds:300}") long refreshBeforeSeconds,
+            @Value("${application.paypal.http.timeout-millis:10000}") long timeoutMillis) {
+        this.paypalServerSdkClient = paypalServerSdkClient;
+        this.refreshBeforeMillis = refreshBeforeSeconds * 1000;
+
+        var requestFactory = new JdkClientHttpRequestFactory(HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(timeoutMillis))
+                .build());
+        requestFactory.setReadTimeout(Duration.ofMillis(timeoutMillis));
+        this.restTemplate = new RestTemplate(requestFactory);
+    }
+
+    public RestTemplate getRestTemplate() {
+        return restTemplate;
+    }
+
+    /**
+     * Returns a valid access token, or {@code null} when PayPal could not issue one.
+     */
+    public String getAccessToken() {
+        var now = System.currentTimeMillis();
+        var current = token.get();
+        if (current != null && now < current.expiresAt()) {
+            if (now >= current.refreshAt() && inflight.get() == null) {
+                CompletableFuture.runAsync(() -> refresh().exceptionally(e -> {
+                    logger.warn("Error refreshing PayPal access token: {}", e.getMessage());
+                    return null;
+                }));
+            }
+            return current.accessToken();
+        }
+
+        try {
+            return refresh().join().accessToken();
+        } catch (RuntimeException e) {
+            logger.error("Error retrieving PayPal access token: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Drops the cached token, e.g. after PayPal answered 401 for it.
+     */
+    public void invalidate(String accessToken) {
+        var current = token.get();
+        if (current != null && current.accessToken().equals(accessToken)) {
+            token.compareAndSet(current, null);
+        }
+    }
+
+    private CompletableFuture<CachedToken> refresh() {
+        while (true) {
+            var running = inflight.get();
+            if (running != null) {
+                return running;
+            }
+
+            var future = new CompletableFuture<CachedToken>();
+            if (!inflight.compareAndSet(null, future)) {
+                continue;
+            }
+
+            try {
+                var fetched = fetchToken();
+                token.set(fetched);
+                future.complete(fetched);
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            } finally {
+                inflight.compareAndSet(future, null);
+            }
+            return future;
+        }
+    }
+
+    private CachedToken fetchToken() throws Exception {
+        var oAuthToken = fetchOAuthToken();
+        if (oAuthToken == null || oAuthToken.getAccessToken() == null) {
+            throw new IllegalStateException("PayPal returned no access token");
+        }
+
+        var now = System.currentTimeMillis();
+        var expiresInMillis = oAuthToken.getExpiresIn() == null ? 0L : oAuthToken.getExpiresIn() * 1000;
+        var expiresAt = now + expiresInMillis;
+        var refreshAt = now + Math.max(expiresInMillis / 2, expiresInMillis - refreshBeforeMillis);
+        return new CachedToken(oAuthToken.getAccessToken(), refreshAt, expiresAt);
+    }
+
+    OAuthToken fetchOAuthToken() throws ApiException, IOException {
+        return paypalServerSdkClient.getClientCredentialsAuth().fetchToken();
+    }
+}
@@ -0,0 +1,151 @@
+package com.ht.eventbox.modules.order;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Verifies PayPal webhook signatures in-process, as described in PayPal's "verify event
+ * notifications" guide: the signed message is {@code transmissionId|transmissionTime|webhookId|crc32(body)}
+ * and the signature is checked against the public key of the certificate at {@code Paypal-Cert-Url}.
+ * Certificates are only downloaded from PayPal hosts over HTTPS and kept in a small TTL cache.
+ */
+@Component
+public class PayPalWebhookVerifier {
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(PayPalWebhookVerifier.class);
+
+    static final int MAX_CACHED_CERTIFICATES = 32;
+
+    public enum Result {
+        VALID,
+        INVALID,
+        // Không xác thực được tại chỗ (lỗi tải chứng chỉ, thuật toán lạ...), cần gọi API của PayPal
+        UNAVAILABLE
+    }
+
+    private record CachedKey(PublicKey publicKey, long expiresAt) {
+    }
+
+    private final Map<String, CachedKey> cache = new ConcurrentHashMap<>();
+    private final PayPalTokenProvider payPalTokenProvider;
+    private final long certCacheTtlMillis;
+
+    public PayPalWebhookVerifier(
+            PayPalTokenProvider payPalTokenProvider,
+            @Value("${application.paypal.webhook.cert-cache-ttl-minutes:60}") long certCacheTtlMinutes) {
+        this.payPalTokenProvider = payPalTokenProvider;
+        this.certCacheTtlMillis = certCacheTtlMinutes * 60 * 1000;
+    }
+
+    public Result verify(
+            String rawJsonPayload,
+            String transmissionId,
+            String transmissionTime,
+            String transmissionSig,
+            String certUrl,
+            String authAlgo,
+            String webhookId) {
+        if (!isPayPalCertUrl(certUrl)) {
+            logger.warn("Rejecting PayPal webhook {} with untrusted cert url {}", transmissionId, certUrl);
+            return Result.INVALID;
+        }
+
+        PublicKey publicKey;
+        try {
+            publicKey = getPublicKey(certUrl);
+        } catch (Exception e) {
+            logger.warn("Could not load PayPal certificate {}: {}", certUrl, e.getMessage());
+            return Result.UNAVAILABLE;
+        }
+
+        return verifySignature(
+                publicKey, rawJsonPayload, transmissionId, transmissionTime, transmissionSig, authAlgo, webhookId);
+    }
+
+    Result verifySignature(
+            PublicKey publicKey,
+            String rawJsonPayload,
+            String transmissionId,
+            String transmissionTime,
+            String transmissionSig,
+            String authAlgo,
+            String webhookId) {
+        var crc32 = new CRC32();
+        crc32.update(rawJsonPayload.getBytes(StandardCharsets.UTF_8));
+        var message = transmissionId + "|" + transmissionTime + "|" + webhookId + "|" + crc32.getValue();
+
+        Signature signature;
+        try {
+            signature = Signature.getInstance(authAlgo);
+        } catch (GeneralSecurityException e) {
+            logger.warn("Unsupported PayPal webhook auth algorithm {}", authAlgo);
+            return Result.UNAVAILABLE;
+        }
+
+        try {
+            signature.initVerify(publicKey);
+            signature.update(message.getBytes(StandardCharsets.UTF_8));
+            return signature.verify(Base64.getDecoder().decode(transmissionSig)) ? Result.VALID : Result.INVALID;
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            return Result.INVALID;
+        }
+    }
+
+    boolean isPayPalCertUrl(String certUrl) {
+        try {
+            var uri = URI.create(certUrl);
+            var host = uri.getHost() == null ? "" : uri.getHost().toLowerCase(Locale.ROOT);
+            return "https".equalsIgnoreCase(uri.getScheme())
+                    && uri.getUserInfo() == null
+                    && (host.equals("paypal.com") || host.endsWith(".paypal.com"));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private PublicKey getPublicKey(String certUrl) throws GeneralSecurityException {
+        var now = System.currentTimeMillis();
+        var cached = cache.get(certUrl);
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.publicKey();
+        }
+
+        var certificate = downloadCertificate(certUrl);
+        certificate.checkValidity();
+
+        if (cache.size() >= MAX_CACHED_CERTIFICATES) {
+            cache.values().removeIf(entry -> entry.expiresAt() <= now);
+            if (cache.size() >= MAX_CACHED_CERTIFICATES) {
+                cache.clear();
+            }
+        }
+
+        var expiresAt = Math.min(now + certCacheTtlMillis, certificate.getNotAfter().getTime());
+        cache.put(certUrl, new CachedKey(certificate.getPublicKey(), expiresAt));
+        return certificate.getPublicKey();
+    }
+
+    X509Certificate downloadCertificate(String certUrl) throws GeneralSecurityException {
+        var body = payPalTokenProvider.getRestTemplate().getForObject(certUrl, byte[].class);
+        if (body == null) {
+            throw new GeneralSecurityException("Empty certificate response");
+        }
+
+        return (X509Certificate) CertificateFactory.getInstance("X.509")
+                .generateCertificate(new ByteArrayInputStream(body));
+    }
+}
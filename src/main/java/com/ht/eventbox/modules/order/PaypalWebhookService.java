@@ -0,0 +1,164 @@
+package com.ht.eventbox.modules.order;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ht.eventbox.config.HttpException;
+import com.ht.eventbox.constant.Constant;
+import com.ht.eventbox.enums.OrderStatus;
+import com.ht.eventbox.enums.WebhookEventType;
+import com.ht.eventbox.modules.order.dtos.CheckoutWebhookDto;
+import com.ht.eventbox.modules.order.dtos.PaymentWebhookDto;
+import com.paypal.sdk.exceptions.ApiException;
+import com.paypal.sdk.http.response.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Verifies and handles PayPal webhook deliveries, either inline on the request thread or from
+ * envelopes persisted by {@link com.ht.eventbox.modules.backgroundjobs.WebhookJobService}.
+ */
+@Service
+@RequiredArgsConstructor
+public class PaypalWebhookService {
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(PaypalWebhookService.class);
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final OrderService orderService;
+    private final PayPalService payPalService;
+    private final PaymentService paymentService;
+
+    @Value("${paypal.checkout.webhook.id}")
+    private String checkoutWebhookId;
+
+    @Value("${paypal.payment.webhook.id}")
+    private String paymentWebhookId;
+
+    public boolean verify(
+            WebhookEventType type,
+            String rawJsonPayload,
+            String transmissionId,
+            String transmissionTime,
+            String transmissionSig,
+            String certUrl,
+            String authAlgo) {
+        return payPalService.verifyWebhook(
+                rawJsonPayload,
+                transmissionId,
+                transmissionTime,
+                transmissionSig,
+                certUrl,
+                authAlgo,
+                type == WebhookEventType.PAYPAL_CHECKOUT ? checkoutWebhookId : paymentWebhookId);
+    }
+
+    public void handle(WebhookEventType type, String rawJsonPayload) {
+        if (type == WebhookEventType.PAYPAL_CHECKOUT) {
+            handleCheckout(rawJsonPayload);
+        } else {
+            handlePayment(rawJsonPayload);
+        }
+    }
+
+    public void handleCheckout(String rawJsonPayload) {
+        CheckoutWebhookDto checkoutWebhookDto = null;
+        try {
+            checkoutWebhookDto = mapper.readValue(rawJsonPayload, CheckoutWebhookDto.class);
+        } catch (JsonProcessingException e) {
+            logger.error("Error parsing JSON payload: {}", e.getMessage());
+        }
+
+        if (checkoutWebhookDto != null
+                && checkoutWebhookDto.getEventType()
+                .equals(Constant.WebhookEvent.CHECKOUT_ORDER_APPROVED)
+                && checkoutWebhookDto.getResource().getStatus()
+                .equals(Constant.WebhookEvent.CHECKOUT_ORDER_APPROVED_STATUS)) {
+
+            String customId = checkoutWebhookDto.getResource().getPurchaseUnits().get(0).getCustomId();
+
+            orderService.processPayment(Long.parseLong(customId), checkoutWebhookDto.getResource().getId());
+        }
+    }
+
+    public void handlePayment(String rawJsonPayload) {
+        PaymentWebhookDto paymentWebhookDto = null;
+        try {
+            paymentWebhookDto = mapper.readValue(rawJsonPayload, PaymentWebhookDto.class);
+        } catch (JsonProcessingException e) {
+            logger.error("Error parsing JSON payload: {}", e.getMessage());
+        }
+
+        if (paymentWebhookDto == null
+                || !paymentWebhookDto.getEventType().equals(Constant.WebhookEvent.PAYMENT_CAPTURE_COMPLETED)
+                || !paymentWebhookDto.getResource().getStatus()
+                .equals(Constant.WebhookEvent.PAYMENT_CAPTURE_COMPLETED_STATUS)
+                || !paymentWebhookDto.getResource().isFinalCapture()) {
+            return;
+        }
+
+        var orderId = paymentWebhookDto.getResource().getSupplementaryData().getRelatedIds().getOrderId();
+
+        ApiResponse<com.paypal.sdk.models.Order> paypalOrderRes = null;
+        try {
+            paypalOrderRes = payPalService.getOrderById(orderId);
+        } catch (ApiException | IOException e) {
+            throw new HttpException(
+                    Constant.ErrorCode.INVALID_PAYPAL_ORDER,
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        if (paypalOrderRes.getStatusCode() != 200 && paypalOrderRes.getStatusCode() != 201) {
+            throw new HttpException(
+                    Constant.ErrorCode.INVALID_PAYPAL_ORDER,
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        var paypalOrder = paypalOrderRes.getResult();
+        var captureId = paymentWebhookDto.getResource().getId();
+        var customId = paypalOrder.getPurchaseUnits().get(0).getCustomId();
+        var order = orderService.findById(Long.parseLong(customId));
+
+        if (order.getStatus() == OrderStatus.FULFILLED
+                || order.getStatus() == OrderStatus.PENDING
+                || order.getStatus() == OrderStatus.REFUNDED) {
+            logger.info("Order #{} has already been processed, skipping payment processing", order.getId());
+            return;
+        }
+
+        paymentService.fulfillPaymentFromPaypalOrder(paymentWebhookDto, paypalOrder);
+
+        if (order.getExpiredAt().isBefore(LocalDateTime.now())) {
+            orderService.refund(order, captureId);
+            orderService.markRefunded(order);
+        } else {
+            var fulfilledOrder = orderService.fulfill(order);
+            if (fulfilledOrder == null) {
+                orderService.refund(order, captureId, OrderService.outOfStockNote(order));
+                orderService.markRefunded(order);
+            } else {
+                orderService.onOrderFulfilled(fulfilledOrder);
+            }
+        }
+    }
+
+    /**
+     * PayPal order id the delivery refers to, used to serialize deliveries of the same order.
+     */
+    public String getPaypalOrderId(WebhookEventType type, String rawJsonPayload) {
+        try {
+            var resource = mapper.readTree(rawJsonPayload).path("resource");
+            var node = type == WebhookEventType.PAYPAL_CHECKOUT
+                    ? resource.path("id")
+                    : resource.path("supplementary_data").path("related_ids").path("order_id");
+            return node.isTextual() ? node.asText() : null;
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+}
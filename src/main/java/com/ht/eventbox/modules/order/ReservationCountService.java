@@ -0,0 +1,68 @@
+package com.ht.eventbox.modules.order;
+
+import com.ht.eventbox.enums.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Number of tickets held by live (unpaid, not yet expired) reservations, per ticket of an
+ * event. Loaded with one grouped query and cached briefly per event; stock changes evict
+ * the entry through {@link com.ht.eventbox.modules.backgroundjobs.SocketJobService}.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReservationCountService {
+    public interface TicketHeldCountView {
+        Long getTicketId();
+
+        Long getHeldCount();
+    }
+
+    private record CachedCounts(Map<Long, Long> counts, long expiresAt) {
+    }
+
+    private static final List<OrderStatus> LIVE_STATUSES = List.of(
+            OrderStatus.PENDING, OrderStatus.WAITING_FOR_PAYMENT);
+
+    private final TicketItemRepository ticketItemRepository;
+
+    private final Map<Long, CachedCounts> cache = new ConcurrentHashMap<>();
+
+    @Value("${application.reservation.held-count-cache-ttl-millis:2000}")
+    private long ttlMillis;
+
+    public Map<Long, Long> getHeldCountsByEventId(long eventId) {
+        var now = System.currentTimeMillis();
+        var cached = cache.get(eventId);
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.counts();
+        }
+
+        var counts = ticketItemRepository.countHeldGroupByTicketId(eventId, LIVE_STATUSES, LocalDateTime.now())
+                .stream()
+                .collect(Collectors.toUnmodifiableMap(
+                        TicketHeldCountView::getTicketId,
+                        TicketHeldCountView::getHeldCount));
+
+        if (ttlMillis > 0) {
+            cache.put(eventId, new CachedCounts(counts, now + ttlMillis));
+        }
+
+        return counts;
+    }
+
+    public void invalidate(long eventId) {
+        cache.remove(eventId);
+    }
+
+    public void invalidateAll() {
+        cache.clear();
+    }
+}
@@ -0,0 +1,108 @@
+package com.ht.eventbox.modules.order;
+
+import com.ht.eventbox.constant.Constant;
+import com.ht.eventbox.modules.redis.RedisService;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Delay queue of reservation deadlines: a Redis sorted set of order ids scored by
+ * {@code expiredAt}. {@link #claimDue()} pops due orders in small batches so they can be
+ * released right after they expire instead of waiting for the cleanup cron.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReservationExpiryService {
+    private static final long RETRY_DELAY_MILLIS = 5_000;
+
+    // KEYS = [queue], ARGV = [now in epoch millis, batch size]
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM_SCRIPT = new DefaultRedisScript<>("""
+            local ids = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2])
+            if #ids > 0 then
+                redis.call('ZREM', KEYS[1], unpack(ids))
+            end
+            return ids
+            """, List.class);
+
+    private final RedisService redisService;
+
+    @Getter
+    @Value("${application.reservation.expiry-queue.enabled:true}")
+    private boolean enabled;
+
+    @Getter
+    @Value("${application.reservation.expiry-queue.batch-size:100}")
+    private int batchSize;
+
+    public void schedule(long orderId, LocalDateTime expiredAt) {
+        if (!enabled) {
+            return;
+        }
+
+        redisService.addToSortedSet(
+                Constant.RedisPrefix.RESERVATION_EXPIRY,
+                String.valueOf(orderId),
+                expiredAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    public void scheduleAfterCommit(long orderId, LocalDateTime expiredAt) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schedule(orderId, expiredAt);
+                }
+            });
+            return;
+        }
+
+        schedule(orderId, expiredAt);
+    }
+
+    public void cancel(long orderId) {
+        if (!enabled) {
+            return;
+        }
+
+        redisService.removeFromSortedSet(Constant.RedisPrefix.RESERVATION_EXPIRY, String.valueOf(orderId));
+    }
+
+    /**
+     * Atomically removes and returns up to {@code batchSize} orders whose deadline has passed,
+     * so several instances can poll the same queue without handling an order twice.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Long> claimDue() {
+        List<String> ids = redisService.executeScript(
+                CLAIM_SCRIPT,
+                List.of(Constant.RedisPrefix.RESERVATION_EXPIRY),
+                String.valueOf(System.currentTimeMillis()),
+                String.valueOf(batchSize));
+
+        if (ids == null) {
+            return List.of();
+        }
+
+        return ids.stream().map(Long::valueOf).toList();
+    }
+
+    public void retry(Collection<Long> orderIds) {
+        var retryAt = System.currentTimeMillis() + RETRY_DELAY_MILLIS;
+        orderIds.forEach(orderId -> redisService.addToSortedSet(
+                Constant.RedisPrefix.RESERVATION_EXPIRY,
+                String.valueOf(orderId),
+                retryAt));
+    }
+}
@@ -2,8 +2,11 @@ package com.ht.eventbox.modules.order;
 
 import com.ht.eventbox.entities.TicketItem;
 import com.ht.eventbox.enums.OrderStatus;
+import com.ht.eventbox.modules.inventory.SeatInventoryService;
 import com.ht.eventbox.modules.ticket.TicketService;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
@@ -40,6 +43,71 @@ public interface TicketItemRepository extends JpaRepository<TicketItem, Long> {
     long countAllByTicketIdAndOrderStatusInAndOrderExpiredAtIsAfter(Long id, List<OrderStatus> statuses,
             LocalDateTime now);
 
+    @Query("""
+            SELECT t.id AS ticketId, COUNT(i) AS heldCount
+            FROM TicketItem i
+            JOIN i.order o
+            JOIN i.ticket t
+            JOIN t.eventShow s
+            WHERE s.event.id = :eventId
+              AND o.status IN :statuses
+              AND o.expiredAt > :now
+            GROUP BY t.id
+            """)
+    List<ReservationCountService.TicketHeldCountView> countHeldGroupByTicketId(
+            @Param("eventId") Long eventId,
+            @Param("statuses") List<OrderStatus> statuses,
+            @Param("now") LocalDateTime now);
+
+    @Query("""
+            SELECT DISTINCT s.event.id
+            FROM TicketItem i
+            JOIN i.ticket t
+            JOIN t.eventShow s
+            WHERE i.order.id IN :orderIds
+            """)
+    List<Long> findEventIdsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    @Query("""
+            SELECT DISTINCT s.event.id
+            FROM TicketItem i
+            JOIN i.order o
+            JOIN i.ticket t
+            JOIN t.eventShow s
+            WHERE o.user.id = :userId
+              AND o.status = :status
+            """)
+    List<Long> findEventIdsByOrderUserIdAndOrderStatus(
+            @Param("userId") Long userId,
+            @Param("status") OrderStatus status);
+
+    @Query("""
+            SELECT DISTINCT s.event.id
+            FROM TicketItem i
+            JOIN i.order o
+            JOIN i.ticket t
+            JOIN t.eventShow s
+            WHERE o.status IN :statuses
+              AND o.expiredAt < :time
+            """)
+    List<Long> findEventIdsByOrderStatusInAndOrderExpiredAtBefore(
+            @Param("statuses") List<OrderStatus> statuses,
+            @Param("time") LocalDateTime time);
+
+    @Query("""
+            SELECT i.seatIndex AS seatIndex, o.status AS status, o.id AS orderId, o.expiredAt AS expiredAt
+            FROM TicketItem i
+            JOIN i.order o
+            WHERE i.ticket.id = :ticketId
+              AND i.seatIndex IS NOT NULL
+              AND (o.status = :soldStatus OR (o.status IN :heldStatuses AND o.expiredAt > :now))
+            """)
+    List<SeatInventoryService.TakenSeatView> findTakenSeatsByTicketId(
+            @Param("ticketId") Long ticketId,
+            @Param("soldStatus") OrderStatus soldStatus,
+            @Param("heldStatuses") List<OrderStatus> heldStatuses,
+            @Param("now") LocalDateTime now);
+
     <T> Optional<T> findByIdAndOrderStatusIs(long ticketItemId, OrderStatus orderStatus, Class<T> clazz);
 
     <T> Optional<T> findByIdAndOrderStatusIsAndTicketEventShowId(Long id, OrderStatus orderStatus, Long eventShowId,
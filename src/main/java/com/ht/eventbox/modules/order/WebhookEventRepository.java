@@ -0,0 +1,13 @@
+package com.ht.eventbox.modules.order;
+
+import com.ht.eventbox.entities.WebhookEvent;
+import com.ht.eventbox.enums.WebhookEventStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface WebhookEventRepository extends JpaRepository<WebhookEvent, Long> {
+
+    boolean existsByTransmissionId(String transmissionId);
+
+    long countByStatus(WebhookEventStatus status);
+
+}
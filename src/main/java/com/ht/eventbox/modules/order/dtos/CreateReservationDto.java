@@ -22,6 +22,9 @@ public class CreateReservationDto {
 
         @NotNull
         private int quantity;
+
+        // Bắt buộc với suất diễn có sơ đồ chỗ ngồi, mỗi vé một ghế
+        private List<Integer> seats;
     }
 
     @NotEmpty
@@ -154,6 +154,8 @@ public class OrganizationService {
         org.setPaypalAccount(updateOrganizationDto.getPaypalAccount());
         org.setEmail(updateOrganizationDto.getEmail());
         org.setWebsite(updateOrganizationDto.getWebsite());
+        // Tên và mô tả tổ chức nằm trong nội dung tìm kiếm của các sự kiện
+        eventRepository.findAllByOrganizationId(orgId).forEach(Event::refreshSearchDocument);
 
         Set<Asset> assetsToRemove = null;
         // xoá logo cũ nếu body truyền vào có trường isRemoveLogo là true
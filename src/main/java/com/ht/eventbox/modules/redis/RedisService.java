@@ -4,11 +4,18 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -29,10 +36,54 @@ public class RedisService {
         return redisTemplate.opsForValue().get(key);
     }
 
+    // Đọc nguyên byte, dùng cho các key dạng bitmap/bitfield không phải chuỗi UTF-8
+    public byte[] getRawValue(String key) {
+        return redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                connection.stringCommands().get(key.getBytes(StandardCharsets.UTF_8)));
+    }
+
     public Boolean deleteValue(String key) {
         return redisTemplate.delete(key);
     }
 
+    public void setHash(String key, Map<String, String> values, long expirationInSeconds) {
+        redisTemplate.opsForHash().putAll(key, values);
+        redisTemplate.expire(key, Duration.ofSeconds(expirationInSeconds));
+    }
+
+    public Map<String, String> getHash(String key) {
+        HashOperations<String, String, String> hashOperations = redisTemplate.opsForHash();
+        return hashOperations.entries(key);
+    }
+
+    public Long deleteHashFields(String key, String... fields) {
+        return redisTemplate.opsForHash().delete(key, (Object[]) fields);
+    }
+
+    public Boolean setValueIfAbsent(String key, String value, long expirationInSeconds) {
+        return redisTemplate.opsForValue().setIfAbsent(key, value, Duration.ofSeconds(expirationInSeconds));
+    }
+
+    public <T> T executeScript(RedisScript<T> script, List<String> keys, String... args) {
+        return redisTemplate.execute(script, keys, (Object[]) args);
+    }
+
+    public Boolean addToSortedSet(String key, String value, double score) {
+        return redisTemplate.opsForZSet().add(key, value, score);
+    }
+
+    public Long removeFromSortedSet(String key, String... values) {
+        return redisTemplate.opsForZSet().remove(key, (Object[]) values);
+    }
+
+    public Long removeFromSortedSetByScore(String key, double min, double max) {
+        return redisTemplate.opsForZSet().removeRangeByScore(key, min, max);
+    }
+
+    public Set<String> getSortedSetMembers(String key) {
+        return redisTemplate.opsForZSet().range(key, 0, -1);
+    }
+
     public Long incrementValue(String key) {
         return redisTemplate.opsForValue().increment(key);
     }
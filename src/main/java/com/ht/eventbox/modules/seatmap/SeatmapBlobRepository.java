@@ -0,0 +1,24 @@
+package com.ht.eventbox.modules.seatmap;
+
+import com.ht.eventbox.entities.SeatmapBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface SeatmapBlobRepository extends JpaRepository<SeatmapBlob, String> {
+    /*
+     * Chỉ ghi khi chưa có bản nào cùng mã băm, nội dung giống nhau thì dùng chung một bản
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO seatmap_blobs (hash, content_type, content, gzip_content, created_at)
+            SELECT :hash, :contentType, :content, :gzipContent, CURRENT_TIMESTAMP
+            WHERE NOT EXISTS (SELECT 1 FROM seatmap_blobs WHERE hash = :hash)
+            """, nativeQuery = true)
+    int insertIfAbsent(
+            @Param("hash") String hash,
+            @Param("contentType") String contentType,
+            @Param("content") byte[] content,
+            @Param("gzipContent") byte[] gzipContent);
+}
@@ -0,0 +1,73 @@
+package com.ht.eventbox.modules.seatmap;
+
+import com.ht.eventbox.annotations.RequiredPermissions;
+import com.ht.eventbox.config.HttpException;
+import com.ht.eventbox.constant.Constant;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+
+@RestController
+@CrossOrigin
+@RequestMapping(path = "/api/v1/seatmaps")
+@RequiredArgsConstructor
+public class SeatmapController {
+    // Nội dung ứng với một mã băm không bao giờ thay đổi
+    static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+    private final SeatmapService seatmapService;
+
+    /*
+    API dùng để lấy sơ đồ chỗ ngồi (JSON hoặc SVG) theo mã băm seatmap_hash/seatmap_svg_hash của suất diễn, dùng cho trang đặt vé
+    */
+    @GetMapping("/{hash}")
+    @RequiredPermissions({"read:events"})
+    public ResponseEntity<byte[]> getByHash(
+            @PathVariable String hash,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request
+    ) {
+        // Client đã có bản này thì trả 304 ngay, không cần đọc cơ sở dữ liệu
+        var etag = "\"" + hash + "\"";
+        if (SeatmapService.isHash(hash) && request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(IMMUTABLE)
+                    .build();
+        }
+
+        var blob = seatmapService.find(hash).orElseThrow(
+                () -> new HttpException(Constant.ErrorCode.SEATMAP_NOT_FOUND, HttpStatus.NOT_FOUND)
+        );
+
+        var response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(IMMUTABLE)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.parseMediaType(blob.getContentType()));
+        if (acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(blob.getGzipContent());
+        }
+        return response.body(blob.getContent());
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        return Arrays.stream(acceptEncoding.split(","))
+                .map(coding -> coding.trim().toLowerCase().replace(" ", ""))
+                .anyMatch(coding -> (coding.startsWith("gzip") || coding.startsWith("*"))
+                        && !coding.matches(".*;q=0(\\.0*)?$"));
+    }
+}
@@ -0,0 +1,147 @@
+package com.ht.eventbox.modules.seatmap;
+
+import com.ht.eventbox.entities.EventShow;
+import com.ht.eventbox.entities.SeatmapBlob;
+import com.ht.eventbox.modules.event.EventShowRepository;
+import org.slf4j.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content-addressed storage for the seatmaps of the shows. The JSON layout and the SVG are
+ * stored once per distinct content under their SHA-256 hash, next to a gzip copy made at write
+ * time, and the shows only keep the hashes. Event payloads therefore stay small, and since a
+ * hash always names the same bytes the seatmap endpoint can be cached forever by browsers and
+ * CDNs.
+ */
+@Service
+public class SeatmapService {
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(SeatmapService.class);
+
+    static final int BACKFILL_BATCH_SIZE = 100;
+    static final String SEATMAP_CONTENT_TYPE = MediaType.APPLICATION_JSON_VALUE;
+    static final String SEATMAP_SVG_CONTENT_TYPE = "image/svg+xml";
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private final SeatmapBlobRepository seatmapBlobRepository;
+    private final EventShowRepository eventShowRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate insertTransactionTemplate;
+
+    public SeatmapService(
+            SeatmapBlobRepository seatmapBlobRepository,
+            EventShowRepository eventShowRepository,
+            PlatformTransactionManager transactionManager) {
+        this.seatmapBlobRepository = seatmapBlobRepository;
+        this.eventShowRepository = eventShowRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Lỗi trùng khoá chỉ huỷ transaction riêng của lệnh insert, không kéo theo transaction đang lưu suất diễn
+        this.insertTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.insertTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Stores the seatmap and its SVG and points the show at them by hash.
+     */
+    public void attach(EventShow eventShow, String seatmap, String seatmapSvg) {
+        eventShow.setSeatmapHash(store(seatmap, SEATMAP_CONTENT_TYPE));
+        eventShow.setSeatmapSvgHash(store(seatmapSvg, SEATMAP_SVG_CONTENT_TYPE));
+        eventShow.setSeatmap(null);
+        eventShow.setSeatmapSvg(null);
+    }
+
+    /**
+     * Returns the hash of {@code content}, storing it first if it is new.
+     */
+    public String store(String content, String contentType) {
+        if (content == null || content.isEmpty()) {
+            return null;
+        }
+
+        var bytes = content.getBytes(StandardCharsets.UTF_8);
+        var hash = hashOf(bytes);
+        if (!seatmapBlobRepository.existsById(hash)) {
+            var gzipContent = gzip(bytes);
+            try {
+                insertTransactionTemplate.executeWithoutResult(status ->
+                        seatmapBlobRepository.insertIfAbsent(hash, contentType, bytes, gzipContent));
+            } catch (DataIntegrityViolationException e) {
+                // Hai request cùng ghi một nội dung: NOT EXISTS không chặn được, nhưng bản kia đã có trong bảng
+                logger.debug("Seatmap blob {} was stored concurrently", hash);
+            }
+        }
+        return hash;
+    }
+
+    public Optional<SeatmapBlob> find(String hash) {
+        if (!isHash(hash)) {
+            return Optional.empty();
+        }
+
+        return seatmapBlobRepository.findById(hash);
+    }
+
+    /*
+     * Các suất diễn tạo trước khi có bảng seatmap_blobs vẫn giữ sơ đồ trong event_shows, chuyển dần theo từng lô
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int moved;
+        int total = 0;
+        do {
+            moved = transactionTemplate.execute(status -> {
+                var shows = eventShowRepository.findAllBySeatmapIsNotNullOrSeatmapSvgIsNotNullOrderByIdAsc(
+                        PageRequest.of(0, BACKFILL_BATCH_SIZE));
+                shows.forEach(show -> attach(show, show.getSeatmap(), show.getSeatmapSvg()));
+                eventShowRepository.saveAll(shows);
+                return shows.size();
+            });
+            total += moved;
+        } while (moved == BACKFILL_BATCH_SIZE);
+
+        if (total > 0) {
+            logger.info("Moved the seatmaps of {} shows to content-addressed storage", total);
+        }
+    }
+
+    static boolean isHash(String value) {
+        return value != null && HASH_PATTERN.matcher(value).matches();
+    }
+
+    static String hashOf(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static byte[] gzip(byte[] content) {
+        var output = new ByteArrayOutputStream(Math.max(64, content.length / 4));
+        try (var gzip = new GZIPOutputStream(output)) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,116 @@
+package com.ht.eventbox.modules.socket;
+
+import com.corundumstudio.socketio.store.pubsub.PubSubListener;
+import com.corundumstudio.socketio.store.pubsub.PubSubMessage;
+import com.corundumstudio.socketio.store.pubsub.PubSubStore;
+import com.corundumstudio.socketio.store.pubsub.PubSubType;
+import com.ht.eventbox.constant.Constant;
+import org.slf4j.Logger;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Socket.IO pub/sub over Redis channels, one channel per {@link PubSubType}. Messages are the
+ * library's own serializable messages; messages published by this node are ignored when they
+ * come back, as the other stores of netty-socketio do.
+ */
+public class RedisPubSubStore implements PubSubStore {
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(RedisPubSubStore.class);
+
+    // Chỉ cho phép giải mã các lớp của netty-socketio và JDK
+    private static final ObjectInputFilter MESSAGE_FILTER =
+            ObjectInputFilter.Config.createFilter("com.corundumstudio.socketio.**;java.**;!*");
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Long nodeId;
+
+    private final Map<PubSubType, List<MessageListener>> listeners = new ConcurrentHashMap<>();
+
+    public RedisPubSubStore(RedisTemplate<String, String> redisTemplate,
+                            RedisMessageListenerContainer listenerContainer,
+                            Long nodeId) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.nodeId = nodeId;
+    }
+
+    static String channelOf(PubSubType type) {
+        return String.format("%s:%s", Constant.RedisPrefix.SOCKET_IO, type);
+    }
+
+    @Override
+    public void publish(PubSubType type, PubSubMessage message) {
+        message.setNodeId(nodeId);
+        var channel = channelOf(type).getBytes(StandardCharsets.UTF_8);
+        var body = serialize(message);
+        redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(channel, body));
+    }
+
+    @Override
+    public <T extends PubSubMessage> void subscribe(PubSubType type, PubSubListener<T> listener, Class<T> clazz) {
+        MessageListener messageListener = (message, pattern) -> {
+            T pubSubMessage;
+            try {
+                pubSubMessage = clazz.cast(deserialize(message.getBody()));
+            } catch (RuntimeException e) {
+                logger.warn("Dropped unreadable {} message: {}", type, e.getMessage());
+                return;
+            }
+
+            if (!nodeId.equals(pubSubMessage.getNodeId())) {
+                listener.onMessage(pubSubMessage);
+            }
+        };
+
+        listeners.computeIfAbsent(type, key -> new CopyOnWriteArrayList<>()).add(messageListener);
+        listenerContainer.addMessageListener(messageListener, new ChannelTopic(channelOf(type)));
+    }
+
+    @Override
+    public void unsubscribe(PubSubType type) {
+        var removed = listeners.remove(type);
+        if (removed != null) {
+            removed.forEach(listenerContainer::removeMessageListener);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        listeners.keySet().forEach(this::unsubscribe);
+    }
+
+    static byte[] serialize(PubSubMessage message) {
+        try (var bytes = new ByteArrayOutputStream(); var output = new ObjectOutputStream(bytes)) {
+            output.writeObject(message);
+            output.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot serialize " + message.getClass().getSimpleName(), e);
+        }
+    }
+
+    static Object deserialize(byte[] body) {
+        try (var input = new ObjectInputStream(new ByteArrayInputStream(body))) {
+            input.setObjectInputFilter(MESSAGE_FILTER);
+            return input.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Cannot deserialize socket message", e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.ht.eventbox.modules.socket;
+
+import com.corundumstudio.socketio.store.MemoryStore;
+import com.corundumstudio.socketio.store.Store;
+import com.corundumstudio.socketio.store.pubsub.BaseStoreFactory;
+import com.corundumstudio.socketio.store.pubsub.PubSubStore;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Store factory that lets several Socket.IO nodes act as one: joins, leaves and broadcasts are
+ * relayed through Redis pub/sub, so an event sent to a room on one node reaches the members
+ * connected to any other node. Session data stays in memory, since a client is only ever served
+ * by the node it is connected to.
+ */
+public class RedisStoreFactory extends BaseStoreFactory {
+    private final RedisPubSubStore pubSubStore;
+
+    public RedisStoreFactory(RedisTemplate<String, String> redisTemplate,
+                             RedisMessageListenerContainer listenerContainer) {
+        this.pubSubStore = new RedisPubSubStore(redisTemplate, listenerContainer, getNodeId());
+    }
+
+    @Override
+    public PubSubStore pubSubStore() {
+        return pubSubStore;
+    }
+
+    @Override
+    public Store createStore(UUID sessionId) {
+        return new MemoryStore();
+    }
+
+    @Override
+    public <K, V> Map<K, V> createMap(String name) {
+        return new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void shutdown() {
+        pubSubStore.shutdown();
+    }
+}
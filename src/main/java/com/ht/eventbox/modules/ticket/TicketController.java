@@ -3,10 +3,14 @@ package com.ht.eventbox.modules.ticket;
 import com.ht.eventbox.annotations.RequiredPermissions;
 import com.ht.eventbox.config.Response;
 import com.ht.eventbox.constant.Constant;
+import com.ht.eventbox.entities.Ticket;
 import com.ht.eventbox.entities.TicketItem;
 import com.ht.eventbox.enums.OrderStatus;
+import com.ht.eventbox.modules.inventory.SeatInventoryService;
+import com.ht.eventbox.modules.inventory.TicketInventoryService;
 import com.ht.eventbox.modules.ticket.dtos.FeedbackTicketItemDto;
 import com.ht.eventbox.modules.ticket.dtos.GiveawayTicketItemDto;
+import com.ht.eventbox.modules.ticket.dtos.UpdateStockShardsDto;
 import com.ht.eventbox.modules.ticket.dtos.ValidateTicketItemDto;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -17,6 +21,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @CrossOrigin
@@ -26,6 +31,8 @@ public class TicketController {
         private static final Logger logger = org.slf4j.LoggerFactory.getLogger(TicketController.class);
 
         private final TicketService ticketService;
+        private final TicketInventoryService ticketInventoryService;
+        private final SeatInventoryService seatInventoryService;
 
         /*
          * API dùng để lấy tất cả các vé của người dùng hiện tại với trạng thái đã thanh
@@ -210,4 +217,37 @@ public class TicketController {
                                                 HttpStatus.OK.getReasonPhrase(),
                                                 res));
         }
+
+        /*
+         * API dùng để chia stock của loại vé bán chạy thành nhiều phần (shards = 0 để gộp lại),
+         * dùng cho web admin
+         */
+        @PutMapping("/{ticketId}/stock-shards")
+        @RequiredPermissions({ "access:admin" })
+        public ResponseEntity<Response<Ticket>> updateStockShards(
+                        @PathVariable Long ticketId,
+                        @Valid @RequestBody UpdateStockShardsDto updateStockShardsDto) {
+                var res = ticketInventoryService.setStockShards(ticketId, updateStockShardsDto.getShards());
+                return ResponseEntity.ok(
+                                new Response<>(
+                                                HttpStatus.OK.value(),
+                                                Constant.SuccessCode.UPDATE_SUCCESSFULLY,
+                                                res));
+        }
+
+        /*
+         * API dùng để lấy trạng thái ghế của các khối trong sơ đồ chỗ ngồi của suất diễn (base64 của
+         * bitfield 2 bit mỗi ghế: 0 trống, 1 đang giữ, 2 đã bán), sau đó theo dõi thay đổi qua sự kiện
+         * seats_updated của namespace /event, dùng cho trang chọn ghế
+         */
+        @GetMapping("/shows/{showId}/seats")
+        @RequiredPermissions({ "read:events" })
+        public ResponseEntity<Response<Map<Long, String>>> getSeatStates(@PathVariable Long showId) {
+                var res = seatInventoryService.getSeatStates(showId);
+                return ResponseEntity.ok(
+                                new Response<>(
+                                                HttpStatus.OK.value(),
+                                                HttpStatus.OK.getReasonPhrase(),
+                                                res));
+        }
 }
@@ -5,8 +5,11 @@ import jakarta.persistence.LockModeType;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface TicketRepository extends JpaRepository<Ticket, Long> {
@@ -14,4 +17,22 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT t FROM Ticket t WHERE t.id IN :ids")
     List<Ticket> findAllByIdWithLocked(@NotNull List<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Ticket t SET t.stock = t.stock - :quantity WHERE t.id = :id AND t.stock >= :quantity")
+    int decrementStockIfAvailable(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Query("SELECT t.stock FROM Ticket t WHERE t.id = :id")
+    int findStockById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Ticket t SET t.stock = t.stock + :quantity WHERE t.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    List<Ticket> findAllByEventShowIdOrderByIdAsc(Long showId);
+
+    <T> List<T> findAllByEventShowEventIdOrderByIdAsc(Long eventId, Class<T> clazz);
+
+    List<Ticket> findAllByEventShowSaleStartTimeBeforeAndEventShowSaleEndTimeAfter(LocalDateTime saleStartTime,
+            LocalDateTime saleEndTime);
 }
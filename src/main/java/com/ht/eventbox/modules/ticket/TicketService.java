@@ -218,7 +218,8 @@ public class TicketService {
         try {
             // kiểm tra token có hợp lệ không (đúng secret và còn hạn sử dụng)
             boolean isTokenValid = jwtService.isTokenValid(validateTicketItemDto.getToken(), qrcodeSecretKey);
-            if (!isTokenValid) {
+            // token vào phòng chờ không phải là vé, kể cả khi cấu hình nhầm cùng một secret
+            if (!isTokenValid || "admission".equals(jwtService.extractType(validateTicketItemDto.getToken(), qrcodeSecretKey))) {
                 throw new HttpException(
                         Constant.ErrorCode.TICKET_ITEM_INVALID,
                         HttpStatus.BAD_REQUEST);
@@ -0,0 +1,70 @@
+package com.ht.eventbox.modules.ticket;
+
+import com.ht.eventbox.entities.TicketStockShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface TicketStockShardRepository extends JpaRepository<TicketStockShard, Long> {
+    interface TicketStockView {
+        Long getTicketId();
+
+        Long getStock();
+    }
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM TicketStockShard s WHERE s.ticket.id = :ticketId ORDER BY s.shardIndex ASC")
+    List<TicketStockShard> findAllByTicketIdWithLocked(@Param("ticketId") Long ticketId);
+
+    @Modifying
+    @Query("""
+            UPDATE TicketStockShard s
+            SET s.stock = s.stock - :quantity
+            WHERE s.ticket.id = :ticketId
+              AND s.shardIndex = :shardIndex
+              AND s.stock >= :quantity
+            """)
+    int decrementIfAvailable(
+            @Param("ticketId") Long ticketId,
+            @Param("shardIndex") int shardIndex,
+            @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("""
+            UPDATE TicketStockShard s
+            SET s.stock = s.stock + :quantity
+            WHERE s.ticket.id = :ticketId
+              AND s.shardIndex = :shardIndex
+            """)
+    int increment(
+            @Param("ticketId") Long ticketId,
+            @Param("shardIndex") int shardIndex,
+            @Param("quantity") int quantity);
+
+    @Query("SELECT COALESCE(SUM(s.stock), 0) FROM TicketStockShard s WHERE s.ticket.id = :ticketId")
+    long sumStockByTicketId(@Param("ticketId") Long ticketId);
+
+    @Query("""
+            SELECT s.ticket.id AS ticketId, SUM(s.stock) AS stock
+            FROM TicketStockShard s
+            WHERE s.ticket.id IN :ticketIds
+            GROUP BY s.ticket.id
+            """)
+    List<TicketStockView> sumStockGroupByTicketId(@Param("ticketIds") Collection<Long> ticketIds);
+
+    @Modifying
+    @Query("""
+            UPDATE Ticket t
+            SET t.stock = (SELECT COALESCE(SUM(s.stock), 0) FROM TicketStockShard s WHERE s.ticket.id = t.id)
+            WHERE t.stockShards > 0
+            """)
+    int syncShardedTicketStock();
+
+    long deleteAllByTicketId(Long ticketId);
+}
@@ -0,0 +1,18 @@
+package com.ht.eventbox.modules.ticket.dtos;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpdateStockShardsDto {
+    @Min(0)
+    @Max(64)
+    private int shards;
+}
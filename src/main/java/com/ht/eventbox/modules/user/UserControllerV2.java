@@ -1,6 +1,8 @@
 package com.ht.eventbox.modules.user;
 
 import com.ht.eventbox.annotations.RequiredPermissions;
+import com.ht.eventbox.config.CursorRequest;
+import com.ht.eventbox.config.CursorResponse;
 import com.ht.eventbox.config.QueryResponse;
 import com.ht.eventbox.config.Response;
 import com.ht.eventbox.constant.Constant;
@@ -22,6 +24,8 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @CrossOrigin
 @RequestMapping(path = "/api/v2/users")
@@ -31,10 +35,19 @@ public class UserControllerV2 {
 
     @GetMapping
     @RequiredPermissions({"read:users"})
-    public ResponseEntity<QueryResponse<User>> getAll(
+    public ResponseEntity<Response<List<User>>> getAll(
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean count,
             Pageable pageable
     ) {
+        if (after != null) {
+            var res = userService.getAll(search, CursorRequest.of(after, pageable.getPageSize(), count));
+            return ResponseEntity.ok(
+                    CursorResponse.from(res, HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase())
+            );
+        }
+
         var res = userService.getAll(search, pageable);
         return ResponseEntity.ok(
                 QueryResponse.from(res, HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase())
@@ -3,6 +3,7 @@ package com.ht.eventbox.modules.user;
 import com.ht.eventbox.entities.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -31,5 +32,34 @@ public interface UserRepository extends JpaRepository<User, Long> {
             """)
     Page<User> searchAllByOrderByIdAsc(@Param("search") String search, Pageable pageable);
 
+    @Query("""
+            SELECT u
+            FROM User u
+            WHERE u.id > :afterId
+              AND (
+                :search IS NULL
+                OR :search = ''
+                OR LOWER(u.firstName) LIKE LOWER(CONCAT('%', :search, '%'))
+                OR LOWER(u.lastName) LIKE LOWER(CONCAT('%', :search, '%'))
+                OR LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%'))
+              )
+            ORDER BY u.id ASC
+            """)
+    Slice<User> searchAllAfter(
+            @Param("search") String search,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    @Query("""
+            SELECT COUNT(u)
+            FROM User u
+            WHERE :search IS NULL
+               OR :search = ''
+               OR LOWER(u.firstName) LIKE LOWER(CONCAT('%', :search, '%'))
+               OR LOWER(u.lastName) LIKE LOWER(CONCAT('%', :search, '%'))
+               OR LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%'))
+            """)
+    long countSearchAll(@Param("search") String search);
+
     boolean existsByRolesId(Long roleId);
 }
@@ -1,5 +1,7 @@
 package com.ht.eventbox.modules.user;
 
+import com.ht.eventbox.config.CursorPage;
+import com.ht.eventbox.config.CursorRequest;
 import com.ht.eventbox.config.HttpException;
 import com.ht.eventbox.constant.Constant;
 import com.ht.eventbox.entities.*;
@@ -124,6 +126,16 @@ public class UserService {
         return userRepository.searchAllByOrderByIdAsc(normalizeSearch(search), pageable);
     }
 
+    public CursorPage<User> getAll(String search, CursorRequest cursor) {
+        var normalizedSearch = normalizeSearch(search);
+        return CursorPage.of(
+                userRepository.searchAllAfter(normalizedSearch, cursor.afterId(), cursor.pageable()),
+                User::getId,
+                cursor,
+                () -> userRepository.countSearchAll(normalizedSearch)
+        );
+    }
+
     public List<Role> getAllRoles() {
         return roleRepository.findAllByOrderByIdAsc();
     }
@@ -0,0 +1,125 @@
+package com.ht.eventbox.modules.waitingroom;
+
+import com.ht.eventbox.constant.Constant;
+import com.ht.eventbox.modules.redis.RedisService;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Additive-increase / multiplicative-decrease controller for the number of users let out of
+ * the waiting rooms per second. Reservation latency is the congestion signal: every node adds
+ * its samples to a shared Redis window, and on each tick the window is drained and its average
+ * compared to the target. Under the target the rate grows step by step, above it the rate is cut
+ * so the database can recover before more buyers are admitted; a tick without samples keeps the
+ * rate. The rate itself lives in Redis too, since the tick can run on any node.
+ */
+@Component
+public class AdmissionRateController {
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(AdmissionRateController.class);
+
+    private static final double DECREASE_FACTOR = 0.75;
+
+    // KEYS = [latency window], ARGV = [latency millis, ttl]
+    private static final RedisScript<Long> RECORD_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('HINCRBY', KEYS[1], 'sum', ARGV[1])
+            local count = redis.call('HINCRBY', KEYS[1], 'count', 1)
+            redis.call('EXPIRE', KEYS[1], ARGV[2])
+            return count
+            """, Long.class);
+
+    // KEYS = [latency window], trả về { sum, count } rồi xoá cửa sổ
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> DRAIN_SCRIPT = new DefaultRedisScript<>("""
+            local window = redis.call('HMGET', KEYS[1], 'sum', 'count')
+            redis.call('DEL', KEYS[1])
+            return { tonumber(window[1] or '0'), tonumber(window[2] or '0') }
+            """, List.class);
+
+    private final RedisService redisService;
+    private final int minRate;
+    private final int maxRate;
+    private final int increaseStep;
+    private final long targetLatencyMillis;
+    private final double initialRate;
+
+    private volatile double averageLatencyMillis;
+
+    public AdmissionRateController(
+            RedisService redisService,
+            @Value("${application.waiting-room.admission.initial-per-second:50}") int initialRate,
+            @Value("${application.waiting-room.admission.min-per-second:5}") int minRate,
+            @Value("${application.waiting-room.admission.max-per-second:500}") int maxRate,
+            @Value("${application.waiting-room.admission.increase-step:5}") int increaseStep,
+            @Value("${application.waiting-room.admission.target-latency-millis:300}") long targetLatencyMillis) {
+        this.redisService = redisService;
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.increaseStep = increaseStep;
+        this.targetLatencyMillis = targetLatencyMillis;
+        this.initialRate = clamp(initialRate);
+    }
+
+    public void recordLatency(long latencyMillis) {
+        try {
+            redisService.executeScript(
+                    RECORD_SCRIPT,
+                    List.of(Constant.RedisPrefix.WAITING_ROOM_LATENCY),
+                    String.valueOf(latencyMillis),
+                    String.valueOf(Constant.RedisKey.WAITING_ROOM_EXPIRES));
+        } catch (RuntimeException e) {
+            // Mất một mẫu không đáng để làm hỏng request đặt vé
+            logger.debug("Failed to record reservation latency: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Adjusts the rate from the latency recorded by every node since the previous call and
+     * returns how many users to admit in the next second. Called by one node per tick.
+     */
+    public int nextAdmissions() {
+        var rate = currentRate();
+
+        List<?> window = redisService.executeScript(DRAIN_SCRIPT, List.of(Constant.RedisPrefix.WAITING_ROOM_LATENCY));
+        var sum = window == null || window.size() < 2 ? 0L : ((Number) window.get(0)).longValue();
+        var count = window == null || window.size() < 2 ? 0L : ((Number) window.get(1)).longValue();
+        if (count > 0) {
+            averageLatencyMillis = (double) sum / count;
+            rate = averageLatencyMillis > targetLatencyMillis
+                    ? Math.max(minRate, rate * DECREASE_FACTOR)
+                    : Math.min(maxRate, rate + increaseStep);
+            redisService.setValue(Constant.RedisPrefix.WAITING_ROOM_RATE, String.valueOf(rate),
+                    Constant.RedisKey.WAITING_ROOM_EXPIRES);
+        }
+
+        return (int) rate;
+    }
+
+    /**
+     * Average reservation latency of the last tick that had samples.
+     */
+    public double getAverageLatencyMillis() {
+        return averageLatencyMillis;
+    }
+
+    private double currentRate() {
+        var stored = redisService.getValue(Constant.RedisPrefix.WAITING_ROOM_RATE);
+        if (stored == null) {
+            return initialRate;
+        }
+
+        try {
+            return clamp(Double.parseDouble(stored));
+        } catch (NumberFormatException e) {
+            return initialRate;
+        }
+    }
+
+    private double clamp(double rate) {
+        return Math.max(minRate, Math.min(maxRate, rate));
+    }
+}
@@ -0,0 +1,34 @@
+package com.ht.eventbox.modules.waitingroom;
+
+import com.ht.eventbox.annotations.RequiredPermissions;
+import com.ht.eventbox.config.Response;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@CrossOrigin
+@RequestMapping(path = "/api/v1/waiting-room")
+@RequiredArgsConstructor
+public class WaitingRoomController {
+    private final WaitingRoomService waitingRoomService;
+
+    /*
+     * Vào phòng chờ của suất diễn, gọi lại để lấy vị trí hiện tại và token khi đến lượt
+     */
+    @PostMapping("/shows/{showId}")
+    @RequiredPermissions({"create:orders"})
+    public ResponseEntity<Response<WaitingRoomStatus>> join(
+            @RequestAttribute("sub") String sub,
+            @PathVariable Long showId) {
+        var res = waitingRoomService.join(Long.valueOf(sub), showId);
+        return ResponseEntity.ok(
+                new Response<>(
+                        HttpStatus.OK.value(),
+                        HttpStatus.OK.getReasonPhrase(),
+                        res
+                )
+        );
+    }
+}
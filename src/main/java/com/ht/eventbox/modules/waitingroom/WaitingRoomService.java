@@ -0,0 +1,253 @@
+package com.ht.eventbox.modules.waitingroom;
+
+import com.ht.eventbox.config.HttpException;
+import com.ht.eventbox.constant.Constant;
+import com.ht.eventbox.entities.EventShow;
+import com.ht.eventbox.entities.Ticket;
+import com.ht.eventbox.filter.JwtService;
+import com.ht.eventbox.modules.backgroundjobs.SocketJobService;
+import com.ht.eventbox.modules.event.EventShowRepository;
+import com.ht.eventbox.modules.redis.RedisService;
+import com.ht.eventbox.modules.ticket.TicketRepository;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Virtual waiting room in front of {@code POST /api/v1/orders/reservation} for shows whose sale
+ * is about to open or has just opened. Each buyer joining a show gets an increasing queue number
+ * (kept in a Redis sorted set); every second the admission cursor of each queue moves forward by
+ * the rate given by {@link AdmissionRateController}, and buyers whose number is at or below the
+ * cursor receive a signed admission token that the reservation endpoint requires.
+ */
+@Service
+@RequiredArgsConstructor
+public class WaitingRoomService {
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(WaitingRoomService.class);
+
+    public static final String ADMISSION_TOKEN_HEADER = "X-Admission-Token";
+
+    // KEYS = [queue, sequence, active shows], ARGV = [user id, active member, gate end in epoch millis, ttl]
+    private static final RedisScript<Long> JOIN_SCRIPT = new DefaultRedisScript<>("""
+            local number = redis.call('ZSCORE', KEYS[1], ARGV[1])
+            if number then
+                return tonumber(number)
+            end
+            number = redis.call('INCR', KEYS[2])
+            redis.call('ZADD', KEYS[1], number, ARGV[1])
+            redis.call('EXPIRE', KEYS[1], ARGV[4])
+            redis.call('EXPIRE', KEYS[2], ARGV[4])
+            redis.call('ZADD', KEYS[3], ARGV[3], ARGV[2])
+            return number
+            """, Long.class);
+
+    // KEYS = [sequence, cursor], ARGV = [admissions, ttl]
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ADVANCE_SCRIPT = new DefaultRedisScript<>("""
+            local tail = tonumber(redis.call('GET', KEYS[1]) or '0')
+            local cursor = tonumber(redis.call('GET', KEYS[2]) or '0')
+            if cursor < tail then
+                cursor = math.min(tail, cursor + tonumber(ARGV[1]))
+                redis.call('SET', KEYS[2], cursor, 'EX', ARGV[2])
+            end
+            return { cursor, tail }
+            """, List.class);
+
+    private final RedisService redisService;
+    private final EventShowRepository eventShowRepository;
+    private final TicketRepository ticketRepository;
+    private final JwtService jwtService;
+    private final SocketJobService socketJobService;
+    private final AdmissionRateController admissionRateController;
+
+    @Value("${application.waiting-room.enabled:false}")
+    private boolean enabled;
+
+    @Value("${application.waiting-room.open-before-minutes:15}")
+    private long openBeforeMinutes;
+
+    @Value("${application.waiting-room.duration-minutes:30}")
+    private long durationMinutes;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Joins the waiting room of the show, or returns the current place of a buyer who already
+     * joined. Outside the gated window the buyer is admitted straight away.
+     */
+    public WaitingRoomStatus join(long userId, long showId) {
+        var eventShow = eventShowRepository.findById(showId)
+                .orElseThrow(() -> new HttpException(Constant.ErrorCode.SHOW_NOT_FOUND, HttpStatus.NOT_FOUND));
+
+        var now = LocalDateTime.now();
+        if (!isGated(eventShow, now)) {
+            return WaitingRoomStatus.builder()
+                    .showId(showId)
+                    .admitted(true)
+                    .admissionToken(jwtService.generateAdmissionToken(userId, showId))
+                    .build();
+        }
+
+        var gateEnd = getGateEnd(eventShow);
+        var ttl = Duration.between(now, gateEnd).toSeconds() + Constant.RedisKey.WAITING_ROOM_EXPIRES;
+        Long queueNumber = redisService.executeScript(
+                JOIN_SCRIPT,
+                List.of(queueKey(showId), sequenceKey(showId), Constant.RedisPrefix.WAITING_ROOM_ACTIVE),
+                String.valueOf(userId),
+                activeMember(eventShow),
+                String.valueOf(gateEnd.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()),
+                String.valueOf(ttl));
+
+        var cursor = redisService.getValue(cursorKey(showId));
+        var admittedThrough = cursor == null ? 0L : Long.parseLong(cursor);
+        var admitted = queueNumber <= admittedThrough;
+
+        return WaitingRoomStatus.builder()
+                .showId(showId)
+                .queueNumber(queueNumber)
+                .admittedThrough(admittedThrough)
+                .position(Math.max(0L, queueNumber - admittedThrough))
+                .admitted(admitted)
+                .admissionToken(admitted ? jwtService.generateAdmissionToken(userId, showId) : null)
+                .build();
+    }
+
+    /**
+     * Rejects the reservation when one of the requested tickets belongs to a gated show and the
+     * admission token is missing, expired or issued for another buyer or show.
+     */
+    public void checkAdmission(long userId, Collection<Long> ticketIds, String admissionToken) {
+        if (!enabled) {
+            return;
+        }
+
+        var now = LocalDateTime.now();
+        var gatedShowIds = ticketRepository.findAllById(ticketIds).stream()
+                .map(Ticket::getEventShow)
+                .filter(eventShow -> isGated(eventShow, now))
+                .map(EventShow::getId)
+                .distinct()
+                .toList();
+
+        for (var showId : gatedShowIds) {
+            if (!isAdmitted(admissionToken, userId, showId)) {
+                throw new HttpException(Constant.ErrorCode.WAITING_ROOM_ADMISSION_REQUIRED, HttpStatus.FORBIDDEN);
+            }
+        }
+    }
+
+    public void recordReservationLatency(long latencyMillis) {
+        if (enabled) {
+            admissionRateController.recordLatency(latencyMillis);
+        }
+    }
+
+    /**
+     * Moves the admission cursor of every open waiting room and pushes the new cursor to the
+     * event room on the {@code /event} namespace, so clients can compute their own position.
+     * Only one instance advances the queues per second.
+     */
+    public int advance() {
+        if (!enabled) {
+            return 0;
+        }
+
+        if (!Boolean.TRUE.equals(redisService.setValueIfAbsent(Constant.RedisPrefix.WAITING_ROOM_TICK, "1", 1))) {
+            return 0;
+        }
+
+        redisService.removeFromSortedSetByScore(
+                Constant.RedisPrefix.WAITING_ROOM_ACTIVE, Double.NEGATIVE_INFINITY, System.currentTimeMillis());
+        var members = redisService.getSortedSetMembers(Constant.RedisPrefix.WAITING_ROOM_ACTIVE);
+        if (members == null || members.isEmpty()) {
+            return 0;
+        }
+
+        var admissions = admissionRateController.nextAdmissions();
+        var admissionsPerShow = Math.max(1, admissions / members.size());
+        members.forEach(member -> {
+            var ids = member.split(":");
+            var eventId = Long.parseLong(ids[0]);
+            var showId = Long.parseLong(ids[1]);
+
+            List<?> result = redisService.executeScript(
+                    ADVANCE_SCRIPT,
+                    List.of(sequenceKey(showId), cursorKey(showId)),
+                    String.valueOf(admissionsPerShow),
+                    String.valueOf(Constant.RedisKey.WAITING_ROOM_EXPIRES));
+            if (result == null || result.size() < 2) {
+                return;
+            }
+
+            socketJobService.broadcastWaitingRoomUpdated(
+                    eventId,
+                    showId,
+                    ((Number) result.get(0)).longValue(),
+                    ((Number) result.get(1)).longValue());
+        });
+
+        logger.debug("Admitting {} users per second across {} waiting rooms, average reservation latency {} ms",
+                admissions, members.size(), admissionRateController.getAverageLatencyMillis());
+
+        return members.size();
+    }
+
+    private boolean isAdmitted(String admissionToken, long userId, long showId) {
+        if (admissionToken == null || admissionToken.isBlank()) {
+            return false;
+        }
+
+        try {
+            return jwtService.isAdmissionTokenValid(admissionToken, userId, showId);
+        } catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private boolean isGated(EventShow eventShow, LocalDateTime now) {
+        if (!enabled || eventShow.getSaleStartTime() == null) {
+            return false;
+        }
+
+        return !now.isBefore(eventShow.getSaleStartTime().minusMinutes(openBeforeMinutes))
+                && now.isBefore(getGateEnd(eventShow));
+    }
+
+    private LocalDateTime getGateEnd(EventShow eventShow) {
+        var gateEnd = eventShow.getSaleStartTime().plusMinutes(durationMinutes);
+        if (eventShow.getSaleEndTime() != null && eventShow.getSaleEndTime().isBefore(gateEnd)) {
+            return eventShow.getSaleEndTime();
+        }
+
+        return gateEnd;
+    }
+
+    private String activeMember(EventShow eventShow) {
+        return eventShow.getEvent().getId() + ":" + eventShow.getId();
+    }
+
+    private String queueKey(long showId) {
+        return String.format("%s:show_id:%d", Constant.RedisPrefix.WAITING_ROOM, showId);
+    }
+
+    private String sequenceKey(long showId) {
+        return String.format("%s:show_id:%d", Constant.RedisPrefix.WAITING_ROOM_SEQUENCE, showId);
+    }
+
+    private String cursorKey(long showId) {
+        return String.format("%s:show_id:%d", Constant.RedisPrefix.WAITING_ROOM_CURSOR, showId);
+    }
+}
@@ -0,0 +1,29 @@
+package com.ht.eventbox.modules.waitingroom;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class WaitingRoomStatus {
+    @JsonProperty("show_id")
+    private Long showId;
+
+    @JsonProperty("queue_number")
+    private long queueNumber;
+
+    @JsonProperty("admitted_through")
+    private long admittedThrough;
+
+    private long position;
+
+    private boolean admitted;
+
+    @JsonProperty("admission_token")
+    private String admissionToken;
+}
@@ -4,9 +4,11 @@ import com.ht.eventbox.entities.Asset;
 import com.ht.eventbox.enums.AssetUsage;
 
 import java.security.SecureRandom;
+import java.text.Normalizer;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Base64;
+import java.util.Locale;
 import java.util.Map;
 
 public class Helper {
@@ -43,6 +45,17 @@ public class Helper {
         return LocalDateTime.now();
     }
 
+    // Bỏ dấu tiếng Việt, chuyển về chữ thường để tìm kiếm không phân biệt dấu ("Âm nhạc" -> "am nhac")
+    public static String toSearchText(String value) {
+        if (value == null) {
+            return "";
+        }
+
+        var unaccented = Normalizer.normalize(value.replace('đ', 'd').replace('Đ', 'D'), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "");
+        return unaccented.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ").trim();
+    }
+
     public static Asset getAssetFromUploadResult(Map uploadResult, AssetUsage usage) {
         return Asset.builder()
                 .resourceType(String.valueOf(uploadResult.get("resource_type")))
@@ -38,4 +38,13 @@ public class Request {
 
         return Optional.empty();
     }
+
+    public static String getClientIp(HttpServletRequest request) {
+        return Optional.ofNullable(request.getHeader("X-Forwarded-For"))
+                .map(value -> value.split(",")[0].trim())
+                .filter(value -> !value.isBlank())
+                .orElseGet(() -> Optional.ofNullable(request.getHeader("X-Real-IP"))
+                        .filter(value -> !value.isBlank())
+                        .orElseGet(request::getRemoteAddr));
+    }
 }
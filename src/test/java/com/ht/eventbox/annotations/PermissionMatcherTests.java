@@ -0,0 +1,101 @@
+package com.ht.eventbox.annotations;
+
+import com.ht.eventbox.entities.Permission;
+import com.ht.eventbox.modules.user.PermissionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PermissionMatcherTests {
+
+    @Mock
+    private PermissionRepository permissionRepository;
+
+    @Mock
+    private ObjectProvider<RequestMappingHandlerMapping> handlerMappings;
+
+    private PermissionMatcher permissionMatcher;
+
+    static class Endpoints {
+        @RequiredPermissions({"read:events"})
+        void readEvents() {
+        }
+
+        @RequiredPermissions({"read:events", "update:events"})
+        void updateEvents() {
+        }
+
+        @RequiredPermissions({"delete:users"})
+        void deleteUsers() {
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        permissionMatcher = new PermissionMatcher(permissionRepository, handlerMappings);
+    }
+
+    @Test
+    void isGranted_shouldRequireEveryPermissionByName() {
+        assertThat(isGranted("readEvents", "read:events")).isTrue();
+        assertThat(isGranted("readEvents", "read:users")).isFalse();
+        assertThat(isGranted("updateEvents", "read:events")).isFalse();
+        assertThat(isGranted("updateEvents", "update:events", "read:events")).isTrue();
+    }
+
+    @Test
+    void isGranted_shouldAcceptTheWildcardOfTheAction() {
+        assertThat(isGranted("updateEvents", "read:*", "update:*")).isTrue();
+        assertThat(isGranted("updateEvents", "read:*")).isFalse();
+        assertThat(isGranted("deleteUsers", "delete:*", "read:*")).isTrue();
+        assertThat(isGranted("deleteUsers", "update:*")).isFalse();
+    }
+
+    @Test
+    void isGranted_shouldIgnoreUnknownAndMalformedPermissions() {
+        assertThat(isGranted("readEvents", "read", "unknown:thing", "events")).isFalse();
+    }
+
+    @Test
+    void compileEndpoints_shouldInternTheStoredPermissionsFirst() {
+        when(permissionRepository.findAllByOrderByIdAsc()).thenReturn(IntStream.range(0, 70)
+                .mapToObj(i -> Permission.builder().name("read:resource-" + i).build())
+                .toList());
+        when(handlerMappings.orderedStream()).thenReturn(Stream.empty());
+
+        permissionMatcher.compileEndpoints();
+
+        var required = permissionMatcher.compile(new String[]{"read:resource-69"});
+        assertThat(required).hasSize(2);
+        assertThat(PermissionMatcher.covers(permissionMatcher.decode(List.of("read:*")), required)).isTrue();
+        assertThat(PermissionMatcher.covers(permissionMatcher.decode(List.of("read:resource-68")), required)).isFalse();
+    }
+
+    @Test
+    void covers_shouldTreatMissingWordsAsEmpty() {
+        assertThat(PermissionMatcher.covers(new long[]{1L}, new long[]{1L, 0L})).isTrue();
+        assertThat(PermissionMatcher.covers(new long[]{1L}, new long[]{1L, 2L})).isFalse();
+    }
+
+    private boolean isGranted(String endpoint, String... granted) {
+        try {
+            Method method = Endpoints.class.getDeclaredMethod(endpoint);
+            return permissionMatcher.isGranted(method, method.getAnnotation(RequiredPermissions.class), List.of(granted));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
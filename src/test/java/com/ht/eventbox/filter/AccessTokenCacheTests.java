@@ -0,0 +1,91 @@
+package com.ht.eventbox.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AccessTokenCacheTests {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    @Test
+    void get_shouldVerifyEachTokenOnce() {
+        var cache = new AccessTokenCache(10, 60_000, now::get);
+
+        var first = cache.get("token-a", this::verify);
+        var second = cache.get("token-a", this::verify);
+        cache.get("token-b", this::verify);
+
+        assertThat(second).isSameAs(first);
+        assertThat(verifications.get()).isEqualTo(2);
+    }
+
+    @Test
+    void get_shouldVerifyAgainOnceTheTtlOrTheTokenExpires() {
+        var cache = new AccessTokenCache(10, 60_000, now::get);
+
+        cache.get("token-a", this::verify);
+        now.addAndGet(60_000);
+        cache.get("token-a", this::verify);
+
+        assertThat(verifications.get()).isEqualTo(2);
+
+        var shortLived = new AccessTokenCache(10, 60_000, now::get);
+        shortLived.get("token-c", token -> principal(now.get() + 1_000));
+        now.addAndGet(1_000);
+        shortLived.get("token-c", this::verify);
+
+        assertThat(verifications.get()).isEqualTo(3);
+    }
+
+    @Test
+    void get_shouldNotCacheFailedVerifications() {
+        var cache = new AccessTokenCache(10, 60_000, now::get);
+
+        assertThatThrownBy(() -> cache.get("token-a", token -> {
+            throw new IllegalStateException("bad signature");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void get_shouldStopCachingWhenFullAndPurgeExpiredEntries() {
+        var cache = new AccessTokenCache(2, 60_000, now::get);
+
+        cache.get("token-a", this::verify);
+        cache.get("token-b", this::verify);
+        cache.get("token-c", this::verify);
+
+        assertThat(cache.size()).isEqualTo(2);
+
+        now.addAndGet(60_000);
+        cache.get("token-d", this::verify);
+
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void hashOf_shouldNotKeepTheToken() {
+        assertThat(AccessTokenCache.hashOf("token-a"))
+                .hasSize(43)
+                .doesNotContain("token-a")
+                .isEqualTo(AccessTokenCache.hashOf("token-a"));
+    }
+
+    private AuthenticatedPrincipal verify(String token) {
+        verifications.incrementAndGet();
+        return principal(now.get() + 3_600_000);
+    }
+
+    private AuthenticatedPrincipal principal(long expiresAt) {
+        return new AuthenticatedPrincipal("42", List.of("user"), List.of("read:events"), Instant.ofEpochMilli(expiresAt));
+    }
+}
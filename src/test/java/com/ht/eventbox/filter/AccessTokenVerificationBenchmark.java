@@ -0,0 +1,91 @@
+package com.ht.eventbox.filter;
+
+import com.ht.eventbox.entities.Permission;
+import com.ht.eventbox.entities.Role;
+import com.ht.eventbox.entities.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating a request whose access token was already seen: a full RS256
+ * verification through {@link JwtService#parseAccessToken} against a hit in
+ * {@link AccessTokenCache}.
+ * <p>
+ * Run with {@code mvn test-compile} and then the {@link #main} method, or
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main AccessTokenVerificationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class AccessTokenVerificationBenchmark {
+
+    private JwtService jwtService;
+    private PublicKey publicKey;
+    private AccessTokenCache accessTokenCache;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() throws NoSuchAlgorithmException {
+        var generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        var keyPair = generator.generateKeyPair();
+
+        jwtService = new JwtService(keyPair.getPrivate());
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", TimeUnit.HOURS.toMillis(1));
+        publicKey = keyPair.getPublic();
+        accessTokenCache = new AccessTokenCache(10_000, TimeUnit.MINUTES.toMillis(5));
+        token = jwtService.generateAccessToken(user());
+    }
+
+    @Benchmark
+    public AuthenticatedPrincipal uncached() {
+        return jwtService.parseAccessToken(token, publicKey);
+    }
+
+    @Benchmark
+    public AuthenticatedPrincipal cached() {
+        return accessTokenCache.get(token, value -> jwtService.parseAccessToken(value, publicKey));
+    }
+
+    private static User user() {
+        var readEvents = Permission.builder().name("read:events").build();
+        var createEvents = Permission.builder().name("create:events").build();
+        var role = Role.builder()
+                .name("organizer")
+                .permissions(new HashSet<>(Set.of(readEvents, createEvents)))
+                .build();
+        return User.builder()
+                .id(42L)
+                .roles(new HashSet<>(Set.of(role)))
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AccessTokenVerificationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
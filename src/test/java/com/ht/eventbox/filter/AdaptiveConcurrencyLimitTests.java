@@ -0,0 +1,63 @@
+package com.ht.eventbox.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTests {
+
+    @Test
+    void tryAcquire_shouldRejectOnceTheLimitIsReached() {
+        var limit = new AdaptiveConcurrencyLimit(2, 1, 10, 1.5, 0.2);
+
+        assertThat(limit.tryAcquire()).isEqualTo(1);
+        assertThat(limit.tryAcquire()).isEqualTo(2);
+        assertThat(limit.tryAcquire()).isZero();
+
+        limit.release(0, 2);
+        assertThat(limit.getInflight()).isEqualTo(1);
+        assertThat(limit.tryAcquire()).isEqualTo(2);
+    }
+
+    @Test
+    void release_shouldGrowTheLimitWhileLatencyIsSteady() {
+        var limit = new AdaptiveConcurrencyLimit(20, 4, 100, 1.5, 0.2);
+
+        sample(limit, 10, 50);
+
+        assertThat(limit.getLimit()).isGreaterThan(20).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void release_shouldShrinkTheLimitWhenRequestsStartQueueing() {
+        var limit = new AdaptiveConcurrencyLimit(20, 4, 100, 1.5, 0.2);
+        sample(limit, 10, 200);
+        var steady = limit.getLimit();
+
+        sample(limit, 200, 100);
+
+        assertThat(limit.getLimit()).isLessThan(steady / 4).isGreaterThanOrEqualTo(4);
+    }
+
+    @Test
+    void release_shouldIgnoreSamplesWhenMostOfTheLimitIsUnused() {
+        var limit = new AdaptiveConcurrencyLimit(20, 4, 100, 1.5, 0.2);
+
+        for (int i = 0; i < 50; i++) {
+            limit.tryAcquire();
+            limit.release(TimeUnit.MILLISECONDS.toNanos(500), 1);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(20);
+    }
+
+    // Giả lập tải bão hòa: mỗi request bắt đầu khi đang dùng hết hạn mức
+    private void sample(AdaptiveConcurrencyLimit limit, long rttMillis, int count) {
+        for (int i = 0; i < count; i++) {
+            limit.tryAcquire();
+            limit.release(TimeUnit.MILLISECONDS.toNanos(rttMillis), limit.getLimit());
+        }
+    }
+}
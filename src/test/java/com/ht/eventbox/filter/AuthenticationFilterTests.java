@@ -0,0 +1,102 @@
+package com.ht.eventbox.filter;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AuthenticationFilterTests {
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private PublicKey atPublicKey;
+
+    private AuthenticationFilter authenticationFilter;
+
+    @BeforeEach
+    void setUp() {
+        authenticationFilter = new AuthenticationFilter(jwtService, atPublicKey);
+        ReflectionTestUtils.setField(authenticationFilter, "publicApisPrefixConfig", new String[]{"/api/v1/auth"});
+        ReflectionTestUtils.setField(authenticationFilter, "claimsCacheMaxSize", 100);
+        ReflectionTestUtils.setField(authenticationFilter, "claimsCacheTtlMillis", 60_000L);
+    }
+
+    @Test
+    void shouldExposeTheParsedPrincipal() throws Exception {
+        var principal = principal(Instant.now().plusSeconds(60));
+        when(jwtService.parseAccessToken("token", atPublicKey)).thenReturn(principal);
+
+        var request = authorized();
+        var response = new MockHttpServletResponse();
+        var chain = mock(FilterChain.class);
+
+        authenticationFilter.doFilter(request, response, chain);
+
+        assertThat(request.getAttribute("sub")).isEqualTo("42");
+        assertThat(request.getAttribute("roles")).isEqualTo(List.of("user"));
+        assertThat(request.getAttribute("permissions")).isEqualTo(List.of("read:events"));
+        assertThat(request.getAttribute(AuthenticatedPrincipal.ATTRIBUTE)).isSameAs(principal);
+        verify(chain).doFilter(request, response);
+    }
+
+    @Test
+    void shouldVerifyARepeatedTokenOnceWhenTheCacheIsEnabled() throws Exception {
+        ReflectionTestUtils.setField(authenticationFilter, "claimsCacheEnabled", true);
+        authenticationFilter.initClaimsCache();
+        when(jwtService.parseAccessToken("token", atPublicKey)).thenReturn(principal(Instant.now().plusSeconds(60)));
+
+        for (int i = 0; i < 3; i++) {
+            var response = new MockHttpServletResponse();
+            authenticationFilter.doFilter(authorized(), response, mock(FilterChain.class));
+            assertThat(response.getStatus()).isEqualTo(200);
+        }
+
+        verify(jwtService, times(1)).parseAccessToken("token", atPublicKey);
+    }
+
+    @Test
+    void shouldRejectInvalidTokens() throws Exception {
+        when(jwtService.parseAccessToken("token", atPublicKey))
+                .thenThrow(new ExpiredJwtException(null, null, "JWT expired"));
+
+        var response = new MockHttpServletResponse();
+        var chain = mock(FilterChain.class);
+
+        authenticationFilter.doFilter(authorized(), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(response.getContentAsString()).contains("JWT expired");
+        verify(chain, never()).doFilter(any(), any());
+    }
+
+    private MockHttpServletRequest authorized() {
+        var request = new MockHttpServletRequest("GET", "/api/v1/tickets/items/me");
+        request.addHeader("Authorization", "Bearer token");
+        return request;
+    }
+
+    private AuthenticatedPrincipal principal(Instant expiresAt) {
+        return new AuthenticatedPrincipal("42", List.of("user"), List.of("read:events"), expiresAt);
+    }
+}
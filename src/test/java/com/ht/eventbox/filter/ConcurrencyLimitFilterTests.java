@@ -0,0 +1,109 @@
+package com.ht.eventbox.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class ConcurrencyLimitFilterTests {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AdaptiveConcurrencyLimit payment;
+
+    private AdaptiveConcurrencyLimit reservation;
+
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        payment = new AdaptiveConcurrencyLimit(1, 1, 10, 1.5, 0.2);
+        reservation = new AdaptiveConcurrencyLimit(1, 1, 10, 1.5, 0.2);
+        filter = new ConcurrencyLimitFilter(List.of(
+                new ConcurrencyLimitFilter.EndpointClass("payment", List.of("POST"),
+                        List.of("/api/v1/orders/reservation/payment"), payment),
+                new ConcurrencyLimitFilter.EndpointClass("reservation", List.of("POST"),
+                        List.of("/api/v1/orders/reservation"), reservation)
+        ), meterRegistry, new ObjectMapper(), 1);
+    }
+
+    @Test
+    void shouldHoldASlotOfTheFirstMatchingClassWhileHandling() throws Exception {
+        var inflight = new ArrayList<Integer>();
+        FilterChain chain = (request, response) -> {
+            inflight.add(payment.getInflight());
+            inflight.add(reservation.getInflight());
+        };
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/orders/reservation/payment"),
+                new MockHttpServletResponse(), chain);
+
+        assertThat(inflight).containsExactly(1, 0);
+        assertThat(payment.getInflight()).isZero();
+    }
+
+    @Test
+    void shouldReturn503WhenTheClassIsOverItsLimit() throws Exception {
+        reservation.tryAcquire();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = mock(FilterChain.class);
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/orders/reservation"), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(response.getContentAsString()).contains("\"message\":\"service_overloaded\"");
+        assertThat(meterRegistry.get("eventbox.concurrency.rejected").tag("class", "reservation").counter().count())
+                .isEqualTo(1);
+        verifyNoInteractions(chain);
+    }
+
+    @Test
+    void shouldNotLimitRequestsMatchingNoClass() throws Exception {
+        reservation.tryAcquire();
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/orders/reservation");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = mock(FilterChain.class);
+
+        filter.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+    }
+
+    @Test
+    void shouldReleaseTheSlotWhenTheHandlerFails() {
+        FilterChain chain = (request, response) -> {
+            throw new ServletException("db down");
+        };
+
+        assertThatThrownBy(() -> filter.doFilter(
+                new MockHttpServletRequest("POST", "/api/v1/orders/reservation"), new MockHttpServletResponse(), chain))
+                .isInstanceOf(ServletException.class);
+
+        assertThat(reservation.getInflight()).isZero();
+    }
+
+    @Test
+    void shouldExportTheCurrentLimits() {
+        assertThat(meterRegistry.get("eventbox.concurrency.limit").tag("class", "payment").gauge().value())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("eventbox.concurrency.inflight").tag("class", "reservation").gauge().value())
+                .isZero();
+    }
+}
@@ -4,16 +4,19 @@ import com.ht.eventbox.entities.Permission;
 import com.ht.eventbox.entities.Role;
 import com.ht.eventbox.entities.User;
 import com.ht.eventbox.support.AbstractSpringBootTest;
+import io.jsonwebtoken.JwtException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.annotation.Qualifier;
 
 import java.security.PublicKey;
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class JwtServiceTests extends AbstractSpringBootTest {
 
@@ -44,6 +47,26 @@ class JwtServiceTests extends AbstractSpringBootTest {
         assertThat(jwtService.isTokenValid(token, atPublicKey)).isTrue();
     }
 
+    @Test
+    void parseAccessToken_shouldReadEveryClaimFromOneVerification() {
+        String token = jwtService.generateAccessToken(userWithRolesAndPermissions());
+
+        var principal = jwtService.parseAccessToken(token, atPublicKey);
+
+        assertThat(principal.sub()).isEqualTo("42");
+        assertThat(principal.roles()).containsExactlyInAnyOrder("admin", "organizer");
+        assertThat(principal.permissions()).containsExactlyInAnyOrder("create:events", "read:events");
+        assertThat(principal.isExpired(Instant.now())).isFalse();
+    }
+
+    @Test
+    void parseAccessToken_shouldRejectTokensSignedWithAnotherKey() {
+        String token = jwtService.generateRefreshToken(userWithRolesAndPermissions());
+
+        assertThatThrownBy(() -> jwtService.parseAccessToken(token, atPublicKey))
+                .isInstanceOf(JwtException.class);
+    }
+
     @Test
     void generateRefreshToken_shouldBeValidWithRefreshSecret() {
         User user = userWithRolesAndPermissions();
@@ -62,6 +85,25 @@ class JwtServiceTests extends AbstractSpringBootTest {
         assertThat(jwtService.isTokenValid(token, qrcodeSecretKey)).isTrue();
     }
 
+    @Test
+    void generateAdmissionToken_shouldOnlyAdmitSameUserAndShow() {
+        String token = jwtService.generateAdmissionToken(42L, 7L);
+
+        assertThat(jwtService.isAdmissionTokenValid(token, 42L, 7L)).isTrue();
+        assertThat(jwtService.isAdmissionTokenValid(token, 43L, 7L)).isFalse();
+        assertThat(jwtService.isAdmissionTokenValid(token, 42L, 8L)).isFalse();
+        assertThatThrownBy(() -> jwtService.isAdmissionTokenValid(jwtService.generateQrCode(42L), 42L, 7L))
+                .isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void generateAdmissionToken_shouldNotBeAcceptedWithQrSecret() {
+        String token = jwtService.generateAdmissionToken(42L, 7L);
+
+        assertThatThrownBy(() -> jwtService.isTokenValid(token, qrcodeSecretKey))
+                .isInstanceOf(JwtException.class);
+    }
+
     private User userWithRolesAndPermissions() {
         Permission readEvents = Permission.builder()
                 .name("read:events")
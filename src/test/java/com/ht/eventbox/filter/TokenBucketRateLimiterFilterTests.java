@@ -0,0 +1,153 @@
+package com.ht.eventbox.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.bucket4j.ConsumptionProbe;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenBucketRateLimiterFilterTests {
+
+    private static final RateLimitPolicy STRICT = new RateLimitPolicy(
+            "strict", List.of("POST"), List.of("/api/v1/auth/login", "/api/v1/orders/reservation"),
+            20, Duration.ofMinutes(1));
+
+    private static final RateLimitPolicy PUBLIC_READ = new RateLimitPolicy(
+            "public-read", List.of("GET"), List.of("/public/api/v1/"), 3000, Duration.ofMinutes(1));
+
+    @Mock
+    private TokenBucketRateLimiter rateLimiter;
+
+    private TokenBucketRateLimiterFilter filter;
+
+    private TokenBucketRateLimiterFilter accountFilter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new TokenBucketRateLimiterFilter(rateLimiter, List.of(STRICT, PUBLIC_READ), new ObjectMapper(),
+                TokenBucketRateLimiterFilter.ClientKey.IP);
+        accountFilter = new TokenBucketRateLimiterFilter(rateLimiter, List.of(STRICT), new ObjectMapper(),
+                TokenBucketRateLimiterFilter.ClientKey.ACCOUNT);
+    }
+
+    @Test
+    void shouldLimitAnonymousRequestsByClientIp() throws Exception {
+        when(rateLimiter.tryConsume(STRICT, "ip:203.0.113.10"))
+                .thenReturn(ConsumptionProbe.consumed(19, TimeUnit.SECONDS.toNanos(3)));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/auth/login");
+        request.addHeader("X-Forwarded-For", "203.0.113.10, 10.0.0.1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = mock(FilterChain.class);
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader("RateLimit-Limit")).isEqualTo("20");
+        assertThat(response.getHeader("RateLimit-Remaining")).isEqualTo("19");
+        assertThat(response.getHeader("RateLimit-Reset")).isEqualTo("3");
+        assertThat(response.getHeader("RateLimit-Policy")).isEqualTo("20;w=60");
+        verify(chain).doFilter(request, response);
+    }
+
+    @Test
+    void shouldLimitByClientIpEvenWithPrincipal() throws Exception {
+        when(rateLimiter.tryConsume(STRICT, "ip:198.51.100.7"))
+                .thenReturn(ConsumptionProbe.consumed(10, TimeUnit.SECONDS.toNanos(30)));
+
+        MockHttpServletRequest request = signedInRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = mock(FilterChain.class);
+
+        filter.doFilter(request, response, chain);
+
+        verify(rateLimiter).tryConsume(STRICT, "ip:198.51.100.7");
+        verify(chain).doFilter(request, response);
+    }
+
+    @Test
+    void accountFilterShouldLimitSignedInRequestsByAccount() throws Exception {
+        when(rateLimiter.tryConsume(STRICT, "user:42"))
+                .thenReturn(ConsumptionProbe.consumed(10, TimeUnit.SECONDS.toNanos(30)));
+
+        MockHttpServletRequest request = signedInRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = mock(FilterChain.class);
+
+        accountFilter.doFilter(request, response, chain);
+
+        verify(rateLimiter).tryConsume(STRICT, "user:42");
+        verify(chain).doFilter(request, response);
+    }
+
+    @Test
+    void accountFilterShouldPassAnonymousRequests() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/orders/reservation");
+        request.setRemoteAddr("198.51.100.7");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = mock(FilterChain.class);
+
+        accountFilter.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+        verifyNoInteractions(rateLimiter);
+    }
+
+    @Test
+    void shouldReturn429WhenBucketIsEmpty() throws Exception {
+        when(rateLimiter.tryConsume(PUBLIC_READ, "ip:198.51.100.7"))
+                .thenReturn(ConsumptionProbe.rejected(0, 1_500_000_000L, TimeUnit.SECONDS.toNanos(60)));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/public/api/v1/events");
+        request.setRemoteAddr("198.51.100.7");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = mock(FilterChain.class);
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("RateLimit-Remaining")).isEqualTo("0");
+        assertThat(response.getHeader("RateLimit-Reset")).isEqualTo("60");
+        assertThat(response.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(response.getContentAsString()).contains("\"message\":\"rate_limit_exceeded\"");
+        verifyNoInteractions(chain);
+    }
+
+    @Test
+    void shouldPassRequestsMatchingNoPolicy() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/public/api/v1/events");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = mock(FilterChain.class);
+
+        filter.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+        verifyNoInteractions(rateLimiter);
+        assertThat(response.getHeader("RateLimit-Limit")).isNull();
+    }
+
+    private static MockHttpServletRequest signedInRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/orders/reservation");
+        request.setRemoteAddr("198.51.100.7");
+        request.setAttribute(AuthenticatedPrincipal.ATTRIBUTE, new AuthenticatedPrincipal(
+                "42", List.of("user"), List.of(), Instant.parse("2026-05-15T23:00:00Z")));
+        return request;
+    }
+}
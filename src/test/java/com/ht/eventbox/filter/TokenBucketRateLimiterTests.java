@@ -0,0 +1,143 @@
+package com.ht.eventbox.filter;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTests {
+
+    private static final RateLimitPolicy LOOSE = new RateLimitPolicy(
+            "public-read", List.of("GET"), List.of("/public/api/v1/"), 1000, Duration.ofMinutes(1));
+
+    private static final RateLimitPolicy STRICT = new RateLimitPolicy(
+            "strict", List.of("POST"), List.of("/api/v1/auth/login"), 5, Duration.ofMinutes(1));
+
+    private final InMemoryProxyManager proxyManager = new InMemoryProxyManager();
+
+    @Test
+    void tryConsume_shouldAnswerMostRequestsWithoutTheSharedStore() {
+        var rateLimiter = new TokenBucketRateLimiter(proxyManager, 20, Duration.ofMinutes(1), 100);
+
+        for (int i = 0; i < 200; i++) {
+            assertThat(rateLimiter.tryConsume(LOOSE, "ip:203.0.113.10").isConsumed()).isTrue();
+        }
+
+        // Cửa sổ cố định cũ tốn 2 lần gọi Redis cho mỗi request
+        assertThat(proxyManager.roundTrips.get()).isLessThanOrEqualTo(40);
+        assertThat(proxyManager.states).containsOnlyKeys("rate_limit:bucket:public-read:ip:203.0.113.10");
+    }
+
+    @Test
+    void tryConsume_shouldEnforceSmallPoliciesOnEveryRequest() {
+        var rateLimiter = new TokenBucketRateLimiter(proxyManager, 20, Duration.ofMinutes(1), 100);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(rateLimiter.tryConsume(STRICT, "ip:198.51.100.7").isConsumed()).isTrue();
+        }
+        var rejected = rateLimiter.tryConsume(STRICT, "ip:198.51.100.7");
+
+        assertThat(rejected.isConsumed()).isFalse();
+        assertThat(rejected.getNanosToWaitForRefill()).isPositive();
+        assertThat(rateLimiter.tryConsume(STRICT, "ip:198.51.100.8").isConsumed()).isTrue();
+    }
+
+    @Test
+    void tryConsume_shouldShareTheLimitBetweenNodes() {
+        var first = new TokenBucketRateLimiter(proxyManager, 20, Duration.ofMinutes(1), 100);
+        var second = new TokenBucketRateLimiter(proxyManager, 20, Duration.ofMinutes(1), 100);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(first.tryConsume(STRICT, "user:42").isConsumed()).isTrue();
+        }
+        assertThat(second.tryConsume(STRICT, "user:42").isConsumed()).isTrue();
+        assertThat(second.tryConsume(STRICT, "user:42").isConsumed()).isTrue();
+
+        assertThat(first.tryConsume(STRICT, "user:42").isConsumed()).isFalse();
+    }
+
+    @Test
+    void tryConsume_shouldStopCachingBucketsWhenFull() {
+        var now = new long[]{0};
+        var rateLimiter = new TokenBucketRateLimiter(proxyManager, 20, Duration.ofSeconds(1), 1, () -> now[0]);
+
+        rateLimiter.tryConsume(LOOSE, "ip:203.0.113.10");
+        rateLimiter.tryConsume(LOOSE, "ip:203.0.113.11");
+        assertThat(rateLimiter.size()).isEqualTo(1);
+
+        now[0] = 5000;
+        rateLimiter.tryConsume(LOOSE, "ip:203.0.113.11");
+        assertThat(rateLimiter.size()).isEqualTo(1);
+        assertThat(proxyManager.states).hasSize(2);
+    }
+
+    private static class InMemoryProxyManager extends AbstractCompareAndSwapBasedProxyManager<String> {
+        private final Map<String, byte[]> states = new HashMap<>();
+        private final AtomicInteger roundTrips = new AtomicInteger();
+
+        InMemoryProxyManager() {
+            super(ClientSideConfig.getDefault());
+        }
+
+        @Override
+        protected CompareAndSwapOperation beginCompareAndSwapOperation(String key) {
+            return new CompareAndSwapOperation() {
+                @Override
+                public Optional<byte[]> getStateData() {
+                    roundTrips.incrementAndGet();
+                    synchronized (states) {
+                        return Optional.ofNullable(states.get(key));
+                    }
+                }
+
+                @Override
+                public boolean compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState) {
+                    roundTrips.incrementAndGet();
+                    synchronized (states) {
+                        if (!Arrays.equals(states.get(key), originalData)) {
+                            return false;
+                        }
+                        states.put(key, newData);
+                        return true;
+                    }
+                }
+            };
+        }
+
+        @Override
+        protected AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(String key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected CompletableFuture<Void> removeAsync(String key) {
+            removeProxy(key);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void removeProxy(String key) {
+            synchronized (states) {
+                states.remove(key);
+            }
+        }
+
+        @Override
+        public boolean isAsyncModeSupported() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.ht.eventbox.modules.backgroundjobs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SocketBroadcastDispatcherTests {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void dispatchNext_shouldSendTheLastOfDuplicatesOnce() throws Exception {
+        var dispatcher = new SocketBroadcastDispatcher(meterRegistry, false, 16, 50);
+        var sent = new ArrayList<String>();
+
+        dispatcher.dispatch("/event", "7", "stock_updated", () -> sent.add("stock 1"));
+        dispatcher.dispatch("/order", "500", "order_approved", () -> sent.add("order"));
+        dispatcher.dispatch("/event", "7", "stock_updated", () -> sent.add("stock 2"));
+        dispatcher.dispatch("/event", "7", "stock_updated", () -> sent.add("stock 3"));
+
+        assertThat(dispatcher.dispatchNext(100)).isEqualTo(2);
+        assertThat(sent).containsExactly("stock 3", "order");
+        assertThat(count("sent")).isEqualTo(2);
+        assertThat(count("coalesced")).isEqualTo(2);
+    }
+
+    @Test
+    void dispatchNext_shouldReturnZeroWhenIdle() throws Exception {
+        var dispatcher = new SocketBroadcastDispatcher(meterRegistry, false, 16, 50);
+
+        assertThat(dispatcher.dispatchNext(10)).isZero();
+    }
+
+    @Test
+    void dispatch_shouldSendOnTheCallerWhenTheQueueIsFull() {
+        var dispatcher = new SocketBroadcastDispatcher(meterRegistry, false, 1, 50);
+        var sent = new ArrayList<String>();
+
+        dispatcher.dispatch("/event", "7", "stock_updated", () -> sent.add("queued"));
+        dispatcher.dispatch("/event", "8", "stock_updated", () -> sent.add("inline"));
+
+        assertThat(sent).containsExactly("inline");
+        assertThat(count("overflowed")).isEqualTo(1);
+        assertThat(meterRegistry.get("eventbox.socket.broadcast.queue").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void dispatchNext_shouldKeepSendingAfterAFailure() throws Exception {
+        var dispatcher = new SocketBroadcastDispatcher(meterRegistry, false, 16, 0);
+        var sent = new ArrayList<String>();
+
+        dispatcher.dispatch("/order", "500", "order_approved", () -> {
+            throw new IllegalStateException("Order not found: 500");
+        });
+        dispatcher.dispatch("/order", "501", "order_approved", () -> sent.add("501"));
+
+        dispatcher.dispatchNext(10);
+        dispatcher.dispatchNext(10);
+
+        assertThat(sent).containsExactly("501");
+        assertThat(count("failed")).isEqualTo(1);
+    }
+
+    @Test
+    void start_shouldDrainOnTheWorkerThread() throws Exception {
+        var dispatcher = new SocketBroadcastDispatcher(meterRegistry, true, 16, 10);
+        var latch = new CountDownLatch(1);
+        var threads = new ArrayList<String>();
+
+        dispatcher.start();
+        try {
+            dispatcher.dispatch("/ticket", "9", "traces_updated", () -> {
+                threads.add(Thread.currentThread().getName());
+                latch.countDown();
+            });
+
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(threads).isEqualTo(List.of("socket-broadcast-dispatcher"));
+        } finally {
+            dispatcher.stop();
+        }
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("eventbox.socket.broadcast").tag("outcome", outcome).counter().count();
+    }
+}
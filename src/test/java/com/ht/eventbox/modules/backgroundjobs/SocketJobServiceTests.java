@@ -1,6 +1,7 @@
 package com.ht.eventbox.modules.backgroundjobs;
 
 import com.corundumstudio.socketio.SocketIOServer;
+import com.ht.eventbox.modules.order.ReservationCountService;
 import org.jobrunr.jobs.lambdas.JobLambda;
 import org.jobrunr.scheduling.JobScheduler;
 import org.junit.jupiter.api.Test;
@@ -10,7 +11,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class SocketJobServiceTests {
@@ -21,6 +25,15 @@ class SocketJobServiceTests {
     @Mock
     private SocketIOServer socketIOServer;
 
+    @Mock
+    private ReservationCountService reservationCountService;
+
+    @Mock
+    private StockDeltaBroadcaster stockDeltaBroadcaster;
+
+    @Mock
+    private SocketBroadcastDispatcher socketBroadcastDispatcher;
+
     @InjectMocks
     private SocketJobService socketJobService;
 
@@ -30,4 +43,31 @@ class SocketJobServiceTests {
 
         verify(jobScheduler).enqueue(any(JobLambda.class));
     }
+
+    @Test
+    void enqueueStockUpdatedInvalidatesHeldCounts() {
+        socketJobService.enqueueStockUpdated(42L);
+
+        verify(reservationCountService).invalidate(42L);
+    }
+
+    @Test
+    void enqueueStockUpdatedMarksTheEventInsteadOfSchedulingWhenDeltasAreEnabled() {
+        when(stockDeltaBroadcaster.isEnabled()).thenReturn(true);
+
+        socketJobService.enqueueStockUpdated(42L);
+
+        verify(stockDeltaBroadcaster).markDirty(42L);
+        verifyNoInteractions(jobScheduler);
+    }
+
+    @Test
+    void enqueueOrderFulfilledGoesThroughTheDispatcherWhenEnabled() {
+        when(socketBroadcastDispatcher.isEnabled()).thenReturn(true);
+
+        socketJobService.enqueueOrderFulfilled(500L);
+
+        verify(socketBroadcastDispatcher).dispatch(eq("/order"), eq("500"), eq("order_fulfilled"), any(Runnable.class));
+        verifyNoInteractions(jobScheduler);
+    }
 }
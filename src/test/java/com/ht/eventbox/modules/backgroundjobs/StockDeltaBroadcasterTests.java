@@ -0,0 +1,139 @@
+package com.ht.eventbox.modules.backgroundjobs;
+
+import com.corundumstudio.socketio.BroadcastOperations;
+import com.corundumstudio.socketio.SocketIONamespace;
+import com.corundumstudio.socketio.SocketIOServer;
+import com.ht.eventbox.modules.inventory.ShardedStockService;
+import com.ht.eventbox.modules.order.ReservationCountService;
+import com.ht.eventbox.modules.ticket.TicketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StockDeltaBroadcasterTests {
+
+    @Mock
+    private SocketIOServer socketIOServer;
+
+    @Mock
+    private SocketIONamespace namespace;
+
+    @Mock
+    private BroadcastOperations roomOperations;
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private ReservationCountService reservationCountService;
+
+    @Mock
+    private ShardedStockService shardedStockService;
+
+    private StockDeltaBroadcaster stockDeltaBroadcaster;
+
+    @BeforeEach
+    void setUp() {
+        stockDeltaBroadcaster = new StockDeltaBroadcaster(
+                socketIOServer, ticketRepository, reservationCountService, shardedStockService, true);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_shouldSendOneMessagePerMarkedEvent() {
+        when(ticketRepository.findAllByEventShowEventIdOrderByIdAsc(7L, StockDeltaBroadcaster.TicketStockView.class))
+                .thenReturn(List.of(ticket(100L, 10, 0), ticket(101L, 0, 4)));
+        when(reservationCountService.getHeldCountsByEventId(7L)).thenReturn(Map.of(100L, 3L));
+        when(shardedStockService.getShardedStocks(List.of(101L))).thenReturn(Map.of(101L, 6));
+        when(socketIOServer.getNamespace("/event")).thenReturn(namespace);
+        when(namespace.getRoomOperations("7")).thenReturn(roomOperations);
+
+        stockDeltaBroadcaster.markDirty(7L);
+        stockDeltaBroadcaster.markDirty(7L);
+        stockDeltaBroadcaster.markDirty(7L);
+
+        assertThat(stockDeltaBroadcaster.flush()).isEqualTo(1);
+        assertThat(stockDeltaBroadcaster.flush()).isZero();
+
+        var payload = ArgumentCaptor.forClass(Object.class);
+        verify(roomOperations, times(1)).sendEvent(eq("stock_updated"), payload.capture());
+        var message = (Map<String, Object>) payload.getValue();
+        assertThat(message).containsEntry("event_id", 7L);
+        assertThat(message).containsEntry("stocks", List.of(100L, 7L, 101L, 6L));
+        assertThat(message).containsKey("computed_at");
+    }
+
+    @Test
+    void flush_shouldKeepGoingWhenOneEventFails() {
+        when(ticketRepository.findAllByEventShowEventIdOrderByIdAsc(7L, StockDeltaBroadcaster.TicketStockView.class))
+                .thenThrow(new IllegalStateException("db down"));
+        when(ticketRepository.findAllByEventShowEventIdOrderByIdAsc(9L, StockDeltaBroadcaster.TicketStockView.class))
+                .thenReturn(List.of(ticket(200L, 5, 0)));
+        when(reservationCountService.getHeldCountsByEventId(9L)).thenReturn(Map.of());
+        when(socketIOServer.getNamespace("/event")).thenReturn(namespace);
+        when(namespace.getRoomOperations("9")).thenReturn(roomOperations);
+
+        stockDeltaBroadcaster.markDirty(7L);
+        stockDeltaBroadcaster.markDirty(9L);
+
+        assertThat(stockDeltaBroadcaster.flush()).isEqualTo(1);
+        verify(roomOperations).sendEvent(eq("stock_updated"), any(Object.class));
+        verify(namespace, never()).getRoomOperations("7");
+    }
+
+    @Test
+    void flush_shouldSkipEventsWithoutTickets() {
+        when(ticketRepository.findAllByEventShowEventIdOrderByIdAsc(7L, StockDeltaBroadcaster.TicketStockView.class))
+                .thenReturn(List.of());
+
+        stockDeltaBroadcaster.markDirty(7L);
+        stockDeltaBroadcaster.flush();
+
+        verifyNoInteractions(socketIOServer, reservationCountService);
+    }
+
+    @Test
+    void pack_shouldInterleaveTicketIdsAndCounts() {
+        var stocks = new LinkedHashMap<Long, Integer>();
+        stocks.put(100L, 7);
+        stocks.put(101L, 0);
+
+        assertThat(StockDeltaBroadcaster.pack(stocks)).containsExactly(100L, 7L, 101L, 0L);
+    }
+
+    private StockDeltaBroadcaster.TicketStockView ticket(Long id, int stock, int stockShards) {
+        return new StockDeltaBroadcaster.TicketStockView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public int getStock() {
+                return stock;
+            }
+
+            @Override
+            public int getStockShards() {
+                return stockShards;
+            }
+        };
+    }
+}
@@ -0,0 +1,192 @@
+package com.ht.eventbox.modules.backgroundjobs;
+
+import com.ht.eventbox.entities.WebhookEvent;
+import com.ht.eventbox.enums.WebhookEventStatus;
+import com.ht.eventbox.enums.WebhookEventType;
+import com.ht.eventbox.modules.order.PaypalWebhookService;
+import com.ht.eventbox.modules.order.WebhookEventRepository;
+import com.ht.eventbox.modules.redis.RedisService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jobrunr.jobs.lambdas.JobLambda;
+import org.jobrunr.scheduling.JobScheduler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookJobServiceTests {
+
+    @Mock
+    private JobScheduler jobScheduler;
+
+    @Mock
+    private WebhookEventRepository webhookEventRepository;
+
+    @Mock
+    private PaypalWebhookService paypalWebhookService;
+
+    @Mock
+    private RedisService redisService;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private WebhookJobService webhookJobService;
+
+    @Test
+    void enqueuePaypalWebhook_shouldStoreEnvelopeAndScheduleAJob() {
+        when(webhookEventRepository.existsByTransmissionId("tx-id")).thenReturn(false);
+        when(paypalWebhookService.getPaypalOrderId(WebhookEventType.PAYPAL_CHECKOUT, "{}")).thenReturn("paypal-order-1");
+        when(webhookEventRepository.saveAndFlush(any(WebhookEvent.class))).thenAnswer(invocation -> {
+            WebhookEvent webhookEvent = invocation.getArgument(0);
+            webhookEvent.setId(7L);
+            return webhookEvent;
+        });
+
+        var enqueued = webhookJobService.enqueuePaypalWebhook(
+                WebhookEventType.PAYPAL_CHECKOUT, "{}", "tx-id", "time", "sig", "cert", "algo");
+
+        assertThat(enqueued).isTrue();
+        verify(webhookEventRepository).saveAndFlush(argThat(webhookEvent ->
+                webhookEvent.getStatus() == WebhookEventStatus.RECEIVED
+                        && "paypal-order-1".equals(webhookEvent.getPaypalOrderId())));
+        verify(jobScheduler).enqueue(any(JobLambda.class));
+    }
+
+    @Test
+    void enqueuePaypalWebhook_shouldDropRedelivery() {
+        when(webhookEventRepository.existsByTransmissionId("tx-id")).thenReturn(false);
+        when(webhookEventRepository.saveAndFlush(any(WebhookEvent.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_webhook_event_transmission_id"));
+
+        var enqueued = webhookJobService.enqueuePaypalWebhook(
+                WebhookEventType.PAYPAL_PAYMENT, "{}", "tx-id", "time", "sig", "cert", "algo");
+
+        assertThat(enqueued).isFalse();
+        verifyNoInteractions(jobScheduler);
+    }
+
+    @Test
+    void processPaypalWebhook_shouldHandleAndMarkProcessed() {
+        var webhookEvent = sampleWebhookEvent();
+        when(webhookEventRepository.findById(7L)).thenReturn(Optional.of(webhookEvent));
+        when(redisService.setValueIfAbsent("paypal_webhook_lock:paypal_order_id:paypal-order-1", "7", 300))
+                .thenReturn(true);
+        when(paypalWebhookService.verify(
+                WebhookEventType.PAYPAL_CHECKOUT, "{}", "tx-id", "time", "sig", "cert", "algo"))
+                .thenReturn(true);
+
+        webhookJobService.processPaypalWebhook(7L);
+
+        assertThat(webhookEvent.getStatus()).isEqualTo(WebhookEventStatus.PROCESSED);
+        assertThat(webhookEvent.getAttempts()).isEqualTo(1);
+        verify(paypalWebhookService).handle(WebhookEventType.PAYPAL_CHECKOUT, "{}");
+        verify(redisService).executeScript(
+                any(RedisScript.class), eq(List.of("paypal_webhook_lock:paypal_order_id:paypal-order-1")), eq("7"));
+        assertThat(meterRegistry.get("eventbox.paypal.webhook.latency").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void processPaypalWebhook_shouldRescheduleWhileOrderIsLocked() {
+        when(webhookEventRepository.findById(7L)).thenReturn(Optional.of(sampleWebhookEvent()));
+        when(redisService.setValueIfAbsent(anyString(), anyString(), anyLong())).thenReturn(false);
+
+        webhookJobService.processPaypalWebhook(7L);
+
+        verify(jobScheduler).schedule(any(Instant.class), any(JobLambda.class));
+        verifyNoInteractions(paypalWebhookService);
+        verify(redisService, never()).executeScript(any(RedisScript.class), anyList(), any(String[].class));
+    }
+
+    @Test
+    void processPaypalWebhook_shouldMarkUnverifiedWebhookFailedWithoutRetrying() {
+        var webhookEvent = sampleWebhookEvent();
+        when(webhookEventRepository.findById(7L)).thenReturn(Optional.of(webhookEvent));
+        when(redisService.setValueIfAbsent(anyString(), anyString(), anyLong())).thenReturn(true);
+        when(paypalWebhookService.verify(
+                WebhookEventType.PAYPAL_CHECKOUT, "{}", "tx-id", "time", "sig", "cert", "algo"))
+                .thenReturn(false);
+
+        webhookJobService.processPaypalWebhook(7L);
+
+        assertThat(webhookEvent.getStatus()).isEqualTo(WebhookEventStatus.FAILED);
+        assertThat(webhookEvent.getLastError()).contains("could not be verified");
+        verify(webhookEventRepository).save(webhookEvent);
+        verify(paypalWebhookService, never()).handle(any(), anyString());
+        verify(redisService).executeScript(
+                any(RedisScript.class), eq(List.of("paypal_webhook_lock:paypal_order_id:paypal-order-1")), eq("7"));
+    }
+
+    @Test
+    void processPaypalWebhook_shouldRecordFailureAndRethrow() {
+        var webhookEvent = sampleWebhookEvent();
+        when(webhookEventRepository.findById(7L)).thenReturn(Optional.of(webhookEvent));
+        when(redisService.setValueIfAbsent(anyString(), anyString(), anyLong())).thenReturn(true);
+        when(paypalWebhookService.verify(
+                WebhookEventType.PAYPAL_CHECKOUT, "{}", "tx-id", "time", "sig", "cert", "algo"))
+                .thenReturn(true);
+        doThrow(new IllegalStateException("database unavailable"))
+                .when(paypalWebhookService).handle(WebhookEventType.PAYPAL_CHECKOUT, "{}");
+
+        assertThatThrownBy(() -> webhookJobService.processPaypalWebhook(7L))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(webhookEvent.getStatus()).isEqualTo(WebhookEventStatus.FAILED);
+        assertThat(webhookEvent.getLastError()).isEqualTo("database unavailable");
+        verify(redisService).executeScript(
+                any(RedisScript.class), eq(List.of("paypal_webhook_lock:paypal_order_id:paypal-order-1")), eq("7"));
+    }
+
+    @Test
+    void processPaypalWebhook_shouldSkipProcessedEnvelope() {
+        var webhookEvent = sampleWebhookEvent();
+        webhookEvent.setStatus(WebhookEventStatus.PROCESSED);
+        when(webhookEventRepository.findById(7L)).thenReturn(Optional.of(webhookEvent));
+
+        webhookJobService.processPaypalWebhook(7L);
+
+        verifyNoInteractions(paypalWebhookService, redisService);
+    }
+
+    private WebhookEvent sampleWebhookEvent() {
+        return WebhookEvent.builder()
+                .id(7L)
+                .transmissionId("tx-id")
+                .type(WebhookEventType.PAYPAL_CHECKOUT)
+                .status(WebhookEventStatus.RECEIVED)
+                .transmissionTime("time")
+                .transmissionSig("sig")
+                .certUrl("cert")
+                .authAlgo("algo")
+                .paypalOrderId("paypal-order-1")
+                .payload("{}")
+                .createdAt(LocalDateTime.now().minusSeconds(2))
+                .build();
+    }
+}
@@ -9,6 +9,7 @@ import com.ht.eventbox.enums.EventStatus;
 import com.ht.eventbox.modules.event.dtos.CreateEventDto;
 import com.ht.eventbox.modules.event.dtos.UpdateEventDto;
 import com.ht.eventbox.modules.event.dtos.UpdateEventTagsDto;
+import com.ht.eventbox.modules.redis.RedisService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -19,6 +20,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.security.PublicKey;
 import java.time.LocalDateTime;
@@ -32,13 +34,15 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(EventController.class)
 @AutoConfigureMockMvc(addFilters = false)
 @ActiveProfiles("test")
-@Import(GlobalExceptionHandler.class)
+@Import({GlobalExceptionHandler.class, EventDiscoveryFeed.class})
 @TestPropertySource(properties = {
         "paypal.checkout.webhook.id=checkout-webhook",
         "paypal.payment.webhook.id=payment-webhook"
@@ -54,6 +58,12 @@ class EventControllerTests {
     @MockBean
     private EventService eventService;
 
+    @MockBean
+    private RedisService redisService;
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
     @MockBean
     private com.ht.eventbox.filter.JwtService jwtService;
 
@@ -251,6 +261,26 @@ class EventControllerTests {
                 .andExpect(jsonPath("$.data.latest_events[0].id").value(13L));
     }
 
+    @Test
+    void getDiscovery_shouldAnswerNotModifiedWhenEtagMatches() throws Exception {
+        when(eventService.getDiscovery()).thenReturn(EventService.DiscoveryEvents.builder()
+                .featuredEvents(List.of(sampleEvent(11L)))
+                .trendingEvents(List.of())
+                .latestEvents(List.of())
+                .build());
+
+        var etag = mockMvc.perform(get("/api/v1/events/discovery"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        mockMvc.perform(get("/api/v1/events/discovery").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     void search_shouldPassQueryProvinceAndCategoriesThrough() throws Exception {
         when(eventService.search(eq("music"), eq("Singapore"), eq(List.of(1L, 2L)))).thenReturn(List.of(sampleEvent(11L)));
@@ -1,7 +1,12 @@
 package com.ht.eventbox.modules.event;
 
+import com.ht.eventbox.config.CursorPage;
+import com.ht.eventbox.config.CursorRequest;
 import com.ht.eventbox.config.GlobalExceptionHandler;
+import com.ht.eventbox.constant.Constant;
 import com.ht.eventbox.entities.Event;
+import com.ht.eventbox.entities.EventShow;
+import com.ht.eventbox.entities.Organization;
 import com.ht.eventbox.enums.EventStatus;
 import com.ht.eventbox.modules.event.dtos.EventOverviewDto;
 import org.junit.jupiter.api.Test;
@@ -13,15 +18,19 @@ import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.security.PublicKey;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -57,6 +66,13 @@ class EventControllerV2Tests {
                 .andExpect(jsonPath("$.code").value(200))
                 .andExpect(jsonPath("$.message").value("OK"))
                 .andExpect(jsonPath("$.data[0].id").value(11L))
+                .andExpect(jsonPath("$.data[0].description").doesNotExist())
+                .andExpect(jsonPath("$.data[0].organization.name").value("Org"))
+                .andExpect(jsonPath("$.data[0].organization.user_organizations").doesNotExist())
+                .andExpect(jsonPath("$.data[0].shows[0].id").value(110L))
+                .andExpect(jsonPath("$.data[0].shows[0].seatmap").doesNotExist())
+                .andExpect(jsonPath("$.data[0].shows[0].seatmap_svg").doesNotExist())
+                .andExpect(jsonPath("$.data[0].shows[0].seatmap_hash").value("a".repeat(64)))
                 .andExpect(jsonPath("$.totalPages").value(2))
                 .andExpect(jsonPath("$.totalElements").value(33))
                 .andExpect(jsonPath("$.size").value(20))
@@ -89,6 +105,40 @@ class EventControllerV2Tests {
         verify(eventService).getAllPending(eq("draft"), any(Pageable.class));
     }
 
+    @Test
+    void getAllPending_shouldReturnCursorPageWhenAfterIsGiven() throws Exception {
+        var after = CursorRequest.encode(11L);
+        when(eventService.getAllPending(eq("draft"), any(CursorRequest.class)))
+                .thenReturn(new CursorPage<>(List.of(sampleEvent(12L)), 10, CursorRequest.encode(12L), null));
+
+        mockMvc.perform(get("/api/v2/events/pending")
+                .param("search", "draft")
+                .param("after", after)
+                .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(200))
+                .andExpect(jsonPath("$.data[0].id").value(12L))
+                .andExpect(jsonPath("$.next").value(CursorRequest.encode(12L)))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.size").value(10))
+                .andExpect(jsonPath("$.numberOfElements").value(1))
+                .andExpect(jsonPath("$.totalPages").doesNotExist());
+
+        verify(eventService).getAllPending(eq("draft"), eq(new CursorRequest(11L, 10, false)));
+        verify(eventService, never()).getAllPending(any(), any(Pageable.class));
+    }
+
+    @Test
+    void getAllPending_shouldRejectMalformedCursor() throws Exception {
+        mockMvc.perform(get("/api/v2/events/pending")
+                .param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(400))
+                .andExpect(jsonPath("$.message").value(Constant.ErrorCode.INVALID_CURSOR));
+
+        verifyNoInteractions(eventService);
+    }
+
     @Test
     void getAllPublished_shouldReturnPagedEvents() throws Exception {
         when(eventService.getAllPublished(eq("festival"), any(Pageable.class)))
@@ -261,9 +311,19 @@ class EventControllerV2Tests {
         verify(eventService).getAllDraftByOrganizationId(eq(99L), eq("draft"), any(Pageable.class));
     }
 
-    private Event sampleEvent(Long id) {
-        return Event.builder()
+    private EventService.EventSummary sampleEvent(Long id) {
+        var event = Event.builder()
                 .id(id)
+                .description("Long description")
+                .organization(Organization.builder().id(5L).name("Org").userOrganizations(new ArrayList<>()).build())
                 .build();
+        event.setShows(new ArrayList<>(List.of(EventShow.builder()
+                .id(id * 10)
+                .event(event)
+                .seatmap("{\"blocks\":[]}")
+                .seatmapSvg("<svg/>")
+                .seatmapHash("a".repeat(64))
+                .build())));
+        return new SpelAwareProxyProjectionFactory().createProjection(EventService.EventSummary.class, event);
     }
 }
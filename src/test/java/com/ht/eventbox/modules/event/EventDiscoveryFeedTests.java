@@ -0,0 +1,177 @@
+package com.ht.eventbox.modules.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ht.eventbox.constant.Constant;
+import com.ht.eventbox.entities.Event;
+import com.ht.eventbox.entities.EventShow;
+import com.ht.eventbox.modules.redis.RedisService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EventDiscoveryFeedTests {
+
+    @Mock
+    private RedisService redisService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private EventDiscoveryFeed eventDiscoveryFeed;
+
+    @BeforeEach
+    void setUp() {
+        eventDiscoveryFeed = new EventDiscoveryFeed(redisService, objectMapper, transactionManager, true, 300);
+    }
+
+    @Test
+    void get_shouldServeCachedSnapshotWithoutLoading() {
+        when(redisService.getValue(EventDiscoveryFeed.versionKey())).thenReturn("4");
+        when(redisService.getValue(EventDiscoveryFeed.feedKey("4"))).thenReturn("\"abc\"\n{\"code\":200}");
+
+        var snapshot = eventDiscoveryFeed.get(() -> {
+            throw new AssertionError("should not load");
+        });
+
+        assertThat(snapshot.etag()).isEqualTo("\"abc\"");
+        assertThat(snapshot.body()).isEqualTo("{\"code\":200}");
+    }
+
+    @Test
+    void get_shouldComputeAndStoreUntilTheFirstEventEnds() {
+        when(redisService.setValueIfAbsent(anyString(), eq("1"), eq((long) Constant.RedisKey.DISCOVERY_FEED_LOCK_EXPIRES)))
+                .thenReturn(true);
+        var discovery = discovery(event(1L, LocalDateTime.now().plusSeconds(90)), event(2L, LocalDateTime.now().plusDays(2)));
+
+        var snapshot = eventDiscoveryFeed.get(() -> discovery);
+
+        assertThat(snapshot.body()).contains("\"featured_events\":[{\"id\":1");
+        assertThat(snapshot.etag()).isEqualTo(EventDiscoveryFeed.etagOf(snapshot.body()));
+        verify(redisService).setValue(
+                eq(EventDiscoveryFeed.feedKey("0")),
+                eq(snapshot.etag() + "\n" + snapshot.body()),
+                longThat(ttl -> ttl > 80 && ttl <= 91));
+        verify(redisService).deleteValue(startsWith(Constant.RedisPrefix.DISCOVERY_FEED_LOCK));
+    }
+
+    @Test
+    void get_shouldShareOneRecomputationBetweenConcurrentCallers() throws Exception {
+        when(redisService.setValueIfAbsent(anyString(), eq("1"), anyLong())).thenReturn(true);
+        var loads = new AtomicInteger();
+        var release = new CountDownLatch(1);
+        var discovery = discovery(event(1L, LocalDateTime.now().plusDays(1)));
+
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            var futures = new ArrayList<Future<EventDiscoveryFeed.Snapshot>>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> eventDiscoveryFeed.get(() -> {
+                    loads.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return discovery;
+                })));
+            }
+
+            Thread.sleep(200);
+            release.countDown();
+
+            var etags = new ArrayList<String>();
+            for (var future : futures) {
+                etags.add(future.get(5, TimeUnit.SECONDS).etag());
+            }
+            assertThat(loads.get()).isEqualTo(1);
+            assertThat(etags).containsOnly(etags.get(0));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void get_shouldWaitForTheNodeHoldingTheLock() {
+        when(redisService.setValueIfAbsent(anyString(), eq("1"), anyLong())).thenReturn(false);
+        when(redisService.getValue(EventDiscoveryFeed.feedKey("0"))).thenReturn(null, null, "\"other\"\n{}");
+
+        var snapshot = eventDiscoveryFeed.get(() -> {
+            throw new AssertionError("should not load");
+        });
+
+        assertThat(snapshot.etag()).isEqualTo("\"other\"");
+        verify(redisService, never()).setValue(anyString(), anyString(), anyLong());
+        verify(redisService, never()).deleteValue(anyString());
+    }
+
+    @Test
+    void invalidate_shouldBumpTheVersion() {
+        eventDiscoveryFeed.invalidateAfterCommit();
+
+        verify(redisService).incrementValue(EventDiscoveryFeed.versionKey());
+    }
+
+    @Test
+    void disabledFeed_shouldComputeEveryTimeWithoutRedis() {
+        var disabled = new EventDiscoveryFeed(redisService, objectMapper, transactionManager, false, 300);
+        var discovery = discovery(event(1L, LocalDateTime.now().plusDays(1)));
+
+        var first = disabled.get(() -> discovery);
+        var second = disabled.get(() -> discovery);
+        disabled.invalidateAfterCommit();
+
+        assertThat(second.etag()).isEqualTo(first.etag());
+        verifyNoInteractions(redisService);
+    }
+
+    @Test
+    void ttlSeconds_shouldStayWithinOneSecondAndTheMaximum() {
+        var now = LocalDateTime.of(2026, 5, 1, 12, 0);
+
+        assertThat(eventDiscoveryFeed.ttlSeconds(discovery(event(1L, now.plusSeconds(30))), now)).isEqualTo(31);
+        assertThat(eventDiscoveryFeed.ttlSeconds(discovery(event(1L, now.minusSeconds(30))), now)).isEqualTo(1);
+        assertThat(eventDiscoveryFeed.ttlSeconds(discovery(event(1L, now.plusDays(1))), now)).isEqualTo(300);
+        assertThat(eventDiscoveryFeed.ttlSeconds(discovery(), now)).isEqualTo(300);
+    }
+
+    private EventService.DiscoveryEvents discovery(Event... featured) {
+        return EventService.DiscoveryEvents.builder()
+                .featuredEvents(List.of(featured))
+                .trendingEvents(List.of())
+                .latestEvents(List.of())
+                .build();
+    }
+
+    private Event event(Long id, LocalDateTime endTime) {
+        var event = Event.builder().id(id).title("Event " + id).build();
+        var show = EventShow.builder().id(id * 10).event(event).endTime(endTime).build();
+        event.setShows(new ArrayList<>(List.of(show)));
+        return event;
+    }
+}
@@ -0,0 +1,211 @@
+package com.ht.eventbox.modules.event;
+
+import com.ht.eventbox.entities.Category;
+import com.ht.eventbox.entities.Event;
+import com.ht.eventbox.entities.EventShow;
+import com.ht.eventbox.entities.Keyword;
+import com.ht.eventbox.entities.Organization;
+import com.ht.eventbox.enums.EventStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EventDiscoveryIndexTests {
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    private EventDiscoveryIndex eventDiscoveryIndex;
+
+    private final LocalDateTime now = LocalDateTime.of(2026, 5, 1, 12, 0);
+
+    private final Category music = Category.builder().id(1L).nameVi("Âm nhạc").nameEn("Music").build();
+    private final Category sport = Category.builder().id(2L).nameVi("Thể thao").nameEn("Sport").build();
+
+    @BeforeEach
+    void setUp() {
+        eventDiscoveryIndex = new EventDiscoveryIndex(eventRepository, transactionManager, redisTemplate, true);
+    }
+
+    @Test
+    void search_shouldMatchEveryWordAsAccentInsensitivePrefix() {
+        var concert = event(1L, "Đêm nhạc Trịnh", "12 Lê Lợi, Quận 1, Hồ Chí Minh", music, now.plusDays(3));
+        var marathon = event(2L, "Giải chạy Marathon", "Hồ Gươm, Hà Nội", sport, now.plusDays(5));
+        rebuildWith(concert, marathon);
+
+        assertThat(eventDiscoveryIndex.search("dem nhac", null, null, now)).containsExactly(concert);
+        assertThat(eventDiscoveryIndex.search("Nhạc Tr", null, null, now)).containsExactly(concert);
+        assertThat(eventDiscoveryIndex.search("live acous", null, null, now)).containsExactly(concert, marathon);
+        assertThat(eventDiscoveryIndex.search("nhac marathon", null, null, now)).isEmpty();
+        assertThat(eventDiscoveryIndex.search("  ", null, null, now)).containsExactly(concert, marathon);
+    }
+
+    @Test
+    void search_shouldFilterByProvinceAndCategories() {
+        var concert = event(1L, "Đêm nhạc", "12 Lê Lợi, Quận 1, Hồ Chí Minh", music, now.plusDays(3));
+        var marathon = event(2L, "Giải chạy", "Hồ Gươm, Hà Nội", sport, now.plusDays(5));
+        var festival = event(3L, "Lễ hội âm nhạc", "Phố đi bộ, Hà Nội", music, now.plusDays(7));
+        rebuildWith(concert, marathon, festival);
+
+        assertThat(eventDiscoveryIndex.search(null, "Ha Noi", null, now)).containsExactly(marathon, festival);
+        assertThat(eventDiscoveryIndex.search(null, "hồ chí minh", List.of(1L), now)).containsExactly(concert);
+        assertThat(eventDiscoveryIndex.search(null, null, List.of(1L, 2L), now)).containsExactly(concert, marathon, festival);
+        assertThat(eventDiscoveryIndex.search("am nhac", "Ha Noi", List.of(99L), now)).isEmpty();
+    }
+
+    @Test
+    void refreshMessage_shouldReplaceOrRemoveTheEvent() {
+        var concert = event(1L, "Đêm nhạc", "Quận 1, Hồ Chí Minh", music, now.plusDays(3));
+        rebuildWith(concert);
+
+        var renamed = event(1L, "Hòa nhạc mùa thu", "Quận 1, Hồ Chí Minh", music, LocalDateTime.now().plusDays(3));
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(renamed));
+        deliverRefresh(1L);
+
+        assertThat(eventDiscoveryIndex.search("dem", null, null, now)).isEmpty();
+        assertThat(eventDiscoveryIndex.search("hoa nhac", null, null, now)).containsExactly(renamed);
+
+        renamed.setStatus(EventStatus.DRAFT);
+        deliverRefresh(1L);
+
+        assertThat(eventDiscoveryIndex.search(null, null, null, now)).isEmpty();
+        assertThat(eventDiscoveryIndex.size()).isZero();
+    }
+
+    @Test
+    void refreshAfterCommit_shouldBroadcastToEveryNode() {
+        rebuildWith();
+
+        eventDiscoveryIndex.refreshAfterCommit(1L);
+
+        verify(redisTemplate).convertAndSend("discovery_index:refresh", "1");
+        verify(eventRepository, never()).findById(any());
+    }
+
+    @Test
+    void refreshAfterCommit_shouldRefreshLocallyWhenBroadcastFails() {
+        rebuildWith();
+        var concert = event(1L, "Đêm nhạc", "Quận 1, Hồ Chí Minh", music, LocalDateTime.now().plusDays(3));
+        when(redisTemplate.convertAndSend(anyString(), any())).thenThrow(new IllegalStateException("redis down"));
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(concert));
+
+        eventDiscoveryIndex.refreshAfterCommit(1L);
+
+        assertThat(eventDiscoveryIndex.search("dem", null, null, now)).containsExactly(concert);
+    }
+
+    @Test
+    void rebuild_shouldKeepRefreshesReceivedWhileLoading() {
+        var stale = event(1L, "Đêm nhạc", "Quận 1, Hồ Chí Minh", music, now.plusDays(3));
+        var renamed = event(1L, "Hòa nhạc", "Quận 1, Hồ Chí Minh", music, LocalDateTime.now().plusDays(3));
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(renamed));
+        // Sự kiện được đổi tên trong lúc rebuild đang đọc bản cũ
+        when(eventRepository.findDistinctByStatusIsAndShowsEndTimeAfter(eq(EventStatus.PUBLISHED), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> {
+                    deliverRefresh(1L);
+                    return List.of(stale);
+                });
+
+        eventDiscoveryIndex.rebuild();
+
+        assertThat(eventDiscoveryIndex.search("hoa nhac", null, null, now)).containsExactly(renamed);
+        assertThat(eventDiscoveryIndex.search("dem", null, null, now)).isEmpty();
+    }
+
+    @Test
+    void evictEnded_shouldDropEventsWhoseLastShowHasEnded() {
+        var ended = event(1L, "Đêm nhạc", "Hà Nội", music, now.minusHours(1));
+        var upcoming = event(2L, "Đêm nhạc", "Hà Nội", music, now.plusHours(1));
+        rebuildWith(ended, upcoming);
+
+        assertThat(eventDiscoveryIndex.search("nhac", null, null, now)).containsExactly(upcoming);
+        assertThat(eventDiscoveryIndex.evictEnded(now)).isEqualTo(1);
+        assertThat(eventDiscoveryIndex.size()).isEqualTo(1);
+
+        var next = event(3L, "Đêm nhạc", "Hà Nội", music, LocalDateTime.now().plusDays(1));
+        when(eventRepository.findById(3L)).thenReturn(Optional.of(next));
+        deliverRefresh(3L);
+
+        assertThat(eventDiscoveryIndex.search("nhac", null, null, now)).containsExactly(upcoming, next);
+    }
+
+    @Test
+    void disabledIndex_shouldNeverLoadEvents() {
+        var disabled = new EventDiscoveryIndex(eventRepository, transactionManager, redisTemplate, false);
+
+        disabled.rebuild();
+        disabled.refreshAfterCommit(1L);
+
+        assertThat(disabled.isReady()).isFalse();
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void provinceOf_shouldTakeTheLastAddressSegment() {
+        assertThat(EventDiscoveryIndex.provinceOf("12 Lê Lợi, Quận 1, TP. Hồ Chí Minh")).isEqualTo("tp. ho chi minh");
+        assertThat(EventDiscoveryIndex.provinceOf("Đà Nẵng")).isEqualTo("da nang");
+        assertThat(EventDiscoveryIndex.provinceOf(null)).isEmpty();
+    }
+
+    private void deliverRefresh(Long eventId) {
+        eventDiscoveryIndex.onMessage(new DefaultMessage(
+                EventDiscoveryIndex.REFRESH_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                String.valueOf(eventId).getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    private void rebuildWith(Event... events) {
+        when(eventRepository.findDistinctByStatusIsAndShowsEndTimeAfter(eq(EventStatus.PUBLISHED), any(LocalDateTime.class)))
+                .thenReturn(List.of(events));
+        eventDiscoveryIndex.rebuild();
+        assertThat(eventDiscoveryIndex.isReady()).isTrue();
+    }
+
+    private Event event(Long id, String title, String address, Category category, LocalDateTime endTime) {
+        var event = Event.builder()
+                .id(id)
+                .title(title)
+                .description("Chương trình acoustic")
+                .address(address)
+                .status(EventStatus.PUBLISHED)
+                .organization(Organization.builder().id(10L).userOrganizations(new ArrayList<>()).build())
+                .categories(Set.of(category))
+                .keywords(Set.of(Keyword.builder().name("live").build()))
+                .build();
+        var show = EventShow.builder()
+                .event(event)
+                .startTime(endTime.minusHours(2))
+                .endTime(endTime)
+                .tickets(new ArrayList<>())
+                .build();
+        event.setShows(new ArrayList<>(List.of(show)));
+        return event;
+    }
+}
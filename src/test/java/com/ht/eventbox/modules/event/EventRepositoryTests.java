@@ -0,0 +1,130 @@
+package com.ht.eventbox.modules.event;
+
+import com.ht.eventbox.entities.Event;
+import com.ht.eventbox.entities.EventShow;
+import com.ht.eventbox.entities.Organization;
+import com.ht.eventbox.enums.EventStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class EventRepositoryTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Test
+    void search_shouldMatchSearchDocumentWithoutAccents() {
+        var organization = persistOrganization("Nhà hát Lớn");
+        var concert = persistEvent(organization, "Đêm nhạc Trịnh", "Hà Nội");
+        persistEvent(organization, "Workshop gốm", "Đà Nẵng");
+
+        var byTitle = search(null, EventRepository.ShowFilter.ANY, "dem nhac");
+        assertThat(byTitle.getContent()).extracting(Event::getId).containsExactly(concert.getId());
+        assertThat(byTitle.getTotalElements()).isEqualTo(1);
+
+        var byAddress = search(null, EventRepository.ShowFilter.ANY, "ha noi");
+        assertThat(byAddress.getContent()).extracting(Event::getId).containsExactly(concert.getId());
+
+        var byOrganization = search(null, EventRepository.ShowFilter.ANY, "nha hat");
+        assertThat(byOrganization.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void searchAfter_shouldReturnSummariesWithOrganization() {
+        var organization = persistOrganization("Nhà hát Lớn");
+        var first = persistEvent(organization, "Đêm nhạc", "Hà Nội");
+        var second = persistEvent(organization, "Hòa nhạc", "Huế");
+        entityManager.clear();
+
+        var slice = eventRepository.searchAfter(
+                null, List.of(EventStatus.PUBLISHED), "ANY", "", LocalDateTime.now(), first.getId(), PageRequest.of(0, 10), EventService.EventSummary.class);
+
+        assertThat(slice.getContent()).extracting(EventService.EventSummary::getId).containsExactly(second.getId());
+        assertThat(slice.getContent().get(0).getOrganization().getName()).isEqualTo("Nhà hát Lớn");
+        assertThat(slice.getContent().get(0).getShows()).isEmpty();
+    }
+
+    @Test
+    void search_shouldFilterByOrganizationAndShows() {
+        var theatre = persistOrganization("Nhà hát Lớn");
+        var upcoming = persistEvent(theatre, "Đêm nhạc", "Hà Nội");
+        persistShow(upcoming, LocalDateTime.now().plusDays(2));
+        var ended = persistEvent(theatre, "Hòa nhạc", "Huế");
+        persistShow(ended, LocalDateTime.now().minusDays(2));
+        var other = persistEvent(persistOrganization("Câu lạc bộ"), "Giải chạy", "Đà Nẵng");
+        persistShow(other, LocalDateTime.now().plusDays(5));
+        entityManager.clear();
+
+        assertThat(search(null, EventRepository.ShowFilter.UPCOMING, "").getContent())
+                .extracting(Event::getId).containsExactly(upcoming.getId(), other.getId());
+        assertThat(search(null, EventRepository.ShowFilter.ENDED, "").getContent())
+                .extracting(Event::getId).containsExactly(ended.getId());
+        assertThat(search(theatre.getId(), EventRepository.ShowFilter.ANY, null).getTotalElements()).isEqualTo(2);
+        assertThat(search(theatre.getId(), EventRepository.ShowFilter.UPCOMING, "").getContent())
+                .extracting(Event::getId).containsExactly(upcoming.getId());
+        assertThat(eventRepository.countSearch(
+                theatre.getId(), List.of(EventStatus.PUBLISHED), "ENDED", "hoa", LocalDateTime.now())).isEqualTo(1);
+    }
+
+    @Test
+    void refreshSearchDocument_shouldFollowTitleChanges() {
+        var event = persistEvent(persistOrganization("Org"), "Hòa nhạc", "Huế");
+
+        event.setTitle("Triển lãm");
+        entityManager.persistAndFlush(event);
+        entityManager.clear();
+
+        assertThat(eventRepository.findById(event.getId()).orElseThrow().getSearchDocument())
+                .isEqualTo("trien lam hue org org description event description");
+    }
+
+    private Page<Event> search(Long organizationId, EventRepository.ShowFilter showFilter, String search) {
+        return eventRepository.search(organizationId, List.of(EventStatus.PUBLISHED), showFilter.name(), search,
+                LocalDateTime.now(), PageRequest.of(0, 10), Event.class);
+    }
+
+    private void persistShow(Event event, LocalDateTime endTime) {
+        entityManager.persistAndFlush(EventShow.builder()
+                .event(event)
+                .title("Suất diễn")
+                .startTime(endTime.minusHours(2))
+                .endTime(endTime)
+                .saleStartTime(endTime.minusDays(30))
+                .saleEndTime(endTime.minusHours(2))
+                .build());
+    }
+
+    private Organization persistOrganization(String name) {
+        return entityManager.persistAndFlush(Organization.builder()
+                .name(name)
+                .paypalAccount("org@paypal.com")
+                .description("Org description")
+                .build());
+    }
+
+    private Event persistEvent(Organization organization, String title, String address) {
+        return entityManager.persistAndFlush(Event.builder()
+                .organization(organization)
+                .status(EventStatus.PUBLISHED)
+                .title(title)
+                .description("Event description")
+                .address(address)
+                .placeName("Event place")
+                .build());
+    }
+}
@@ -0,0 +1,144 @@
+package com.ht.eventbox.modules.event;
+
+import com.ht.eventbox.EventBoxApplication;
+import com.ht.eventbox.entities.Category;
+import com.ht.eventbox.entities.Event;
+import com.ht.eventbox.entities.EventShow;
+import com.ht.eventbox.entities.Organization;
+import com.ht.eventbox.enums.EventStatus;
+import com.ht.eventbox.modules.category.CategoryRepository;
+import com.ht.eventbox.modules.organization.OrganizationRepository;
+import com.ht.eventbox.utils.Helper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Public event search through {@link EventDiscoveryIndex} against the JPQL
+ * {@code searchDocument LIKE} query it replaces, on the H2 database of the test profile.
+ * <p>
+ * Run with {@code mvn test-compile} and then the {@link #main} method, or
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main EventSearchBenchmark}. H2 runs in the
+ * same process, so the JPQL numbers leave out the network round trip to PostgreSQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventSearchBenchmark {
+    private static final String[] TITLE_WORDS = { "Đêm nhạc", "Hòa nhạc", "Lễ hội", "Triển lãm", "Workshop", "Giải chạy" };
+    private static final String[] ARTISTS = { "Trịnh", "Mùa thu", "Acoustic", "Jazz", "Gốm", "Marathon", "Ánh sáng" };
+    private static final String[] PROVINCES = { "Hồ Chí Minh", "Hà Nội", "Đà Nẵng", "Huế", "Cần Thơ" };
+    private static final String[] QUERIES = { "dem nhac", "jazz", "hoa nhac mua", "marathon", "le hoi anh" };
+
+    @Param({ "1000", "10000" })
+    private int events;
+
+    private ConfigurableApplicationContext context;
+    private EventRepository eventRepository;
+    private EventDiscoveryIndex eventDiscoveryIndex;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(EventBoxApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run();
+        eventRepository = context.getBean(EventRepository.class);
+        seed(context.getBean(OrganizationRepository.class), context.getBean(CategoryRepository.class));
+
+        // Dựng chỉ mục trực tiếp, không cần kênh Redis để nhận các lần làm mới
+        eventDiscoveryIndex = new EventDiscoveryIndex(
+                eventRepository, context.getBean(PlatformTransactionManager.class), null, true);
+        eventDiscoveryIndex.rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Event> discoveryIndex() {
+        return eventDiscoveryIndex.search(nextQuery(), null, null, LocalDateTime.now());
+    }
+
+    @Benchmark
+    public List<Event> jpql() {
+        return eventRepository.searchEvents(Helper.toSearchText(nextQuery()), null, EventStatus.PUBLISHED, LocalDateTime.now());
+    }
+
+    private String nextQuery() {
+        next = (next + 1) % QUERIES.length;
+        return QUERIES[next];
+    }
+
+    private void seed(OrganizationRepository organizationRepository, CategoryRepository categoryRepository) {
+        var organization = organizationRepository.save(Organization.builder()
+                .name("Nhà hát Lớn")
+                .paypalAccount("benchmark@paypal.com")
+                .description("Benchmark")
+                .build());
+        var category = categoryRepository.save(Category.builder().slug("am-nhac").nameVi("Âm nhạc").nameEn("Music").build());
+
+        var batch = new ArrayList<Event>();
+        var start = LocalDateTime.now().plusDays(7);
+        for (int i = 0; i < events; i++) {
+            var event = Event.builder()
+                    .organization(organization)
+                    .status(EventStatus.PUBLISHED)
+                    .title(TITLE_WORDS[i % TITLE_WORDS.length] + " " + ARTISTS[i % ARTISTS.length] + " " + i)
+                    .description("Chương trình số " + i)
+                    .address("Số " + i + ", " + PROVINCES[i % PROVINCES.length])
+                    .placeName("Sân khấu " + (i % 20))
+                    .categories(Set.of(category))
+                    .build();
+            event.setShows(new ArrayList<>(List.of(EventShow.builder()
+                    .event(event)
+                    .title("Suất diễn")
+                    .startTime(start.plusHours(i))
+                    .endTime(start.plusHours(i + 2))
+                    .saleStartTime(LocalDateTime.now().minusDays(1))
+                    .saleEndTime(start.plusHours(i))
+                    .tickets(new ArrayList<>())
+                    .build())));
+            batch.add(event);
+
+            if (batch.size() == 500) {
+                eventRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        eventRepository.saveAll(batch);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EventSearchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,95 @@
+package com.ht.eventbox.modules.event;
+
+import com.ht.eventbox.entities.Event;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SqlProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EventSearchIndexTests {
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EventSearchIndex eventSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        eventSearchIndex = new EventSearchIndex(eventRepository, jdbcTemplate, transactionManager, false, 200);
+    }
+
+    @Test
+    void toPrefixTsQuery_shouldTurnEveryWordIntoPrefixAndDropOperators() {
+        assertThat(EventSearchIndex.toPrefixTsQuery("am nhac sai gon")).isEqualTo("am:* & nhac:* & sai:* & gon:*");
+        assertThat(EventSearchIndex.toPrefixTsQuery("rock & (roll) | !jazz:*")).isEqualTo("rock:* & roll:* & jazz:*");
+        assertThat(EventSearchIndex.toPrefixTsQuery(" ' ")).isEmpty();
+    }
+
+    @Test
+    void search_shouldOnlyFilterByProvinceAndCategoriesWhenThereIsNothingToMatch() {
+        var statement = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        when(jdbcTemplate.query(statement.capture(), any(RowMapper.class))).thenReturn(List.of(3L, 5L));
+
+        var ids = eventSearchIndex.search("  !! ", "Hà Nội", List.of(7L), LocalDateTime.now());
+
+        assertThat(ids).containsExactly(3L, 5L);
+        var sql = ((SqlProvider) statement.getValue()).getSql();
+        assertThat(sql)
+                .doesNotContain("to_tsquery", "word_similarity")
+                .contains("LOWER(e.address) LIKE", "ec.category_id IN", "ORDER BY e.id");
+    }
+
+    @Test
+    void backfillSearchDocuments_shouldFillMissingDocumentsBatchByBatch() {
+        var fullBatch = IntStream.range(0, EventSearchIndex.BACKFILL_BATCH_SIZE)
+                .mapToObj(i -> Event.builder().id((long) i).title("Sự kiện " + i).build())
+                .toList();
+        var lastEvent = Event.builder().id(999L).title("Đêm nhạc").address("Hà Nội").build();
+        when(eventRepository.findAllBySearchDocumentIsNullOrderByIdAsc(PageRequest.of(0, EventSearchIndex.BACKFILL_BATCH_SIZE)))
+                .thenReturn(fullBatch, List.of(lastEvent));
+
+        eventSearchIndex.backfillSearchDocuments();
+
+        assertThat(fullBatch.get(1).getSearchDocument()).isEqualTo("su kien 1");
+        assertThat(lastEvent.getSearchDocument()).isEqualTo("dem nhac ha noi");
+        verify(eventRepository, times(2)).findAllBySearchDocumentIsNullOrderByIdAsc(PageRequest.of(0, EventSearchIndex.BACKFILL_BATCH_SIZE));
+    }
+
+    @Test
+    void initialize_shouldOnlyTouchPostgresSchemaWhenFullTextIsEnabled() {
+        when(eventRepository.findAllBySearchDocumentIsNullOrderByIdAsc(PageRequest.of(0, EventSearchIndex.BACKFILL_BATCH_SIZE)))
+                .thenReturn(List.of());
+
+        eventSearchIndex.initialize();
+        verifyNoInteractions(jdbcTemplate);
+
+        new EventSearchIndex(eventRepository, jdbcTemplate, transactionManager, true, 200).initialize();
+        EventSearchIndex.SCHEMA.forEach(statement -> verify(jdbcTemplate).execute(statement));
+    }
+}
@@ -1,5 +1,6 @@
 package com.ht.eventbox.modules.event;
 
+import com.ht.eventbox.config.CursorRequest;
 import com.ht.eventbox.config.HttpException;
 import com.ht.eventbox.constant.Constant;
 import com.ht.eventbox.entities.Asset;
@@ -28,8 +29,10 @@ import com.ht.eventbox.modules.keyword.KeywordRepository;
 import com.ht.eventbox.modules.order.CurrencyConverterServiceV2;
 import com.ht.eventbox.modules.order.OrderRepository;
 import com.ht.eventbox.modules.order.PayPalService;
-import com.ht.eventbox.modules.order.TicketItemRepository;
+import com.ht.eventbox.modules.order.ReservationCountService;
+import com.ht.eventbox.modules.inventory.ShardedStockService;
 import com.ht.eventbox.modules.organization.OrganizationRepository;
+import com.ht.eventbox.modules.seatmap.SeatmapService;
 import com.ht.eventbox.modules.storage.CloudinaryService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -39,6 +42,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -55,6 +60,8 @@ import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -69,7 +76,10 @@ class EventServiceTests {
     private EventRepository eventRepository;
 
     @Mock
-    private TicketItemRepository ticketItemRepository;
+    private ReservationCountService reservationCountService;
+
+    @Mock
+    private ShardedStockService shardedStockService;
 
     @Mock
     private OrganizationRepository organizationRepository;
@@ -98,6 +108,18 @@ class EventServiceTests {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private EventSearchIndex eventSearchIndex;
+
+    @Mock
+    private EventDiscoveryIndex eventDiscoveryIndex;
+
+    @Mock
+    private EventDiscoveryFeed eventDiscoveryFeed;
+
+    @Mock
+    private SeatmapService seatmapService;
+
     @InjectMocks
     private EventService eventService;
 
@@ -161,47 +183,47 @@ class EventServiceTests {
 
     @Test
     void getAllByStatusInSearchPaged_shouldDelegateToRepository() {
-        var page = new PageImpl<>(List.of(Event.builder().id(11L).build()), PageRequest.of(1, 10), 33);
-        when(eventRepository.searchAllByStatusInOrderByIdAsc(eq(List.of(EventStatus.PENDING, EventStatus.PUBLISHED)), eq("music"), any()))
+        var page = new PageImpl<>(List.of(summary(11L)), PageRequest.of(1, 10), 33);
+        when(eventRepository.search(isNull(), eq(List.of(EventStatus.PENDING, EventStatus.PUBLISHED)), eq("ANY"), eq("music"), any(LocalDateTime.class), any(), eq(EventService.EventSummary.class)))
                 .thenReturn(page);
 
         var result = eventService.getAllByStatusIn(List.of(EventStatus.PENDING, EventStatus.PUBLISHED), "music", PageRequest.of(1, 10));
 
         assertThat(result).isSameAs(page);
-        verify(eventRepository).searchAllByStatusInOrderByIdAsc(eq(List.of(EventStatus.PENDING, EventStatus.PUBLISHED)), eq("music"), eq(PageRequest.of(1, 10)));
+        verify(eventRepository).search(isNull(), eq(List.of(EventStatus.PENDING, EventStatus.PUBLISHED)), eq("ANY"), eq("music"), any(LocalDateTime.class), eq(PageRequest.of(1, 10)), eq(EventService.EventSummary.class));
     }
 
     @Test
     void getAllPublishedSearchPaged_shouldDelegateToRepository() {
-        var page = new PageImpl<>(List.of(Event.builder().id(12L).build()), PageRequest.of(0, 5), 6);
-        when(eventRepository.searchPublishedByStatusOrderByIdAsc(eq(EventStatus.PUBLISHED), eq("festival"), any(LocalDateTime.class), any()))
+        var page = new PageImpl<>(List.of(summary(12L)), PageRequest.of(0, 5), 6);
+        when(eventRepository.search(isNull(), eq(List.of(EventStatus.PUBLISHED)), eq("UPCOMING"), eq("festival"), any(LocalDateTime.class), any(), eq(EventService.EventSummary.class)))
                 .thenReturn(page);
 
         var result = eventService.getAllPublished("festival", PageRequest.of(0, 5));
 
         assertThat(result).isSameAs(page);
-        verify(eventRepository).searchPublishedByStatusOrderByIdAsc(eq(EventStatus.PUBLISHED), eq("festival"), any(LocalDateTime.class), eq(PageRequest.of(0, 5)));
+        verify(eventRepository).search(isNull(), eq(List.of(EventStatus.PUBLISHED)), eq("UPCOMING"), eq("festival"), any(LocalDateTime.class), eq(PageRequest.of(0, 5)), eq(EventService.EventSummary.class));
     }
 
     @Test
     void getAllEndedSearchPaged_shouldDelegateToRepository() {
-        var page = new PageImpl<>(List.of(Event.builder().id(13L).build()), PageRequest.of(2, 7), 15);
-        when(eventRepository.searchEndedByStatusOrderByIdAsc(eq(EventStatus.PUBLISHED), eq("concert"), any(LocalDateTime.class), any()))
+        var page = new PageImpl<>(List.of(summary(13L)), PageRequest.of(2, 7), 15);
+        when(eventRepository.search(isNull(), eq(List.of(EventStatus.PUBLISHED)), eq("ENDED"), eq("concert"), any(LocalDateTime.class), any(), eq(EventService.EventSummary.class)))
                 .thenReturn(page);
 
         var result = eventService.getAllEnded("concert", PageRequest.of(2, 7));
 
         assertThat(result).isSameAs(page);
-        verify(eventRepository).searchEndedByStatusOrderByIdAsc(eq(EventStatus.PUBLISHED), eq("concert"), any(LocalDateTime.class), eq(PageRequest.of(2, 7)));
+        verify(eventRepository).search(isNull(), eq(List.of(EventStatus.PUBLISHED)), eq("ENDED"), eq("concert"), any(LocalDateTime.class), eq(PageRequest.of(2, 7)), eq(EventService.EventSummary.class));
     }
 
     @Test
     void getOverview_shouldDelegateToCountQueries() {
-        when(eventRepository.countSearchAllByStatusIn(eq(List.of(EventStatus.PENDING)), eq("music")))
+        when(eventRepository.countSearch(isNull(), eq(List.of(EventStatus.PENDING)), eq("ANY"), eq("music"), any(LocalDateTime.class)))
                 .thenReturn(4L);
-        when(eventRepository.countSearchPublishedByStatus(eq(EventStatus.PUBLISHED), eq("music"), any(LocalDateTime.class)))
+        when(eventRepository.countSearch(isNull(), eq(List.of(EventStatus.PUBLISHED)), eq("UPCOMING"), eq("music"), any(LocalDateTime.class)))
                 .thenReturn(7L);
-        when(eventRepository.countSearchEndedByStatus(eq(EventStatus.PUBLISHED), eq("music"), any(LocalDateTime.class)))
+        when(eventRepository.countSearch(isNull(), eq(List.of(EventStatus.PUBLISHED)), eq("ENDED"), eq("music"), any(LocalDateTime.class)))
                 .thenReturn(2L);
 
         var result = eventService.getOverview("music");
@@ -211,56 +233,56 @@ class EventServiceTests {
                 .publishedCount(7L)
                 .endedCount(2L)
                 .build());
-        verify(eventRepository).countSearchAllByStatusIn(eq(List.of(EventStatus.PENDING)), eq("music"));
-        verify(eventRepository).countSearchPublishedByStatus(eq(EventStatus.PUBLISHED), eq("music"), any(LocalDateTime.class));
-        verify(eventRepository).countSearchEndedByStatus(eq(EventStatus.PUBLISHED), eq("music"), any(LocalDateTime.class));
+        verify(eventRepository).countSearch(isNull(), eq(List.of(EventStatus.PENDING)), eq("ANY"), eq("music"), any(LocalDateTime.class));
+        verify(eventRepository).countSearch(isNull(), eq(List.of(EventStatus.PUBLISHED)), eq("UPCOMING"), eq("music"), any(LocalDateTime.class));
+        verify(eventRepository).countSearch(isNull(), eq(List.of(EventStatus.PUBLISHED)), eq("ENDED"), eq("music"), any(LocalDateTime.class));
     }
 
     @Test
     void getAllPendingByOrganizationIdSearchPaged_shouldDelegateToRepository() {
-        var page = new PageImpl<>(List.of(Event.builder().id(21L).build()), PageRequest.of(0, 10), 4);
-        when(eventRepository.searchAllByOrganizationIdAndStatusInOrderByIdAsc(eq(99L), eq(List.of(EventStatus.PENDING)), eq("draft"), any()))
+        var page = new PageImpl<>(List.of(summary(21L)), PageRequest.of(0, 10), 4);
+        when(eventRepository.search(eq(99L), eq(List.of(EventStatus.PENDING)), eq("ANY"), eq("draft"), any(LocalDateTime.class), any(), eq(EventService.EventSummary.class)))
                 .thenReturn(page);
 
         var result = eventService.getAllPendingByOrganizationId(99L, "draft", PageRequest.of(0, 10));
 
         assertThat(result).isSameAs(page);
-        verify(eventRepository).searchAllByOrganizationIdAndStatusInOrderByIdAsc(eq(99L), eq(List.of(EventStatus.PENDING)), eq("draft"), eq(PageRequest.of(0, 10)));
+        verify(eventRepository).search(eq(99L), eq(List.of(EventStatus.PENDING)), eq("ANY"), eq("draft"), any(LocalDateTime.class), eq(PageRequest.of(0, 10)), eq(EventService.EventSummary.class));
     }
 
     @Test
     void getAllPublishedByOrganizationIdSearchPaged_shouldDelegateToRepository() {
-        var page = new PageImpl<>(List.of(Event.builder().id(22L).build()), PageRequest.of(1, 5), 6);
-        when(eventRepository.searchPublishedByOrganizationIdOrderByIdAsc(eq(99L), eq(EventStatus.PUBLISHED), eq("festival"), any(LocalDateTime.class), any()))
+        var page = new PageImpl<>(List.of(summary(22L)), PageRequest.of(1, 5), 6);
+        when(eventRepository.search(eq(99L), eq(List.of(EventStatus.PUBLISHED)), eq("UPCOMING"), eq("festival"), any(LocalDateTime.class), any(), eq(EventService.EventSummary.class)))
                 .thenReturn(page);
 
         var result = eventService.getAllPublishedByOrganizationId(99L, "festival", PageRequest.of(1, 5));
 
         assertThat(result).isSameAs(page);
-        verify(eventRepository).searchPublishedByOrganizationIdOrderByIdAsc(eq(99L), eq(EventStatus.PUBLISHED), eq("festival"), any(LocalDateTime.class), eq(PageRequest.of(1, 5)));
+        verify(eventRepository).search(eq(99L), eq(List.of(EventStatus.PUBLISHED)), eq("UPCOMING"), eq("festival"), any(LocalDateTime.class), eq(PageRequest.of(1, 5)), eq(EventService.EventSummary.class));
     }
 
     @Test
     void getAllEndedByOrganizationIdSearchPaged_shouldDelegateToRepository() {
-        var page = new PageImpl<>(List.of(Event.builder().id(23L).build()), PageRequest.of(2, 7), 15);
-        when(eventRepository.searchEndedByOrganizationIdOrderByIdAsc(eq(99L), eq(EventStatus.PUBLISHED), eq("concert"), any(LocalDateTime.class), any()))
+        var page = new PageImpl<>(List.of(summary(23L)), PageRequest.of(2, 7), 15);
+        when(eventRepository.search(eq(99L), eq(List.of(EventStatus.PUBLISHED)), eq("ENDED"), eq("concert"), any(LocalDateTime.class), any(), eq(EventService.EventSummary.class)))
                 .thenReturn(page);
 
         var result = eventService.getAllEndedByOrganizationId(99L, "concert", PageRequest.of(2, 7));
 
         assertThat(result).isSameAs(page);
-        verify(eventRepository).searchEndedByOrganizationIdOrderByIdAsc(eq(99L), eq(EventStatus.PUBLISHED), eq("concert"), any(LocalDateTime.class), eq(PageRequest.of(2, 7)));
+        verify(eventRepository).search(eq(99L), eq(List.of(EventStatus.PUBLISHED)), eq("ENDED"), eq("concert"), any(LocalDateTime.class), eq(PageRequest.of(2, 7)), eq(EventService.EventSummary.class));
     }
 
     @Test
     void getOverviewByOrganizationId_shouldDelegateToCountQueries() {
-        when(eventRepository.countSearchAllByOrganizationIdAndStatusIn(eq(99L), eq(List.of(EventStatus.PENDING)), eq("music")))
+        when(eventRepository.countSearch(eq(99L), eq(List.of(EventStatus.PENDING)), eq("ANY"), eq("music"), any(LocalDateTime.class)))
                 .thenReturn(1L);
-        when(eventRepository.countSearchPublishedByOrganizationId(eq(99L), eq(EventStatus.PUBLISHED), eq("music"), any(LocalDateTime.class)))
+        when(eventRepository.countSearch(eq(99L), eq(List.of(EventStatus.PUBLISHED)), eq("UPCOMING"), eq("music"), any(LocalDateTime.class)))
                 .thenReturn(2L);
-        when(eventRepository.countSearchEndedByOrganizationId(eq(99L), eq(EventStatus.PUBLISHED), eq("music"), any(LocalDateTime.class)))
+        when(eventRepository.countSearch(eq(99L), eq(List.of(EventStatus.PUBLISHED)), eq("ENDED"), eq("music"), any(LocalDateTime.class)))
                 .thenReturn(3L);
-        when(eventRepository.countSearchDraftByOrganizationId(eq(99L), eq(EventStatus.DRAFT), eq("music")))
+        when(eventRepository.countSearch(eq(99L), eq(List.of(EventStatus.DRAFT)), eq("ANY"), eq("music"), any(LocalDateTime.class)))
                 .thenReturn(4L);
 
         var result = eventService.getOverviewByOrganizationId(99L, "music");
@@ -271,22 +293,51 @@ class EventServiceTests {
                 .endedCount(3L)
                 .draftCount(4L)
                 .build());
-        verify(eventRepository).countSearchAllByOrganizationIdAndStatusIn(eq(99L), eq(List.of(EventStatus.PENDING)), eq("music"));
-        verify(eventRepository).countSearchPublishedByOrganizationId(eq(99L), eq(EventStatus.PUBLISHED), eq("music"), any(LocalDateTime.class));
-        verify(eventRepository).countSearchEndedByOrganizationId(eq(99L), eq(EventStatus.PUBLISHED), eq("music"), any(LocalDateTime.class));
-        verify(eventRepository).countSearchDraftByOrganizationId(eq(99L), eq(EventStatus.DRAFT), eq("music"));
+        verify(eventRepository).countSearch(eq(99L), eq(List.of(EventStatus.PENDING)), eq("ANY"), eq("music"), any(LocalDateTime.class));
+        verify(eventRepository).countSearch(eq(99L), eq(List.of(EventStatus.PUBLISHED)), eq("UPCOMING"), eq("music"), any(LocalDateTime.class));
+        verify(eventRepository).countSearch(eq(99L), eq(List.of(EventStatus.PUBLISHED)), eq("ENDED"), eq("music"), any(LocalDateTime.class));
+        verify(eventRepository).countSearch(eq(99L), eq(List.of(EventStatus.DRAFT)), eq("ANY"), eq("music"), any(LocalDateTime.class));
     }
 
     @Test
     void getAllDraftByOrganizationIdSearchPaged_shouldDelegateToRepository() {
-        var page = new PageImpl<>(List.of(Event.builder().id(24L).build()), PageRequest.of(0, 3), 3);
-        when(eventRepository.searchDraftByOrganizationIdOrderByIdAsc(eq(99L), eq(EventStatus.DRAFT), eq("draft"), any()))
+        var page = new PageImpl<>(List.of(summary(24L)), PageRequest.of(0, 3), 3);
+        when(eventRepository.search(eq(99L), eq(List.of(EventStatus.DRAFT)), eq("ANY"), eq("draft"), any(LocalDateTime.class), any(), eq(EventService.EventSummary.class)))
                 .thenReturn(page);
 
         var result = eventService.getAllDraftByOrganizationId(99L, "draft", PageRequest.of(0, 3));
 
         assertThat(result).isSameAs(page);
-        verify(eventRepository).searchDraftByOrganizationIdOrderByIdAsc(eq(99L), eq(EventStatus.DRAFT), eq("draft"), eq(PageRequest.of(0, 3)));
+        verify(eventRepository).search(eq(99L), eq(List.of(EventStatus.DRAFT)), eq("ANY"), eq("draft"), any(LocalDateTime.class), eq(PageRequest.of(0, 3)), eq(EventService.EventSummary.class));
+    }
+
+    @Test
+    void getAllPendingByCursor_shouldSeekPastLastIdWithoutCounting() {
+        var slice = new SliceImpl<>(List.of(summary(41L), summary(42L)), PageRequest.of(0, 2), true);
+        when(eventRepository.searchAfter(isNull(), eq(List.of(EventStatus.PENDING)), eq("ANY"), eq("music"), any(LocalDateTime.class), eq(40L), eq(PageRequest.of(0, 2)), eq(EventService.EventSummary.class)))
+                .thenReturn(slice);
+
+        var result = eventService.getAllPending("music", CursorRequest.of(CursorRequest.encode(40L), 2, false));
+
+        assertThat(result.content()).extracting(EventService.EventSummary::getId).containsExactly(41L, 42L);
+        assertThat(result.next()).isEqualTo(CursorRequest.encode(42L));
+        assertThat(result.totalElements()).isNull();
+        verify(eventRepository, never()).countSearch(any(), anyList(), anyString(), any(), any());
+    }
+
+    @Test
+    void getAllDraftByOrganizationIdByCursor_shouldCountOnlyWhenAskedAndStopOnLastPage() {
+        var slice = new SliceImpl<>(List.of(summary(24L)), PageRequest.of(0, 3), false);
+        when(eventRepository.searchAfter(eq(99L), eq(List.of(EventStatus.DRAFT)), eq("ANY"), eq("draft"), any(LocalDateTime.class), eq(0L), eq(PageRequest.of(0, 3)), eq(EventService.EventSummary.class)))
+                .thenReturn(slice);
+        when(eventRepository.countSearch(eq(99L), eq(List.of(EventStatus.DRAFT)), eq("ANY"), eq("draft"), any(LocalDateTime.class)))
+                .thenReturn(1L);
+
+        var result = eventService.getAllDraftByOrganizationId(99L, "draft", CursorRequest.of("", 3, true));
+
+        assertThat(result.content()).extracting(EventService.EventSummary::getId).containsExactly(24L);
+        assertThat(result.next()).isNull();
+        assertThat(result.totalElements()).isEqualTo(1L);
     }
 
     @Test
@@ -311,6 +362,45 @@ class EventServiceTests {
         assertThat(result).containsExactly(event);
     }
 
+    @Test
+    void search_shouldFoldAccentsBeforeMatching() {
+        var event = Event.builder().id(12L).build();
+        when(eventRepository.searchEvents(eq("am nhac"), eq((List<Long>) null), eq(EventStatus.PUBLISHED), any(LocalDateTime.class)))
+                .thenReturn(List.of(event));
+
+        var result = eventService.search("  Âm Nhạc ", null, null);
+
+        assertThat(result).containsExactly(event);
+    }
+
+    @Test
+    void search_shouldKeepFullTextRankingWhenEnabled() {
+        var first = Event.builder().id(7L).build();
+        var second = Event.builder().id(3L).build();
+        when(eventSearchIndex.isFullTextEnabled()).thenReturn(true);
+        when(eventSearchIndex.search(eq("hoa nhac"), eq("Ha Noi"), eq(List.of(1L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(7L, 3L));
+        when(eventRepository.findAllById(List.of(7L, 3L))).thenReturn(List.of(second, first));
+
+        var result = eventService.search("hoa nhac", "Ha Noi", List.of(1L));
+
+        assertThat(result).containsExactly(first, second);
+        verify(eventRepository, never()).searchEvents(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void search_shouldAnswerFromDiscoveryIndexWhenReady() {
+        var event = Event.builder().id(5L).build();
+        when(eventDiscoveryIndex.isReady()).thenReturn(true);
+        when(eventDiscoveryIndex.search(eq("hoa nhac"), eq("Ha Noi"), eq(List.of(1L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(event));
+
+        var result = eventService.search("hoa nhac", "Ha Noi", List.of(1L));
+
+        assertThat(result).containsExactly(event);
+        verifyNoInteractions(eventRepository, eventSearchIndex);
+    }
+
     @Test
     void create_shouldPersistPendingEventWithShowsAndAssets() throws Exception {
         var dto = sampleCreateEventDto();
@@ -344,6 +434,27 @@ class EventServiceTests {
         assertThat(saved.getShows().get(0).getTickets()).hasSize(1);
     }
 
+    @Test
+    void create_shouldStoreSeatmapsOutsideTheShow() throws Exception {
+        var dto = sampleCreateEventDto();
+        var showDto = dto.getShowInputs().get(0);
+        showDto.setEnabledSeatmap(true);
+        showDto.setSeatmap("{\"blocks\":[]}");
+        showDto.setSeatmapSvg("<svg/>");
+
+        when(organizationRepository.findByIdAndUserOrganizationsUserIdAndUserOrganizationsRoleIs(9L, 42L, OrganizationRole.OWNER))
+                .thenReturn(Optional.of(sampleOrganization(42L)));
+        when(keywordRepository.findById(anyString())).thenReturn(Optional.empty());
+        when(keywordRepository.save(any(Keyword.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(cloudinaryService.uploadByBase64(anyString(), anyString())).thenReturn(sampleUploadResult("asset"));
+
+        eventService.create(42L, dto);
+
+        var captor = ArgumentCaptor.forClass(Event.class);
+        verify(eventRepository).save(captor.capture());
+        verify(seatmapService).attach(captor.getValue().getShows().get(0), "{\"blocks\":[]}", "<svg/>");
+    }
+
     @Test
     void create_shouldRejectMissingOrganization() {
         when(organizationRepository.findByIdAndUserOrganizationsUserIdAndUserOrganizationsRoleIs(9L, 42L, OrganizationRole.OWNER))
@@ -406,6 +517,8 @@ class EventServiceTests {
         assertThat(event.getStatus()).isEqualTo(EventStatus.PUBLISHED);
         assertThat(event.getPublishedAt()).isNotNull();
         verify(eventRepository).save(event);
+        verify(eventDiscoveryIndex).refreshAfterCommit(7L);
+        verify(eventDiscoveryFeed).invalidateAfterCommit();
         verify(notificationJobService).enqueueEventPublished(7L);
     }
 
@@ -500,8 +613,7 @@ class EventServiceTests {
         var show = EventShow.builder().id(9L).tickets(new java.util.ArrayList<>(List.of(ticket))).build();
         var event = Event.builder().id(7L).shows(new java.util.ArrayList<>(List.of(show))).build();
         when(eventRepository.findByIdAndStatusIsNot(7L, EventStatus.ARCHIVED)).thenReturn(Optional.of(event));
-        when(ticketItemRepository.countAllByTicketIdAndOrderStatusInAndOrderExpiredAtIsAfter(eq(88L), anyList(), any(LocalDateTime.class)))
-                .thenReturn(3L);
+        when(reservationCountService.getHeldCountsByEventId(7L)).thenReturn(java.util.Map.of(88L, 3L));
 
         var result = eventService.getWithRealStockByIdAndStatusIsNot(7L, EventStatus.ARCHIVED);
 
@@ -738,4 +850,8 @@ class EventServiceTests {
         uploadResult.put("etag", suffix + "-etag");
         return uploadResult;
     }
+
+    private static EventService.EventSummary summary(Long id) {
+        return new SpelAwareProxyProjectionFactory().createProjection(EventService.EventSummary.class, Event.builder().id(id).build());
+    }
 }
@@ -46,6 +46,24 @@ class VoucherRepositoryTests {
         assertThat(byId.getTotalElements()).isEqualTo(1);
     }
 
+    @Test
+    void searchAllByEventIdAfter_shouldSeekPastLastIdAndCountSeparately() {
+        var event = persistEvent();
+        var first = persistVoucher(event, "SALE1", "Sale one");
+        var second = persistVoucher(event, "SALE2", "Sale two");
+        var third = persistVoucher(event, "SALE3", "Sale three");
+
+        var firstPage = voucherRepository.searchAllByEventIdAfter(event.getId(), "sale", 0L, PageRequest.of(0, 2));
+        assertThat(firstPage.getContent()).extracting(Voucher::getId).containsExactly(first.getId(), second.getId());
+        assertThat(firstPage.hasNext()).isTrue();
+
+        var secondPage = voucherRepository.searchAllByEventIdAfter(event.getId(), "sale", second.getId(), PageRequest.of(0, 2));
+        assertThat(secondPage.getContent()).extracting(Voucher::getId).containsExactly(third.getId());
+        assertThat(secondPage.hasNext()).isFalse();
+
+        assertThat(voucherRepository.countSearchAllByEventId(event.getId(), "sale")).isEqualTo(3);
+    }
+
     private Event persistEvent() {
         var organization = entityManager.persistAndFlush(Organization.builder()
                 .name("Org")
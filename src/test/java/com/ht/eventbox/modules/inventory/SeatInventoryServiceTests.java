@@ -0,0 +1,253 @@
+package com.ht.eventbox.modules.inventory;
+
+import com.ht.eventbox.entities.Event;
+import com.ht.eventbox.entities.EventShow;
+import com.ht.eventbox.entities.Ticket;
+import com.ht.eventbox.entities.TicketItem;
+import com.ht.eventbox.enums.OrderStatus;
+import com.ht.eventbox.modules.backgroundjobs.SocketJobService;
+import com.ht.eventbox.modules.order.TicketItemRepository;
+import com.ht.eventbox.modules.redis.RedisService;
+import com.ht.eventbox.modules.ticket.TicketRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SeatInventoryServiceTests {
+
+    @Mock
+    private RedisService redisService;
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private TicketItemRepository ticketItemRepository;
+
+    @Mock
+    private SocketJobService socketJobService;
+
+    @InjectMocks
+    private SeatInventoryService seatInventoryService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void hold_shouldPassSortedSeatsOfEveryBlockToScript() {
+        var ticket = seatmapTicket(100L, 10);
+        var other = seatmapTicket(101L, 10);
+
+        when(redisService.executeScript(
+                any(RedisScript.class),
+                eq(List.of("seat_state:{ticket_id:100}", "seat_state:{ticket_id:100}:holders")),
+                eq("3600"), eq("86400"), anyString(), eq("500"), eq("3,4")))
+                .thenReturn(1L);
+        when(redisService.executeScript(
+                any(RedisScript.class),
+                eq(List.of("seat_state:{ticket_id:101}", "seat_state:{ticket_id:101}:holders")),
+                eq("3600"), eq("86400"), anyString(), eq("500"), eq("0")))
+                .thenReturn(1L);
+
+        var held = seatInventoryService.hold(500L, List.of(item(ticket, 4), item(ticket, 3), item(other, 0)));
+
+        assertThat(held).isTrue();
+        verify(redisService).setHash("seat_hold:order_id:500", Map.of("7:200:100", "3,4", "7:200:101", "0"), 3600L);
+        verify(socketJobService).broadcastSeatsUpdated(7L, 200L, 100L, List.of(3, 4), "held");
+        verify(socketJobService).broadcastSeatsUpdated(7L, 200L, 101L, List.of(0), "held");
+        verifyNoInteractions(ticketItemRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void hold_shouldReleaseHeldBlocksWhenSeatOfLaterBlockIsTaken() {
+        var ticket = seatmapTicket(100L, 10);
+        var other = seatmapTicket(101L, 10);
+
+        when(redisService.executeScript(
+                any(RedisScript.class),
+                eq(List.of("seat_state:{ticket_id:100}", "seat_state:{ticket_id:100}:holders")),
+                eq("3600"), eq("86400"), anyString(), eq("500"), eq("3")))
+                .thenReturn(1L);
+        when(redisService.executeScript(
+                any(RedisScript.class),
+                eq(List.of("seat_state:{ticket_id:101}", "seat_state:{ticket_id:101}:holders")),
+                eq("3600"), eq("86400"), anyString(), eq("500"), eq("0")))
+                .thenReturn(0L);
+
+        var held = seatInventoryService.hold(500L, List.of(item(ticket, 3), item(other, 0)));
+
+        assertThat(held).isFalse();
+        verify(redisService).executeScript(
+                any(RedisScript.class),
+                eq(List.of("seat_state:{ticket_id:100}", "seat_state:{ticket_id:100}:holders")),
+                eq("500"), eq("3"));
+        verify(redisService, never()).setHash(anyString(), anyMap(), anyLong());
+        verifyNoInteractions(socketJobService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void hold_shouldSeedMissingBlockFromLedgerAndRetry() {
+        var ticket = seatmapTicket(100L, 10);
+
+        when(redisService.executeScript(any(RedisScript.class), anyList(), any(String[].class)))
+                .thenReturn(-1L)
+                .thenReturn(1L)
+                .thenReturn(0L);
+        when(redisService.getTTLInSeconds("seat_state:{ticket_id:100}")).thenReturn(-2L);
+        when(ticketItemRepository.findTakenSeatsByTicketId(eq(100L), eq(OrderStatus.FULFILLED), anyList(), any()))
+                .thenReturn(List.of(
+                        takenSeat(1, OrderStatus.PENDING, 501L, LocalDateTime.of(2026, 5, 16, 0, 15)),
+                        takenSeat(2, OrderStatus.FULFILLED, 502L, LocalDateTime.of(2026, 5, 15, 0, 0))));
+
+        var held = seatInventoryService.hold(500L, List.of(item(ticket, 3)));
+
+        assertThat(held).isFalse();
+        verify(redisService).executeScript(
+                any(RedisScript.class),
+                eq(List.of("seat_state:{ticket_id:100}", "seat_state:{ticket_id:100}:holders")),
+                eq("86400"), eq("10"),
+                eq("1:501:" + LocalDateTime.of(2026, 5, 16, 0, 15).atZone(ZoneId.systemDefault()).toEpochSecond()),
+                eq("2"));
+        verifyNoInteractions(socketJobService);
+    }
+
+    @Test
+    void hold_shouldIgnoreItemsWithoutSeat() {
+        var held = seatInventoryService.hold(500L, List.of(item(seatmapTicket(100L, 10), null)));
+
+        assertThat(held).isTrue();
+        verifyNoInteractions(redisService, socketJobService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void release_shouldPublishFreedSeats() {
+        when(redisService.getHash("seat_hold:order_id:500")).thenReturn(Map.of("7:200:100", "3,4,5"));
+        when(redisService.executeScript(
+                any(RedisScript.class),
+                eq(List.of("seat_state:{ticket_id:100}", "seat_state:{ticket_id:100}:holders")),
+                eq("500"),
+                eq("3,4,5")))
+                .thenReturn("3,4");
+
+        seatInventoryService.release(500L);
+
+        verify(redisService).deleteValue("seat_hold:order_id:500");
+        verify(socketJobService).broadcastSeatsUpdated(7L, 200L, 100L, List.of(3, 4), "free");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sellAfterCommit_shouldMarkSeatsSold() {
+        var ticket = seatmapTicket(100L, 10);
+
+        seatInventoryService.sellAfterCommit(500L, List.of(item(ticket, 5)));
+
+        verify(redisService).executeScript(
+                any(RedisScript.class),
+                eq(List.of("seat_state:{ticket_id:100}", "seat_state:{ticket_id:100}:holders")),
+                eq("5"));
+        verify(redisService).deleteValue("seat_hold:order_id:500");
+        verify(socketJobService).broadcastSeatsUpdated(7L, 200L, 100L, List.of(5), "sold");
+    }
+
+    @Test
+    void getSeatStates_shouldSkipWhenDisabled() {
+        assertThat(seatInventoryService.getSeatStates(200L)).isEmpty();
+
+        verifyNoInteractions(ticketRepository, redisService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getSeatStates_shouldEncodeSeededBlocks() {
+        ReflectionTestUtils.setField(seatInventoryService, "enabled", true);
+        var bitfield = new byte[]{0b0100_0010};
+
+        when(ticketRepository.findAllByEventShowIdOrderByIdAsc(200L)).thenReturn(List.of(seatmapTicket(100L, 4)));
+        when(redisService.getTTLInSeconds("seat_state:{ticket_id:100}")).thenReturn(86000L);
+        when(redisService.executeScript(any(RedisScript.class), eq(List.of("seat_state:{ticket_id:100}", "seat_state:{ticket_id:100}:holders")), anyString()))
+                .thenReturn("");
+        when(redisService.getRawValue("seat_state:{ticket_id:100}")).thenReturn(bitfield);
+
+        var states = seatInventoryService.getSeatStates(200L);
+
+        assertThat(states).containsEntry(100L, Base64.getEncoder().encodeToString(bitfield));
+        verify(redisService, times(1)).getRawValue(any());
+        verifyNoInteractions(socketJobService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getSeatStates_shouldFreeExpiredHoldsBeforeReading() {
+        ReflectionTestUtils.setField(seatInventoryService, "enabled", true);
+
+        when(ticketRepository.findAllByEventShowIdOrderByIdAsc(200L)).thenReturn(List.of(seatmapTicket(100L, 4)));
+        when(redisService.getTTLInSeconds("seat_state:{ticket_id:100}")).thenReturn(86000L);
+        when(redisService.executeScript(any(RedisScript.class), eq(List.of("seat_state:{ticket_id:100}", "seat_state:{ticket_id:100}:holders")), anyString()))
+                .thenReturn("1,3");
+        when(redisService.getRawValue("seat_state:{ticket_id:100}")).thenReturn(new byte[1]);
+
+        seatInventoryService.getSeatStates(200L);
+
+        verify(socketJobService).broadcastSeatsUpdated(7L, 200L, 100L, List.of(1, 3), "free");
+    }
+
+    private Ticket seatmapTicket(Long id, int seats) {
+        var event = Event.builder().id(7L).build();
+        var show = EventShow.builder().id(200L).event(event).enabledSeatmap(true).build();
+        return Ticket.builder().id(id).initialStock(seats).eventShow(show).build();
+    }
+
+    private TicketItem item(Ticket ticket, Integer seat) {
+        return TicketItem.builder().ticket(ticket).seatIndex(seat).build();
+    }
+
+    private SeatInventoryService.TakenSeatView takenSeat(int seat, OrderStatus status, Long orderId, LocalDateTime expiredAt) {
+        return new SeatInventoryService.TakenSeatView() {
+            @Override
+            public Integer getSeatIndex() {
+                return seat;
+            }
+
+            @Override
+            public OrderStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public Long getOrderId() {
+                return orderId;
+            }
+
+            @Override
+            public LocalDateTime getExpiredAt() {
+                return expiredAt;
+            }
+        };
+    }
+}
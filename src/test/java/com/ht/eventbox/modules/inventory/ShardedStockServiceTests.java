@@ -0,0 +1,119 @@
+package com.ht.eventbox.modules.inventory;
+
+import com.ht.eventbox.entities.Ticket;
+import com.ht.eventbox.entities.TicketStockShard;
+import com.ht.eventbox.modules.ticket.TicketRepository;
+import com.ht.eventbox.modules.ticket.TicketStockShardRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.intThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ShardedStockServiceTests {
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private TicketStockShardRepository ticketStockShardRepository;
+
+    @InjectMocks
+    private ShardedStockService shardedStockService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void setShards_shouldSplitStockEvenly() {
+        var ticket = Ticket.builder().id(100L).stock(10).build();
+        when(ticketRepository.findAllByIdWithLocked(List.of(100L))).thenReturn(List.of(ticket));
+        when(ticketRepository.save(ticket)).thenReturn(ticket);
+
+        var result = shardedStockService.setShards(100L, 3);
+
+        ArgumentCaptor<List<TicketStockShard>> captor = ArgumentCaptor.forClass(List.class);
+        verify(ticketStockShardRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(TicketStockShard::getStock).containsExactly(4, 3, 3);
+        assertThat(result.getStockShards()).isEqualTo(3);
+        assertThat(result.getStock()).isEqualTo(10);
+    }
+
+    @Test
+    void setShards_shouldFoldShardsBackIntoTicket() {
+        var ticket = Ticket.builder().id(100L).stock(10).stockShards(2).build();
+        var shards = List.of(
+                TicketStockShard.builder().shardIndex(0).stock(1).build(),
+                TicketStockShard.builder().shardIndex(1).stock(3).build());
+        when(ticketRepository.findAllByIdWithLocked(List.of(100L))).thenReturn(List.of(ticket));
+        when(ticketStockShardRepository.findAllByTicketIdWithLocked(100L)).thenReturn(shards);
+        when(ticketRepository.save(ticket)).thenReturn(ticket);
+
+        var result = shardedStockService.setShards(100L, 0);
+
+        verify(ticketStockShardRepository).deleteAll(shards);
+        assertThat(result.getStock()).isEqualTo(4);
+        assertThat(result.getStockShards()).isZero();
+    }
+
+    @Test
+    void take_shouldStopAtFirstShardWithEnoughStock() {
+        var ticket = Ticket.builder().id(100L).stockShards(4).build();
+        when(ticketStockShardRepository.decrementIfAvailable(eq(100L), anyInt(), eq(2))).thenReturn(0, 1);
+
+        var taken = shardedStockService.take(ticket, 2);
+
+        assertThat(taken).isTrue();
+        verify(ticketStockShardRepository, never()).findAllByTicketIdWithLocked(100L);
+    }
+
+    @Test
+    void take_shouldDrainAcrossShardsWhenNoneIsEnoughAlone() {
+        var ticket = Ticket.builder().id(100L).stockShards(2).build();
+        var shards = List.of(
+                TicketStockShard.builder().shardIndex(0).stock(1).build(),
+                TicketStockShard.builder().shardIndex(1).stock(2).build());
+        when(ticketStockShardRepository.decrementIfAvailable(eq(100L), anyInt(), eq(3))).thenReturn(0);
+        when(ticketStockShardRepository.findAllByTicketIdWithLocked(100L)).thenReturn(shards);
+
+        var taken = shardedStockService.take(ticket, 3);
+
+        assertThat(taken).isTrue();
+        assertThat(shards).extracting(TicketStockShard::getStock).containsExactly(0, 0);
+        verify(ticketStockShardRepository).saveAll(shards);
+    }
+
+    @Test
+    void take_shouldTakeNothingWhenAllShardsTogetherAreShort() {
+        var ticket = Ticket.builder().id(100L).stockShards(2).build();
+        when(ticketStockShardRepository.decrementIfAvailable(eq(100L), anyInt(), eq(5))).thenReturn(0);
+        when(ticketStockShardRepository.findAllByTicketIdWithLocked(100L)).thenReturn(List.of(
+                TicketStockShard.builder().shardIndex(0).stock(1).build(),
+                TicketStockShard.builder().shardIndex(1).stock(2).build()));
+
+        var taken = shardedStockService.take(ticket, 5);
+
+        assertThat(taken).isFalse();
+        verify(ticketStockShardRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void giveBack_shouldIncrementOneShard() {
+        var ticket = Ticket.builder().id(100L).stockShards(4).build();
+
+        shardedStockService.giveBack(ticket, 3);
+
+        verify(ticketStockShardRepository).increment(eq(100L), intThat(index -> index >= 0 && index < 4), eq(3));
+    }
+}
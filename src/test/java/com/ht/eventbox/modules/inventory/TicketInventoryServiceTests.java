@@ -0,0 +1,304 @@
+package com.ht.eventbox.modules.inventory;
+
+import com.ht.eventbox.entities.Ticket;
+import com.ht.eventbox.modules.order.TicketItemRepository;
+import com.ht.eventbox.modules.redis.RedisService;
+import com.ht.eventbox.modules.ticket.TicketRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TicketInventoryServiceTests {
+
+    @Mock
+    private RedisService redisService;
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private TicketItemRepository ticketItemRepository;
+
+    @Mock
+    private ShardedStockService shardedStockService;
+
+    @InjectMocks
+    private TicketInventoryService ticketInventoryService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reserve_shouldHoldEveryTicketWithKeysOfTheSameHashTag() {
+        var quantities = new LinkedHashMap<Long, Integer>();
+        quantities.put(100L, 2);
+        quantities.put(101L, 1);
+
+        when(redisService.executeScript(
+                any(RedisScript.class),
+                eq(List.of("ticket_hold:{ticket_id:100}", "ticket_inventory:{ticket_id:100}")),
+                eq("500"), eq("2"), anyString(), eq("3600")))
+                .thenReturn(1L);
+        when(redisService.executeScript(
+                any(RedisScript.class),
+                eq(List.of("ticket_hold:{ticket_id:101}", "ticket_inventory:{ticket_id:101}")),
+                eq("500"), eq("1"), anyString(), eq("3600")))
+                .thenReturn(1L);
+
+        var result = ticketInventoryService.reserve(500L, quantities, List.of(
+                Ticket.builder().id(100L).build(),
+                Ticket.builder().id(101L).build()));
+
+        assertThat(result).isEqualTo(TicketInventoryService.ReserveResult.RESERVED);
+        verify(redisService).setValue("ticket_hold:order_id:500", "100:0,101:0", 3600L);
+        verifyNoInteractions(ticketRepository);
+    }
+
+    @Test
+    void reserve_shouldReleaseHeldTicketsWhenLaterTicketRunsOut() {
+        var redis = new InMemoryInventory(Map.of(100L, 5L, 101L, 0L));
+        var quantities = new LinkedHashMap<Long, Integer>();
+        quantities.put(100L, 2);
+        quantities.put(101L, 1);
+
+        var result = ticketInventoryService.reserve(500L, quantities, List.of(
+                Ticket.builder().id(100L).build(),
+                Ticket.builder().id(101L).build()));
+
+        assertThat(result).isEqualTo(TicketInventoryService.ReserveResult.OUT_OF_STOCK);
+        assertThat(redis.counters).containsEntry(100L, 5L).containsEntry(101L, 0L);
+        assertThat(redis.holds.get(100L)).isEmpty();
+        assertThat(redis.orders).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reserve_shouldSeedMissingCountersFromLedgerAndRetry() {
+        var ticket = Ticket.builder().id(100L).stock(10).build();
+
+        when(redisService.executeScript(any(RedisScript.class), anyList(), any(String[].class)))
+                .thenReturn(-1L)
+                .thenReturn(0L);
+        when(shardedStockService.getStock(ticket)).thenReturn(10);
+        when(ticketItemRepository.countAllByTicketIdAndOrderStatusInAndOrderExpiredAtIsAfter(
+                eq(100L), anyList(), any())).thenReturn(4L);
+
+        var result = ticketInventoryService.reserve(500L, Map.of(100L, 7), List.of(ticket));
+
+        assertThat(result).isEqualTo(TicketInventoryService.ReserveResult.OUT_OF_STOCK);
+        verify(redisService).setValueIfAbsent(eq("ticket_inventory:{ticket_id:100}"), eq("6"), anyLong());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reserve_shouldSpreadShardedTicketOverShardCounters() {
+        var ticket = Ticket.builder().id(100L).stock(10).stockShards(3).build();
+
+        when(redisService.executeScript(any(RedisScript.class), anyList(), any(String[].class)))
+                .thenReturn(-1L)
+                .thenReturn(1L);
+        when(shardedStockService.getStock(ticket)).thenReturn(10);
+        when(ticketItemRepository.countAllByTicketIdAndOrderStatusInAndOrderExpiredAtIsAfter(
+                eq(100L), anyList(), any())).thenReturn(0L);
+
+        var result = ticketInventoryService.reserve(500L, Map.of(100L, 2), List.of(ticket));
+
+        assertThat(result).isEqualTo(TicketInventoryService.ReserveResult.RESERVED);
+        verify(redisService).setValueIfAbsent(eq("ticket_inventory:{ticket_id:100}:shard:0"), eq("4"), anyLong());
+        verify(redisService).setValueIfAbsent(eq("ticket_inventory:{ticket_id:100}:shard:1"), eq("3"), anyLong());
+        verify(redisService).setValueIfAbsent(eq("ticket_inventory:{ticket_id:100}:shard:2"), eq("3"), anyLong());
+        verify(redisService, org.mockito.Mockito.times(2)).executeScript(
+                any(RedisScript.class),
+                argThat(keys -> keys.size() == 4
+                        && keys.get(0).equals("ticket_hold:{ticket_id:100}")
+                        && keys.contains("ticket_inventory:{ticket_id:100}:shard:2")),
+                eq("500"), eq("2"), anyString(), eq("3600"));
+        verify(redisService).setValue("ticket_hold:order_id:500", "100:3", 3600L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void release_shouldRestoreEveryHeldTicketThroughScript() {
+        when(redisService.getValue("ticket_hold:order_id:500")).thenReturn("100:0,101:2");
+        when(redisService.executeScript(
+                any(RedisScript.class),
+                eq(List.of("ticket_hold:{ticket_id:100}", "ticket_inventory:{ticket_id:100}")),
+                eq("500")))
+                .thenReturn(1L);
+        when(redisService.executeScript(
+                any(RedisScript.class),
+                argThat(keys -> keys.size() == 3
+                        && keys.get(0).equals("ticket_hold:{ticket_id:101}")
+                        && keys.contains("ticket_inventory:{ticket_id:101}:shard:1")),
+                eq("500")))
+                .thenReturn(1L);
+
+        assertThat(ticketInventoryService.release(500L)).isTrue();
+        verify(redisService).deleteValue("ticket_hold:order_id:500");
+    }
+
+    @Test
+    void consume_shouldDropHoldWithoutRestoringStock() {
+        when(redisService.getValue("ticket_hold:order_id:500")).thenReturn("100:0");
+
+        ticketInventoryService.consume(500L);
+
+        verify(redisService).deleteHashFields("ticket_hold:{ticket_id:100}", "500");
+        verify(redisService).deleteValue("ticket_hold:order_id:500");
+    }
+
+    @Test
+    void reconcile_shouldSkipWhenDisabled() {
+        assertThat(ticketInventoryService.reconcile()).isZero();
+
+        verifyNoInteractions(ticketRepository, redisService);
+    }
+
+    @Test
+    void reconcile_shouldGiveBackUnitsOfExpiredHolds() {
+        var redis = new InMemoryInventory(Map.of(100L, 8L));
+        redis.holds.get(100L).put("500", "2:" + (Instant.now().getEpochSecond() - 1));
+        var ticket = Ticket.builder().id(100L).stock(10).build();
+        when(ticketRepository.findAllByEventShowSaleStartTimeBeforeAndEventShowSaleEndTimeAfter(any(), any()))
+                .thenReturn(List.of(ticket));
+        when(ticketRepository.findStockById(100L)).thenReturn(10);
+
+        assertThat(ticketInventoryService.reconcile()).isEqualTo(1);
+        assertThat(redis.counters).containsEntry(100L, 10L);
+        assertThat(redis.holds.get(100L)).isEmpty();
+    }
+
+    @Test
+    void reconcile_shouldKeepUnitsOfReservationMadeWhileReadingStock() {
+        var redis = new InMemoryInventory(Map.of(100L, 10L));
+        var ticket = Ticket.builder().id(100L).stock(10).build();
+        when(ticketRepository.findAllByEventShowSaleStartTimeBeforeAndEventShowSaleEndTimeAfter(any(), any()))
+                .thenReturn(List.of(ticket));
+        // Đơn hàng giữ vé trong Redis nhưng chưa được commit vào Postgres
+        when(ticketRepository.findStockById(100L)).thenAnswer(invocation -> {
+            ticketInventoryService.reserve(500L, Map.of(100L, 2), List.of(ticket));
+            return 10;
+        });
+
+        assertThat(ticketInventoryService.reconcile()).isZero();
+        assertThat(redis.counters).containsEntry(100L, 8L);
+        assertThat(redis.holds.get(100L)).containsKey("500");
+    }
+
+    @Test
+    void reconcile_shouldSkipTicketWhoseHoldIsConsumedWhileReadingStock() {
+        var redis = new InMemoryInventory(Map.of(100L, 8L));
+        redis.holds.get(100L).put("500", "2:" + (Instant.now().getEpochSecond() + 60));
+        redis.orders.put("ticket_hold:order_id:500", "100:0");
+        var ticket = Ticket.builder().id(100L).stock(10).build();
+        when(ticketRepository.findAllByEventShowSaleStartTimeBeforeAndEventShowSaleEndTimeAfter(any(), any()))
+                .thenReturn(List.of(ticket));
+        // Stock được đọc trước khi đơn hàng commit, hold được consume ngay sau đó
+        when(ticketRepository.findStockById(100L)).thenAnswer(invocation -> {
+            ticketInventoryService.consume(500L);
+            return 10;
+        });
+
+        assertThat(ticketInventoryService.reconcile()).isZero();
+        assertThat(redis.counters).containsEntry(100L, 8L);
+    }
+
+    /*
+     * Mô phỏng trạng thái Redis của các loại vé không chia shard, cùng ngữ nghĩa với các script
+     * reserve, release và reconcile.
+     */
+    private class InMemoryInventory {
+        final Map<Long, Long> counters = new HashMap<>();
+        final Map<Long, Map<String, String>> holds = new HashMap<>();
+        final Map<String, String> orders = new HashMap<>();
+
+        @SuppressWarnings("unchecked")
+        InMemoryInventory(Map<Long, Long> initialCounters) {
+            counters.putAll(initialCounters);
+            initialCounters.keySet().forEach(ticketId -> holds.put(ticketId, new HashMap<>()));
+            ReflectionTestUtils.setField(ticketInventoryService, "enabled", true);
+            var reserveScript = ReflectionTestUtils.getField(TicketInventoryService.class, "RESERVE_SCRIPT");
+            var releaseScript = ReflectionTestUtils.getField(TicketInventoryService.class, "RELEASE_SCRIPT");
+            var heldTotalScript = ReflectionTestUtils.getField(TicketInventoryService.class, "HELD_TOTAL_SCRIPT");
+
+            lenient().doAnswer(invocation -> orders.put(invocation.getArgument(0), invocation.getArgument(1)))
+                    .when(redisService).setValue(anyString(), anyString(), anyLong());
+            lenient().when(redisService.getValue(anyString()))
+                    .thenAnswer(invocation -> orders.get(invocation.<String>getArgument(0)));
+            lenient().when(redisService.deleteValue(anyString()))
+                    .thenAnswer(invocation -> orders.remove(invocation.<String>getArgument(0)) != null);
+            lenient().when(redisService.deleteHashFields(anyString(), any(String[].class)))
+                    .thenAnswer(invocation -> holds.get(ticketId(invocation.getArgument(0)))
+                            .remove(invocation.<String>getArgument(1)) != null ? 1L : 0L);
+            lenient().when(redisService.executeScript(any(RedisScript.class), anyList(), any(String[].class)))
+                    .thenAnswer(invocation -> {
+                        var script = invocation.getArgument(0);
+                        List<String> keys = invocation.getArgument(1);
+                        var ticketId = ticketId(keys.get(0));
+                        var ticketHolds = holds.get(ticketId);
+                        var counter = counters.get(ticketId);
+                        if (script == reserveScript) {
+                            var quantity = Long.parseLong(invocation.getArgument(3));
+                            if (counter < quantity) {
+                                return 0L;
+                            }
+                            counters.put(ticketId, counter - quantity);
+                            ticketHolds.put(invocation.getArgument(2), quantity + ":" + invocation.getArgument(4));
+                            return 1L;
+                        }
+                        if (script == releaseScript) {
+                            var hold = ticketHolds.remove(invocation.<String>getArgument(2));
+                            if (hold == null) {
+                                return 0L;
+                            }
+                            counters.put(ticketId, counter + Long.parseLong(hold.split(":")[0]));
+                            return 1L;
+                        }
+
+                        var now = Long.parseLong(invocation.getArgument(2));
+                        ticketHolds.values().removeIf(hold -> Long.parseLong(hold.split(":")[1]) <= now);
+                        var held = ticketHolds.values().stream()
+                                .mapToLong(hold -> Long.parseLong(hold.split(":")[0]))
+                                .sum();
+                        if (script == heldTotalScript) {
+                            return counter + held;
+                        }
+
+                        if (counter + held != Long.parseLong(invocation.getArgument(3))) {
+                            return 0L;
+                        }
+                        var value = Math.max(0, Long.parseLong(invocation.getArgument(4)) - held);
+                        if (value == counter) {
+                            return 0L;
+                        }
+                        counters.put(ticketId, value);
+                        return 1L;
+                    });
+        }
+
+        private long ticketId(String key) {
+            return Long.parseLong(key.substring(key.indexOf("{ticket_id:") + 11, key.indexOf('}')));
+        }
+    }
+}
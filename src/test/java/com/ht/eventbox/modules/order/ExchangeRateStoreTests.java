@@ -0,0 +1,107 @@
+package com.ht.eventbox.modules.order;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExchangeRateStoreTests {
+
+    @Mock
+    private ExchangeRateProvider exchangeRateProvider;
+
+    @InjectMocks
+    private ExchangeRateStore exchangeRateStore;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(exchangeRateStore, "maxStalenessMinutes", 360L);
+    }
+
+    @Test
+    void getVndRate_shouldServeRefreshedRateFromMemory() {
+        when(exchangeRateProvider.fetchVndRate("usd")).thenReturn(26000.0);
+        when(exchangeRateProvider.fetchVndRate("sgd")).thenReturn(19500.0);
+
+        exchangeRateStore.refreshAll();
+
+        assertThat(exchangeRateStore.getVndRate("usd")).isEqualTo(26000.0);
+        assertThat(exchangeRateStore.getVndRate("usd")).isEqualTo(26000.0);
+        assertThat(exchangeRateStore.getVndRate("sgd")).isEqualTo(19500.0);
+        verify(exchangeRateProvider, times(1)).fetchVndRate("usd");
+    }
+
+    @Test
+    void refreshAll_shouldKeepLastKnownGoodRateWhenProviderFails() {
+        when(exchangeRateProvider.fetchVndRate("usd"))
+                .thenReturn(26000.0)
+                .thenThrow(new RuntimeException("cdn down"));
+        when(exchangeRateProvider.fetchVndRate("sgd")).thenReturn(19500.0);
+
+        exchangeRateStore.refreshAll();
+        exchangeRateStore.refreshAll();
+
+        assertThat(exchangeRateStore.getVndRate("usd")).isEqualTo(26000.0);
+    }
+
+    @Test
+    void getVndRate_shouldFallBackToLastKnownRateWhenStaleRefreshFails() {
+        when(exchangeRateProvider.fetchVndRate("usd"))
+                .thenReturn(26000.0)
+                .thenThrow(new RuntimeException("cdn down"));
+
+        assertThat(exchangeRateStore.getVndRate("usd")).isEqualTo(26000.0);
+        ReflectionTestUtils.setField(exchangeRateStore, "maxStalenessMinutes", -1L);
+
+        assertThat(exchangeRateStore.getVndRate("usd")).isEqualTo(26000.0);
+        verify(exchangeRateProvider, times(2)).fetchVndRate("usd");
+    }
+
+    @Test
+    void getVndRate_shouldFailWhenRateWasNeverFetched() {
+        when(exchangeRateProvider.fetchVndRate("usd")).thenThrow(new RuntimeException("cdn down"));
+
+        assertThatThrownBy(() -> exchangeRateStore.getVndRate("usd"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("cdn down");
+    }
+
+    @Test
+    void getVndRate_shouldServeStaleRateWhileAnotherReadRefreshesIt() throws Exception {
+        var refreshStarted = new CountDownLatch(1);
+        var providerReleased = new CountDownLatch(1);
+        when(exchangeRateProvider.fetchVndRate("usd"))
+                .thenReturn(26000.0)
+                .thenAnswer(invocation -> {
+                    refreshStarted.countDown();
+                    providerReleased.await(5, TimeUnit.SECONDS);
+                    return 26500.0;
+                });
+
+        exchangeRateStore.getVndRate("usd");
+        ReflectionTestUtils.setField(exchangeRateStore, "maxStalenessMinutes", -1L);
+
+        var refreshing = CompletableFuture.supplyAsync(() -> exchangeRateStore.getVndRate("usd"));
+        assertThat(refreshStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(exchangeRateStore.getVndRate("usd")).isEqualTo(26000.0);
+
+        providerReleased.countDown();
+        assertThat(refreshing.get(5, TimeUnit.SECONDS)).isEqualTo(26500.0);
+        verify(exchangeRateProvider, times(2)).fetchVndRate("usd");
+    }
+}
@@ -2,13 +2,17 @@ package com.ht.eventbox.modules.order;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ht.eventbox.config.GlobalExceptionHandler;
+import com.ht.eventbox.config.HttpException;
 import com.ht.eventbox.constant.Constant;
 import com.ht.eventbox.entities.Order;
 import com.ht.eventbox.entities.Payment;
 import com.ht.eventbox.enums.OrderStatus;
+import com.ht.eventbox.enums.WebhookEventType;
+import com.ht.eventbox.modules.backgroundjobs.WebhookJobService;
 import com.ht.eventbox.modules.order.dtos.CreateReservationDto;
 import com.ht.eventbox.modules.order.dtos.CreatePaymentDto;
 import com.ht.eventbox.modules.order.dtos.PaymentWebhookDto;
+import com.ht.eventbox.modules.waitingroom.WaitingRoomService;
 import com.paypal.sdk.http.response.ApiResponse;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +24,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.security.PublicKey;
 import java.time.LocalDateTime;
@@ -28,9 +33,13 @@ import java.util.List;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -43,7 +52,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @WebMvcTest(OrderController.class)
 @AutoConfigureMockMvc(addFilters = false)
 @ActiveProfiles("test")
-@Import(GlobalExceptionHandler.class)
+@Import({GlobalExceptionHandler.class, PaypalWebhookService.class})
 @TestPropertySource(properties = {
         "paypal.checkout.webhook.id=checkout-webhook",
         "paypal.payment.webhook.id=payment-webhook"
@@ -65,6 +74,15 @@ class OrderControllerTests {
     @MockBean
     private PaymentService paymentService;
 
+    @MockBean
+    private WaitingRoomService waitingRoomService;
+
+    @MockBean
+    private WebhookJobService webhookJobService;
+
+    @Autowired
+    private OrderController orderController;
+
     @MockBean
     private com.ht.eventbox.filter.JwtService jwtService;
 
@@ -99,6 +117,30 @@ class OrderControllerTests {
                 .andExpect(jsonPath("$.data.status").value(OrderStatus.WAITING_FOR_PAYMENT.name()));
     }
 
+    @Test
+    void createReservation_shouldRejectWithoutWaitingRoomAdmission() throws Exception {
+        var reserveTicket = new CreateReservationDto.ReserveTicketDto();
+        reserveTicket.setTicketId(100L);
+        reserveTicket.setQuantity(1);
+
+        org.mockito.Mockito.doThrow(new HttpException(
+                        Constant.ErrorCode.WAITING_ROOM_ADMISSION_REQUIRED,
+                        org.springframework.http.HttpStatus.FORBIDDEN))
+                .when(waitingRoomService).checkAdmission(42L, List.of(100L), "stale-token");
+
+        mockMvc.perform(post("/api/v1/orders/reservation")
+                        .requestAttr("sub", "42")
+                        .header(WaitingRoomService.ADMISSION_TOKEN_HEADER, "stale-token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(CreateReservationDto.builder()
+                                .tickets(List.of(reserveTicket))
+                                .build())))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.message").value(Constant.ErrorCode.WAITING_ROOM_ADMISSION_REQUIRED));
+
+        verifyNoInteractions(orderService);
+    }
+
     @Test
     void cancelReservation_shouldReturnSuccessResponse() throws Exception {
         when(orderService.cancelReservation(42L)).thenReturn(true);
@@ -255,6 +297,29 @@ class OrderControllerTests {
         verifyNoInteractions(orderService);
     }
 
+    @Test
+    void handlePaypalWebhookCheckout_shouldOnlyStoreEnvelopeWhenIngestionIsAsync() throws Exception {
+        ReflectionTestUtils.setField(orderController, "asyncWebhookIngestion", true);
+        try {
+            mockMvc.perform(post("/api/v1/orders/paypal/webhook/checkout")
+                            .header("Paypal-Transmission-Id", "tx-id")
+                            .header("Paypal-Transmission-Time", "2026-05-16T00:00:00Z")
+                            .header("Paypal-Transmission-Sig", "sig")
+                            .header("Paypal-Cert-Url", "cert")
+                            .header("Paypal-Auth-Algo", "algo")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.message").value(Constant.SuccessCode.PAYPAL_WEBHOOK_HANDLE_SUCCESSFULLY));
+        } finally {
+            ReflectionTestUtils.setField(orderController, "asyncWebhookIngestion", false);
+        }
+
+        verify(webhookJobService).enqueuePaypalWebhook(
+                WebhookEventType.PAYPAL_CHECKOUT, "{}", "tx-id", "2026-05-16T00:00:00Z", "sig", "cert", "algo");
+        verifyNoInteractions(payPalService, orderService);
+    }
+
     @Test
     void handlePaypalWebhookPayment_shouldRefundExpiredOrder() throws Exception {
         var order = Order.builder()
@@ -316,6 +381,7 @@ class OrderControllerTests {
 
         verify(paymentService).fulfillPaymentFromPaypalOrder(any(PaymentWebhookDto.class), eq(paypalOrder));
         verify(orderService).refund(eq(order), eq("capture-2"));
+        verify(orderService).markRefunded(order);
     }
 
     @Test
@@ -385,6 +451,146 @@ class OrderControllerTests {
         verifyNoMoreInteractions(orderService);
     }
 
+    @Test
+    void handlePaypalWebhookPayment_shouldRefundWhenTicketsSoldOut() throws Exception {
+        var order = Order.builder()
+                .id(500L)
+                .status(OrderStatus.APPROVED)
+                .placeTotal(100000.0)
+                .expiredAt(LocalDateTime.now().plusMinutes(15))
+                .build();
+
+        var paypalOrder = new com.paypal.sdk.models.Order();
+        paypalOrder.setId("paypal-order-4");
+        paypalOrder.setStatus(com.paypal.sdk.models.OrderStatus.COMPLETED);
+        var purchaseUnit = new com.paypal.sdk.models.PurchaseUnit();
+        purchaseUnit.setCustomId("500");
+        paypalOrder.setPurchaseUnits(List.of(purchaseUnit));
+
+        when(payPalService.verifyWebhook(
+                any(),
+                eq("tx-id"),
+                eq("2026-05-16T00:00:00Z"),
+                eq("sig"),
+                eq("cert"),
+                eq("algo"),
+                eq("payment-webhook"))).thenReturn(true);
+        when(payPalService.getOrderById("paypal-order-4"))
+                .thenReturn(new ApiResponse<>(200, null, paypalOrder));
+        when(orderService.findById(500L)).thenReturn(order);
+        when(paymentService.fulfillPaymentFromPaypalOrder(any(PaymentWebhookDto.class), any()))
+                .thenReturn(Payment.builder().id(2L).build());
+        when(orderService.fulfill(order)).thenReturn(null);
+        doNothing().when(orderService).refund(eq(order), eq("capture-4"), anyString());
+
+        String payload = """
+                {
+                  "event_type": "PAYMENT.CAPTURE.COMPLETED",
+                  "resource": {
+                    "id": "capture-4",
+                    "status": "COMPLETED",
+                    "final_capture": true,
+                    "supplementary_data": {
+                      "related_ids": {
+                        "order_id": "paypal-order-4"
+                      }
+                    }
+                  }
+                }
+                """;
+
+        mockMvc.perform(post("/api/v1/orders/paypal/webhook/payment")
+                        .header("Paypal-Transmission-Id", "tx-id")
+                        .header("Paypal-Transmission-Time", "2026-05-16T00:00:00Z")
+                        .header("Paypal-Transmission-Sig", "sig")
+                        .header("Paypal-Cert-Url", "cert")
+                        .header("Paypal-Auth-Algo", "algo")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(200))
+                .andExpect(jsonPath("$.message").value(Constant.SuccessCode.PAYPAL_WEBHOOK_HANDLE_SUCCESSFULLY));
+
+        verify(paymentService).fulfillPaymentFromPaypalOrder(any(PaymentWebhookDto.class), eq(paypalOrder));
+        verify(orderService).findById(500L);
+        verify(orderService).fulfill(order);
+        verify(orderService).refund(order, "capture-4", OrderService.outOfStockNote(order));
+        verify(orderService, never()).onOrderFulfilled(any(Order.class));
+        verify(orderService).markRefunded(order);
+    }
+
+    @Test
+    void handlePaypalWebhookPayment_shouldSkipRedeliveryAfterSoldOutRefund() throws Exception {
+        var order = Order.builder()
+                .id(500L)
+                .status(OrderStatus.APPROVED)
+                .placeTotal(100000.0)
+                .expiredAt(LocalDateTime.now().plusMinutes(15))
+                .build();
+
+        var paypalOrder = new com.paypal.sdk.models.Order();
+        paypalOrder.setId("paypal-order-4");
+        paypalOrder.setStatus(com.paypal.sdk.models.OrderStatus.COMPLETED);
+        var purchaseUnit = new com.paypal.sdk.models.PurchaseUnit();
+        purchaseUnit.setCustomId("500");
+        paypalOrder.setPurchaseUnits(List.of(purchaseUnit));
+
+        when(payPalService.verifyWebhook(
+                any(),
+                eq("tx-id"),
+                eq("2026-05-16T00:00:00Z"),
+                eq("sig"),
+                eq("cert"),
+                eq("algo"),
+                eq("payment-webhook"))).thenReturn(true);
+        when(payPalService.getOrderById("paypal-order-4"))
+                .thenReturn(new ApiResponse<>(200, null, paypalOrder));
+        when(orderService.findById(500L)).thenReturn(order);
+        when(paymentService.fulfillPaymentFromPaypalOrder(any(PaymentWebhookDto.class), any()))
+                .thenReturn(Payment.builder().id(2L).build());
+        when(orderService.fulfill(order)).thenReturn(null);
+        doNothing().when(orderService).refund(eq(order), eq("capture-4"), anyString());
+        doAnswer(invocation -> {
+            invocation.<Order>getArgument(0).setStatus(OrderStatus.REFUNDED);
+            return null;
+        }).when(orderService).markRefunded(order);
+
+        String payload = """
+                {
+                  "event_type": "PAYMENT.CAPTURE.COMPLETED",
+                  "resource": {
+                    "id": "capture-4",
+                    "status": "COMPLETED",
+                    "final_capture": true,
+                    "supplementary_data": {
+                      "related_ids": {
+                        "order_id": "paypal-order-4"
+                      }
+                    }
+                  }
+                }
+                """;
+
+        // PayPal gửi lại cùng webhook capture sau khi đơn đã được hoàn tiền vì hết vé
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/v1/orders/paypal/webhook/payment")
+                            .header("Paypal-Transmission-Id", "tx-id")
+                            .header("Paypal-Transmission-Time", "2026-05-16T00:00:00Z")
+                            .header("Paypal-Transmission-Sig", "sig")
+                            .header("Paypal-Cert-Url", "cert")
+                            .header("Paypal-Auth-Algo", "algo")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(payload))
+                    .andExpect(status().isOk());
+        }
+
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.REFUNDED);
+        verify(paymentService, times(1)).fulfillPaymentFromPaypalOrder(any(PaymentWebhookDto.class), eq(paypalOrder));
+        verify(orderService, times(1)).fulfill(order);
+        verify(orderService, times(1)).refund(eq(order), eq("capture-4"), anyString());
+        verify(orderService, never()).onOrderFulfilled(any(Order.class));
+    }
+
     @Test
     void handlePaypalWebhookPayment_shouldSkipAlreadyProcessedOrder() throws Exception {
         var order = Order.builder()
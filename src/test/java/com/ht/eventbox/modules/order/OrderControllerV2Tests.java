@@ -15,18 +15,26 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.security.PublicKey;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(OrderControllerV2.class)
@@ -72,22 +80,59 @@ class OrderControllerV2Tests {
 
     @Test
     void exportByShowIdAll_shouldReturnCsvAttachment() throws Exception {
-        when(orderService.exportByShowId(eq(42L), eq(77L), eq("alice")))
-                .thenReturn("""
-                        order_id,user_name,user_email,status,place_total
-                        61,Test User,test@example.com,FULFILLED,75000.0
-                        """);
+        stubExport();
 
-        mockMvc.perform(get("/api/v2/orders/shows/77/all/export")
+        var result = mockMvc.perform(get("/api/v2/orders/shows/77/all/export")
                         .requestAttr("sub", "42")
                         .param("search", "alice"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(header().string("Content-Type", org.hamcrest.Matchers.containsString("text/csv")))
                 .andExpect(header().string("Content-Disposition", org.hamcrest.Matchers.containsString("attachment")))
+                .andExpect(header().doesNotExist("Content-Encoding"))
                 .andExpect(content().string(org.hamcrest.Matchers.containsString("order_id,user_name,user_email,status,place_total")))
                 .andExpect(content().string(org.hamcrest.Matchers.containsString("61,Test User,test@example.com,FULFILLED,75000.0")));
 
-        verify(orderService).exportByShowId(eq(42L), eq(77L), eq("alice"));
+        verify(orderService).ensureShowReportAccess(42L, 77L);
+        verify(orderService).exportByShowId(eq(77L), eq("alice"), any(OutputStream.class));
+    }
+
+    @Test
+    void exportByShowIdAll_shouldGzipWhenClientAcceptsIt() throws Exception {
+        stubExport();
+
+        var result = mockMvc.perform(get("/api/v2/orders/shows/77/all/export")
+                        .requestAttr("sub", "42")
+                        .param("search", "alice")
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        var body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(new String(gzip.readAllBytes(), StandardCharsets.UTF_8))
+                    .contains("61,Test User,test@example.com,FULFILLED,75000.0");
+        }
+    }
+
+    private void stubExport() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(2);
+            outputStream.write("""
+                    order_id,user_name,user_email,status,place_total
+                    61,Test User,test@example.com,FULFILLED,75000.0
+                    """.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(orderService).exportByShowId(eq(77L), eq("alice"), any(OutputStream.class));
     }
 
     private Order sampleOrder(Long id) {
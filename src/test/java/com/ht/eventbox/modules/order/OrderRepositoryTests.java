@@ -93,6 +93,37 @@ class OrderRepositoryTests {
         assertThat(results.getContent().get(0).getId()).isEqualTo(aliceOrder.order().getId());
     }
 
+    @Test
+    void findExportRowsByShowIdAfter_shouldReturnProjectedRowsAfterKey() {
+        var aliceOrder = persistFulfilledOrder(
+                "Alice",
+                "Smith",
+                "alice@example.com",
+                "Alice Smith",
+                "alice"
+        );
+
+        var rows = orderRepository.findExportRowsByShowIdAfter(
+                aliceOrder.showId(),
+                OrderStatus.FULFILLED,
+                "alice",
+                0L,
+                PageRequest.of(0, 50));
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getId()).isEqualTo(aliceOrder.order().getId());
+        assertThat(rows.get(0).getFirstName()).isEqualTo("Alice");
+        assertThat(rows.get(0).getEmail()).isEqualTo("alice@example.com");
+        assertThat(rows.get(0).getStatus()).isEqualTo(OrderStatus.FULFILLED);
+
+        assertThat(orderRepository.findExportRowsByShowIdAfter(
+                aliceOrder.showId(),
+                OrderStatus.FULFILLED,
+                null,
+                aliceOrder.order().getId(),
+                PageRequest.of(0, 50))).isEmpty();
+    }
+
     private PersistedOrder persistFulfilledOrder(
             String firstName,
             String lastName,
@@ -19,6 +19,9 @@ import com.ht.eventbox.modules.backgroundjobs.MailJobService;
 import com.ht.eventbox.modules.backgroundjobs.NotificationJobService;
 import com.ht.eventbox.modules.backgroundjobs.SocketJobService;
 import com.ht.eventbox.modules.event.EventRepository;
+import com.ht.eventbox.modules.inventory.SeatInventoryService;
+import com.ht.eventbox.modules.inventory.ShardedStockService;
+import com.ht.eventbox.modules.inventory.TicketInventoryService;
 import com.ht.eventbox.modules.ticket.TicketRepository;
 import com.ht.eventbox.modules.order.dtos.CreateReservationDto;
 import com.paypal.sdk.http.response.ApiResponse;
@@ -45,10 +48,12 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -103,6 +108,18 @@ class OrderServiceTests {
     @Mock
     private SocketJobService socketJobService;
 
+    @Mock
+    private TicketInventoryService ticketInventoryService;
+
+    @Mock
+    private SeatInventoryService seatInventoryService;
+
+    @Mock
+    private ReservationExpiryService reservationExpiryService;
+
+    @Mock
+    private ShardedStockService shardedStockService;
+
     @Spy
     @InjectMocks
     private OrderService orderService;
@@ -176,19 +193,300 @@ class OrderServiceTests {
                 anyLong(), anyList(), any());
     }
 
+    @Test
+    void createReservation_shouldHoldStockInInventoryWhenEnabled() {
+        var now = LocalDateTime.now();
+        var ticket = sampleTicket(now.minusHours(1), now.plusHours(2), now.minusHours(2), now.plusHours(1));
+        var reserveTicket = new CreateReservationDto.ReserveTicketDto();
+        reserveTicket.setTicketId(100L);
+        reserveTicket.setQuantity(2);
+        var dto = CreateReservationDto.builder()
+                .tickets(List.of(reserveTicket))
+                .build();
+
+        when(ticketInventoryService.isEnabled()).thenReturn(true);
+        when(orderRepository.findAllIdsByUserIdAndStatusIs(42L, OrderStatus.WAITING_FOR_PAYMENT))
+                .thenReturn(List.of(499L));
+        when(ticketRepository.findAllById(Set.of(100L))).thenReturn(List.of(ticket));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(500L);
+            return order;
+        });
+        when(ticketInventoryService.reserve(eq(500L), eq(java.util.Map.of(100L, 2)), any()))
+                .thenReturn(TicketInventoryService.ReserveResult.RESERVED);
+
+        var savedOrder = orderService.createReservation(42L, dto);
+
+        assertThat(savedOrder.getItems()).hasSize(2);
+        assertThat(savedOrder.getPlaceTotal()).isEqualTo(100000.0);
+        verify(orderRepository).deleteAllByIdIn(List.of(499L));
+        verify(ticketInventoryService).releaseAfterCommit(List.of(499L));
+        verify(ticketRepository, never()).findAllByIdWithLocked(anyList());
+        verify(ticketItemRepository, never()).countAllByTicketIdAndOrderStatusInAndOrderExpiredAtIsAfter(
+                anyLong(), anyList(), any());
+        verify(socketJobService).enqueueStockUpdated(7L);
+    }
+
+    @Test
+    void createReservation_shouldRejectWhenInventoryIsExhausted() {
+        var now = LocalDateTime.now();
+        var ticket = sampleTicket(now.minusHours(1), now.plusHours(2), now.minusHours(2), now.plusHours(1));
+        var reserveTicket = new CreateReservationDto.ReserveTicketDto();
+        reserveTicket.setTicketId(100L);
+        reserveTicket.setQuantity(11);
+        var dto = CreateReservationDto.builder()
+                .tickets(List.of(reserveTicket))
+                .build();
+
+        when(ticketInventoryService.isEnabled()).thenReturn(true);
+        when(orderRepository.findAllIdsByUserIdAndStatusIs(42L, OrderStatus.WAITING_FOR_PAYMENT))
+                .thenReturn(List.of());
+        when(ticketRepository.findAllById(Set.of(100L))).thenReturn(List.of(ticket));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(500L);
+            return order;
+        });
+        when(ticketInventoryService.reserve(eq(500L), eq(java.util.Map.of(100L, 11)), any()))
+                .thenReturn(TicketInventoryService.ReserveResult.OUT_OF_STOCK);
+
+        assertThatThrownBy(() -> orderService.createReservation(42L, dto))
+                .isInstanceOf(HttpException.class)
+                .hasMessage(Constant.ErrorCode.TICKET_OUT_OF_STOCK);
+
+        verifyNoInteractions(socketJobService);
+    }
+
+    @Test
+    void createReservation_shouldHoldChosenSeatsOnSeatmapShows() {
+        var dto = seatReservation(List.of(4, 3));
+
+        when(seatInventoryService.isEnabled()).thenReturn(true);
+        when(orderRepository.findAllIdsByUserIdAndStatusIs(42L, OrderStatus.WAITING_FOR_PAYMENT)).thenReturn(List.of(499L));
+        when(ticketRepository.findAllByIdWithLocked(List.of(100L))).thenReturn(List.of(seatmapTicket()));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(500L);
+            return order;
+        });
+        when(seatInventoryService.hold(eq(500L), anyList())).thenReturn(true);
+
+        var savedOrder = orderService.createReservation(42L, dto);
+
+        assertThat(savedOrder.getItems()).extracting(TicketItem::getSeatIndex).containsExactly(4, 3);
+        verify(seatInventoryService).hold(500L, savedOrder.getItems());
+        verify(orderRepository).deleteAllByIdIn(List.of(499L));
+        verify(seatInventoryService).releaseAfterCommit(List.of(499L));
+    }
+
+    @Test
+    void createReservation_shouldRejectSeatsOutsideTheBlock() {
+        var dto = seatReservation(List.of(3, 10));
+
+        when(seatInventoryService.isEnabled()).thenReturn(true);
+        when(orderRepository.findAllIdsByUserIdAndStatusIs(42L, OrderStatus.WAITING_FOR_PAYMENT)).thenReturn(List.of());
+        when(ticketRepository.findAllByIdWithLocked(List.of(100L))).thenReturn(List.of(seatmapTicket()));
+
+        assertThatThrownBy(() -> orderService.createReservation(42L, dto))
+                .isInstanceOf(HttpException.class)
+                .hasMessage(Constant.ErrorCode.INVALID_SEAT_SELECTION);
+
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void createReservation_shouldRejectSeatsTakenByAnotherOrder() {
+        var dto = seatReservation(List.of(3, 4));
+
+        when(seatInventoryService.isEnabled()).thenReturn(true);
+        when(orderRepository.findAllIdsByUserIdAndStatusIs(42L, OrderStatus.WAITING_FOR_PAYMENT)).thenReturn(List.of());
+        when(ticketRepository.findAllByIdWithLocked(List.of(100L))).thenReturn(List.of(seatmapTicket()));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(500L);
+            return order;
+        });
+        when(seatInventoryService.hold(eq(500L), anyList())).thenReturn(false);
+
+        assertThatThrownBy(() -> orderService.createReservation(42L, dto))
+                .isInstanceOf(HttpException.class)
+                .hasMessage(Constant.ErrorCode.SEAT_UNAVAILABLE);
+
+        verifyNoInteractions(socketJobService, reservationExpiryService);
+    }
+
+    @Test
+    void expireReservations_shouldDeleteDueWaitingOrdersAndNotifyEvent() {
+        var order = sampleOrder();
+        order.setExpiredAt(LocalDateTime.now().minusSeconds(1));
+
+        when(orderRepository.findAllById(List.of(500L))).thenReturn(List.of(order));
+
+        var count = orderService.expireReservations(List.of(500L));
+
+        assertThat(count).isEqualTo(1);
+        verify(orderRepository).delete(order);
+        verify(socketJobService).enqueueStockUpdated(7L);
+        verify(reservationExpiryService, never()).schedule(anyLong(), any());
+    }
+
+    @Test
+    void expireReservations_shouldRescheduleExtendedOrdersAndSkipPaidOnes() {
+        var extended = sampleOrder();
+        extended.setStatus(OrderStatus.PENDING);
+        var paid = sampleOrder();
+        paid.setId(501L);
+        paid.setStatus(OrderStatus.FULFILLED);
+        paid.setExpiredAt(LocalDateTime.now().minusMinutes(1));
+
+        when(orderRepository.findAllById(List.of(500L, 501L))).thenReturn(List.of(extended, paid));
+
+        var count = orderService.expireReservations(List.of(500L, 501L));
+
+        assertThat(count).isZero();
+        verify(reservationExpiryService).schedule(500L, extended.getExpiredAt());
+        verify(orderRepository, never()).delete(any(Order.class));
+        verifyNoInteractions(socketJobService);
+    }
+
+    @Test
+    void fulfill_shouldDecrementLockedTicketStock() {
+        var order = sampleOrder();
+        var ticket = order.getItems().get(0).getTicket();
+
+        when(ticketRepository.findAllByIdWithLocked(List.of(100L))).thenReturn(List.of(ticket));
+        when(orderRepository.save(order)).thenReturn(order);
+
+        orderService.fulfill(order);
+
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.FULFILLED);
+        assertThat(ticket.getStock()).isEqualTo(9);
+        verify(socketJobService).enqueueStockUpdated(7L);
+        verifyNoInteractions(shardedStockService);
+    }
+
+    @Test
+    void fulfill_shouldSellTheHeldSeats() {
+        var order = sampleOrder();
+        order.getItems().get(0).setSeatIndex(5);
+        var ticket = order.getItems().get(0).getTicket();
+
+        when(seatInventoryService.isEnabled()).thenReturn(true);
+        when(ticketRepository.findAllByIdWithLocked(List.of(100L))).thenReturn(List.of(ticket));
+        when(orderRepository.save(order)).thenReturn(order);
+
+        orderService.fulfill(order);
+
+        verify(seatInventoryService).sellAfterCommit(500L, order.getItems());
+    }
+
+    @Test
+    void fulfill_shouldUseConditionalUpdateWhenEnabled() {
+        ReflectionTestUtils.setField(orderService, "conditionalStockUpdate", true);
+        var order = sampleOrder();
+        order.getItems().add(TicketItem.builder().ticket(order.getItems().get(0).getTicket()).placeTotal(50000.0).build());
+
+        when(ticketRepository.decrementStockIfAvailable(100L, 2)).thenReturn(1);
+        when(orderRepository.save(order)).thenReturn(order);
+
+        orderService.fulfill(order);
+
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.FULFILLED);
+        verify(ticketRepository, never()).findAllByIdWithLocked(anyList());
+        verify(socketJobService).enqueueStockUpdated(7L);
+    }
+
+    @Test
+    void fulfill_shouldLeaveOrderUnfulfilledWhenConditionalUpdateFindsNoStock() {
+        ReflectionTestUtils.setField(orderService, "conditionalStockUpdate", true);
+        var order = sampleOrder();
+        order.setStatus(OrderStatus.APPROVED);
+
+        when(ticketRepository.decrementStockIfAvailable(100L, 1)).thenReturn(0);
+
+        var result = orderService.fulfill(order);
+
+        assertThat(result).isNull();
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.APPROVED);
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(socketJobService, never()).enqueueStockUpdated(anyLong());
+    }
+
+    @Test
+    void fulfill_shouldGiveBackStockTakenBeforeTheShortTicket() {
+        ReflectionTestUtils.setField(orderService, "conditionalStockUpdate", true);
+        var order = sampleOrder();
+        var otherTicket = Ticket.builder().id(101L).stock(0).eventShow(order.getItems().get(0).getTicket().getEventShow()).build();
+        order.getItems().add(TicketItem.builder().ticket(otherTicket).placeTotal(50000.0).build());
+
+        when(ticketRepository.decrementStockIfAvailable(100L, 1)).thenReturn(1);
+        when(ticketRepository.decrementStockIfAvailable(101L, 1)).thenReturn(0);
+
+        var result = orderService.fulfill(order);
+
+        assertThat(result).isNull();
+        verify(ticketRepository).incrementStock(100L, 1);
+        verify(ticketRepository, never()).incrementStock(eq(101L), anyInt());
+    }
+
+    @Test
+    void fulfill_shouldTakeShardedStockWithoutLockingTicket() {
+        var order = sampleOrder();
+        var ticket = order.getItems().get(0).getTicket();
+        ticket.setStockShards(8);
+        order.getItems().add(TicketItem.builder().ticket(ticket).placeTotal(50000.0).build());
+
+        when(shardedStockService.take(ticket, 2)).thenReturn(true);
+        when(orderRepository.save(order)).thenReturn(order);
+
+        orderService.fulfill(order);
+
+        verify(shardedStockService).take(ticket, 2);
+        verify(ticketRepository, never()).findAllByIdWithLocked(anyList());
+        verify(socketJobService).enqueueStockUpdated(7L);
+    }
+
+    @Test
+    void fulfill_shouldGiveBackAllStockWhenShardedTicketIsShort() {
+        ReflectionTestUtils.setField(orderService, "conditionalStockUpdate", true);
+        var order = sampleOrder();
+        var eventShow = order.getItems().get(0).getTicket().getEventShow();
+        var firstSharded = Ticket.builder().id(101L).stockShards(4).eventShow(eventShow).build();
+        var secondSharded = Ticket.builder().id(102L).stockShards(4).eventShow(eventShow).build();
+        order.getItems().add(TicketItem.builder().ticket(firstSharded).placeTotal(50000.0).build());
+        order.getItems().add(TicketItem.builder().ticket(secondSharded).placeTotal(50000.0).build());
+
+        when(ticketRepository.decrementStockIfAvailable(100L, 1)).thenReturn(1);
+        when(shardedStockService.take(firstSharded, 1)).thenReturn(true);
+        when(shardedStockService.take(secondSharded, 1)).thenReturn(false);
+
+        var result = orderService.fulfill(order);
+
+        assertThat(result).isNull();
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.WAITING_FOR_PAYMENT);
+        verify(shardedStockService).giveBack(firstSharded, 1);
+        verify(shardedStockService, never()).giveBack(eq(secondSharded), anyInt());
+        verify(ticketRepository).incrementStock(100L, 1);
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
     @Test
     void cancelReservation_shouldRemoveWaitingOrdersAndReturnTrue() {
+        when(ticketItemRepository.findEventIdsByOrderUserIdAndOrderStatus(42L, OrderStatus.WAITING_FOR_PAYMENT))
+                .thenReturn(List.of(7L));
         when(orderRepository.deleteAllByUserIdAndStatusIs(42L, OrderStatus.WAITING_FOR_PAYMENT)).thenReturn(1L);
 
         boolean result = orderService.cancelReservation(42L);
 
         assertThat(result).isTrue();
         verify(orderRepository).deleteAllByUserIdAndStatusIs(42L, OrderStatus.WAITING_FOR_PAYMENT);
-        verify(socketJobService).enqueueStockUpdated();
+        verify(socketJobService).enqueueStockUpdated(7L);
     }
 
     @Test
     void cancelReservation_shouldDeleteSpecificOrderAndReturnTrue() {
+        when(ticketItemRepository.findEventIdsByOrderIdIn(List.of(500L))).thenReturn(List.of(7L));
         when(orderRepository.deleteByIdAndUserIdAndStatusInAndExpiredAtAfter(
                 eq(500L),
                 eq(42L),
@@ -203,7 +501,20 @@ class OrderServiceTests {
                 eq(42L),
                 eq(List.of(OrderStatus.WAITING_FOR_PAYMENT, OrderStatus.PENDING)),
                 any());
-        verify(socketJobService).enqueueStockUpdated();
+        verify(socketJobService).enqueueStockUpdated(7L);
+    }
+
+    @Test
+    void cleanupExpiredReservations_shouldNotifyOnlyAffectedEvents() {
+        when(ticketItemRepository.findEventIdsByOrderStatusInAndOrderExpiredAtBefore(
+                eq(List.of(OrderStatus.WAITING_FOR_PAYMENT)), any())).thenReturn(List.of(7L, 9L));
+        when(orderRepository.deleteAllByStatusInAndExpiredAtBefore(
+                eq(List.of(OrderStatus.WAITING_FOR_PAYMENT)), any())).thenReturn(3L);
+
+        assertThat(orderService.cleanupExpiredReservations()).isEqualTo(3L);
+
+        verify(socketJobService).enqueueStockUpdated(7L);
+        verify(socketJobService).enqueueStockUpdated(9L);
     }
 
     @Test
@@ -403,6 +714,86 @@ class OrderServiceTests {
         verify(orderService).fulfill(order);
     }
 
+    @Test
+    void processPayment_shouldRefundWhenStockRunsOutAfterCapture() throws Exception {
+        ReflectionTestUtils.setField(orderService, "conditionalStockUpdate", true);
+        var order = sampleOrder();
+        order.setStatus(OrderStatus.PENDING);
+        order.setExpiredAt(LocalDateTime.now().plusMinutes(15));
+
+        var paypalOrder = new com.paypal.sdk.models.Order();
+        paypalOrder.setId("paypal-order-6");
+        paypalOrder.setStatus(com.paypal.sdk.models.OrderStatus.COMPLETED);
+        paypalOrder.setPurchaseUnits(List.of(purchaseUnit("42", "capture-6")));
+        var capture = new OrdersCapture();
+        capture.setId("capture-6");
+        capture.setFinalCapture(true);
+        capture.setAmount(new Money("USD", "100.00"));
+        var paymentCollection = new PaymentCollection();
+        paymentCollection.setCaptures(List.of(capture));
+        paypalOrder.getPurchaseUnits().get(0).setPayments(paymentCollection);
+
+        when(orderRepository.findById(500L)).thenReturn(Optional.of(order));
+        when(payPalService.captureOrder("paypal-order-6")).thenReturn(new ApiResponse<>(200, null, paypalOrder));
+        when(ticketRepository.decrementStockIfAvailable(100L, 1)).thenReturn(0);
+        doNothing().when(orderService).onOrderApproved(any(Order.class));
+        doNothing().when(orderService).refund(any(Order.class), eq("capture-6"), anyString());
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        orderService.processPayment(500L, "paypal-order-6");
+
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.REFUNDED);
+        verify(paymentService).createFromOrderAndPaypalOrder(order, paypalOrder);
+        verify(orderService).refund(order, "capture-6", OrderService.outOfStockNote(order));
+        verify(orderService, never()).onOrderFulfilled(any(Order.class));
+    }
+
+    @Test
+    void processPayment_shouldRefundWhenShardedStockRunsOutAfterCapture() throws Exception {
+        var order = sampleOrder();
+        var ticket = order.getItems().get(0).getTicket();
+        ticket.setStockShards(4);
+        order.setStatus(OrderStatus.PENDING);
+        order.setExpiredAt(LocalDateTime.now().plusMinutes(15));
+
+        var paypalOrder = new com.paypal.sdk.models.Order();
+        paypalOrder.setId("paypal-order-7");
+        paypalOrder.setStatus(com.paypal.sdk.models.OrderStatus.COMPLETED);
+        paypalOrder.setPurchaseUnits(List.of(purchaseUnit("42", "capture-7")));
+        var capture = new OrdersCapture();
+        capture.setId("capture-7");
+        capture.setFinalCapture(true);
+        capture.setAmount(new Money("USD", "100.00"));
+        var paymentCollection = new PaymentCollection();
+        paymentCollection.setCaptures(List.of(capture));
+        paypalOrder.getPurchaseUnits().get(0).setPayments(paymentCollection);
+
+        when(orderRepository.findById(500L)).thenReturn(Optional.of(order));
+        when(payPalService.captureOrder("paypal-order-7")).thenReturn(new ApiResponse<>(200, null, paypalOrder));
+        when(shardedStockService.take(ticket, 1)).thenReturn(false);
+        doNothing().when(orderService).onOrderApproved(any(Order.class));
+        doNothing().when(orderService).refund(any(Order.class), eq("capture-7"), anyString());
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        orderService.processPayment(500L, "paypal-order-7");
+
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.REFUNDED);
+        verify(paymentService).createFromOrderAndPaypalOrder(order, paypalOrder);
+        verify(orderService).refund(order, "capture-7", OrderService.outOfStockNote(order));
+        verify(orderService, never()).onOrderFulfilled(any(Order.class));
+    }
+
+    @Test
+    void processPayment_shouldSkipOrderThatWasAlreadyCaptured() throws Exception {
+        var order = sampleOrder();
+        order.setStatus(OrderStatus.APPROVED);
+        when(orderRepository.findById(500L)).thenReturn(Optional.of(order));
+
+        orderService.processPayment(500L, "paypal-order-5");
+
+        verifyNoInteractions(payPalService, paymentService);
+    }
+
     @Test
     void processPayment_shouldRefundExpiredOrder() throws Exception {
         var order = sampleOrder();
@@ -429,7 +820,7 @@ class OrderServiceTests {
 
         orderService.processPayment(500L, "paypal-order-4");
 
-        assertThat(order.getStatus()).isEqualTo(OrderStatus.PENDING);
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.REFUNDED);
         verify(orderService).refund(order, "capture-2");
     }
 
@@ -454,6 +845,26 @@ class OrderServiceTests {
                         && "MISSED".equals(refund.getStatus())));
     }
 
+    @Test
+    void refund_shouldSaveMissedRefundWhenPaypalCallFails() throws Exception {
+        var order = sampleOrder();
+        var payment = Payment.builder()
+                .id(1L)
+                .paypalCaptureId("capture-1")
+                .order(order)
+                .build();
+
+        when(paymentRepository.findByPaypalCaptureId("capture-1")).thenReturn(Optional.of(payment));
+        when(payPalService.refundCapture(eq("capture-1"), anyString())).thenThrow(new java.io.IOException("timeout"));
+
+        orderService.refund(order, "capture-1");
+
+        verify(refundRepository).save(org.mockito.ArgumentMatchers.argThat((com.ht.eventbox.entities.Refund refund) ->
+                refund != null
+                        && "MISSED".equals(refund.getStatus())));
+        verify(orderService, never()).onOrderRefunded(any(Order.class));
+    }
+
     @Test
     void refund_shouldPersistFullRefundDetailsAndTriggerNotifications() throws Exception {
         var order = sampleOrder();
@@ -554,44 +965,55 @@ class OrderServiceTests {
     }
 
     @Test
-    void exportByShowId_shouldReturnCsvWithUserAndOrderColumns() {
-        var event = Event.builder()
-                .id(7L)
-                .organization(Organization.builder()
-                        .id(9L)
-                        .userOrganizations(List.of(
-                                UserOrganization.builder()
-                                        .user(User.builder().id(42L).build())
-                                        .role(OrganizationRole.MANAGER)
-                                        .build()))
-                        .build())
-                .status(EventStatus.PUBLISHED)
-                .build();
-        var firstOrder = sampleOrder();
-        firstOrder.setId(500L);
-        var secondOrder = sampleOrder();
-        secondOrder.setId(501L);
+    void exportByShowId_shouldStreamCsvPagingByLastOrderId() throws Exception {
+        var firstPage = IntStream.rangeClosed(1, 500)
+                .mapToObj(id -> exportRow((long) id, "Test", "User"))
+                .toList();
+        when(orderRepository.findExportRowsByShowIdAfter(
+                eq(55L), eq(OrderStatus.FULFILLED), eq("alice"), eq(0L), any()))
+                .thenReturn(firstPage);
+        when(orderRepository.findExportRowsByShowIdAfter(
+                eq(55L), eq(OrderStatus.FULFILLED), eq("alice"), eq(500L), any()))
+                .thenReturn(List.of(exportRow(501L, "Smith, Jr", "Alice")));
+
+        var outputStream = new java.io.ByteArrayOutputStream();
+        orderService.exportByShowId(55L, " alice ", outputStream);
+
+        var result = outputStream.toString(java.nio.charset.StandardCharsets.UTF_8);
+        assertThat(result).startsWith("order_id,user_name,user_email,status,place_total\n");
+        assertThat(result).contains("500,Test User,user500@example.com,FULFILLED,100000.0\n");
+        assertThat(result).endsWith("501,\"Smith, Jr Alice\",user501@example.com,FULFILLED,100000.0\n");
+        assertThat(result.lines()).hasSize(502);
+        verify(orderRepository, org.mockito.Mockito.times(2))
+                .findExportRowsByShowIdAfter(eq(55L), eq(OrderStatus.FULFILLED), eq("alice"), anyLong(), any());
+    }
 
-        when(eventRepository.findByShowsId(55L)).thenReturn(Optional.of(event));
-        when(orderRepository.searchAllByItemsTicketEventShowIdAndStatusIsOrderByIdAsc(
-                eq(55L),
-                eq(OrderStatus.FULFILLED),
-                eq("alice"),
-                any()))
-                .thenReturn(new PageImpl<>(List.of(firstOrder), PageRequest.of(0, 1), 2))
-                .thenReturn(new PageImpl<>(List.of(secondOrder), PageRequest.of(1, 1), 2));
+    private OrderRepository.OrderExportView exportRow(Long id, String firstName, String lastName) {
+        return new OrderRepository.OrderExportView() {
+            public Long getId() {
+                return id;
+            }
 
-        var result = orderService.exportByShowId(42L, 55L, " alice ");
+            public String getFirstName() {
+                return firstName;
+            }
 
-        assertThat(result).contains("order_id,user_name,user_email,status,place_total");
-        assertThat(result).contains("500,Test User,user@example.com,WAITING_FOR_PAYMENT,100000.0");
-        assertThat(result).contains("501,Test User,user@example.com,WAITING_FOR_PAYMENT,100000.0");
-        verify(orderRepository, org.mockito.Mockito.times(2))
-                .searchAllByItemsTicketEventShowIdAndStatusIsOrderByIdAsc(
-                        eq(55L),
-                        eq(OrderStatus.FULFILLED),
-                        eq("alice"),
-                        any());
+            public String getLastName() {
+                return lastName;
+            }
+
+            public String getEmail() {
+                return "user" + id + "@example.com";
+            }
+
+            public OrderStatus getStatus() {
+                return OrderStatus.FULFILLED;
+            }
+
+            public Double getPlaceTotal() {
+                return 100000.0;
+            }
+        };
     }
 
     private Ticket sampleTicket(LocalDateTime saleStartTime, LocalDateTime saleEndTime,
@@ -614,6 +1036,23 @@ class OrderServiceTests {
                 .build();
     }
 
+    private CreateReservationDto seatReservation(List<Integer> seats) {
+        var reserveTicket = new CreateReservationDto.ReserveTicketDto();
+        reserveTicket.setTicketId(100L);
+        reserveTicket.setQuantity(seats.size());
+        reserveTicket.setSeats(seats);
+        return CreateReservationDto.builder()
+                .tickets(List.of(reserveTicket))
+                .build();
+    }
+
+    private Ticket seatmapTicket() {
+        var now = LocalDateTime.now();
+        var ticket = sampleTicket(now.minusHours(1), now.plusHours(2), now.minusHours(2), now.plusHours(1));
+        ticket.getEventShow().setEnabledSeatmap(true);
+        return ticket;
+    }
+
     private Order sampleOrder() {
         var event = Event.builder().id(7L).build();
         var eventShow = EventShow.builder().id(200L).event(event).build();
@@ -0,0 +1,91 @@
+package com.ht.eventbox.modules.order;
+
+import com.paypal.sdk.models.OAuthToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PayPalTokenProviderTests {
+
+    private PayPalTokenProvider tokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        tokenProvider = spy(new PayPalTokenProvider(null, 300, 1000));
+    }
+
+    @Test
+    void getAccessToken_shouldReuseTokenUntilItNeedsRefreshing() throws Exception {
+        doReturn(token("token-1", 32400L)).when(tokenProvider).fetchOAuthToken();
+
+        assertThat(tokenProvider.getAccessToken()).isEqualTo("token-1");
+        assertThat(tokenProvider.getAccessToken()).isEqualTo("token-1");
+
+        verify(tokenProvider, times(1)).fetchOAuthToken();
+    }
+
+    @Test
+    void getAccessToken_shouldFetchOnceForConcurrentCallers() throws Exception {
+        var release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return token("token-1", 32400L);
+        }).when(tokenProvider).fetchOAuthToken();
+
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            var results = new ArrayList<Future<String>>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(tokenProvider::getAccessToken));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (var result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("token-1");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(tokenProvider, times(1)).fetchOAuthToken();
+    }
+
+    @Test
+    void getAccessToken_shouldFetchAgainAfterInvalidate() throws Exception {
+        doReturn(token("token-1", 32400L), token("token-2", 32400L)).when(tokenProvider).fetchOAuthToken();
+
+        assertThat(tokenProvider.getAccessToken()).isEqualTo("token-1");
+        tokenProvider.invalidate("token-1");
+
+        assertThat(tokenProvider.getAccessToken()).isEqualTo("token-2");
+    }
+
+    @Test
+    void getAccessToken_shouldReturnNullWhenPaypalFails() throws Exception {
+        doThrow(new IOException("unavailable")).when(tokenProvider).fetchOAuthToken();
+
+        assertThat(tokenProvider.getAccessToken()).isNull();
+    }
+
+    private OAuthToken token(String accessToken, long expiresIn) {
+        var token = new OAuthToken();
+        token.setAccessToken(accessToken);
+        token.setExpiresIn(expiresIn);
+        return token;
+    }
+}
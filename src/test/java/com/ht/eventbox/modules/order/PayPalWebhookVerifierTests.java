@@ -0,0 +1,103 @@
+package com.ht.eventbox.modules.order;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.Date;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PayPalWebhookVerifierTests {
+    private static final String CERT_URL = "https://api.paypal.com/v1/notifications/certs/CERT-360caa42";
+    private static final String PAYLOAD = "{\"id\":\"WH-1\",\"event_type\":\"CHECKOUT.ORDER.APPROVED\"}";
+
+    private KeyPair keyPair;
+    private PayPalWebhookVerifier verifier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        var generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+
+        var certificate = mock(X509Certificate.class);
+        when(certificate.getPublicKey()).thenReturn(keyPair.getPublic());
+        when(certificate.getNotAfter()).thenReturn(new Date(System.currentTimeMillis() + 86_400_000L));
+
+        verifier = spy(new PayPalWebhookVerifier(mock(PayPalTokenProvider.class), 60));
+        doReturn(certificate).when(verifier).downloadCertificate(CERT_URL);
+    }
+
+    @Test
+    void verify_shouldAcceptSignatureAndCacheCertificate() throws Exception {
+        var sig = sign("tx-1", "2026-05-16T00:00:00Z", "webhook-id", PAYLOAD);
+
+        assertThat(verifier.verify(PAYLOAD, "tx-1", "2026-05-16T00:00:00Z", sig, CERT_URL, "SHA256withRSA", "webhook-id"))
+                .isEqualTo(PayPalWebhookVerifier.Result.VALID);
+        assertThat(verifier.verify(PAYLOAD, "tx-1", "2026-05-16T00:00:00Z", sig, CERT_URL, "SHA256withRSA", "webhook-id"))
+                .isEqualTo(PayPalWebhookVerifier.Result.VALID);
+
+        verify(verifier, times(1)).downloadCertificate(CERT_URL);
+    }
+
+    @Test
+    void verify_shouldRejectTamperedBodyOrOtherWebhookId() throws Exception {
+        var sig = sign("tx-1", "2026-05-16T00:00:00Z", "webhook-id", PAYLOAD);
+
+        assertThat(verifier.verify(PAYLOAD + " ", "tx-1", "2026-05-16T00:00:00Z", sig, CERT_URL, "SHA256withRSA", "webhook-id"))
+                .isEqualTo(PayPalWebhookVerifier.Result.INVALID);
+        assertThat(verifier.verify(PAYLOAD, "tx-1", "2026-05-16T00:00:00Z", sig, CERT_URL, "SHA256withRSA", "other-id"))
+                .isEqualTo(PayPalWebhookVerifier.Result.INVALID);
+    }
+
+    @Test
+    void verify_shouldRejectCertificateOutsidePayPal() throws Exception {
+        var sig = sign("tx-1", "2026-05-16T00:00:00Z", "webhook-id", PAYLOAD);
+
+        for (var certUrl : new String[]{
+                "https://evil.example.com/cert.pem",
+                "http://api.paypal.com/v1/notifications/certs/CERT-1",
+                "https://api.paypal.com.evil.example.com/cert.pem",
+                "https://user@evilpaypal.com/cert.pem"}) {
+            assertThat(verifier.verify(PAYLOAD, "tx-1", "2026-05-16T00:00:00Z", sig, certUrl, "SHA256withRSA", "webhook-id"))
+                    .isEqualTo(PayPalWebhookVerifier.Result.INVALID);
+        }
+
+        verify(verifier, never()).downloadCertificate(anyString());
+    }
+
+    @Test
+    void verify_shouldReportUnavailableWhenCertificateCannotBeLoaded() throws Exception {
+        var certUrl = "https://api.sandbox.paypal.com/v1/notifications/certs/CERT-2";
+        doThrow(new java.security.cert.CertificateException("boom")).when(verifier).downloadCertificate(certUrl);
+
+        assertThat(verifier.verify(PAYLOAD, "tx-1", "2026-05-16T00:00:00Z", "c2ln", certUrl, "SHA256withRSA", "webhook-id"))
+                .isEqualTo(PayPalWebhookVerifier.Result.UNAVAILABLE);
+    }
+
+    private String sign(String transmissionId, String transmissionTime, String webhookId, String payload) throws Exception {
+        var crc32 = new CRC32();
+        crc32.update(payload.getBytes(StandardCharsets.UTF_8));
+        var signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(keyPair.getPrivate());
+        signature.update((transmissionId + "|" + transmissionTime + "|" + webhookId + "|" + crc32.getValue())
+                .getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(signature.sign());
+    }
+}
@@ -0,0 +1,68 @@
+package com.ht.eventbox.modules.order;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationCountServiceTests {
+
+    @Mock
+    private TicketItemRepository ticketItemRepository;
+
+    @InjectMocks
+    private ReservationCountService reservationCountService;
+
+    @Test
+    void getHeldCountsByEventId_shouldCacheUntilInvalidated() {
+        ReflectionTestUtils.setField(reservationCountService, "ttlMillis", 60_000L);
+        when(ticketItemRepository.countHeldGroupByTicketId(eq(7L), anyList(), any()))
+                .thenReturn(List.of(heldCount(88L, 3L), heldCount(89L, 1L)));
+
+        var first = reservationCountService.getHeldCountsByEventId(7L);
+        var second = reservationCountService.getHeldCountsByEventId(7L);
+        reservationCountService.invalidate(7L);
+        reservationCountService.getHeldCountsByEventId(7L);
+
+        assertThat(first).containsEntry(88L, 3L).containsEntry(89L, 1L);
+        assertThat(second).isSameAs(first);
+        verify(ticketItemRepository, times(2)).countHeldGroupByTicketId(eq(7L), anyList(), any());
+    }
+
+    @Test
+    void getHeldCountsByEventId_shouldQueryEveryTimeWhenCacheDisabled() {
+        when(ticketItemRepository.countHeldGroupByTicketId(eq(7L), anyList(), any())).thenReturn(List.of());
+
+        reservationCountService.getHeldCountsByEventId(7L);
+        reservationCountService.getHeldCountsByEventId(7L);
+
+        verify(ticketItemRepository, times(2)).countHeldGroupByTicketId(eq(7L), anyList(), any());
+    }
+
+    private ReservationCountService.TicketHeldCountView heldCount(Long ticketId, Long count) {
+        return new ReservationCountService.TicketHeldCountView() {
+            @Override
+            public Long getTicketId() {
+                return ticketId;
+            }
+
+            @Override
+            public Long getHeldCount() {
+                return count;
+            }
+        };
+    }
+}
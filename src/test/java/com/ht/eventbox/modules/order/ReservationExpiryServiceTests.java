@@ -0,0 +1,67 @@
+package com.ht.eventbox.modules.order;
+
+import com.ht.eventbox.modules.redis.RedisService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationExpiryServiceTests {
+
+    @Mock
+    private RedisService redisService;
+
+    @InjectMocks
+    private ReservationExpiryService reservationExpiryService;
+
+    @Test
+    void schedule_shouldScoreOrderByExpiry() {
+        ReflectionTestUtils.setField(reservationExpiryService, "enabled", true);
+        var expiredAt = LocalDateTime.of(2026, 5, 16, 10, 0);
+
+        reservationExpiryService.schedule(500L, expiredAt);
+
+        verify(redisService).addToSortedSet(
+                "reservation_expiry",
+                "500",
+                expiredAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    @Test
+    void schedule_shouldSkipWhenDisabled() {
+        reservationExpiryService.schedule(500L, LocalDateTime.now());
+
+        verifyNoInteractions(redisService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void claimDue_shouldReturnClaimedOrderIds() {
+        ReflectionTestUtils.setField(reservationExpiryService, "batchSize", 50);
+
+        when(redisService.executeScript(
+                any(RedisScript.class),
+                eq(List.of("reservation_expiry")),
+                anyString(),
+                eq("50")))
+                .thenReturn(List.of("500", "501"));
+
+        assertThat(reservationExpiryService.claimDue()).containsExactly(500L, 501L);
+    }
+}
@@ -0,0 +1,32 @@
+package com.ht.eventbox.modules.seatmap;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class SeatmapBlobRepositoryTests {
+
+    @Autowired
+    private SeatmapBlobRepository seatmapBlobRepository;
+
+    @Test
+    void insertIfAbsent_shouldKeepTheFirstCopy() {
+        var content = "<svg/>".getBytes(StandardCharsets.UTF_8);
+        var hash = SeatmapService.hashOf(content);
+
+        assertThat(seatmapBlobRepository.insertIfAbsent(hash, "image/svg+xml", content, SeatmapService.gzip(content))).isEqualTo(1);
+        assertThat(seatmapBlobRepository.insertIfAbsent(hash, "image/svg+xml", content, SeatmapService.gzip(content))).isZero();
+
+        var blob = seatmapBlobRepository.findById(hash).orElseThrow();
+        assertThat(blob.getContent()).isEqualTo(content);
+        assertThat(blob.getContentType()).isEqualTo("image/svg+xml");
+        assertThat(blob.getCreatedAt()).isNotNull();
+    }
+}
@@ -0,0 +1,120 @@
+package com.ht.eventbox.modules.seatmap;
+
+import com.ht.eventbox.config.GlobalExceptionHandler;
+import com.ht.eventbox.constant.Constant;
+import com.ht.eventbox.entities.SeatmapBlob;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.security.PublicKey;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(SeatmapController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+@Import(GlobalExceptionHandler.class)
+class SeatmapControllerTests {
+
+    private static final String SVG = "<svg/>";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SeatmapService seatmapService;
+
+    @MockBean
+    private com.ht.eventbox.filter.JwtService jwtService;
+
+    @MockBean
+    private PublicKey atPublicKey;
+
+    @Test
+    void getByHash_shouldServeImmutableContent() throws Exception {
+        var blob = sampleBlob();
+        when(seatmapService.find(blob.getHash())).thenReturn(Optional.of(blob));
+
+        mockMvc.perform(get("/api/v1/seatmaps/" + blob.getHash()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/svg+xml"))
+                .andExpect(content().string(SVG))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + blob.getHash() + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void getByHash_shouldServePrecompressedGzip() throws Exception {
+        var blob = sampleBlob();
+        when(seatmapService.find(blob.getHash())).thenReturn(Optional.of(blob));
+
+        var result = mockMvc.perform(get("/api/v1/seatmaps/" + blob.getHash())
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+                .andReturn();
+
+        assertThat(result.getResponse().getContentAsByteArray()).isEqualTo(blob.getGzipContent());
+    }
+
+    @Test
+    void getByHash_shouldAnswerNotModifiedWithoutLoading() throws Exception {
+        var hash = "b".repeat(64);
+
+        mockMvc.perform(get("/api/v1/seatmaps/" + hash)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + hash + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"));
+
+        verify(seatmapService, never()).find(anyString());
+    }
+
+    @Test
+    void getByHash_shouldReturnNotFoundForUnknownHash() throws Exception {
+        when(seatmapService.find("unknown")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v1/seatmaps/unknown"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value(Constant.ErrorCode.SEATMAP_NOT_FOUND));
+    }
+
+    @Test
+    void acceptsGzip_shouldHonourZeroQuality() {
+        assertThat(SeatmapController.acceptsGzip("gzip, deflate")).isTrue();
+        assertThat(SeatmapController.acceptsGzip("*")).isTrue();
+        assertThat(SeatmapController.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(SeatmapController.acceptsGzip("identity")).isFalse();
+        assertThat(SeatmapController.acceptsGzip(null)).isFalse();
+    }
+
+    private SeatmapBlob sampleBlob() {
+        var content = SVG.getBytes(StandardCharsets.UTF_8);
+        return SeatmapBlob.builder()
+                .hash(SeatmapService.hashOf(content))
+                .contentType(SeatmapService.SEATMAP_SVG_CONTENT_TYPE)
+                .content(content)
+                .gzipContent(SeatmapService.gzip(content))
+                .build();
+    }
+}
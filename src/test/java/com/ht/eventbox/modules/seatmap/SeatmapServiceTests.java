@@ -0,0 +1,122 @@
+package com.ht.eventbox.modules.seatmap;
+
+import com.ht.eventbox.entities.EventShow;
+import com.ht.eventbox.modules.event.EventShowRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SeatmapServiceTests {
+
+    @Mock
+    private SeatmapBlobRepository seatmapBlobRepository;
+
+    @Mock
+    private EventShowRepository eventShowRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SeatmapService seatmapService;
+
+    @BeforeEach
+    void setUp() {
+        seatmapService = new SeatmapService(seatmapBlobRepository, eventShowRepository, transactionManager);
+    }
+
+    @Test
+    void store_shouldKeepContentAndGzipUnderItsHash() throws Exception {
+        var content = "{\"blocks\":[{\"id\":\"A1\"}]}";
+        var bytes = content.getBytes(StandardCharsets.UTF_8);
+
+        var hash = seatmapService.store(content, SeatmapService.SEATMAP_CONTENT_TYPE);
+
+        assertThat(hash).isEqualTo("1880f42344accd1e0772500d684e6509d71dfa15705b7a92c5438d90c64a6957");
+        var gzip = ArgumentCaptor.forClass(byte[].class);
+        verify(seatmapBlobRepository).insertIfAbsent(eq(hash), eq(SeatmapService.SEATMAP_CONTENT_TYPE), eq(bytes), gzip.capture());
+        try (var input = new GZIPInputStream(new ByteArrayInputStream(gzip.getValue()))) {
+            assertThat(input.readAllBytes()).isEqualTo(bytes);
+        }
+    }
+
+    @Test
+    void store_shouldNotRewriteKnownContent() {
+        when(seatmapBlobRepository.existsById(anyString())).thenReturn(true);
+
+        var first = seatmapService.store("<svg/>", SeatmapService.SEATMAP_SVG_CONTENT_TYPE);
+        var second = seatmapService.store("<svg/>", SeatmapService.SEATMAP_SVG_CONTENT_TYPE);
+
+        assertThat(second).isEqualTo(first);
+        verify(seatmapBlobRepository, never()).insertIfAbsent(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    void store_shouldTolerateConcurrentWriterInItsOwnTransaction() {
+        when(seatmapBlobRepository.insertIfAbsent(anyString(), anyString(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint"));
+
+        var hash = seatmapService.store("<svg/>", SeatmapService.SEATMAP_SVG_CONTENT_TYPE);
+
+        assertThat(hash).isEqualTo(SeatmapService.hashOf("<svg/>".getBytes(StandardCharsets.UTF_8)));
+        var definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertThat(definition.getValue().getPropagationBehavior()).isEqualTo(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void attach_shouldReplaceInlineSeatmapsWithHashes() {
+        var show = EventShow.builder().seatmap("old").seatmapSvg("old").build();
+
+        seatmapService.attach(show, "{}", null);
+
+        assertThat(show.getSeatmapHash()).isEqualTo(SeatmapService.hashOf("{}".getBytes(StandardCharsets.UTF_8)));
+        assertThat(show.getSeatmapSvgHash()).isNull();
+        assertThat(show.getSeatmap()).isNull();
+        assertThat(show.getSeatmapSvg()).isNull();
+    }
+
+    @Test
+    void find_shouldIgnoreMalformedHashes() {
+        assertThat(seatmapService.find("../etc/passwd")).isEmpty();
+        assertThat(seatmapService.find(null)).isEmpty();
+
+        verifyNoInteractions(seatmapBlobRepository);
+    }
+
+    @Test
+    void backfill_shouldMoveInlineSeatmapsOfOlderShows() {
+        var show = EventShow.builder().id(1L).seatmap("{}").seatmapSvg("<svg/>").build();
+        when(eventShowRepository.findAllBySeatmapIsNotNullOrSeatmapSvgIsNotNullOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(show));
+
+        seatmapService.backfill();
+
+        assertThat(show.getSeatmap()).isNull();
+        assertThat(show.getSeatmapHash()).isNotNull();
+        assertThat(show.getSeatmapSvgHash()).isNotNull();
+        verify(eventShowRepository).saveAll(List.of(show));
+    }
+}
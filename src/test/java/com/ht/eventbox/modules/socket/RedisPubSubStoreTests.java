@@ -0,0 +1,165 @@
+package com.ht.eventbox.modules.socket;
+
+import com.corundumstudio.socketio.BroadcastOperations;
+import com.corundumstudio.socketio.SocketIONamespace;
+import com.corundumstudio.socketio.SocketIOServer;
+import com.corundumstudio.socketio.protocol.EngineIOVersion;
+import com.corundumstudio.socketio.protocol.Packet;
+import com.corundumstudio.socketio.protocol.PacketType;
+import com.corundumstudio.socketio.store.pubsub.DispatchMessage;
+import com.corundumstudio.socketio.store.pubsub.PubSubType;
+import com.ht.eventbox.entities.Order;
+import com.ht.eventbox.enums.OrderStatus;
+import com.ht.eventbox.modules.backgroundjobs.SocketJobService;
+import com.ht.eventbox.modules.order.OrderRepository;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RedisPubSubStoreTests {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private RedisConnection connection;
+
+    private RedisPubSubStore pubSubStore;
+
+    @BeforeEach
+    void setUp() {
+        pubSubStore = new RedisPubSubStore(redisTemplate, listenerContainer, 1L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publish_shouldSendTheMessageOnTheChannelOfItsType() {
+        pubSubStore.publish(PubSubType.DISPATCH, dispatch("7", Map.of("event_id", 7L)));
+
+        var callback = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(redisTemplate).execute(callback.capture());
+        callback.getValue().doInRedis(connection);
+
+        var body = ArgumentCaptor.forClass(byte[].class);
+        verify(connection).publish(eq("socket_io:dispatch".getBytes(StandardCharsets.UTF_8)), body.capture());
+        var message = (DispatchMessage) RedisPubSubStore.deserialize(body.getValue());
+        assertThat(message.getNodeId()).isEqualTo(1L);
+        assertThat(message.getRoom()).isEqualTo("7");
+        assertThat(message.getNamespace()).isEqualTo("/event");
+        assertThat(message.getPacket().getName()).isEqualTo("stock_updated");
+        assertThat(message.getPacket().<List<Object>>getData()).containsExactly(Map.of("event_id", 7L));
+    }
+
+    @Test
+    void subscribe_shouldOnlyDeliverMessagesOfOtherNodes() {
+        var received = new ArrayList<String>();
+        pubSubStore.subscribe(PubSubType.DISPATCH, message -> received.add(message.getRoom()), DispatchMessage.class);
+
+        var listener = ArgumentCaptor.forClass(MessageListener.class);
+        verify(listenerContainer).addMessageListener(listener.capture(), eq(new ChannelTopic("socket_io:dispatch")));
+
+        listener.getValue().onMessage(message(dispatch("7", Map.of()), 2L), null);
+        listener.getValue().onMessage(message(dispatch("8", Map.of()), 1L), null);
+        listener.getValue().onMessage(new DefaultMessage(new byte[0], "not a message".getBytes()), null);
+
+        assertThat(received).containsExactly("7");
+    }
+
+    @Test
+    void unsubscribe_shouldRemoveTheListenersOfTheType() {
+        pubSubStore.subscribe(PubSubType.JOIN, message -> {
+        }, DispatchMessage.class);
+
+        pubSubStore.unsubscribe(PubSubType.JOIN);
+
+        verify(listenerContainer).removeMessageListener(any(MessageListener.class));
+    }
+
+    @Test
+    void deserialize_shouldRejectClassesOutsideTheLibraryAndJdk() {
+        var body = RedisPubSubStore.serialize(dispatch("7", new Payload()));
+
+        assertThatThrownBy(() -> RedisPubSubStore.deserialize(body)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void deserialize_shouldReadBackTheOrderPayloads() {
+        var server = mock(SocketIOServer.class);
+        var namespace = mock(SocketIONamespace.class);
+        var room = mock(BroadcastOperations.class);
+        var orderRepository = mock(OrderRepository.class);
+        when(server.getNamespace("/order")).thenReturn(namespace);
+        when(namespace.getRoomOperations("500")).thenReturn(room);
+        when(orderRepository.findById(500L)).thenReturn(Optional.of(Order.builder()
+                .id(500L)
+                .status(OrderStatus.FULFILLED)
+                .placeTotal(100000.0)
+                .build()));
+        var socketJobService = new SocketJobService(null, server, orderRepository, null, null, null);
+
+        socketJobService.broadcastOrderApproved(500L);
+        socketJobService.broadcastOrderFulfilled(500L);
+        socketJobService.broadcastOrderRefunded(500L);
+
+        var payload = ArgumentCaptor.forClass(Object.class);
+        verify(room, times(3)).sendEvent(anyString(), payload.capture());
+        for (var data : payload.getAllValues()) {
+            var body = RedisPubSubStore.serialize(dispatch("500", data));
+
+            var message = (DispatchMessage) RedisPubSubStore.deserialize(body);
+
+            assertThat(message.getPacket().<List<Object>>getData()).containsExactly(data);
+            assertThat(data).asInstanceOf(InstanceOfAssertFactories.MAP).containsEntry("status", "FULFILLED");
+        }
+    }
+
+    private static DispatchMessage dispatch(String room, Object data) {
+        var packet = new Packet(PacketType.MESSAGE, EngineIOVersion.UNKNOWN);
+        packet.setSubType(PacketType.EVENT);
+        packet.setName("stock_updated");
+        packet.setData(Arrays.asList(data));
+        return new DispatchMessage(room, packet, "/event");
+    }
+
+    private static DefaultMessage message(DispatchMessage dispatchMessage, Long nodeId) {
+        dispatchMessage.setNodeId(nodeId);
+        return new DefaultMessage("socket_io:dispatch".getBytes(StandardCharsets.UTF_8),
+                RedisPubSubStore.serialize(dispatchMessage));
+    }
+
+    private static class Payload implements Serializable {
+    }
+}
@@ -15,8 +15,11 @@ import com.ht.eventbox.entities.User;
 import com.ht.eventbox.enums.AssetUsage;
 import com.ht.eventbox.enums.FeedbackSentimentType;
 import com.ht.eventbox.enums.OrderStatus;
+import com.ht.eventbox.modules.inventory.SeatInventoryService;
+import com.ht.eventbox.modules.inventory.TicketInventoryService;
 import com.ht.eventbox.modules.ticket.dtos.FeedbackTicketItemDto;
 import com.ht.eventbox.modules.ticket.dtos.GiveawayTicketItemDto;
+import com.ht.eventbox.modules.ticket.dtos.UpdateStockShardsDto;
 import com.ht.eventbox.modules.ticket.dtos.ValidateTicketItemDto;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,6 +36,7 @@ import java.security.PublicKey;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -41,6 +45,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -63,6 +68,12 @@ class TicketControllerTests {
     @MockBean
     private TicketService ticketService;
 
+    @MockBean
+    private TicketInventoryService ticketInventoryService;
+
+    @MockBean
+    private SeatInventoryService seatInventoryService;
+
     @MockBean
     private com.ht.eventbox.filter.JwtService jwtService;
 
@@ -223,6 +234,36 @@ class TicketControllerTests {
                 .andExpect(jsonPath("$.data").value(true));
     }
 
+    @Test
+    void updateStockShards_shouldReturnUpdatedTicket() throws Exception {
+        when(ticketInventoryService.setStockShards(100L, 8))
+                .thenReturn(Ticket.builder().id(100L).name("GA").stock(20000).stockShards(8).build());
+
+        mockMvc.perform(put("/api/v1/tickets/100/stock-shards")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(UpdateStockShardsDto.builder().shards(8).build())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value(Constant.SuccessCode.UPDATE_SUCCESSFULLY))
+                .andExpect(jsonPath("$.data.stock_shards").value(8));
+    }
+
+    @Test
+    void updateStockShards_shouldRejectTooManyShards() throws Exception {
+        mockMvc.perform(put("/api/v1/tickets/100/stock-shards")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(UpdateStockShardsDto.builder().shards(65).build())))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getSeatStates_shouldReturnEncodedBlocks() throws Exception {
+        when(seatInventoryService.getSeatStates(200L)).thenReturn(Map.of(100L, "QA=="));
+
+        mockMvc.perform(get("/api/v1/tickets/shows/200/seats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.100").value("QA=="));
+    }
+
     private TicketService.TicketItemDetails sampleTicketItemDetails(Long id) {
         return new TicketService.TicketItemDetails() {
             @Override public Long getId() { return id; }
@@ -198,6 +198,24 @@ class TicketServiceTests {
                 });
     }
 
+    @Test
+    void validateTicketItem_shouldRejectAdmissionToken() {
+        when(jwtService.isTokenValid("admission-token", "qr-secret")).thenReturn(true);
+        when(jwtService.extractType("admission-token", "qr-secret")).thenReturn("admission");
+
+        assertThatThrownBy(() -> ticketService.validateTicketItem(42L, ValidateTicketItemDto.builder()
+                        .token("admission-token")
+                        .eventShowId(77L)
+                        .build()))
+                .isInstanceOf(HttpException.class)
+                .satisfies(throwable -> {
+                    var ex = (HttpException) throwable;
+                    assertThat(ex.getMessage()).isEqualTo(Constant.ErrorCode.TICKET_ITEM_INVALID);
+                    assertThat(ex.getStatus().value()).isEqualTo(400);
+                });
+        verifyNoInteractions(ticketItemRepository);
+    }
+
     @Test
     void validateTicketItem_shouldRejectNonMember() {
         when(jwtService.isTokenValid("token", "qr-secret")).thenReturn(true);
@@ -0,0 +1,108 @@
+package com.ht.eventbox.modules.waitingroom;
+
+import com.ht.eventbox.modules.redis.RedisService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdmissionRateControllerTests {
+
+    private RedisService redisService;
+    private final Map<String, String> values = new HashMap<>();
+    private long latencySum;
+    private long latencyCount;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // Giả lập cửa sổ độ trễ và tốc độ dùng chung trên Redis
+        redisService = mock(RedisService.class);
+        var recordScript = ReflectionTestUtils.getField(AdmissionRateController.class, "RECORD_SCRIPT");
+        when(redisService.executeScript(any(RedisScript.class), anyList(), any(String[].class))).thenAnswer(invocation -> {
+            if (invocation.getArgument(0) == recordScript) {
+                latencySum += Long.parseLong(invocation.getArgument(2));
+                return ++latencyCount;
+            }
+            var window = List.of(latencySum, latencyCount);
+            latencySum = 0;
+            latencyCount = 0;
+            return window;
+        });
+        when(redisService.getValue(anyString())).thenAnswer(invocation -> values.get(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> values.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(redisService).setValue(anyString(), anyString(), anyLong());
+    }
+
+    @Test
+    void nextAdmissions_shouldHoldRateUntilLatencyIsMeasured() {
+        var controller = new AdmissionRateController(redisService, 50, 5, 500, 5, 300);
+
+        assertThat(controller.nextAdmissions()).isEqualTo(50);
+        assertThat(controller.nextAdmissions()).isEqualTo(50);
+    }
+
+    @Test
+    void nextAdmissions_shouldGrowWhileLatencyIsUnderTarget() {
+        var controller = new AdmissionRateController(redisService, 50, 5, 60, 5, 300);
+
+        controller.recordLatency(120);
+        assertThat(controller.nextAdmissions()).isEqualTo(55);
+        controller.recordLatency(120);
+        assertThat(controller.nextAdmissions()).isEqualTo(60);
+        controller.recordLatency(120);
+        assertThat(controller.nextAdmissions()).isEqualTo(60);
+    }
+
+    @Test
+    void nextAdmissions_shouldBackOffWhenLatencyExceedsTarget() {
+        var controller = new AdmissionRateController(redisService, 40, 20, 500, 5, 300);
+
+        controller.recordLatency(900);
+        assertThat(controller.nextAdmissions()).isEqualTo(30);
+        controller.recordLatency(900);
+        assertThat(controller.nextAdmissions()).isEqualTo(22);
+        controller.recordLatency(900);
+        assertThat(controller.nextAdmissions()).isEqualTo(20);
+    }
+
+    @Test
+    void nextAdmissions_shouldOnlyLookAtLatencyOfTheLastTick() {
+        var controller = new AdmissionRateController(redisService, 40, 20, 500, 5, 300);
+
+        controller.recordLatency(5000);
+        assertThat(controller.nextAdmissions()).isEqualTo(30);
+
+        controller.recordLatency(100);
+        assertThat(controller.nextAdmissions()).isEqualTo(35);
+        assertThat(controller.getAverageLatencyMillis()).isEqualTo(100);
+    }
+
+    @Test
+    void nextAdmissions_shouldAggregateLatencyAndRateAcrossNodes() {
+        var ticking = new AdmissionRateController(redisService, 40, 20, 500, 5, 300);
+        var other = new AdmissionRateController(redisService, 40, 20, 500, 5, 300);
+
+        ticking.recordLatency(100);
+        other.recordLatency(700);
+        assertThat(ticking.nextAdmissions()).isEqualTo(30);
+        assertThat(ticking.getAverageLatencyMillis()).isEqualTo(400);
+
+        // Tick sau chạy trên node khác vẫn tiếp tục từ tốc độ đã lưu
+        other.recordLatency(100);
+        assertThat(other.nextAdmissions()).isEqualTo(35);
+    }
+}
@@ -0,0 +1,161 @@
+package com.ht.eventbox.modules.waitingroom;
+
+import com.ht.eventbox.config.HttpException;
+import com.ht.eventbox.constant.Constant;
+import com.ht.eventbox.entities.Event;
+import com.ht.eventbox.entities.EventShow;
+import com.ht.eventbox.entities.Ticket;
+import com.ht.eventbox.filter.JwtService;
+import com.ht.eventbox.modules.backgroundjobs.SocketJobService;
+import com.ht.eventbox.modules.event.EventShowRepository;
+import com.ht.eventbox.modules.redis.RedisService;
+import com.ht.eventbox.modules.ticket.TicketRepository;
+import io.jsonwebtoken.ExpiredJwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WaitingRoomServiceTests {
+
+    @Mock
+    private RedisService redisService;
+
+    @Mock
+    private EventShowRepository eventShowRepository;
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private SocketJobService socketJobService;
+
+    @Mock
+    private AdmissionRateController admissionRateController;
+
+    @InjectMocks
+    private WaitingRoomService waitingRoomService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(waitingRoomService, "enabled", true);
+        ReflectionTestUtils.setField(waitingRoomService, "openBeforeMinutes", 15L);
+        ReflectionTestUtils.setField(waitingRoomService, "durationMinutes", 30L);
+    }
+
+    @Test
+    void join_shouldAdmitImmediatelyOutsideGatedWindow() {
+        var show = sampleShow(LocalDateTime.now().minusHours(2));
+        when(eventShowRepository.findById(9L)).thenReturn(Optional.of(show));
+        when(jwtService.generateAdmissionToken(42L, 9L)).thenReturn("token");
+
+        var status = waitingRoomService.join(42L, 9L);
+
+        assertThat(status.isAdmitted()).isTrue();
+        assertThat(status.getAdmissionToken()).isEqualTo("token");
+        verifyNoInteractions(redisService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void join_shouldQueueBuyerWhileSaleIsOpening() {
+        var show = sampleShow(LocalDateTime.now().plusMinutes(5));
+        when(eventShowRepository.findById(9L)).thenReturn(Optional.of(show));
+        when(redisService.executeScript(
+                any(RedisScript.class),
+                eq(List.of("waiting_room:show_id:9", "waiting_room_sequence:show_id:9", "waiting_room_active")),
+                eq("42"), eq("7:9"), anyString(), anyString()))
+                .thenReturn(130L);
+        when(redisService.getValue("waiting_room_cursor:show_id:9")).thenReturn("100");
+
+        var status = waitingRoomService.join(42L, 9L);
+
+        assertThat(status.isAdmitted()).isFalse();
+        assertThat(status.getQueueNumber()).isEqualTo(130L);
+        assertThat(status.getPosition()).isEqualTo(30L);
+        assertThat(status.getAdmissionToken()).isNull();
+        verify(jwtService, never()).generateAdmissionToken(anyLong(), anyLong());
+    }
+
+    @Test
+    void checkAdmission_shouldRejectGatedShowWithoutValidToken() {
+        var ticket = Ticket.builder().id(100L).eventShow(sampleShow(LocalDateTime.now().minusMinutes(1))).build();
+        when(ticketRepository.findAllById(List.of(100L))).thenReturn(List.of(ticket));
+        when(jwtService.isAdmissionTokenValid("expired", 42L, 9L))
+                .thenThrow(new ExpiredJwtException(null, null, "expired"));
+
+        assertThatThrownBy(() -> waitingRoomService.checkAdmission(42L, List.of(100L), "expired"))
+                .isInstanceOf(HttpException.class)
+                .hasMessage(Constant.ErrorCode.WAITING_ROOM_ADMISSION_REQUIRED);
+    }
+
+    @Test
+    void checkAdmission_shouldSkipWhenDisabled() {
+        ReflectionTestUtils.setField(waitingRoomService, "enabled", false);
+
+        waitingRoomService.checkAdmission(42L, List.of(100L), null);
+
+        verifyNoInteractions(ticketRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void advance_shouldMoveCursorAndBroadcastPosition() {
+        when(redisService.setValueIfAbsent("waiting_room_tick", "1", 1)).thenReturn(true);
+        when(redisService.getSortedSetMembers("waiting_room_active"))
+                .thenReturn(new LinkedHashSet<>(List.of("7:9", "7:10")));
+        when(admissionRateController.nextAdmissions()).thenReturn(50);
+        when(redisService.executeScript(any(RedisScript.class), anyList(), eq("25"), anyString()))
+                .thenReturn(List.of(125L, 300L));
+
+        assertThat(waitingRoomService.advance()).isEqualTo(2);
+
+        verify(redisService).removeFromSortedSetByScore(eq("waiting_room_active"), eq(Double.NEGATIVE_INFINITY), anyDouble());
+        verify(socketJobService).broadcastWaitingRoomUpdated(7L, 9L, 125L, 300L);
+        verify(socketJobService).broadcastWaitingRoomUpdated(7L, 10L, 125L, 300L);
+    }
+
+    @Test
+    void advance_shouldSkipWhenAnotherInstanceTicked() {
+        when(redisService.setValueIfAbsent("waiting_room_tick", "1", 1)).thenReturn(false);
+
+        assertThat(waitingRoomService.advance()).isZero();
+
+        verifyNoInteractions(admissionRateController, socketJobService);
+    }
+
+    private EventShow sampleShow(LocalDateTime saleStartTime) {
+        return EventShow.builder()
+                .id(9L)
+                .event(Event.builder().id(7L).build())
+                .saleStartTime(saleStartTime)
+                .saleEndTime(saleStartTime.plusDays(1))
+                .build();
+    }
+}